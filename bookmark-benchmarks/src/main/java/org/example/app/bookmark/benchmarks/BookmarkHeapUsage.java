@@ -0,0 +1,188 @@
+package org.example.app.bookmark.benchmarks;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.bookmarkmanager.IBookmarkStore;
+import org.example.app.bookmark.bookmarkmanager.MemoryBookmarkStore;
+import org.example.app.bookmark.bookmarkmanager.OffHeapBookmarkStore;
+import org.example.app.bookmark.config.StorageEngine;
+import org.example.app.bookmark.persistence.IJournal;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the heap retained by a bookmark storage engine holding a synthetic dataset.
+ * Arguments are given as {@code key=value}: {@code engine} ({@code memory} or {@code off_heap}), {@code users},
+ * {@code bookmarksPerUser} and {@code distribution}. Every other bookmark is public. With the {@code distinct}
+ * distribution every location is distinct, with the {@code zipf} distribution the bookmarks point to {@code links}
+ * popular links picked with a Zipf distribution of the given {@code exponent}, so the most popular links are
+ * bookmarked by many users.
+ * Heap and direct memory are reported after a full collection, before and after the dataset is added.
+ * Run every engine in its own JVM with a heap large enough for the in-memory engine, for example
+ * {@code -Xmx8g -XX:MaxDirectMemorySize=8g}.
+ */
+public final class BookmarkHeapUsage {
+
+    /**
+     * Default number of users.
+     */
+    private static final String DEFAULT_USERS = "10000";
+
+    /**
+     * Default number of bookmarks of each user.
+     */
+    private static final String DEFAULT_BOOKMARKS_PER_USER = "100";
+
+    /**
+     * Default number of popular links of the Zipf distribution.
+     */
+    private static final String DEFAULT_LINKS = "100000";
+
+    /**
+     * Default exponent of the Zipf distribution.
+     */
+    private static final String DEFAULT_EXPONENT = "1.0";
+
+    /**
+     * Seed of the random link picks, so every run uses the same dataset.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Number of full collections requested before measuring.
+     */
+    private static final int COLLECTIONS = 5;
+
+    /**
+     * Bytes per mebibyte.
+     */
+    private static final double MEBIBYTE = 1024 * 1024;
+
+    /**
+     * Private constructor that prevents the default constructor from being created.
+     */
+    private BookmarkHeapUsage() {
+    }
+
+    /**
+     * Fill a storage engine and print the retained heap and direct memory.
+     *
+     * @param args options as key=value pairs.
+     * @throws InterruptedException if interrupted while waiting for a collection.
+     */
+    public static void main(final String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+        StorageEngine engine = StorageEngine.valueOf(options.getOrDefault("engine", "memory")
+                .toUpperCase(Locale.ROOT));
+        int users = Integer.parseInt(options.getOrDefault("users", DEFAULT_USERS));
+        int bookmarksPerUser = Integer.parseInt(options.getOrDefault("bookmarksPerUser", DEFAULT_BOOKMARKS_PER_USER));
+        boolean zipf = "zipf".equals(options.getOrDefault("distribution", "distinct"));
+        double[] linkDistribution = zipfDistribution(Integer.parseInt(options.getOrDefault("links", DEFAULT_LINKS)),
+                Double.parseDouble(options.getOrDefault("exponent", DEFAULT_EXPONENT)));
+        Random random = new Random(SEED);
+
+        long heapBefore = usedHeap();
+        long directBefore = usedDirectMemory();
+        IBookmarkStore store = engine == StorageEngine.OFF_HEAP
+                ? new OffHeapBookmarkStore(IJournal.NONE) : new MemoryBookmarkStore(IJournal.NONE);
+        for (int user = 0; user < users; user++) {
+            for (int bookmark = 0; bookmark < bookmarksPerUser; bookmark++) {
+                boolean added;
+                do {
+                    String name;
+                    URI uri;
+                    if (zipf) {
+                        int link = pick(linkDistribution, random);
+                        name = "link" + link;
+                        uri = URI.create("https://example.org/articles/" + link + "/" + name);
+                    } else {
+                        name = "bookmark" + bookmark;
+                        uri = URI.create("https://example.org/users/" + user + "/bookmarks/" + name);
+                    }
+                    added = store.add("user" + user, new Bookmark(new BookmarkLink(uri, name), bookmark % 2 != 0));
+                } while (!added);
+            }
+        }
+        long heapAfter = usedHeap();
+        long directAfter = usedDirectMemory();
+
+        System.out.printf(Locale.ROOT, "engine=%s distribution=%s bookmarks=%d bookmarkCount=%d%n", engine,
+                zipf ? "zipf" : "distinct", (long) users * bookmarksPerUser, store.getBookmarkCount());
+        System.out.printf(Locale.ROOT, "heap before=%.1f MiB after=%.1f MiB retained=%.1f MiB%n",
+                heapBefore / MEBIBYTE, heapAfter / MEBIBYTE, (heapAfter - heapBefore) / MEBIBYTE);
+        System.out.printf(Locale.ROOT, "direct before=%.1f MiB after=%.1f MiB retained=%.1f MiB%n",
+                directBefore / MEBIBYTE, directAfter / MEBIBYTE, (directAfter - directBefore) / MEBIBYTE);
+    }
+
+    /**
+     * Create the cumulative Zipf distribution of link picks.
+     *
+     * @param links    number of links.
+     * @param exponent of the distribution.
+     * @return cumulative probability of picking each link or a more popular one.
+     */
+    private static double[] zipfDistribution(final int links, final double exponent) {
+        double[] cumulative = new double[links];
+        double sum = 0;
+        for (int link = 0; link < links; link++) {
+            sum += 1 / Math.pow(link + 1, exponent);
+            cumulative[link] = sum;
+        }
+        for (int link = 0; link < links; link++) {
+            cumulative[link] /= sum;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Pick a link from a cumulative distribution.
+     *
+     * @param cumulative distribution of the link picks.
+     * @param random     source of the pick.
+     * @return index of the picked link.
+     */
+    private static int pick(final double[] cumulative, final Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Get the used heap after full collections.
+     *
+     * @return used heap bytes.
+     * @throws InterruptedException if interrupted while waiting for a collection.
+     */
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < COLLECTIONS; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Get the memory used by direct buffers.
+     *
+     * @return used direct memory bytes.
+     */
+    private static long usedDirectMemory() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.app.bookmark.benchmarks;
+
+import org.example.app.bookmark.bookmarkmanager.BookmarkManager;
+import org.example.app.bookmark.bookmarkmanager.BookmarkStatus;
+import org.example.app.bookmark.bookmarkmanager.IBookmarkManager;
+import org.example.app.bookmark.javajws.IJavaJws;
+import org.example.app.bookmark.javajws.JavaJws;
+import org.example.app.bookmark_api.model.Bookmark;
+import org.example.app.bookmark_api.model.BookmarkAccess;
+import org.example.app.bookmark_api.model.BookmarkLink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks of the bookmark manager operations used by the bookmark REST handlers.
+ * Every request is made by a randomly chosen logged-in user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookmarkManagerBenchmark {
+
+    /**
+     * Number of logged-in users.
+     */
+    @Param({"10", "1000"})
+    private int userCount;
+
+    /**
+     * Number of bookmarks owned by each user. Every other bookmark is public.
+     */
+    @Param({"10", "100"})
+    private int bookmarksPerUser;
+
+    /**
+     * Benchmarked bookmark manager.
+     */
+    private IBookmarkManager bookmarkManager;
+
+    /**
+     * Authorization tokens of the users.
+     */
+    private String[] tokens;
+
+    /**
+     * Create the users and their bookmarks.
+     */
+    @Setup
+    public void setUp() {
+        IJavaJws javaJws = JavaJws.getInstance();
+        this.bookmarkManager = BookmarkManager.getInstance(javaJws);
+        this.tokens = new String[this.userCount];
+        for (int user = 0; user < this.userCount; user++) {
+            this.tokens[user] = javaJws.createJws("user" + user).getValue();
+            for (int bookmark = 0; bookmark < this.bookmarksPerUser; bookmark++) {
+                this.bookmarkManager.addBookmark(createBookmark("user" + user + "-bookmark" + bookmark,
+                        bookmark % 2 == 0 ? BookmarkAccess.PUBLIC : BookmarkAccess.PRIVATE), this.tokens[user]);
+            }
+        }
+    }
+
+    /**
+     * Get all bookmarks of a user.
+     *
+     * @return bookmarks of the user.
+     */
+    @Benchmark
+    public Map.Entry<BookmarkStatus, List<Bookmark>> getBookmarks() {
+        return this.bookmarkManager.getBookmarks(this.randomToken());
+    }
+
+    /**
+     * Get all public bookmarks.
+     *
+     * @return public bookmarks.
+     */
+    @Benchmark
+    public Map.Entry<BookmarkStatus, Set<BookmarkLink>> getPublicBookmarks() {
+        return this.bookmarkManager.getPublicBookmarks(this.randomToken());
+    }
+
+    /**
+     * Add a public bookmark and delete it again, so that the bookmark count stays the same.
+     *
+     * @param names source of unique bookmark names for the thread.
+     * @return status of the deletion.
+     */
+    @Benchmark
+    public BookmarkStatus addAndDeleteBookmark(final BookmarkNames names) {
+        String token = this.randomToken();
+        String name = names.next();
+        this.bookmarkManager.addBookmark(createBookmark(name, BookmarkAccess.PUBLIC), token);
+        return this.bookmarkManager.deleteBookmark(name, token);
+    }
+
+    /**
+     * Pick the token of a random user.
+     *
+     * @return authorization token.
+     */
+    private String randomToken() {
+        return this.tokens[ThreadLocalRandom.current().nextInt(this.tokens.length)];
+    }
+
+    /**
+     * Create an api model bookmark.
+     *
+     * @param name   of the bookmark.
+     * @param access of the bookmark.
+     * @return api model bookmark.
+     */
+    private static Bookmark createBookmark(final String name, final BookmarkAccess access) {
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName(name);
+        bookmarkLink.setUri(URI.create("http://example.org/" + name));
+        Bookmark bookmark = new Bookmark();
+        bookmark.setBookmarkLink(bookmarkLink);
+        bookmark.setAccess(access);
+        return bookmark;
+    }
+
+    /**
+     * Unique bookmark names for a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class BookmarkNames {
+
+        /**
+         * Source of unique thread prefixes.
+         */
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        /**
+         * Prefix of the names created by the thread.
+         */
+        private final String prefix = "thread" + THREADS.incrementAndGet() + "-";
+
+        /**
+         * Number of names created by the thread.
+         */
+        private long counter;
+
+        /**
+         * Create the next unique name.
+         *
+         * @return bookmark name.
+         */
+        String next() {
+            return this.prefix + this.counter++;
+        }
+    }
+}
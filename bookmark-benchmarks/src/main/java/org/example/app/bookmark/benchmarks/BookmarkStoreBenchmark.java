@@ -0,0 +1,116 @@
+package org.example.app.bookmark.benchmarks;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.bookmarkmanager.IBookmarkStore;
+import org.example.app.bookmark.bookmarkmanager.MemoryBookmarkStore;
+import org.example.app.bookmark.bookmarkmanager.ShardedBookmarkStore;
+import org.example.app.bookmark.persistence.IJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of bookmark modifications in the heap storage engines, run with increasing thread counts
+ * (e.g. {@code -t 1}, {@code -t 4}) to compare how the write throughput of the engines scales with the cores.
+ * Every modification is made for a randomly chosen user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookmarkStoreBenchmark {
+
+    /**
+     * Storage engine, {@code memory} or {@code sharded} with one shard per available processor.
+     */
+    @Param({"memory", "sharded"})
+    private String engine;
+
+    /**
+     * Number of users owning bookmarks.
+     */
+    @Param({"1000"})
+    private int userCount;
+
+    /**
+     * Number of bookmarks owned by each user. Every other bookmark is public.
+     */
+    @Param({"100"})
+    private int bookmarksPerUser;
+
+    /**
+     * Benchmarked storage engine.
+     */
+    private IBookmarkStore store;
+
+    /**
+     * Create the storage engine and the bookmarks of the users.
+     *
+     * @throws IOException if the storage engine cannot be opened.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        this.store = "sharded".equals(this.engine)
+                ? new ShardedBookmarkStore(IJournal.NONE, Runtime.getRuntime().availableProcessors())
+                : new MemoryBookmarkStore(IJournal.NONE);
+        this.store.open();
+        for (int user = 0; user < this.userCount; user++) {
+            String name = "user" + user;
+            for (int bookmark = 0; bookmark < this.bookmarksPerUser; bookmark++) {
+                this.store.add(name, createBookmark(name + "-bookmark" + bookmark, bookmark % 2 != 0));
+            }
+        }
+    }
+
+    /**
+     * Stop the storage engine.
+     *
+     * @throws InterruptedException if interrupted while stopping the engine.
+     */
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        this.store.close();
+    }
+
+    /**
+     * Add a public bookmark and remove it again, so that the bookmark count stays the same.
+     *
+     * @param names source of unique bookmark names for the thread.
+     * @return true if the bookmark was removed.
+     */
+    @Benchmark
+    public boolean addAndRemoveBookmark(final BookmarkManagerBenchmark.BookmarkNames names) {
+        String user = "user" + ThreadLocalRandom.current().nextInt(this.userCount);
+        String name = names.next();
+        this.store.add(user, createBookmark(name, false));
+        return this.store.remove(user, name);
+    }
+
+    /**
+     * Create a bookmark.
+     *
+     * @param name      of the bookmark.
+     * @param isPrivate access of the bookmark.
+     * @return bookmark.
+     */
+    private static Bookmark createBookmark(final String name, final boolean isPrivate) {
+        return new Bookmark(new BookmarkLink(URI.create("http://example.org/" + name), name), isPrivate);
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.app.bookmark.benchmarks;
+
+import org.example.app.bookmark.javajws.IJavaJws;
+import org.example.app.bookmark.javajws.JavaJws;
+import org.example.app.bookmark.javajws.JwsStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks of the jws session operations. Authorization runs on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavaJwsBenchmark {
+
+    /**
+     * Number of logged-in users.
+     */
+    @Param({"10", "1000"})
+    private int userCount;
+
+    /**
+     * Benchmarked jws manager.
+     */
+    private IJavaJws javaJws;
+
+    /**
+     * Authorization tokens of the users.
+     */
+    private String[] tokens;
+
+    /**
+     * Create the user sessions.
+     */
+    @Setup
+    public void setUp() {
+        this.javaJws = JavaJws.getInstance();
+        this.tokens = new String[this.userCount];
+        for (int user = 0; user < this.userCount; user++) {
+            this.tokens[user] = this.javaJws.createJws("user" + user).getValue();
+        }
+    }
+
+    /**
+     * Authorize a random user.
+     *
+     * @return username of the authorized user.
+     */
+    @Benchmark
+    public String authorizeUser() {
+        return this.javaJws.authorizeUser(this.tokens[ThreadLocalRandom.current().nextInt(this.tokens.length)]);
+    }
+
+    /**
+     * Create a session and abolish it again, so that the next call creates a new session.
+     *
+     * @param user of the thread.
+     * @return status of the abolishment.
+     */
+    @Benchmark
+    public JwsStatus createAndAbolishJws(final ThreadUser user) {
+        String token = this.javaJws.createJws(user.name).getValue();
+        return this.javaJws.abolishJws(user.name, token);
+    }
+
+    /**
+     * User owned by a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadUser {
+
+        /**
+         * Source of unique thread usernames.
+         */
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        /**
+         * Username of the thread.
+         */
+        private final String name = "thread" + THREADS.incrementAndGet();
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.app.bookmark.benchmarks;
+
+import org.example.app.bookmark.user.User;
+import org.example.app.bookmark_api.model.UserData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the password check of the login path before and after the padded string comparison was replaced by the
+ * constant-time hash comparison. Both checks hash the provided password, so only the comparison differs.
+ * Run with the GC profiler to see the allocation rate:
+ * {@code java -jar bookmark-benchmarks/target/bookmark-benchmarks-1.0-SNAPSHOT.jar PasswordComparison -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordComparisonBenchmark {
+
+    /**
+     * Password of the user.
+     */
+    private static final String PASSWORD = "password";
+
+    /**
+     * Algorithm the user hashes the password with.
+     */
+    private static final String HASH_ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    /**
+     * Number of hash iterations of the user.
+     */
+    private static final int HASH_ITERATIONS = 10000;
+
+    /**
+     * Length of the password hash of the user in bits.
+     */
+    private static final int HASH_LENGTH = 256;
+
+    /**
+     * Password provided at login.
+     */
+    @Param({PASSWORD, "wrong password"})
+    private String providedPassword;
+
+    /**
+     * User logging in.
+     */
+    private User user;
+
+    /**
+     * Create the user.
+     */
+    @Setup
+    public void setUp() {
+        UserData userData = new UserData();
+        userData.setName("user");
+        userData.setPassword(PASSWORD);
+        this.user = new User(userData);
+    }
+
+    /**
+     * Previous password check, which padded both Base64 encoded hashes before comparing them.
+     *
+     * @return true if the password matches.
+     */
+    @Benchmark
+    public boolean paddedCheckPassword() {
+        String providedHash = Base64.getEncoder().encodeToString(hashPassword(this.providedPassword,
+                this.user.getSalt()));
+        return paddedEquals(providedHash, Base64.getEncoder().encodeToString(this.user.getPasswordHash()));
+    }
+
+    /**
+     * Current password check, comparing the hashes in constant time.
+     *
+     * @return true if the password matches.
+     */
+    @Benchmark
+    public boolean checkPassword() {
+        return this.user.checkPassword(this.providedPassword);
+    }
+
+    /**
+     * Hash the password the way the user does.
+     *
+     * @param password to hash.
+     * @param salt     of the user.
+     * @return salted hash of the password.
+     */
+    private static byte[] hashPassword(final String password, final byte[] salt) {
+        PBEKeySpec keySpec = new PBEKeySpec(password.toCharArray(), salt, HASH_ITERATIONS, HASH_LENGTH);
+        try {
+            return SecretKeyFactory.getInstance(HASH_ALGORITHM).generateSecret(keySpec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Password hashing is not available", e);
+        } finally {
+            keySpec.clearPassword();
+        }
+    }
+
+    /**
+     * Previous password comparison, kept as the benchmark baseline.
+     *
+     * @param providedPassword provided password.
+     * @param userPassword     stored password.
+     * @return true if the passwords are equal, false otherwise.
+     */
+    private static boolean paddedEquals(final String providedPassword, final String userPassword) {
+        String paddedProvided = pad(providedPassword);
+        String paddedUser = pad(userPassword);
+        boolean equal = true;
+        for (int i = 0; i < User.MAXIMUM_PASSWORD_LENGTH; i++) {
+            if (paddedProvided.charAt(i) != paddedUser.charAt(i)) {
+                equal = false;
+            }
+        }
+        return equal;
+    }
+
+    /**
+     * Pad the string to the maximum password length, one character at a time.
+     *
+     * @param password to pad.
+     * @return padded string.
+     */
+    private static String pad(final String password) {
+        String padded = password;
+        while (padded.length() < User.MAXIMUM_PASSWORD_LENGTH) {
+            padded = padded.concat("A");
+        }
+        return padded;
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.app.bookmark.benchmarks;
+
+import org.example.app.bookmark.javajws.JavaJws;
+import org.example.app.bookmark.usermanager.IUserManager;
+import org.example.app.bookmark.usermanager.UserManager;
+import org.example.app.bookmark.usermanager.UserStatus;
+import org.example.app.bookmark_api.model.UserData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks of the user manager operations. Both operations hash the password, which dominates their cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserManagerBenchmark {
+
+    /**
+     * Password of all users.
+     */
+    private static final String PASSWORD = "password";
+
+    /**
+     * Number of registered users.
+     */
+    @Param({"10", "1000"})
+    private int userCount;
+
+    /**
+     * Benchmarked user manager.
+     */
+    private IUserManager userManager;
+
+    /**
+     * Register the users.
+     */
+    @Setup
+    public void setUp() {
+        this.userManager = UserManager.getInstance(JavaJws.getInstance());
+        for (int user = 0; user < this.userCount; user++) {
+            this.userManager.registerUser(createUserData("user" + user));
+        }
+    }
+
+    /**
+     * Register a new user.
+     *
+     * @param users source of unique usernames for the thread.
+     * @return status of the registration.
+     */
+    @Benchmark
+    public UserStatus registerUser(final ThreadUser users) {
+        return this.userManager.registerUser(createUserData(users.nextName()));
+    }
+
+    /**
+     * Log in a user and log it out again, so that the next login creates a new session.
+     *
+     * @param user registered user of the thread.
+     * @return status of the logout.
+     */
+    @Benchmark
+    public UserStatus loginAndLogoutUser(final ThreadUser user) {
+        if (user.userData == null) {
+            user.userData = createUserData(user.nextName());
+            this.userManager.registerUser(user.userData);
+        }
+        Map.Entry<UserStatus, String> login = this.userManager.loginUser(user.userData);
+        return this.userManager.logoutUser(user.userData.getName(), login.getValue());
+    }
+
+    /**
+     * Create user data with the benchmark password.
+     *
+     * @param name of the user.
+     * @return user data.
+     */
+    private static UserData createUserData(final String name) {
+        UserData userData = new UserData();
+        userData.setName(name);
+        userData.setPassword(PASSWORD);
+        return userData;
+    }
+
+    /**
+     * Unique usernames for a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadUser {
+
+        /**
+         * Source of unique thread prefixes.
+         */
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        /**
+         * Prefix of the names created by the thread.
+         */
+        private final String prefix = "thread" + THREADS.incrementAndGet() + "-";
+
+        /**
+         * Number of names created by the thread.
+         */
+        private long counter;
+
+        /**
+         * User that is logged in and out by the thread.
+         */
+        private UserData userData;
+
+        /**
+         * Create the next unique username.
+         *
+         * @return username.
+         */
+        String nextName() {
+            return this.prefix + this.counter++;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package org.example.app.bookmark.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Simulated user that registers, logs in and then sends a random mix of requests until it is stopped.
+ */
+class LoadClient implements Runnable {
+
+    /**
+     * Password of all simulated users.
+     */
+    private static final String PASSWORD = "load-test-password";
+
+    /**
+     * Format of a jws token in the login response.
+     */
+    private static final Pattern TOKEN = Pattern.compile("[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+");
+
+    /**
+     * Status codes up to this value are successful.
+     */
+    private static final int LAST_SUCCESS_STATUS = 299;
+
+    /**
+     * Shared HTTP client.
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * Root URI of the REST API.
+     */
+    private final String rootUri;
+
+    /**
+     * Collects the results.
+     */
+    private final LoadStatistics statistics;
+
+    /**
+     * Name of the simulated user.
+     */
+    private final String userName;
+
+    /**
+     * Names of the bookmarks the user created.
+     */
+    private final List<String> bookmarkNames;
+
+    /**
+     * Authorization token of the user.
+     */
+    private String token;
+
+    /**
+     * Number of names created by the client.
+     */
+    private long counter;
+
+    /**
+     * Flag signaling the client to stop.
+     */
+    private volatile boolean running;
+
+    /**
+     * Constructor.
+     *
+     * @param httpClient shared HTTP client.
+     * @param rootUri    root URI of the REST API.
+     * @param statistics collects the results.
+     * @param userName   name of the simulated user.
+     */
+    LoadClient(final HttpClient httpClient, final String rootUri, final LoadStatistics statistics,
+               final String userName) {
+        this.httpClient = httpClient;
+        this.rootUri = rootUri;
+        this.statistics = statistics;
+        this.userName = userName;
+        this.bookmarkNames = new ArrayList<>();
+        this.running = true;
+    }
+
+    /**
+     * Signal the client to stop after the current request.
+     */
+    void stop() {
+        this.running = false;
+    }
+
+    @Override
+    public void run() {
+        try {
+            this.register(this.userName);
+            this.login();
+            while (this.running) {
+                this.perform(Operation.pick(ThreadLocalRandom.current().nextInt(Operation.totalWeight())));
+            }
+        } catch (IOException e) {
+            this.statistics.recordFailure(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Perform a single operation and record its latency.
+     *
+     * @param operation to perform.
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if the client is interrupted.
+     */
+    private void perform(final Operation operation) throws IOException, InterruptedException {
+        switch (operation) {
+            case GET_PUBLIC_BOOKMARKS:
+                this.send(operation, this.request("/bookmark/public").GET());
+                break;
+            case GET_BOOKMARKS:
+                this.send(operation, this.request("/bookmark").GET());
+                break;
+            case UPDATE_BOOKMARK:
+                if (!this.bookmarkNames.isEmpty()) {
+                    int index = ThreadLocalRandom.current().nextInt(this.bookmarkNames.size());
+                    String newName = this.nextName();
+                    if (this.send(operation, this.request("/bookmark/" + encode(this.bookmarkNames.get(index)))
+                            .POST(bookmarkBody(newName)))) {
+                        this.bookmarkNames.set(index, newName);
+                    }
+                    break;
+                }
+                this.addBookmark();
+                break;
+            case DELETE_BOOKMARK:
+                if (!this.bookmarkNames.isEmpty()) {
+                    String name = this.bookmarkNames.remove(this.bookmarkNames.size() - 1);
+                    this.send(operation, this.request("/bookmark/" + encode(name)).DELETE());
+                    break;
+                }
+                this.addBookmark();
+                break;
+            case LOGIN:
+                this.send(Operation.LOGOUT, this.request("/user/logout")
+                        .POST(HttpRequest.BodyPublishers.ofString(this.userName)));
+                this.login();
+                break;
+            case REGISTER:
+                this.register(this.userName + "-" + this.nextName());
+                break;
+            case ADD_BOOKMARK:
+            default:
+                this.addBookmark();
+                break;
+        }
+    }
+
+    /**
+     * Add a new bookmark.
+     *
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if the client is interrupted.
+     */
+    private void addBookmark() throws IOException, InterruptedException {
+        String name = this.nextName();
+        if (this.send(Operation.ADD_BOOKMARK, this.request("/bookmark").POST(bookmarkBody(name)))) {
+            this.bookmarkNames.add(name);
+        }
+    }
+
+    /**
+     * Register a user.
+     *
+     * @param name of the user.
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if the client is interrupted.
+     */
+    private void register(final String name) throws IOException, InterruptedException {
+        this.send(Operation.REGISTER, this.request("/user/register").POST(userBody(name)));
+    }
+
+    /**
+     * Log in the user and remember the authorization token.
+     *
+     * @throws IOException          if the request fails or the response contains no token.
+     * @throws InterruptedException if the client is interrupted.
+     */
+    private void login() throws IOException, InterruptedException {
+        HttpRequest request = this.request("/user/login").POST(userBody(this.userName)).build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        this.statistics.record(Operation.LOGIN, System.nanoTime() - start, isSuccess(response.statusCode()));
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (!matcher.find()) {
+            throw new IOException("Login failed for " + this.userName + ": " + response.body());
+        }
+        this.token = matcher.group();
+    }
+
+    /**
+     * Send the request and record its latency.
+     *
+     * @param operation performed by the request.
+     * @param builder   of the request.
+     * @return true if the request was successful, false otherwise.
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if the client is interrupted.
+     */
+    private boolean send(final Operation operation, final HttpRequest.Builder builder)
+            throws IOException, InterruptedException {
+        HttpRequest request = builder.build();
+        long start = System.nanoTime();
+        HttpResponse<Void> response = this.httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        boolean success = isSuccess(response.statusCode());
+        this.statistics.record(operation, System.nanoTime() - start, success);
+        return success;
+    }
+
+    /**
+     * Create a request builder for the path, with the authorization header if the user is logged in.
+     *
+     * @param path relative to the root URI.
+     * @return request builder.
+     */
+    private HttpRequest.Builder request(final String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(this.rootUri + path))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+        if (this.token != null) {
+            builder.header("Authorization", this.token);
+        }
+        return builder;
+    }
+
+    /**
+     * Create the next unique name.
+     *
+     * @return unique name.
+     */
+    private String nextName() {
+        return this.userName + "-" + this.counter++;
+    }
+
+    /**
+     * Check if the status code is successful.
+     *
+     * @param statusCode to check.
+     * @return true if the status code is successful, false otherwise.
+     */
+    private static boolean isSuccess(final int statusCode) {
+        return statusCode <= LAST_SUCCESS_STATUS;
+    }
+
+    /**
+     * Encode the bookmark name for use in a path.
+     *
+     * @param name to encode.
+     * @return encoded name.
+     */
+    private static String encode(final String name) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    /**
+     * Create the body of a bookmark request.
+     *
+     * @param name of the bookmark.
+     * @return request body.
+     */
+    private static HttpRequest.BodyPublisher bookmarkBody(final String name) {
+        String access = ThreadLocalRandom.current().nextBoolean() ? "PUBLIC" : "PRIVATE";
+        return HttpRequest.BodyPublishers.ofString("{\"bookmarkLink\":{\"uri\":\"http://example.org/" + name
+                + "\",\"name\":\"" + name + "\"},\"access\":\"" + access + "\"}");
+    }
+
+    /**
+     * Create the body of a user request.
+     *
+     * @param name of the user.
+     * @return request body.
+     */
+    private static HttpRequest.BodyPublisher userBody(final String name) {
+        return HttpRequest.BodyPublishers.ofString("{\"name\":\"" + name + "\",\"password\":\"" + PASSWORD + "\"}");
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.app.bookmark.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts of the load test, recorded concurrently by all clients.
+ */
+class LoadStatistics {
+
+    /**
+     * Number of significant digits kept by the histograms.
+     */
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Scale from recorded microseconds to reported milliseconds.
+     */
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    /**
+     * Latency recorders of the operations, in microseconds.
+     */
+    private final Map<Operation, Recorder> recorders;
+
+    /**
+     * Failed requests of the operations.
+     */
+    private final Map<Operation, LongAdder> errors;
+
+    /**
+     * First exception thrown by a client.
+     */
+    private final AtomicReference<Exception> failure;
+
+    /**
+     * Constructor.
+     */
+    LoadStatistics() {
+        this.recorders = new EnumMap<>(Operation.class);
+        this.errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            this.recorders.put(operation, new Recorder(SIGNIFICANT_DIGITS));
+            this.errors.put(operation, new LongAdder());
+        }
+        this.failure = new AtomicReference<>();
+    }
+
+    /**
+     * Record a completed request.
+     *
+     * @param operation     performed by the request.
+     * @param latencyNanos  latency of the request in nanoseconds.
+     * @param success       true if the request was successful.
+     */
+    void record(final Operation operation, final long latencyNanos, final boolean success) {
+        this.recorders.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        if (!success) {
+            this.errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * Record a client that stopped because of an exception.
+     *
+     * @param exception thrown by the client.
+     */
+    void recordFailure(final Exception exception) {
+        this.failure.compareAndSet(null, exception);
+    }
+
+    /**
+     * Discard everything recorded so far, used after the warmup.
+     */
+    void reset() {
+        this.recorders.values().forEach(Recorder::reset);
+        this.errors.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Print the results recorded since the last reset.
+     *
+     * @param out             to print to.
+     * @param durationSeconds length of the measurement.
+     * @param histogramFile   file for the HdrHistogram percentile distribution of all requests, or null.
+     * @throws IOException if the histogram file cannot be written.
+     */
+    void report(final PrintStream out, final long durationSeconds, final String histogramFile) throws IOException {
+        Histogram total = null;
+        out.printf("%-22s %10s %10s %10s %10s %10s %10s %8s%n",
+                "operation", "count", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = this.recorders.get(operation).getIntervalHistogram();
+            if (total == null) {
+                total = histogram.copy();
+            } else {
+                total.add(histogram);
+            }
+            printRow(out, operation.name(), histogram, durationSeconds, this.errors.get(operation).sum());
+        }
+        long totalErrors = this.errors.values().stream().mapToLong(LongAdder::sum).sum();
+        printRow(out, "TOTAL", total, durationSeconds, totalErrors);
+
+        out.println();
+        total.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        if (histogramFile != null) {
+            try (PrintStream file = new PrintStream(new FileOutputStream(histogramFile), true,
+                    StandardCharsets.UTF_8.name())) {
+                total.outputPercentileDistribution(file, MICROS_PER_MILLI);
+            }
+        }
+        if (this.failure.get() != null) {
+            out.println("A client stopped early: " + this.failure.get());
+        }
+    }
+
+    /**
+     * Print the results of a single operation.
+     *
+     * @param out             to print to.
+     * @param name            of the operation.
+     * @param histogram       of the operation latencies.
+     * @param durationSeconds length of the measurement.
+     * @param errorCount      number of failed requests.
+     */
+    private static void printRow(final PrintStream out, final String name, final Histogram histogram,
+                                 final long durationSeconds, final long errorCount) {
+        out.printf("%-22s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d%n", name, histogram.getTotalCount(),
+                (double) histogram.getTotalCount() / durationSeconds,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI, errorCount);
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.app.bookmark.loadtest;
+
+import org.example.app.bookmark.bookmarkmanager.BookmarkManager;
+import org.example.app.bookmark.config.ConfigLoader;
+import org.example.app.bookmark.config.InternalConfig;
+import org.example.app.bookmark.httpserver.HttpServer;
+import org.example.app.bookmark.javajws.IJavaJws;
+import org.example.app.bookmark.javajws.JavaJws;
+import org.example.app.bookmark.metrics.MetricsRegistry;
+import org.example.app.bookmark.rest.RequestExecutor;
+import org.example.app.bookmark.usermanager.UserManager;
+import org.example.app.bookmark.utils.Utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test. Starts the HTTP server in this process and drives it with concurrent clients,
+ * then prints throughput and latency percentiles per operation as HdrHistogram output.
+ * Arguments are given as {@code key=value}: {@code clients}, {@code warmup} and {@code duration} in seconds,
+ * {@code port}, {@code histogram} (file for the percentile distribution of all requests) and {@code protocol},
+ * {@code http1} (default) or {@code h2c} for cleartext HTTP/2.
+ * The server is configured like the application, for example with {@code -Dbookmark.http.maxThreads=64}.
+ * Clients send their next request as soon as the previous one completes. All clients share one HTTP client,
+ * which opens a connection per concurrent request with HTTP/1.1 and multiplexes all requests over one with HTTP/2.
+ */
+public final class LoadTest {
+
+    /**
+     * Default number of concurrent clients.
+     */
+    private static final String DEFAULT_CLIENTS = "64";
+
+    /**
+     * Default warmup time in seconds.
+     */
+    private static final String DEFAULT_WARMUP = "10";
+
+    /**
+     * Default measurement time in seconds.
+     */
+    private static final String DEFAULT_DURATION = "30";
+
+    /**
+     * Default port of the server.
+     */
+    private static final String DEFAULT_PORT = "18080";
+
+    /**
+     * Protocol option selecting cleartext HTTP/2.
+     */
+    private static final String H2C_PROTOCOL = "h2c";
+
+    /**
+     * Time to wait for the clients to finish their last request, in seconds.
+     */
+    private static final long STOP_TIMEOUT = 30;
+
+    /**
+     * Private constructor that prevents the default constructor from being created.
+     */
+    private LoadTest() {
+    }
+
+    /**
+     * Run the load test.
+     *
+     * @param args load test options as key=value pairs.
+     * @throws IOException          if the histogram file cannot be written.
+     * @throws InterruptedException if the load test is interrupted.
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        int clientCount = Integer.parseInt(options.getOrDefault("clients", DEFAULT_CLIENTS));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", DEFAULT_WARMUP));
+        long duration = Long.parseLong(options.getOrDefault("duration", DEFAULT_DURATION));
+        boolean http2 = H2C_PROTOCOL.equals(options.getOrDefault("protocol", "http1"));
+
+        InternalConfig internalConfig = ConfigLoader.load();
+        internalConfig.setHttpPort(Integer.parseInt(options.getOrDefault("port", DEFAULT_PORT)));
+        internalConfig.setHttp2(internalConfig.isHttp2() || http2);
+        // All clients share the loopback address, so per client rate limits would only measure the limits
+        internalConfig.setUserRateLimit(0);
+        internalConfig.setReadRateLimit(0);
+        internalConfig.setWriteRateLimit(0);
+        IJavaJws javaJws = JavaJws.getInstance(internalConfig);
+        UserManager.getInstance(javaJws);
+        BookmarkManager.getInstance(javaJws);
+        RequestExecutor.getInstance(internalConfig);
+
+        try (HttpServer httpServer = new HttpServer(internalConfig, new Utils())) {
+            if (!httpServer.start()) {
+                throw new IllegalStateException("HTTP server could not be started");
+            }
+            String rootUri = "http://localhost:" + internalConfig.getHttpPort() + internalConfig.getRootApiPath();
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1).build();
+            if (http2) {
+                upgrade(httpClient, rootUri);
+            }
+            LoadStatistics statistics = new LoadStatistics();
+            List<LoadClient> clients = new ArrayList<>(clientCount);
+            ExecutorService executor = Executors.newFixedThreadPool(clientCount);
+            for (int i = 0; i < clientCount; i++) {
+                LoadClient client = new LoadClient(httpClient, rootUri, statistics, "load-" + i);
+                clients.add(client);
+                executor.execute(client);
+            }
+
+            System.out.printf("Running %d clients against %s over %s: %ds warmup, %ds measurement%n",
+                    clientCount, rootUri, http2 ? "HTTP/2" : "HTTP/1.1", warmup, duration);
+            TimeUnit.SECONDS.sleep(warmup);
+            statistics.reset();
+            long openedConnections = readGauge(Utils.CONNECTIONS_OPENED_GAUGE);
+            TimeUnit.SECONDS.sleep(duration);
+            long openConnections = readGauge(Utils.CONNECTIONS_GAUGE);
+            openedConnections = readGauge(Utils.CONNECTIONS_OPENED_GAUGE) - openedConnections;
+            statistics.report(System.out, duration, options.get("histogram"));
+            System.out.printf("Connections: %d open, %d opened during the measurement%n",
+                    openConnections, openedConnections);
+
+            clients.forEach(LoadClient::stop);
+            executor.shutdown();
+            executor.awaitTermination(STOP_TIMEOUT, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Upgrade the connection of the HTTP client to HTTP/2 before the clients start,
+     * so their concurrent first requests share the upgraded connection instead of each opening one.
+     *
+     * @param httpClient to upgrade.
+     * @param rootUri    of the REST API.
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if the upgrade is interrupted.
+     */
+    private static void upgrade(final HttpClient httpClient, final String rootUri)
+            throws IOException, InterruptedException {
+        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(rootUri + "/bookmark/public"))
+                .GET().build(), HttpResponse.BodyHandlers.discarding());
+        if (response.version() != HttpClient.Version.HTTP_2) {
+            throw new IllegalStateException("Connection was not upgraded to HTTP/2");
+        }
+    }
+
+    /**
+     * Read a gauge of the server.
+     *
+     * @param name of the gauge.
+     * @return value of the gauge.
+     */
+    private static long readGauge(final String name) {
+        return MetricsRegistry.getInstance().readGauge(name)
+                .orElseThrow(() -> new IllegalStateException("Gauge is not registered: " + name));
+    }
+
+    /**
+     * Parse the key=value arguments.
+     *
+     * @param args to parse.
+     * @return options keyed by name.
+     */
+    private static Map<String, String> parseOptions(final String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value argument: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.app.bookmark.loadtest;
+
+/**
+ * Operations performed by the load test clients, with their share of the traffic.
+ */
+public enum Operation {
+
+    /**
+     * GET /bookmark/public.
+     */
+    GET_PUBLIC_BOOKMARKS(35),
+
+    /**
+     * GET /bookmark.
+     */
+    GET_BOOKMARKS(25),
+
+    /**
+     * POST /bookmark.
+     */
+    ADD_BOOKMARK(15),
+
+    /**
+     * POST /bookmark/{bookmarkName}.
+     */
+    UPDATE_BOOKMARK(10),
+
+    /**
+     * DELETE /bookmark/{bookmarkName}.
+     */
+    DELETE_BOOKMARK(10),
+
+    /**
+     * POST /user/login, performed after a logout.
+     */
+    LOGIN(4),
+
+    /**
+     * POST /user/logout, only performed before a login.
+     */
+    LOGOUT(0),
+
+    /**
+     * POST /user/register of a new user.
+     */
+    REGISTER(1);
+
+    /**
+     * Sum of the weights of all operations.
+     */
+    private static final int TOTAL_WEIGHT = 100;
+
+    /**
+     * Share of the traffic in percent.
+     */
+    private final int weight;
+
+    /**
+     * Constructor.
+     *
+     * @param weight share of the traffic in percent.
+     */
+    Operation(final int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Pick the operation for a random number.
+     *
+     * @param random number between 0 (inclusive) and 100 (exclusive).
+     * @return operation that owns the number.
+     */
+    public static Operation pick(final int random) {
+        int remaining = random;
+        for (Operation operation : values()) {
+            remaining -= operation.weight;
+            if (remaining < 0) {
+                return operation;
+            }
+        }
+        return GET_PUBLIC_BOOKMARKS;
+    }
+
+    /**
+     * Upper bound of the random number passed to {@link #pick(int)}.
+     *
+     * @return sum of all weights.
+     */
+    public static int totalWeight() {
+        return TOTAL_WEIGHT;
+    }
+}
@@ -3,13 +3,27 @@ package org.example.app.bookmark;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.example.app.bookmark.bookmarkmanager.BookmarkManager;
+import org.example.app.bookmark.bookmarkmanager.DiskBookmarkStore;
+import org.example.app.bookmark.bookmarkmanager.IBookmarkManager;
+import org.example.app.bookmark.bookmarkmanager.IBookmarkStore;
+import org.example.app.bookmark.bookmarkmanager.MemoryBookmarkStore;
+import org.example.app.bookmark.bookmarkmanager.OffHeapBookmarkStore;
+import org.example.app.bookmark.bookmarkmanager.ShardedBookmarkStore;
+import org.example.app.bookmark.config.ConfigLoader;
 import org.example.app.bookmark.config.InternalConfig;
 import org.example.app.bookmark.httpserver.HttpServer;
 import org.example.app.bookmark.javajws.IJavaJws;
 import org.example.app.bookmark.javajws.JavaJws;
+import org.example.app.bookmark.metrics.MetricsRegistry;
+import org.example.app.bookmark.persistence.Persistence;
+import org.example.app.bookmark.rest.RequestExecutor;
+import org.example.app.bookmark.usermanager.IUserManager;
 import org.example.app.bookmark.usermanager.UserManager;
 import org.example.app.bookmark.utils.Utils;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  * Class implementing entrypoint and user console.
  */
@@ -40,17 +54,37 @@ public class BookmarkApp {
         LOGGER.info("Bookmark App starting up");
 
         Utils utils = new Utils();
-        InternalConfig internalConfig;
+        InternalConfig internalConfig = ConfigLoader.load();
 
-        internalConfig = new InternalConfig();
-        internalConfig.setHttpPort(8080);
-        internalConfig.setRootApiPath("/management");
+        IJavaJws javaJws = JavaJws.getInstance(internalConfig);
+        Persistence persistence = new Persistence(internalConfig);
+        IUserManager userManager = UserManager.getInstance(javaJws, persistence.getJournal());
+        IBookmarkStore bookmarkStore = BookmarkApp.createBookmarkStore(internalConfig, persistence);
+        IBookmarkManager bookmarkManager = BookmarkManager.getInstance(javaJws, bookmarkStore);
+        try {
+            bookmarkStore.open();
+            persistence.start(Arrays.asList(userManager, bookmarkManager));
+        } catch (IOException exception) {
+            LOGGER.error("Stored state could not be recovered!", exception);
+            System.exit(BookmarkApp.ERROR_EXIT_CODE);
+        }
 
-        IJavaJws javaJws = JavaJws.getInstance();
-        UserManager.getInstance(javaJws);
-        BookmarkManager.getInstance(javaJws);
+        MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+        metricsRegistry.registerGauge("bookmark_sessions", "Number of user sessions.", javaJws::getSessionCount);
+        metricsRegistry.registerGauge("bookmark_users", "Number of registered users.", userManager::getUserCount);
+        metricsRegistry.registerGauge("bookmark_bookmarks", "Number of bookmarks of all users.",
+                bookmarkManager::getBookmarkCount);
+        metricsRegistry.registerGauge("bookmark_public_links", "Number of distinct public bookmark links.",
+                bookmarkManager::getPublicBookmarkCount);
+        RequestExecutor requestExecutor = RequestExecutor.getInstance(internalConfig);
+        BookmarkApp.registerExecutorGauges(metricsRegistry, requestExecutor);
 
         try (HttpServer httpServer = new HttpServer(internalConfig, utils)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                httpServer.close();
+                requestExecutor.close();
+                BookmarkApp.closePersistence(persistence, bookmarkStore);
+            }, "shutdown"));
             httpServer.start();
             LOGGER.info("HTTP server started..");
             httpServer.join();
@@ -60,4 +94,60 @@ public class BookmarkApp {
             System.exit(BookmarkApp.ERROR_EXIT_CODE);
         }
     }
+
+    /**
+     * Create the storage engine holding the bookmarks.
+     *
+     * @param internalConfig selecting the storage engine.
+     * @param persistence    recording the modifications of the in-memory engines.
+     * @return bookmark store, not opened yet.
+     */
+    private static IBookmarkStore createBookmarkStore(final InternalConfig internalConfig,
+                                                      final Persistence persistence) {
+        switch (internalConfig.getStorageEngine()) {
+            case DISK:
+                return new DiskBookmarkStore(internalConfig);
+            case OFF_HEAP:
+                return new OffHeapBookmarkStore(persistence.getJournal());
+            case SHARDED:
+                return new ShardedBookmarkStore(persistence.getJournal(), internalConfig.getStorageShards());
+            default:
+                return new MemoryBookmarkStore(persistence.getJournal());
+        }
+    }
+
+    /**
+     * Register the gauges of the business threads handling the requests.
+     *
+     * @param metricsRegistry in which to register the gauges.
+     * @param requestExecutor running the requests.
+     */
+    private static void registerExecutorGauges(final MetricsRegistry metricsRegistry,
+                                               final RequestExecutor requestExecutor) {
+        metricsRegistry.registerGauge("bookmark_executor_threads_active",
+                "Number of business threads handling a request.", requestExecutor::getActiveThreads);
+        metricsRegistry.registerGauge("bookmark_executor_queue_size",
+                "Number of requests waiting for a business thread.", requestExecutor::getQueueSize);
+        metricsRegistry.registerGauge("bookmark_executor_rejected", "Number of requests rejected with a full queue.",
+                requestExecutor::getRejectedRequests);
+        metricsRegistry.registerGauge("bookmark_executor_timed_out", "Number of requests rejected after the timeout.",
+                requestExecutor::getTimedOutRequests);
+    }
+
+    /**
+     * Store the state and close the persistence once no more requests are handled.
+     *
+     * @param persistence   to close.
+     * @param bookmarkStore to close after the persistence.
+     */
+    private static void closePersistence(final Persistence persistence, final IBookmarkStore bookmarkStore) {
+        try {
+            persistence.close();
+            bookmarkStore.close();
+            LOGGER.info("State stored");
+        } catch (InterruptedException exception) {
+            LOGGER.error("Interrupted while storing the state!", exception);
+            Thread.currentThread().interrupt();
+        }
+    }
 }
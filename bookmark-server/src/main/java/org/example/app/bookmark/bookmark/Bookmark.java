@@ -38,6 +38,21 @@ public class Bookmark {
         this.setBookmarkLink(new BookmarkLink(apiBookmark.getBookmarkLink()));
     }
 
+    /**
+     * Create Bookmark object from a stored bookmark link and access.
+     *
+     * @param bookmarkLink of the bookmark.
+     * @param isPrivate    true if the bookmark is private, false otherwise.
+     */
+    public Bookmark(BookmarkLink bookmarkLink, boolean isPrivate) {
+        if (bookmarkLink == null) {
+            throw new BadParametersException(BAD_BOOKMARK_LINK);
+        }
+
+        this.setPrivate(isPrivate);
+        this.setBookmarkLink(bookmarkLink);
+    }
+
     /**
      * Getter for bookmarkLink object.
      *
@@ -3,12 +3,26 @@ package org.example.app.bookmark.bookmark;
 import org.example.app.bookmark.exceptions.BadParametersException;
 
 import java.net.URI;
+import java.util.Objects;
 
 /**
  * Class defining the bookmarkLink object.
+ * Names and locations are canonicalized, so links bookmarked by many users share a single name and location instance.
  */
 public class BookmarkLink {
 
+    /**
+     * Canonical bookmark link locations. Locations are only shared if their string forms match exactly,
+     * because {@link URI#equals(Object)} ignores the case of the host and of escaped octets.
+     */
+    private static final WeakInterner<URI> URIS = new WeakInterner<>(uri -> uri.toString().hashCode(),
+            (uri, other) -> uri.toString().equals(other.toString()));
+
+    /**
+     * Canonical bookmark link names.
+     */
+    private static final WeakInterner<String> URI_NAMES = new WeakInterner<>(String::hashCode, String::equals);
+
     /**
      * Location of the bookmark link.
      */
@@ -33,6 +47,21 @@ public class BookmarkLink {
         this.setUri(apiBookmarkLink.getUri());
     }
 
+    /**
+     * Create BookmarkLink object from a stored name and location.
+     *
+     * @param uri     location of the bookmark link.
+     * @param uriName name of the bookmark link.
+     */
+    public BookmarkLink(URI uri, String uriName) {
+        if (uri == null || uriName == null) {
+            throw new BadParametersException(Bookmark.BAD_BOOKMARK_LINK);
+        }
+
+        this.setUriName(uriName);
+        this.setUri(uri);
+    }
+
     /**
      * Getter for uri value.
      *
@@ -48,7 +77,7 @@ public class BookmarkLink {
      * @param uri to set as a bookmark link location.
      */
     public void setUri(URI uri) {
-        this.uri = uri;
+        this.uri = URIS.intern(uri);
     }
 
     /**
@@ -66,6 +95,23 @@ public class BookmarkLink {
      * @param uriName to set as a name of the bookmarked link.
      */
     public void setUriName(String uriName) {
-        this.uriName = uriName;
+        this.uriName = URI_NAMES.intern(uriName);
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        BookmarkLink bookmarkLink = (BookmarkLink) object;
+        return Objects.equals(this.uri, bookmarkLink.uri) && Objects.equals(this.uriName, bookmarkLink.uriName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.uri, this.uriName);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,151 @@
+package org.example.app.bookmark.bookmark;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Concurrent pool of canonical instances, so equivalent values share a single instance.
+ * Canonical instances are only weakly referenced, so they are collected once no bookmark uses them,
+ * and their entries are removed by the next call.
+ *
+ * @param <T> type of the pooled values.
+ */
+final class WeakInterner<T> {
+
+    /**
+     * Entries of the pool, keyed by themselves.
+     */
+    private final ConcurrentMap<Entry<T>, Entry<T>> entries;
+
+    /**
+     * Queue receiving the entries whose canonical instance was collected.
+     */
+    private final ReferenceQueue<T> collected;
+
+    /**
+     * Hash code of a value, consistent with the equivalence.
+     */
+    private final ToIntFunction<T> hash;
+
+    /**
+     * Equivalence of two values.
+     */
+    private final BiPredicate<T, T> equivalence;
+
+    /**
+     * Constructor.
+     *
+     * @param hash        hash code of a value, consistent with the equivalence.
+     * @param equivalence of two values.
+     */
+    WeakInterner(final ToIntFunction<T> hash, final BiPredicate<T, T> equivalence) {
+        this.entries = new ConcurrentHashMap<>();
+        this.collected = new ReferenceQueue<>();
+        this.hash = hash;
+        this.equivalence = equivalence;
+    }
+
+    /**
+     * Get the canonical instance of a value, the value becomes canonical if there is none yet.
+     *
+     * @param value to look up, may be null.
+     * @return canonical instance equivalent to the value, or null if the value is null.
+     */
+    T intern(final T value) {
+        if (value == null) {
+            return null;
+        }
+        this.expungeCollected();
+        Entry<T> entry = new Entry<>(value, this);
+        while (true) {
+            Entry<T> canonicalEntry = this.entries.putIfAbsent(entry, entry);
+            if (canonicalEntry == null) {
+                return value;
+            }
+            T canonical = canonicalEntry.get();
+            if (canonical != null) {
+                return canonical;
+            }
+            this.entries.remove(canonicalEntry, canonicalEntry);
+        }
+    }
+
+    /**
+     * Get the number of entries in the pool, including entries whose instance was collected but not removed yet.
+     *
+     * @return entry count.
+     */
+    int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Remove the entries whose canonical instance was collected.
+     */
+    private void expungeCollected() {
+        Reference<? extends T> reference = this.collected.poll();
+        while (reference != null) {
+            this.entries.remove(reference);
+            reference = this.collected.poll();
+        }
+    }
+
+    /**
+     * Weak reference to a pooled value, equal to entries referencing an equivalent value.
+     * Entries whose value was collected are only equal to themselves.
+     *
+     * @param <T> type of the pooled value.
+     */
+    private static final class Entry<T> extends WeakReference<T> {
+
+        /**
+         * Pool holding the entry.
+         */
+        private final WeakInterner<T> interner;
+
+        /**
+         * Hash code of the value, kept after the value is collected.
+         */
+        private final int hash;
+
+        /**
+         * Constructor.
+         *
+         * @param value    to reference.
+         * @param interner pool holding the entry.
+         */
+        private Entry(final T value, final WeakInterner<T> interner) {
+            super(value, interner.collected);
+            this.interner = interner;
+            this.hash = interner.hash.applyAsInt(value);
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof Entry)) {
+                return false;
+            }
+            @SuppressWarnings("unchecked")
+            Entry<T> entry = (Entry<T>) object;
+            if (entry.interner != this.interner || entry.hash != this.hash) {
+                return false;
+            }
+            T value = this.get();
+            T otherValue = entry.get();
+            return value != null && otherValue != null && this.interner.equivalence.test(value, otherValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
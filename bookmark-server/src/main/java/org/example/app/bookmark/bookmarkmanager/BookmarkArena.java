@@ -0,0 +1,331 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Off-heap memory holding encoded bookmarks in slabs of direct buffers, addressed by long handles.
+ * Every slab holds records of a single size class and freed records are reused by records of the same class,
+ * records larger than a slab get a buffer of their own.
+ * Allocation and freeing are serialized. Reads are not synchronized, the caller makes sure a handle is published
+ * after its record is written and is not read after it is freed.
+ */
+final class BookmarkArena {
+
+    /**
+     * Size of a slab in bytes.
+     */
+    static final int SLAB_SIZE = 1 << 20;
+
+    /**
+     * Size of the record header: name length, location length and access flag.
+     */
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + 1;
+
+    /**
+     * Difference between the sizes of consecutive small size classes.
+     */
+    private static final int GRANULARITY = 16;
+
+    /**
+     * Size of the largest small size class, larger classes double in size.
+     */
+    private static final int SMALL_LIMIT = 1024;
+
+    /**
+     * Number of small size classes.
+     */
+    private static final int SMALL_CLASSES = SMALL_LIMIT / GRANULARITY;
+
+    /**
+     * Number of size classes, the largest class is the slab size.
+     */
+    private static final int CLASSES = SMALL_CLASSES + Integer.numberOfTrailingZeros(SLAB_SIZE / SMALL_LIMIT);
+
+    /**
+     * Value of the access flag of private bookmarks.
+     */
+    private static final byte PRIVATE = 1;
+
+    /**
+     * Allocated slabs, indexed by the upper half of a handle. Freed large records leave a null slab.
+     * Slabs are added rarely, so readers of other users never see the list while it is resized.
+     */
+    private final List<ByteBuffer> slabs;
+
+    /**
+     * Slab currently filled with new records of each size class, -1 if none.
+     */
+    private final int[] currentSlabs;
+
+    /**
+     * Offset of the next new record in the current slab of each size class.
+     */
+    private final int[] currentOffsets;
+
+    /**
+     * Freed records of each size class.
+     */
+    private final long[][] freeHandles;
+
+    /**
+     * Number of freed records of each size class.
+     */
+    private final int[] freeCounts;
+
+    /**
+     * Bytes allocated for slabs.
+     */
+    private long allocatedBytes;
+
+    /**
+     * Bytes used by records.
+     */
+    private long usedBytes;
+
+    /**
+     * Constructor.
+     */
+    BookmarkArena() {
+        this.slabs = new CopyOnWriteArrayList<>();
+        this.currentSlabs = new int[CLASSES];
+        Arrays.fill(this.currentSlabs, -1);
+        this.currentOffsets = new int[CLASSES];
+        this.freeHandles = new long[CLASSES][0];
+        this.freeCounts = new int[CLASSES];
+    }
+
+    /**
+     * Store a bookmark.
+     *
+     * @param name     of the bookmark, encoded as UTF-8.
+     * @param bookmark to store.
+     * @return handle of the stored record.
+     */
+    synchronized long allocate(final byte[] name, final Bookmark bookmark) {
+        byte[] uri = bookmark.getBookmarkLink().getUri().toString().getBytes(StandardCharsets.UTF_8);
+        int size = HEADER_SIZE + name.length + uri.length;
+        long handle = size > SLAB_SIZE ? handle(this.addSlab(size), 0) : this.allocateInClass(sizeClass(size));
+        ByteBuffer output = this.slabs.get(slab(handle)).duplicate();
+        output.position(offset(handle));
+        output.putInt(name.length).putInt(uri.length).put(bookmark.isPrivate() ? PRIVATE : 0).put(name).put(uri);
+        this.usedBytes += size;
+        return handle;
+    }
+
+    /**
+     * Free a stored record, its memory is reused by later records.
+     *
+     * @param handle of the record.
+     */
+    synchronized void free(final long handle) {
+        ByteBuffer slab = this.slabs.get(slab(handle));
+        int offset = offset(handle);
+        int size = HEADER_SIZE + slab.getInt(offset) + slab.getInt(offset + Integer.BYTES);
+        this.usedBytes -= size;
+        if (size > SLAB_SIZE) {
+            this.slabs.set(slab(handle), null);
+            this.allocatedBytes -= size;
+            return;
+        }
+        int sizeClass = sizeClass(size);
+        if (this.freeCounts[sizeClass] == this.freeHandles[sizeClass].length) {
+            this.freeHandles[sizeClass] = Arrays.copyOf(this.freeHandles[sizeClass],
+                    Math.max(GRANULARITY, 2 * this.freeCounts[sizeClass]));
+        }
+        this.freeHandles[sizeClass][this.freeCounts[sizeClass]++] = handle;
+    }
+
+    /**
+     * Compare the name of a stored bookmark with a name, byte by byte.
+     *
+     * @param handle of the record.
+     * @param name   encoded as UTF-8.
+     * @return negative, zero or positive if the stored name is before, equal to or after the name.
+     */
+    int compareName(final long handle, final byte[] name) {
+        ByteBuffer slab = this.slabs.get(slab(handle));
+        int offset = offset(handle);
+        return compare(slab, offset + HEADER_SIZE, slab.getInt(offset), name);
+    }
+
+    /**
+     * Compare the link of a stored bookmark with a link, first by name and then by location, byte by byte.
+     *
+     * @param handle of the record.
+     * @param name   of the link, encoded as UTF-8.
+     * @param uri    location of the link, encoded as UTF-8.
+     * @return negative, zero or positive if the stored link is before, equal to or after the link.
+     */
+    int compareLink(final long handle, final byte[] name, final byte[] uri) {
+        ByteBuffer slab = this.slabs.get(slab(handle));
+        int offset = offset(handle);
+        int nameLength = slab.getInt(offset);
+        int order = compare(slab, offset + HEADER_SIZE, nameLength, name);
+        if (order != 0) {
+            return order;
+        }
+        return compare(slab, offset + HEADER_SIZE + nameLength, slab.getInt(offset + Integer.BYTES), uri);
+    }
+
+    /**
+     * Check if a stored bookmark is private.
+     *
+     * @param handle of the record.
+     * @return true if the bookmark is private, false otherwise.
+     */
+    boolean isPrivate(final long handle) {
+        return this.slabs.get(slab(handle)).get(offset(handle) + 2 * Integer.BYTES) == PRIVATE;
+    }
+
+    /**
+     * Decode a stored bookmark.
+     *
+     * @param handle of the record.
+     * @return decoded bookmark.
+     */
+    Bookmark get(final long handle) {
+        ByteBuffer input = this.slabs.get(slab(handle)).duplicate();
+        input.position(offset(handle));
+        byte[] name = new byte[input.getInt()];
+        byte[] uri = new byte[input.getInt()];
+        boolean isPrivate = input.get() == PRIVATE;
+        input.get(name).get(uri);
+        return new Bookmark(new BookmarkLink(URI.create(new String(uri, StandardCharsets.UTF_8)),
+                new String(name, StandardCharsets.UTF_8)), isPrivate);
+    }
+
+    /**
+     * Get the number of bytes allocated for slabs.
+     *
+     * @return allocated off-heap bytes.
+     */
+    synchronized long getAllocatedBytes() {
+        return this.allocatedBytes;
+    }
+
+    /**
+     * Get the number of bytes used by stored records.
+     *
+     * @return used off-heap bytes.
+     */
+    synchronized long getUsedBytes() {
+        return this.usedBytes;
+    }
+
+    /**
+     * Allocate a record of a size class.
+     *
+     * @param sizeClass of the record.
+     * @return handle of the record.
+     */
+    private long allocateInClass(final int sizeClass) {
+        if (this.freeCounts[sizeClass] > 0) {
+            return this.freeHandles[sizeClass][--this.freeCounts[sizeClass]];
+        }
+        int classSize = classSize(sizeClass);
+        if (this.currentSlabs[sizeClass] < 0 || this.currentOffsets[sizeClass] + classSize > SLAB_SIZE) {
+            this.currentSlabs[sizeClass] = this.addSlab(SLAB_SIZE);
+            this.currentOffsets[sizeClass] = 0;
+        }
+        long handle = handle(this.currentSlabs[sizeClass], this.currentOffsets[sizeClass]);
+        this.currentOffsets[sizeClass] += classSize;
+        return handle;
+    }
+
+    /**
+     * Allocate a slab.
+     *
+     * @param size of the slab in bytes.
+     * @return index of the slab.
+     */
+    private int addSlab(final int size) {
+        this.slabs.add(ByteBuffer.allocateDirect(size));
+        this.allocatedBytes += size;
+        return this.slabs.size() - 1;
+    }
+
+    /**
+     * Compare stored bytes with bytes, as unsigned values.
+     *
+     * @param slab   holding the stored bytes.
+     * @param start  offset of the stored bytes in the slab.
+     * @param length number of stored bytes.
+     * @param bytes  to compare with.
+     * @return negative, zero or positive if the stored bytes are before, equal to or after the bytes.
+     */
+    private static int compare(final ByteBuffer slab, final int start, final int length, final byte[] bytes) {
+        for (int i = 0; i < Math.min(length, bytes.length); i++) {
+            int order = Byte.compareUnsigned(slab.get(start + i), bytes[i]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(length, bytes.length);
+    }
+
+    /**
+     * Get the size class of a record.
+     *
+     * @param size of the record in bytes, at most the slab size.
+     * @return size class.
+     */
+    private static int sizeClass(final int size) {
+        if (size <= SMALL_LIMIT) {
+            return (size - 1) / GRANULARITY;
+        }
+        return SMALL_CLASSES + Integer.SIZE - Integer.numberOfLeadingZeros(size - 1)
+                - Integer.numberOfTrailingZeros(SMALL_LIMIT) - 1;
+    }
+
+    /**
+     * Get the size of the records of a size class.
+     *
+     * @param sizeClass of the records.
+     * @return record size in bytes.
+     */
+    private static int classSize(final int sizeClass) {
+        if (sizeClass < SMALL_CLASSES) {
+            return (sizeClass + 1) * GRANULARITY;
+        }
+        return 2 * SMALL_LIMIT << (sizeClass - SMALL_CLASSES);
+    }
+
+    /**
+     * Create a handle.
+     *
+     * @param slab   index of the slab.
+     * @param offset of the record in the slab.
+     * @return handle.
+     */
+    private static long handle(final int slab, final int offset) {
+        return (long) slab << Integer.SIZE | offset;
+    }
+
+    /**
+     * Get the slab index of a handle.
+     *
+     * @param handle of a record.
+     * @return index of the slab.
+     */
+    private static int slab(final long handle) {
+        return (int) (handle >>> Integer.SIZE);
+    }
+
+    /**
+     * Get the slab offset of a handle.
+     *
+     * @param handle of a record.
+     * @return offset of the record in the slab.
+     */
+    private static int offset(final long handle) {
+        return (int) handle;
+    }
+}
@@ -3,23 +3,44 @@ package org.example.app.bookmark.bookmarkmanager;
 import org.example.app.bookmark.bookmark.Bookmark;
 import org.example.app.bookmark.exceptions.BadParametersException;
 import org.example.app.bookmark.javajws.IJavaJws;
+import org.example.app.bookmark.persistence.IJournal;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.example.app.bookmark.persistence.SnapshotSection;
 import org.example.app.bookmark_api.model.BookmarkAccess;
 import org.example.app.bookmark_api.model.BookmarkLink;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class that manages bookmarks.
+ * Authorizes the users and validates the bookmarks, the bookmarks are kept by a storage engine.
  */
 public final class BookmarkManager implements IBookmarkManager {
 
+    /**
+     * Maximum number of bookmarks added by a single batch.
+     */
+    public static final int MAXIMUM_BATCH_SIZE = 1000;
+
+    /**
+     * Algorithm digesting the name of a user into the entity tag of the user bookmarks.
+     */
+    private static final String USER_DIGEST_ALGORITHM = "SHA-256";
+
     /**
      * Singleton instance.
      */
@@ -31,25 +52,45 @@ public final class BookmarkManager implements IBookmarkManager {
     private final IJavaJws javaJws;
 
     /**
-     * Map used to store bookmarks for each user.
+     * Storage engine holding the bookmarks.
+     */
+    private final IBookmarkStore store;
+
+    /**
+     * Prefix of all entity tags, unique for every start of the application, so tags handed out before a restart
+     * never match the versions counted after it.
      */
-    private final Map<String, List<Bookmark>> userBookmarkMap;
+    private final String tagEpoch;
 
     /**
-     * Set of all known public bookmarks.
+     * Number of modifications of the bookmarks of all users, the versions of the users are taken from it.
      */
-    private Set<BookmarkLink> publicBookmarks;
+    private final AtomicLong modificationCount;
+
+    /**
+     * Version of the bookmarks of each modified user, set from the modification count after every modification
+     * of the user bookmarks, so no two users share a version.
+     */
+    private final ConcurrentMap<String, AtomicLong> userVersions;
+
+    /**
+     * Version of the public bookmarks, incremented after every modification that may change them.
+     */
+    private final AtomicLong publicVersion;
 
     /**
      * Private constructor.
      *
      * @param javaJws object used for jws token management.
+     * @param store   holding the bookmarks.
      */
-    private BookmarkManager(final IJavaJws javaJws) {
+    private BookmarkManager(final IJavaJws javaJws, final IBookmarkStore store) {
         this.javaJws = javaJws;
-
-        this.userBookmarkMap = new HashMap<>();
-        this.publicBookmarks = new HashSet<>();
+        this.store = store;
+        this.tagEpoch = Long.toHexString(System.currentTimeMillis());
+        this.modificationCount = new AtomicLong();
+        this.userVersions = new ConcurrentHashMap<>();
+        this.publicVersion = new AtomicLong();
     }
 
     /**
@@ -68,10 +109,32 @@ public final class BookmarkManager implements IBookmarkManager {
      * @return IBookmarkManager instance.
      */
     public static IBookmarkManager getInstance(final IJavaJws javaJws) {
+        return getInstance(javaJws, IJournal.NONE);
+    }
+
+    /**
+     * Getter for the singleton that records bookmark modifications.
+     *
+     * @param javaJws object used for jws token management.
+     * @param journal recording bookmark modifications.
+     * @return IBookmarkManager instance.
+     */
+    public static IBookmarkManager getInstance(final IJavaJws javaJws, final IJournal journal) {
+        return getInstance(javaJws, new MemoryBookmarkStore(journal));
+    }
+
+    /**
+     * Getter for the singleton that keeps the bookmarks in the given storage engine.
+     *
+     * @param javaJws object used for jws token management.
+     * @param store   holding the bookmarks, opened by the caller.
+     * @return IBookmarkManager instance.
+     */
+    public static IBookmarkManager getInstance(final IJavaJws javaJws, final IBookmarkStore store) {
         if (instance == null) {
             synchronized (BookmarkManager.class) {
                 if (instance == null) {
-                    instance = new BookmarkManager(javaJws);
+                    instance = new BookmarkManager(javaJws, store);
                 }
             }
         }
@@ -83,69 +146,140 @@ public final class BookmarkManager implements IBookmarkManager {
     getBookmarks(final String authString) {
         String user = this.javaJws.authorizeUser(authString);
         if (!user.isEmpty()) {
-            if (!this.userBookmarkMap.containsKey(user)) {
-                return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, new ArrayList<>());
-            }
-            List<Bookmark> bookmarkList = this.userBookmarkMap.get(user);
-            List<org.example.app.bookmark_api.model.Bookmark> bookmarks = new ArrayList<>();
-            bookmarkList.forEach(bookmark -> {
-                BookmarkLink bookmarkLink = new BookmarkLink();
-                bookmarkLink.setUri(bookmark.getBookmarkLink().getUri());
-                bookmarkLink.setName(bookmark.getBookmarkLink().getUriName());
-
-                org.example.app.bookmark_api.model.Bookmark tmpBookmark =
-                        new org.example.app.bookmark_api.model.Bookmark();
-                tmpBookmark.setBookmarkLink(bookmarkLink);
-                tmpBookmark.setAccess(bookmark.isPrivate() ? BookmarkAccess.PRIVATE : BookmarkAccess.PUBLIC);
-                bookmarks.add(tmpBookmark);
-            });
+            Collection<Bookmark> userBookmarks = this.store.getBookmarks(user, null);
+            List<org.example.app.bookmark_api.model.Bookmark> bookmarks = new ArrayList<>(userBookmarks.size());
+            userBookmarks.forEach(bookmark -> bookmarks.add(toApiBookmark(bookmark)));
             return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, bookmarks);
         } else {
             return new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null);
         }
     }
 
+    @Override
+    public Map.Entry<BookmarkStatus, BookmarkPage<org.example.app.bookmark_api.model.Bookmark>>
+    getBookmarks(final String authString, final String cursor, final int limit) {
+        String user = this.javaJws.authorizeUser(authString);
+        if (user.isEmpty()) {
+            return new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null);
+        }
+        String after = cursor == null ? null : BookmarkPage.decodeCursor(cursor);
+        if (limit < 1 || cursor != null && after == null) {
+            return new AbstractMap.SimpleEntry<>(BookmarkStatus.INVALID_DATA, null);
+        }
+
+        int pageLimit = Math.min(limit, BookmarkPage.MAXIMUM_LIMIT);
+        List<org.example.app.bookmark_api.model.Bookmark> bookmarks = new ArrayList<>();
+        String nextCursor = null;
+        Iterator<Bookmark> iterator = this.store.getBookmarks(user, after).iterator();
+        Bookmark last = null;
+        while (bookmarks.size() < pageLimit && iterator.hasNext()) {
+            last = iterator.next();
+            bookmarks.add(toApiBookmark(last));
+        }
+        if (iterator.hasNext()) {
+            nextCursor = BookmarkPage.encodeCursor(last.getBookmarkLink().getUriName());
+        }
+        return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, new BookmarkPage<>(bookmarks, nextCursor));
+    }
+
+    @Override
+    public Map.Entry<BookmarkStatus, String> getBookmarkTag(final String authString) {
+        String user = this.javaJws.authorizeUser(authString);
+        if (user.isEmpty()) {
+            return new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null);
+        }
+        AtomicLong version = this.userVersions.get(user);
+        return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK,
+                this.createTag(version == null ? 0 : version.get()) + "-" + digestUser(user));
+    }
+
+    @Override
+    public Map.Entry<BookmarkStatus, Collection<Bookmark>> getBookmarkView(final String authString) {
+        String user = this.javaJws.authorizeUser(authString);
+        if (user.isEmpty()) {
+            return new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null);
+        }
+        return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, this.store.getBookmarks(user, null));
+    }
+
     @Override
     public BookmarkStatus addBookmark(final org.example.app.bookmark_api.model.Bookmark bookmark,
             final String authString) {
 
         String user = this.javaJws.authorizeUser(authString);
         if (!user.isEmpty()) {
-            if (!this.userBookmarkMap.containsKey(user)) {
-                this.userBookmarkMap.put(user, new ArrayList<>());
+            Bookmark newBookmark;
+            try {
+                newBookmark = new Bookmark(bookmark);
+            } catch (BadParametersException e) {
+                return BookmarkStatus.INVALID_DATA;
             }
-            List<Bookmark> bookmarkList = this.userBookmarkMap.get(user);
-            if (bookmarkList.stream().anyMatch(tmpBookmark ->
-                    tmpBookmark.getBookmarkLink().getUriName().equals(bookmark.getBookmarkLink().getName()))) {
-                return BookmarkStatus.BOOKMARK_EXISTS;
+
+            if (this.store.add(user, newBookmark)) {
+                this.modified(user, !newBookmark.isPrivate());
+                return BookmarkStatus.CREATED;
             } else {
-                try {
-                    bookmarkList.add(new Bookmark(bookmark));
-                    this.userBookmarkMap.put(user, bookmarkList);
-                    return BookmarkStatus.CREATED;
-                } catch (BadParametersException e) {
-                    return BookmarkStatus.INVALID_DATA;
-                }
+                return BookmarkStatus.BOOKMARK_EXISTS;
             }
         } else {
             return BookmarkStatus.UNAUTHORIZED;
         }
     }
 
+    @Override
+    public Map.Entry<BookmarkStatus, List<BookmarkStatus>> addBookmarks(
+            final List<org.example.app.bookmark_api.model.Bookmark> bookmarks, final String authString) {
+
+        String user = this.javaJws.authorizeUser(authString);
+        if (user.isEmpty()) {
+            return new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null);
+        }
+        if (bookmarks == null || bookmarks.size() > MAXIMUM_BATCH_SIZE) {
+            return new AbstractMap.SimpleEntry<>(BookmarkStatus.INVALID_DATA, null);
+        }
+
+        List<Bookmark> newBookmarks = new ArrayList<>(bookmarks.size());
+        List<BookmarkStatus> statuses = new ArrayList<>(bookmarks.size());
+        for (org.example.app.bookmark_api.model.Bookmark bookmark : bookmarks) {
+            Bookmark newBookmark = toBookmark(bookmark);
+            if (newBookmark == null) {
+                statuses.add(BookmarkStatus.INVALID_DATA);
+            } else {
+                newBookmarks.add(newBookmark);
+                statuses.add(BookmarkStatus.CREATED);
+            }
+        }
+
+        boolean[] added = this.store.addAll(user, newBookmarks);
+        boolean anyAdded = false;
+        boolean publicAdded = false;
+        for (int i = 0; i < added.length; i++) {
+            anyAdded |= added[i];
+            publicAdded |= added[i] && !newBookmarks.get(i).isPrivate();
+        }
+        if (anyAdded) {
+            this.modified(user, publicAdded);
+        }
+
+        int addedIndex = 0;
+        for (int i = 0; i < statuses.size(); i++) {
+            if (statuses.get(i) == BookmarkStatus.CREATED && !added[addedIndex++]) {
+                statuses.set(i, BookmarkStatus.BOOKMARK_EXISTS);
+            }
+        }
+        return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, statuses);
+    }
+
     @Override
     public BookmarkStatus deleteBookmark(final String bookmarkName, final String authString) {
         String user = this.javaJws.authorizeUser(authString);
         if (!user.isEmpty()) {
-            if (!this.userBookmarkMap.containsKey(user)) {
+            if (!this.store.containsUser(user)) {
                 return BookmarkStatus.NOT_FOUND;
             }
-            List<Bookmark> bookmarkList = this.userBookmarkMap.get(user);
 
-            Optional<Bookmark> bookmarkOptional = bookmarkList.stream().filter(
-                    bookmark -> bookmark.getBookmarkLink().getUriName().equals(bookmarkName)).findFirst();
-            if (bookmarkOptional.isPresent()) {
-                bookmarkList.remove(bookmarkOptional.get());
-                this.userBookmarkMap.put(user, bookmarkList);
+            if (bookmarkName != null && this.store.remove(user, bookmarkName)) {
+                this.modified(user, true);
                 return BookmarkStatus.DELETED;
             } else {
                 return BookmarkStatus.INVALID_DATA;
@@ -162,24 +296,27 @@ public final class BookmarkManager implements IBookmarkManager {
 
         String user = this.javaJws.authorizeUser(authString);
         if (!user.isEmpty()) {
-            if (!this.userBookmarkMap.containsKey(user)) {
+            if (!this.store.containsUser(user)) {
                 return BookmarkStatus.NOT_FOUND;
             }
-            List<Bookmark> bookmarkList = this.userBookmarkMap.get(user);
-
-            Optional<Bookmark> bookmarkOptional = bookmarkList.stream().filter(
-                    tmpBookamrk -> tmpBookamrk.getBookmarkLink().getUriName().equals(bookmarkName)).findFirst();
-            if (bookmarkOptional.isPresent()) {
-                try {
-                    bookmarkList.remove(bookmarkOptional.get());
-                    bookmarkList.add(new Bookmark(bookmark));
-                    this.userBookmarkMap.put(user, bookmarkList);
-                    return BookmarkStatus.UPDATED;
-                } catch (BadParametersException e) {
-                    bookmarkList.add(bookmarkOptional.get());
-                    return BookmarkStatus.INVALID_DATA;
-                }
+            if (bookmarkName == null || !this.store.contains(user, bookmarkName)) {
+                return BookmarkStatus.INVALID_DATA;
+            }
+
+            Bookmark newBookmark;
+            try {
+                newBookmark = new Bookmark(bookmark);
+            } catch (BadParametersException e) {
+                return BookmarkStatus.INVALID_DATA;
+            }
+            String newName = newBookmark.getBookmarkLink().getUriName();
+            if (!newName.equals(bookmarkName) && this.store.contains(user, newName)) {
+                return BookmarkStatus.BOOKMARK_EXISTS;
+            }
 
+            if (this.store.replace(user, bookmarkName, newBookmark)) {
+                this.modified(user, true);
+                return BookmarkStatus.UPDATED;
             } else {
                 return BookmarkStatus.INVALID_DATA;
             }
@@ -191,25 +328,131 @@ public final class BookmarkManager implements IBookmarkManager {
     @Override
     public Map.Entry<BookmarkStatus, Set<BookmarkLink>> getPublicBookmarks(final String authString) {
         if (!this.javaJws.authorizeUser(authString).isEmpty()) {
-            this.createPublicBookmarkSet();
-            return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, this.publicBookmarks);
+            return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, this.store.getPublicBookmarks());
         }
         return new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null);
     }
 
+    @Override
+    public Map.Entry<BookmarkStatus, BookmarkPage<BookmarkLink>>
+    getPublicBookmarks(final String authString, final String cursor, final int limit) {
+        if (this.javaJws.authorizeUser(authString).isEmpty()) {
+            return new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null);
+        }
+        BookmarkPage<BookmarkLink> page = limit < 1
+                ? null : this.store.getPublicBookmarks(cursor, Math.min(limit, BookmarkPage.MAXIMUM_LIMIT));
+        if (page == null) {
+            return new AbstractMap.SimpleEntry<>(BookmarkStatus.INVALID_DATA, null);
+        }
+        return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, page);
+    }
+
+    @Override
+    public Map.Entry<BookmarkStatus, String> getPublicBookmarkTag(final String authString) {
+        if (this.javaJws.authorizeUser(authString).isEmpty()) {
+            return new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null);
+        }
+        return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, this.createTag(this.publicVersion.get()));
+    }
+
+    @Override
+    public long getBookmarkCount() {
+        return this.store.getBookmarkCount();
+    }
+
+    @Override
+    public int getPublicBookmarkCount() {
+        return this.store.getPublicBookmarkCount();
+    }
+
+    @Override
+    public void apply(final LogRecord record) {
+        this.store.apply(record);
+    }
+
+    @Override
+    public void load(final SnapshotSection section) {
+        this.store.load(section);
+    }
+
+    @Override
+    public void export(final ISnapshotWriter snapshot) {
+        this.store.export(snapshot);
+    }
+
     /**
-     * Create a new set of public bookmarks from all public bookmarks.
+     * Count a modification of the bookmarks of a user, after the store was modified. Counting after the
+     * modification ensures a tag read before the bookmarks never describes bookmarks older than the tag.
+     *
+     * @param user          whose bookmarks were modified.
+     * @param publicChanged true if the modification may have changed the public bookmarks.
      */
-    private void createPublicBookmarkSet() {
-        publicBookmarks = new HashSet<>();
-        this.userBookmarkMap.forEach((uuid, bookmarks) -> bookmarks.forEach(bookmark -> {
-            if (!bookmark.isPrivate()) {
-                BookmarkLink bookmarkLink = new BookmarkLink();
-                bookmarkLink.setName(bookmark.getBookmarkLink().getUriName());
-                bookmarkLink.setUri(bookmark.getBookmarkLink().getUri());
-                publicBookmarks.add(bookmarkLink);
-            }
-        }));
+    private void modified(final String user, final boolean publicChanged) {
+        long version = this.modificationCount.incrementAndGet();
+        this.userVersions.computeIfAbsent(user, key -> new AtomicLong()).accumulateAndGet(version, Math::max);
+        if (publicChanged) {
+            this.publicVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Create an entity tag from a version.
+     *
+     * @param version of the tagged bookmarks.
+     * @return entity tag, without quotes.
+     */
+    private String createTag(final long version) {
+        return this.tagEpoch + "-" + Long.toHexString(version);
+    }
+
+    /**
+     * Digest the name of a user, so the tags of two users never match, even before their first modification.
+     *
+     * @param user to digest.
+     * @return hex encoded start of the SHA-256 digest of the name.
+     */
+    private static String digestUser(final String user) {
+        try {
+            byte[] digest = MessageDigest.getInstance(USER_DIGEST_ALGORITHM).digest(
+                    user.getBytes(StandardCharsets.UTF_8));
+            return Long.toHexString(ByteBuffer.wrap(digest).getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("User digest is not available", e);
+        }
+    }
+
+    /**
+     * Create a bookmark from an api model object.
+     *
+     * @param apiBookmark to convert, may be null.
+     * @return bookmark, or null if the api model bookmark is not valid.
+     */
+    private static Bookmark toBookmark(final org.example.app.bookmark_api.model.Bookmark apiBookmark) {
+        if (apiBookmark == null) {
+            return null;
+        }
+        try {
+            return new Bookmark(apiBookmark);
+        } catch (BadParametersException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create an api model object from the bookmark.
+     *
+     * @param bookmark to convert.
+     * @return api model bookmark.
+     */
+    private static org.example.app.bookmark_api.model.Bookmark toApiBookmark(final Bookmark bookmark) {
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setUri(bookmark.getBookmarkLink().getUri());
+        bookmarkLink.setName(bookmark.getBookmarkLink().getUriName());
+
+        org.example.app.bookmark_api.model.Bookmark apiBookmark = new org.example.app.bookmark_api.model.Bookmark();
+        apiBookmark.setBookmarkLink(bookmarkLink);
+        apiBookmark.setAccess(bookmark.isPrivate() ? BookmarkAccess.PRIVATE : BookmarkAccess.PUBLIC);
+        return apiBookmark;
     }
 
 }
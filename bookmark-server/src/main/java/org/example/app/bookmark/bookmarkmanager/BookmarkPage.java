@@ -0,0 +1,87 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class holding a single page of a bookmark collection.
+ *
+ * @param <T> type of the page items.
+ */
+public final class BookmarkPage<T> {
+
+    /**
+     * Page size used when the client does not provide one.
+     */
+    public static final int DEFAULT_LIMIT = 100;
+
+    /**
+     * Largest page size that can be requested.
+     */
+    public static final int MAXIMUM_LIMIT = 1000;
+
+    /**
+     * Items on the page.
+     */
+    private final List<T> items;
+
+    /**
+     * Cursor pointing to the next page, or null if this is the last page.
+     */
+    private final String nextCursor;
+
+    /**
+     * Constructor.
+     *
+     * @param items      on the page.
+     * @param nextCursor pointing to the next page, or null if this is the last page.
+     */
+    public BookmarkPage(final List<T> items, final String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Getter for the page items.
+     *
+     * @return items on the page.
+     */
+    public List<T> getItems() {
+        return this.items;
+    }
+
+    /**
+     * Getter for the next cursor.
+     *
+     * @return cursor pointing to the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /**
+     * Create an opaque cursor from the key of the last item on a page.
+     *
+     * @param key of the last item on the page.
+     * @return opaque cursor.
+     */
+    static String encodeCursor(final String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read the key of the last item on the previous page from an opaque cursor.
+     *
+     * @param cursor to decode.
+     * @return key of the last item on the previous page, or null if the cursor is not valid.
+     */
+    static String decodeCursor(final String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,910 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.config.InternalConfig;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.KeyValueStore;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.example.app.bookmark.persistence.SnapshotSection;
+import org.example.app.bookmark.persistence.WriteBatch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Storage engine keeping the bookmarks in an embedded key-value store on the local disk,
+ * so the number of bookmarks is not limited by the heap.
+ * A bookmark is stored under a key holding the user and the bookmark name, so the bookmarks of a user are
+ * ordered by name. A public bookmark also has a key holding the link name, the link location and the user,
+ * distinct public links are listed by skipping from one link to the next. Key strings are stored as UTF-8 with
+ * escaped zero bytes followed by a terminator, which keeps the keys in the order of their strings.
+ * The number of bookmarks of every user is stored in the same batch as the bookmarks, and so are the number of
+ * bookmarks and the number of distinct public links of each lock stripe, which are summed when the store is opened.
+ * Modifications lock the stripe of their user and the stripes of the public links they change, in stripe order,
+ * so modifications of different users only wait for each other when their stripes collide. Reads are lock-free.
+ * The key-value store has its own log, bookmarks recorded by the in-memory engine are not migrated.
+ */
+public final class DiskBookmarkStore implements IBookmarkStore {
+
+    /**
+     * Name of the directory holding the key-value store, inside the storage directory.
+     */
+    public static final String DIRECTORY = "bookmarks";
+
+    /**
+     * Kind of the keys holding bookmarks.
+     */
+    private static final byte BOOKMARK = 'b';
+
+    /**
+     * Kind of the keys holding the number of bookmarks of a user.
+     */
+    private static final byte USER = 'u';
+
+    /**
+     * Kind of the keys holding public bookmark links.
+     */
+    private static final byte PUBLIC_LINK = 'p';
+
+    /**
+     * Kind of the keys holding the number of bookmarks of the users of a lock stripe.
+     */
+    private static final byte BOOKMARK_TOTAL = 'c';
+
+    /**
+     * Kind of the keys holding the number of distinct public links of a lock stripe.
+     */
+    private static final byte LINK_TOTAL = 'l';
+
+    /**
+     * Number of locks that users and public links are spread over. Part of the stored format, as the totals are
+     * stored for each stripe.
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Value of the public bookmark link keys.
+     */
+    private static final byte[] PRESENT = {1};
+
+    /**
+     * Value of the access flag of private bookmarks.
+     */
+    private static final byte PRIVATE = 1;
+
+    /**
+     * Byte following an escaped zero byte in a key string.
+     */
+    private static final byte ESCAPED_ZERO = (byte) 0xFF;
+
+    /**
+     * Byte following the zero byte that terminates a key string.
+     */
+    private static final byte TERMINATOR = 1;
+
+    /**
+     * Key-value store holding the bookmarks.
+     */
+    private final KeyValueStore store;
+
+    /**
+     * Locks serializing the modifications of the users of each stripe.
+     */
+    private final ReentrantLock[] userLocks;
+
+    /**
+     * Locks serializing the changes of the public links of each stripe.
+     */
+    private final ReentrantLock[] linkLocks;
+
+    /**
+     * Number of bookmarks of the users of each stripe, guarded by the user lock of the stripe.
+     */
+    private final long[] stripeBookmarkCounts;
+
+    /**
+     * Number of distinct public links of each stripe, guarded by the link lock of the stripe.
+     */
+    private final int[] stripeLinkCounts;
+
+    /**
+     * Number of bookmarks of all users.
+     */
+    private final AtomicLong bookmarkCount;
+
+    /**
+     * Number of distinct public bookmark links.
+     */
+    private final AtomicInteger publicLinkCount;
+
+    /**
+     * Version of the public links, incremented every time a link is added or removed.
+     */
+    private final AtomicLong publicVersion;
+
+    /**
+     * Last created set of all public links.
+     */
+    private volatile PublicLinks publicLinks;
+
+    /**
+     * Constructor.
+     *
+     * @param internalConfig holding the storage directory, the fsync policy and the in-memory table size.
+     */
+    public DiskBookmarkStore(final InternalConfig internalConfig) {
+        this.store = new KeyValueStore(Paths.get(internalConfig.getStorageDirectory()).resolve(DIRECTORY),
+                internalConfig.getFsyncPolicy(), internalConfig.getFsyncInterval(), TimeUnit.MILLISECONDS,
+                internalConfig.getMemTableSize());
+        this.userLocks = new ReentrantLock[LOCK_STRIPES];
+        this.linkLocks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.userLocks[i] = new ReentrantLock();
+            this.linkLocks[i] = new ReentrantLock();
+        }
+        this.stripeBookmarkCounts = new long[LOCK_STRIPES];
+        this.stripeLinkCounts = new int[LOCK_STRIPES];
+        this.bookmarkCount = new AtomicLong();
+        this.publicLinkCount = new AtomicInteger();
+        this.publicVersion = new AtomicLong();
+        this.publicLinks = new PublicLinks(-1, Collections.emptySet());
+    }
+
+    @Override
+    public void open() throws IOException {
+        this.store.open();
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            byte[] bookmarkTotal = this.store.get(totalKey(BOOKMARK_TOTAL, stripe));
+            byte[] linkTotal = this.store.get(totalKey(LINK_TOTAL, stripe));
+            if (bookmarkTotal != null) {
+                this.stripeBookmarkCounts[stripe] = ByteBuffer.wrap(bookmarkTotal).getLong();
+            }
+            if (linkTotal != null) {
+                this.stripeLinkCounts[stripe] = ByteBuffer.wrap(linkTotal).getInt();
+            }
+            this.bookmarkCount.addAndGet(this.stripeBookmarkCounts[stripe]);
+            this.publicLinkCount.addAndGet(this.stripeLinkCounts[stripe]);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        this.store.close();
+    }
+
+    @Override
+    public boolean add(final String user, final Bookmark bookmark) {
+        long sequence;
+        ReentrantLock userLock = this.lockUser(user);
+        try {
+            if (this.store.get(bookmarkKey(user, bookmark.getBookmarkLink().getUriName())) != null) {
+                return false;
+            }
+            Modification modification = new Modification(user);
+            modification.put(bookmark);
+            sequence = modification.commit();
+        } finally {
+            userLock.unlock();
+        }
+        this.store.awaitDurable(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean[] addAll(final String user, final List<Bookmark> bookmarks) {
+        boolean[] added = new boolean[bookmarks.size()];
+        long sequence = UserBookmarks.NOT_MODIFIED;
+        ReentrantLock userLock = this.lockUser(user);
+        try {
+            Set<String> names = new HashSet<>();
+            Modification modification = new Modification(user);
+            for (int i = 0; i < bookmarks.size(); i++) {
+                String name = bookmarks.get(i).getBookmarkLink().getUriName();
+                if (names.add(name) && this.store.get(bookmarkKey(user, name)) == null) {
+                    modification.put(bookmarks.get(i));
+                    added[i] = true;
+                }
+            }
+            if (modification.isModified()) {
+                sequence = modification.commit();
+            }
+        } finally {
+            userLock.unlock();
+        }
+        if (sequence != UserBookmarks.NOT_MODIFIED) {
+            this.store.awaitDurable(sequence);
+        }
+        return added;
+    }
+
+    @Override
+    public boolean remove(final String user, final String bookmarkName) {
+        long sequence;
+        ReentrantLock userLock = this.lockUser(user);
+        try {
+            Bookmark oldBookmark = this.get(user, bookmarkName);
+            if (oldBookmark == null) {
+                return false;
+            }
+            Modification modification = new Modification(user);
+            modification.delete(oldBookmark);
+            sequence = modification.commit();
+        } finally {
+            userLock.unlock();
+        }
+        this.store.awaitDurable(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean replace(final String user, final String bookmarkName, final Bookmark bookmark) {
+        long sequence;
+        ReentrantLock userLock = this.lockUser(user);
+        try {
+            Bookmark oldBookmark = this.get(user, bookmarkName);
+            String newName = bookmark.getBookmarkLink().getUriName();
+            if (oldBookmark == null || !newName.equals(bookmarkName) && this.get(user, newName) != null) {
+                return false;
+            }
+            Modification modification = new Modification(user);
+            modification.delete(oldBookmark);
+            modification.put(bookmark);
+            sequence = modification.commit();
+        } finally {
+            userLock.unlock();
+        }
+        this.store.awaitDurable(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean containsUser(final String user) {
+        return this.store.get(key(USER, user)) != null;
+    }
+
+    @Override
+    public boolean contains(final String user, final String bookmarkName) {
+        return this.store.get(bookmarkKey(user, bookmarkName)) != null;
+    }
+
+    @Override
+    public Collection<Bookmark> getBookmarks(final String user, final String bookmarkName) {
+        return new BookmarkView(user, bookmarkName);
+    }
+
+    @Override
+    public long getBookmarkCount() {
+        return this.bookmarkCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Unlike the paged public bookmarks, the set holds every distinct public link on the heap, so its memory grows
+     * with the number of public links, and it is recreated after every change of the public links.
+     */
+    @Override
+    public Set<org.example.app.bookmark_api.model.BookmarkLink> getPublicBookmarks() {
+        long currentVersion = this.publicVersion.get();
+        PublicLinks current = this.publicLinks;
+        if (current.version != currentVersion) {
+            Set<org.example.app.bookmark_api.model.BookmarkLink> links = new LinkedHashSet<>();
+            new PublicLinkIterator(new byte[]{PUBLIC_LINK})
+                    .forEachRemaining(link -> links.add(PublicBookmarkIndex.toApiBookmarkLink(link)));
+            current = new PublicLinks(currentVersion, Collections.unmodifiableSet(links));
+            this.publicLinks = current;
+        }
+        return current.links;
+    }
+
+    @Override
+    public BookmarkPage<org.example.app.bookmark_api.model.BookmarkLink> getPublicBookmarks(final String cursor,
+                                                                                           final int limit) {
+        byte[] from = {PUBLIC_LINK};
+        if (cursor != null) {
+            BookmarkLink after = PublicBookmarkIndex.fromCursor(cursor);
+            if (after == null) {
+                return null;
+            }
+            from = end(publicLinkPrefix(after));
+        }
+
+        List<org.example.app.bookmark_api.model.BookmarkLink> items = new ArrayList<>();
+        Iterator<BookmarkLink> iterator = new PublicLinkIterator(from);
+        BookmarkLink last = null;
+        while (items.size() < limit && iterator.hasNext()) {
+            last = iterator.next();
+            items.add(PublicBookmarkIndex.toApiBookmarkLink(last));
+        }
+        String nextCursor = iterator.hasNext() ? PublicBookmarkIndex.toCursor(last) : null;
+        return new BookmarkPage<>(items, nextCursor);
+    }
+
+    @Override
+    public int getPublicBookmarkCount() {
+        return this.publicLinkCount.get();
+    }
+
+    @Override
+    public void apply(final LogRecord record) {
+        // Bookmarks are recovered by the key-value store
+    }
+
+    @Override
+    public void load(final SnapshotSection section) {
+        // Bookmarks are recovered by the key-value store
+    }
+
+    @Override
+    public void export(final ISnapshotWriter snapshot) {
+        // Bookmarks are stored by the key-value store
+    }
+
+    /**
+     * Lock the stripe of a user.
+     *
+     * @param user to lock.
+     * @return held lock.
+     */
+    private ReentrantLock lockUser(final String user) {
+        ReentrantLock userLock = this.userLocks[stripe(user.hashCode())];
+        userLock.lock();
+        return userLock;
+    }
+
+    /**
+     * Read a bookmark.
+     *
+     * @param user         owning the bookmark.
+     * @param bookmarkName of the bookmark.
+     * @return stored bookmark, or null if it does not exist.
+     */
+    private Bookmark get(final String user, final String bookmarkName) {
+        byte[] value = this.store.get(bookmarkKey(user, bookmarkName));
+        return value == null ? null : decodeBookmark(bookmarkName, value);
+    }
+
+    /**
+     * Check if a public link has a key other than the given keys.
+     *
+     * @param linkPrefix prefix of the keys of the link.
+     * @param excluded   keys that are ignored.
+     * @return true if the link has another key, false otherwise.
+     */
+    private boolean hasOtherKey(final byte[] linkPrefix, final List<byte[]> excluded) {
+        Iterator<Map.Entry<byte[], byte[]>> entries = this.store.scan(linkPrefix, end(linkPrefix));
+        while (entries.hasNext()) {
+            byte[] key = entries.next().getKey();
+            if (excluded.stream().noneMatch(excludedKey -> Arrays.equals(excludedKey, key))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the lock stripe of a hash.
+     *
+     * @param hash of a user or a public link.
+     * @return stripe.
+     */
+    private static int stripe(final int hash) {
+        return Math.floorMod(hash ^ (hash >>> 16), LOCK_STRIPES);
+    }
+
+    /**
+     * Create the key of a total of a lock stripe.
+     *
+     * @param kind   of the total.
+     * @param stripe of the total.
+     * @return key.
+     */
+    private static byte[] totalKey(final byte kind, final int stripe) {
+        return new byte[]{kind, (byte) stripe};
+    }
+
+    /**
+     * Create the key of a bookmark.
+     *
+     * @param user         owning the bookmark.
+     * @param bookmarkName of the bookmark.
+     * @return key.
+     */
+    private static byte[] bookmarkKey(final String user, final String bookmarkName) {
+        return key(BOOKMARK, user, bookmarkName);
+    }
+
+    /**
+     * Create the prefix of the keys of a public link.
+     *
+     * @param bookmarkLink public link.
+     * @return key prefix.
+     */
+    private static byte[] publicLinkPrefix(final BookmarkLink bookmarkLink) {
+        return key(PUBLIC_LINK, bookmarkLink.getUriName(), bookmarkLink.getUri().toString());
+    }
+
+    /**
+     * Create a key from strings.
+     *
+     * @param kind  of the key.
+     * @param parts strings of the key.
+     * @return key.
+     */
+    private static byte[] key(final byte kind, final String... parts) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(kind);
+        for (String part : parts) {
+            for (byte character : part.getBytes(StandardCharsets.UTF_8)) {
+                output.write(character);
+                if (character == 0) {
+                    output.write(ESCAPED_ZERO);
+                }
+            }
+            output.write(0);
+            output.write(TERMINATOR);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Find the end of a string in a key.
+     *
+     * @param key    holding the string.
+     * @param offset of the string.
+     * @return offset following the terminator of the string.
+     */
+    private static int stringEnd(final byte[] key, final int offset) {
+        int position = offset;
+        while (key[position] != 0 || key[position + 1] != TERMINATOR) {
+            position += key[position] == 0 ? 2 : 1;
+        }
+        return position + 2;
+    }
+
+    /**
+     * Read a string from a key.
+     *
+     * @param key    holding the string.
+     * @param offset of the string.
+     * @param end    offset following the terminator of the string.
+     * @return read string.
+     */
+    private static String readString(final byte[] key, final int offset, final int end) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(end - offset);
+        for (int position = offset; position < end - 2; position++) {
+            output.write(key[position]);
+            if (key[position] == 0) {
+                position++;
+            }
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the first key following all keys that start with the given prefix.
+     *
+     * @param prefix of the keys, ending with a string terminator.
+     * @return key following the prefixed keys.
+     */
+    private static byte[] end(final byte[] prefix) {
+        byte[] end = Arrays.copyOf(prefix, prefix.length);
+        end[end.length - 1]++;
+        return end;
+    }
+
+    /**
+     * Encode the stored fields of a bookmark, the name is part of the key.
+     *
+     * @param bookmark to encode.
+     * @return access flag followed by the location.
+     */
+    private static byte[] encodeBookmark(final Bookmark bookmark) {
+        byte[] uri = bookmark.getBookmarkLink().getUri().toString().getBytes(StandardCharsets.UTF_8);
+        byte[] value = new byte[1 + uri.length];
+        value[0] = bookmark.isPrivate() ? PRIVATE : 0;
+        System.arraycopy(uri, 0, value, 1, uri.length);
+        return value;
+    }
+
+    /**
+     * Decode a stored bookmark.
+     *
+     * @param bookmarkName of the bookmark.
+     * @param value        stored fields of the bookmark.
+     * @return decoded bookmark.
+     */
+    private static Bookmark decodeBookmark(final String bookmarkName, final byte[] value) {
+        URI uri = URI.create(new String(value, 1, value.length - 1, StandardCharsets.UTF_8));
+        return new Bookmark(new BookmarkLink(uri, bookmarkName), value[0] == PRIVATE);
+    }
+
+    /**
+     * Encode an int value.
+     *
+     * @param value to encode.
+     * @return encoded value.
+     */
+    private static byte[] encodeInt(final int value) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+    }
+
+    /**
+     * Encode a long value.
+     *
+     * @param value to encode.
+     * @return encoded value.
+     */
+    private static byte[] encodeLong(final long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    /**
+     * Modifications of the bookmarks of one user, written in one batch together with the updated counts.
+     * Must be created and committed while the stripe of the user is locked, the stripes of the modified public
+     * links are locked while the batch is committed.
+     */
+    private final class Modification {
+
+        /**
+         * User owning the modified bookmarks.
+         */
+        private final String user;
+
+        /**
+         * Modified keys.
+         */
+        private final WriteBatch batch;
+
+        /**
+         * Keys of public links that are deleted.
+         */
+        private final List<byte[]> removedLinks;
+
+        /**
+         * Keys of public links that are stored.
+         */
+        private final List<byte[]> addedLinks;
+
+        /**
+         * Prefixes of the modified public links.
+         */
+        private final List<byte[]> linkPrefixes;
+
+        /**
+         * Change of the number of bookmarks of the user.
+         */
+        private int bookmarkDelta;
+
+        /**
+         * Constructor.
+         *
+         * @param user owning the modified bookmarks.
+         */
+        Modification(final String user) {
+            this.user = user;
+            this.batch = new WriteBatch();
+            this.removedLinks = new ArrayList<>();
+            this.addedLinks = new ArrayList<>();
+            this.linkPrefixes = new ArrayList<>();
+        }
+
+        /**
+         * Store a bookmark, after the bookmark with the same name was deleted if there is one.
+         *
+         * @param bookmark to store.
+         */
+        void put(final Bookmark bookmark) {
+            this.batch.put(bookmarkKey(this.user, bookmark.getBookmarkLink().getUriName()),
+                    encodeBookmark(bookmark));
+            this.bookmarkDelta++;
+            if (!bookmark.isPrivate()) {
+                this.addedLinks.add(this.linkKey(bookmark.getBookmarkLink()));
+                this.batch.put(this.addedLinks.get(this.addedLinks.size() - 1), PRESENT);
+            }
+        }
+
+        /**
+         * Delete a stored bookmark.
+         *
+         * @param bookmark to delete.
+         */
+        void delete(final Bookmark bookmark) {
+            this.batch.delete(bookmarkKey(this.user, bookmark.getBookmarkLink().getUriName()));
+            this.bookmarkDelta--;
+            if (!bookmark.isPrivate()) {
+                this.removedLinks.add(this.linkKey(bookmark.getBookmarkLink()));
+                this.batch.delete(this.removedLinks.get(this.removedLinks.size() - 1));
+            }
+        }
+
+        /**
+         * Check if any bookmark was stored or deleted.
+         *
+         * @return true if the batch modifies bookmarks, false otherwise.
+         */
+        boolean isModified() {
+            return !this.batch.isEmpty();
+        }
+
+        /**
+         * Lock the stripes of the modified public links, update the counts and write the batch.
+         *
+         * @return sequence number of the batch.
+         */
+        long commit() {
+            int[] linkStripes = this.linkPrefixes.stream().mapToInt(prefix -> stripe(Arrays.hashCode(prefix)))
+                    .distinct().sorted().toArray();
+            return this.commitLocking(linkStripes, 0);
+        }
+
+        /**
+         * Lock the remaining stripes of the modified public links one by one, then update the counts and write the
+         * batch.
+         *
+         * @param linkStripes stripes of the modified public links, in ascending order.
+         * @param next        index of the next stripe to lock.
+         * @return sequence number of the batch.
+         */
+        private long commitLocking(final int[] linkStripes, final int next) {
+            if (next == linkStripes.length) {
+                return this.commitLocked(linkStripes);
+            }
+            ReentrantLock linkLock = DiskBookmarkStore.this.linkLocks[linkStripes[next]];
+            linkLock.lock();
+            try {
+                return this.commitLocking(linkStripes, next + 1);
+            } finally {
+                linkLock.unlock();
+            }
+        }
+
+        /**
+         * Update the counts and write the batch while the stripes of the user and the modified links are locked.
+         *
+         * @param linkStripes locked stripes of the modified public links, in ascending order.
+         * @return sequence number of the batch.
+         */
+        private long commitLocked(final int[] linkStripes) {
+            int[] linkDeltas = new int[linkStripes.length];
+            int linkDelta = 0;
+            boolean linksChanged = false;
+            for (byte[] linkPrefix : this.linkPrefixes) {
+                boolean before = hasOtherKey(linkPrefix, Collections.emptyList());
+                boolean after = this.addedLinks.stream().anyMatch(key -> this.startsWith(key, linkPrefix))
+                        || hasOtherKey(linkPrefix, this.removedLinks);
+                if (before != after) {
+                    linkDeltas[Arrays.binarySearch(linkStripes, stripe(Arrays.hashCode(linkPrefix)))] +=
+                            after ? 1 : -1;
+                    linkDelta += after ? 1 : -1;
+                    linksChanged = true;
+                }
+            }
+
+            byte[] userKey = key(USER, this.user);
+            byte[] userCount = DiskBookmarkStore.this.store.get(userKey);
+            if (userCount == null || this.bookmarkDelta != 0) {
+                int count = userCount == null ? 0 : ByteBuffer.wrap(userCount).getInt();
+                this.batch.put(userKey, encodeInt(count + this.bookmarkDelta));
+            }
+            int userStripe = stripe(this.user.hashCode());
+            long stripeBookmarkCount = DiskBookmarkStore.this.stripeBookmarkCounts[userStripe] + this.bookmarkDelta;
+            if (this.bookmarkDelta != 0) {
+                this.batch.put(totalKey(BOOKMARK_TOTAL, userStripe), encodeLong(stripeBookmarkCount));
+            }
+            for (int i = 0; i < linkStripes.length; i++) {
+                if (linkDeltas[i] != 0) {
+                    this.batch.put(totalKey(LINK_TOTAL, linkStripes[i]),
+                            encodeInt(DiskBookmarkStore.this.stripeLinkCounts[linkStripes[i]] + linkDeltas[i]));
+                }
+            }
+
+            long sequence = DiskBookmarkStore.this.store.write(this.batch);
+            DiskBookmarkStore.this.stripeBookmarkCounts[userStripe] = stripeBookmarkCount;
+            for (int i = 0; i < linkStripes.length; i++) {
+                DiskBookmarkStore.this.stripeLinkCounts[linkStripes[i]] += linkDeltas[i];
+            }
+            DiskBookmarkStore.this.bookmarkCount.addAndGet(this.bookmarkDelta);
+            DiskBookmarkStore.this.publicLinkCount.addAndGet(linkDelta);
+            if (linksChanged) {
+                DiskBookmarkStore.this.publicVersion.incrementAndGet();
+            }
+            return sequence;
+        }
+
+        /**
+         * Create the key of a public link of the user and remember the link prefix.
+         *
+         * @param bookmarkLink public link.
+         * @return key.
+         */
+        private byte[] linkKey(final BookmarkLink bookmarkLink) {
+            byte[] linkPrefix = publicLinkPrefix(bookmarkLink);
+            if (this.linkPrefixes.stream().noneMatch(prefix -> Arrays.equals(prefix, linkPrefix))) {
+                this.linkPrefixes.add(linkPrefix);
+            }
+            byte[] userPart = key(PUBLIC_LINK, this.user);
+            byte[] key = Arrays.copyOf(linkPrefix, linkPrefix.length + userPart.length - 1);
+            System.arraycopy(userPart, 1, key, linkPrefix.length, userPart.length - 1);
+            return key;
+        }
+
+        /**
+         * Check if a key starts with a prefix.
+         *
+         * @param key    to check.
+         * @param prefix to look for.
+         * @return true if the key starts with the prefix, false otherwise.
+         */
+        private boolean startsWith(final byte[] key, final byte[] prefix) {
+            return key.length >= prefix.length
+                    && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+        }
+    }
+
+    /**
+     * Read-only view of the bookmarks of a user, read from the key-value store while it is iterated.
+     */
+    private final class BookmarkView extends AbstractCollection<Bookmark> {
+
+        /**
+         * User owning the bookmarks.
+         */
+        private final String user;
+
+        /**
+         * Name after which the view starts, or null to start from the first bookmark.
+         */
+        private final String bookmarkName;
+
+        /**
+         * Constructor.
+         *
+         * @param user         owning the bookmarks.
+         * @param bookmarkName after which the view starts, or null to start from the first bookmark.
+         */
+        BookmarkView(final String user, final String bookmarkName) {
+            this.user = user;
+            this.bookmarkName = bookmarkName;
+        }
+
+        @Override
+        public Iterator<Bookmark> iterator() {
+            byte[] userPrefix = key(BOOKMARK, this.user);
+            byte[] from = userPrefix;
+            if (this.bookmarkName != null) {
+                byte[] after = bookmarkKey(this.user, this.bookmarkName);
+                from = Arrays.copyOf(after, after.length + 1);
+            }
+            Iterator<Map.Entry<byte[], byte[]>> entries = DiskBookmarkStore.this.store.scan(from, end(userPrefix));
+            return new Iterator<Bookmark>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public Bookmark next() {
+                    Map.Entry<byte[], byte[]> entry = entries.next();
+                    byte[] key = entry.getKey();
+                    String name = readString(key, userPrefix.length, key.length);
+                    return decodeBookmark(name, entry.getValue());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            if (this.bookmarkName == null) {
+                byte[] userCount = DiskBookmarkStore.this.store.get(key(USER, this.user));
+                return userCount == null ? 0 : ByteBuffer.wrap(userCount).getInt();
+            }
+            int size = 0;
+            for (Iterator<Bookmark> iterator = this.iterator(); iterator.hasNext(); iterator.next()) {
+                size++;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Iterates the distinct public links from a key, looking up the next link after every link.
+     */
+    private final class PublicLinkIterator implements Iterator<BookmarkLink> {
+
+        /**
+         * Key from which the next link is looked up, null if there are no more links.
+         */
+        private byte[] from;
+
+        /**
+         * Next link, null if it was not looked up yet or there are no more links.
+         */
+        private BookmarkLink next;
+
+        /**
+         * Constructor.
+         *
+         * @param from key from which the links are iterated.
+         */
+        PublicLinkIterator(final byte[] from) {
+            this.from = from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.next == null && this.from != null) {
+                Iterator<Map.Entry<byte[], byte[]>> entries =
+                        DiskBookmarkStore.this.store.scan(this.from, new byte[]{PUBLIC_LINK + 1});
+                if (entries.hasNext()) {
+                    byte[] key = entries.next().getKey();
+                    int nameEnd = stringEnd(key, 1);
+                    int uriEnd = stringEnd(key, nameEnd);
+                    this.next = new BookmarkLink(URI.create(readString(key, nameEnd, uriEnd)),
+                            readString(key, 1, nameEnd));
+                    this.from = end(Arrays.copyOf(key, uriEnd));
+                } else {
+                    this.from = null;
+                }
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public BookmarkLink next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BookmarkLink link = this.next;
+            this.next = null;
+            return link;
+        }
+    }
+
+    /**
+     * Immutable set of public bookmark links created for a specific version.
+     */
+    private static final class PublicLinks {
+
+        /**
+         * Version the set was created for.
+         */
+        private final long version;
+
+        /**
+         * Public bookmark links.
+         */
+        private final Set<org.example.app.bookmark_api.model.BookmarkLink> links;
+
+        /**
+         * Constructor.
+         *
+         * @param version the set was created for.
+         * @param links   public bookmark links.
+         */
+        private PublicLinks(final long version, final Set<org.example.app.bookmark_api.model.BookmarkLink> links) {
+            this.version = version;
+            this.links = links;
+        }
+    }
+}
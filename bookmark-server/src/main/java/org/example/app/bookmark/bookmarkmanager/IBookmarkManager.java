@@ -1,16 +1,19 @@
 package org.example.app.bookmark.bookmarkmanager;
 
+import org.example.app.bookmark.persistence.IRecoverable;
 import org.example.app.bookmark_api.model.Bookmark;
 import org.example.app.bookmark_api.model.BookmarkLink;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Interface that describes the bookmark manager.
+ * The bookmarks of all users can be rebuilt from log records.
  */
-public interface IBookmarkManager {
+public interface IBookmarkManager extends IRecoverable {
 
     /**
      * Get all bookmarks for authorized user.
@@ -22,6 +25,39 @@ public interface IBookmarkManager {
     Map.Entry<BookmarkStatus, List<Bookmark>>
     getBookmarks(final String authString);
 
+    /**
+     * Get a page of bookmarks for authorized user, ordered by bookmark name.
+     *
+     * @param authString to authorize the user.
+     * @param cursor     pointing to the page, or null for the first page.
+     * @param limit      maximum number of bookmarks on the page.
+     * @return status code signaling the success or failure of the operation
+     *         and a page of user bookmarks if successful.
+     */
+    Map.Entry<BookmarkStatus, BookmarkPage<Bookmark>>
+    getBookmarks(final String authString, final String cursor, final int limit);
+
+    /**
+     * Get the entity tag of the bookmarks of authorized user, changed by every modification of the user bookmarks
+     * and by every restart. Does not read the bookmarks.
+     *
+     * @param authString to authorize the user.
+     * @return status code signaling the success or failure of the operation
+     *         and the entity tag if successful.
+     */
+    Map.Entry<BookmarkStatus, String> getBookmarkTag(final String authString);
+
+    /**
+     * Get a read-only view of all bookmarks for authorized user, ordered by bookmark name.
+     * The view is backed by the bookmark store, so no copy of the bookmarks is created.
+     *
+     * @param authString to authorize the user.
+     * @return status code signaling the success or failure of the operation
+     *         and a view of user bookmarks if successful.
+     */
+    Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>>
+    getBookmarkView(final String authString);
+
     /**
      * Add bookmark to the list of bookmarks for the user.
      *
@@ -31,6 +67,18 @@ public interface IBookmarkManager {
      */
     BookmarkStatus addBookmark(final Bookmark bookmark, final String authString);
 
+    /**
+     * Add several bookmarks to the list of bookmarks for the user, under a single authorization.
+     * The valid bookmarks are added in one pass, in the given order.
+     *
+     * @param bookmarks  to add, at most {@link BookmarkManager#MAXIMUM_BATCH_SIZE}.
+     * @param authString to authorize the user.
+     * @return status code signaling the success or failure of the operation
+     *         and the status of each bookmark, in the same order, if successful.
+     */
+    Map.Entry<BookmarkStatus, List<BookmarkStatus>>
+    addBookmarks(final List<Bookmark> bookmarks, final String authString);
+
     /**
      * Add bookmark to the list of bookmarks for the user.
      *
@@ -60,4 +108,40 @@ public interface IBookmarkManager {
     Map.Entry<BookmarkStatus, Set<BookmarkLink>>
     getPublicBookmarks(final String authString);
 
+    /**
+     * Get a page of public bookmarks, ordered by bookmark name and location.
+     *
+     * @param authString to authorize the user.
+     * @param cursor     pointing to the page, or null for the first page.
+     * @param limit      maximum number of bookmarks on the page.
+     * @return status code signaling the success or failure of the operation
+     *         and a page of public bookmarks if successful.
+     */
+    Map.Entry<BookmarkStatus, BookmarkPage<BookmarkLink>>
+    getPublicBookmarks(final String authString, final String cursor, final int limit);
+
+    /**
+     * Get the entity tag of the public bookmarks, changed by every modification that may change the public
+     * bookmarks and by every restart. Does not read the bookmarks.
+     *
+     * @param authString to authorize the user.
+     * @return status code signaling the success or failure of the operation
+     *         and the entity tag if successful.
+     */
+    Map.Entry<BookmarkStatus, String> getPublicBookmarkTag(final String authString);
+
+    /**
+     * Get the number of bookmarks of all users.
+     *
+     * @return bookmark count.
+     */
+    long getBookmarkCount();
+
+    /**
+     * Get the number of distinct public bookmark links.
+     *
+     * @return public bookmark link count.
+     */
+    int getPublicBookmarkCount();
+
 }
@@ -0,0 +1,127 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.persistence.IRecoverable;
+import org.example.app.bookmark_api.model.BookmarkLink;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Storage engine holding the bookmarks of all users and the index of public bookmark links.
+ * The engine only stores validated bookmarks, authorization and the mapping of results to statuses are done by
+ * the bookmark manager. Modifications are atomic per user and durable when they return, engines that keep their
+ * data in memory are recovered through the write-ahead log and snapshots.
+ */
+public interface IBookmarkStore extends IRecoverable {
+
+    /**
+     * Read the stored bookmarks. Must be called before the store is used.
+     *
+     * @throws IOException if the stored bookmarks cannot be read.
+     */
+    void open() throws IOException;
+
+    /**
+     * Release the resources of the store once it is not used anymore.
+     *
+     * @throws InterruptedException if interrupted while waiting for pending writes.
+     */
+    void close() throws InterruptedException;
+
+    /**
+     * Add a bookmark if the user has no bookmark with the same name.
+     *
+     * @param user     owning the bookmark.
+     * @param bookmark to add.
+     * @return true if the bookmark was added, false if the name is already taken.
+     */
+    boolean add(String user, Bookmark bookmark);
+
+    /**
+     * Add several bookmarks in one pass, each bookmark is added if the user has no bookmark with the same name,
+     * including the bookmarks added before it in the same call. The user is locked once for all bookmarks.
+     *
+     * @param user      owning the bookmarks.
+     * @param bookmarks to add, in order.
+     * @return for each bookmark true if it was added, false if the name is already taken.
+     */
+    boolean[] addAll(String user, List<Bookmark> bookmarks);
+
+    /**
+     * Remove a bookmark.
+     *
+     * @param user         owning the bookmark.
+     * @param bookmarkName of the bookmark to remove.
+     * @return true if the bookmark was removed, false if it does not exist.
+     */
+    boolean remove(String user, String bookmarkName);
+
+    /**
+     * Replace a bookmark with a new bookmark, that may have a different name.
+     *
+     * @param user         owning the bookmark.
+     * @param bookmarkName of the bookmark to replace.
+     * @param bookmark     that replaces the existing bookmark.
+     * @return true if the bookmark was replaced, false if it does not exist or another bookmark has the new name.
+     */
+    boolean replace(String user, String bookmarkName, Bookmark bookmark);
+
+    /**
+     * Check if the store holds or held bookmarks of a user.
+     *
+     * @param user to check.
+     * @return true if bookmarks of the user were stored, false otherwise.
+     */
+    boolean containsUser(String user);
+
+    /**
+     * Check if a user has a bookmark with the given name.
+     *
+     * @param user         owning the bookmark.
+     * @param bookmarkName to check.
+     * @return true if the bookmark exists, false otherwise.
+     */
+    boolean contains(String user, String bookmarkName);
+
+    /**
+     * Read-only view of the bookmarks of a user whose names follow the given name, ordered by bookmark name.
+     *
+     * @param user         owning the bookmarks.
+     * @param bookmarkName after which to start, or null to start from the first bookmark.
+     * @return bookmarks of the user, read while the view is iterated.
+     */
+    Collection<Bookmark> getBookmarks(String user, String bookmarkName);
+
+    /**
+     * Get the number of bookmarks of all users.
+     *
+     * @return bookmark count.
+     */
+    long getBookmarkCount();
+
+    /**
+     * Get an immutable set of all public bookmark links.
+     *
+     * @return set of public bookmark links.
+     */
+    Set<BookmarkLink> getPublicBookmarks();
+
+    /**
+     * Get a page of public bookmark links, ordered by bookmark name and location.
+     *
+     * @param cursor pointing to the page, or null for the first page.
+     * @param limit  maximum number of links on the page.
+     * @return page of public bookmark links, or null if the cursor is not valid.
+     */
+    BookmarkPage<BookmarkLink> getPublicBookmarks(String cursor, int limit);
+
+    /**
+     * Get the number of distinct public bookmark links.
+     *
+     * @return public bookmark link count.
+     */
+    int getPublicBookmarkCount();
+}
@@ -0,0 +1,214 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.persistence.IJournal;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.example.app.bookmark.persistence.SnapshotSection;
+import org.example.app.bookmark_api.model.BookmarkLink;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Storage engine keeping all bookmarks on the heap.
+ * Modifications are recorded in the journal, so the bookmarks are recovered from the write-ahead log and snapshots.
+ */
+public final class MemoryBookmarkStore implements IBookmarkStore {
+
+    /**
+     * Journal recording bookmark modifications.
+     */
+    private final IJournal journal;
+
+    /**
+     * Map used to store bookmarks for each user.
+     */
+    private final ConcurrentMap<String, UserBookmarks> userBookmarkMap;
+
+    /**
+     * Index of all known public bookmarks.
+     */
+    private final PublicBookmarkIndex publicBookmarks;
+
+    /**
+     * Number of bookmarks of all users, kept up to date by the bookmarks of each user.
+     */
+    private final LongAdder bookmarkCount;
+
+    /**
+     * Users whose bookmarks were loaded from a snapshot and may not be decoded yet.
+     */
+    private final List<UserBookmarks> loadedUserBookmarks;
+
+    /**
+     * Flag indicating that bookmarks loaded from a snapshot may not be decoded yet,
+     * so the public bookmark index is not complete.
+     */
+    private volatile boolean publicIndexIncomplete;
+
+    /**
+     * Constructor.
+     *
+     * @param journal recording bookmark modifications.
+     */
+    public MemoryBookmarkStore(final IJournal journal) {
+        this.journal = journal;
+        this.userBookmarkMap = new ConcurrentHashMap<>();
+        this.publicBookmarks = new PublicBookmarkIndex();
+        this.bookmarkCount = new LongAdder();
+        this.loadedUserBookmarks = new ArrayList<>();
+    }
+
+    @Override
+    public void open() {
+        // The bookmarks are recovered by the persistence
+    }
+
+    @Override
+    public void close() {
+        // The bookmarks are stored by the persistence
+    }
+
+    @Override
+    public boolean add(final String user, final Bookmark bookmark) {
+        return this.awaitDurable(this.getUserBookmarks(user).add(bookmark));
+    }
+
+    @Override
+    public boolean[] addAll(final String user, final List<Bookmark> bookmarks) {
+        boolean[] added = new boolean[bookmarks.size()];
+        this.awaitDurable(this.getUserBookmarks(user).addAll(bookmarks, added));
+        return added;
+    }
+
+    @Override
+    public boolean remove(final String user, final String bookmarkName) {
+        UserBookmarks userBookmarks = this.userBookmarkMap.get(user);
+        return userBookmarks != null && this.awaitDurable(userBookmarks.remove(bookmarkName));
+    }
+
+    @Override
+    public boolean replace(final String user, final String bookmarkName, final Bookmark bookmark) {
+        UserBookmarks userBookmarks = this.userBookmarkMap.get(user);
+        return userBookmarks != null && this.awaitDurable(userBookmarks.replace(bookmarkName, bookmark));
+    }
+
+    @Override
+    public boolean containsUser(final String user) {
+        return this.userBookmarkMap.containsKey(user);
+    }
+
+    @Override
+    public boolean contains(final String user, final String bookmarkName) {
+        UserBookmarks userBookmarks = this.userBookmarkMap.get(user);
+        return userBookmarks != null && userBookmarks.contains(bookmarkName);
+    }
+
+    @Override
+    public Collection<Bookmark> getBookmarks(final String user, final String bookmarkName) {
+        UserBookmarks userBookmarks = this.userBookmarkMap.get(user);
+        return userBookmarks == null ? Collections.emptyList() : userBookmarks.valuesAfter(bookmarkName);
+    }
+
+    @Override
+    public long getBookmarkCount() {
+        return this.bookmarkCount.sum();
+    }
+
+    @Override
+    public Set<BookmarkLink> getPublicBookmarks() {
+        this.completePublicIndex();
+        return this.publicBookmarks.getPublicBookmarks();
+    }
+
+    @Override
+    public BookmarkPage<BookmarkLink> getPublicBookmarks(final String cursor, final int limit) {
+        this.completePublicIndex();
+        return this.publicBookmarks.getPage(cursor, limit);
+    }
+
+    @Override
+    public int getPublicBookmarkCount() {
+        this.completePublicIndex();
+        return this.publicBookmarks.size();
+    }
+
+    @Override
+    public void apply(final LogRecord record) {
+        switch (record.getType()) {
+            case BOOKMARK_ADDED:
+                this.getUserBookmarks(record.getUsername()).put(record.getBookmark());
+                break;
+            case BOOKMARK_UPDATED:
+                UserBookmarks userBookmarks = this.getUserBookmarks(record.getUsername());
+                userBookmarks.delete(record.getBookmarkName());
+                userBookmarks.put(record.getBookmark());
+                break;
+            case BOOKMARK_DELETED:
+                this.getUserBookmarks(record.getUsername()).delete(record.getBookmarkName());
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public synchronized void load(final SnapshotSection section) {
+        if (section.getType() == LogRecord.Type.BOOKMARK_ADDED) {
+            UserBookmarks userBookmarks = this.getUserBookmarks(section.getOwner());
+            userBookmarks.load(section);
+            this.loadedUserBookmarks.add(userBookmarks);
+            this.publicIndexIncomplete = true;
+        }
+    }
+
+    @Override
+    public void export(final ISnapshotWriter snapshot) {
+        this.userBookmarkMap.values().forEach(userBookmarks -> userBookmarks.export(snapshot));
+    }
+
+    /**
+     * Wait until a recorded modification is durable.
+     *
+     * @param sequence number of the journal record, or {@link UserBookmarks#NOT_MODIFIED}.
+     * @return true if something was modified, false otherwise.
+     */
+    private boolean awaitDurable(final long sequence) {
+        if (sequence == UserBookmarks.NOT_MODIFIED) {
+            return false;
+        }
+        this.journal.awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * Decode all bookmarks loaded from a snapshot, so their public bookmarks are in the public bookmark index.
+     */
+    private void completePublicIndex() {
+        if (this.publicIndexIncomplete) {
+            synchronized (this) {
+                this.loadedUserBookmarks.forEach(UserBookmarks::decode);
+                this.loadedUserBookmarks.clear();
+                this.publicIndexIncomplete = false;
+            }
+        }
+    }
+
+    /**
+     * Get the bookmarks of a user, creating them if the user has none yet.
+     *
+     * @param user owning the bookmarks.
+     * @return bookmarks of the user.
+     */
+    private UserBookmarks getUserBookmarks(final String user) {
+        return this.userBookmarkMap.computeIfAbsent(user,
+                key -> new UserBookmarks(this.publicBookmarks, this.bookmarkCount, this.journal, key));
+    }
+}
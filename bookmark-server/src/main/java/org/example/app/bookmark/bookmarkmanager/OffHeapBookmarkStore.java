@@ -0,0 +1,592 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.persistence.IJournal;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.example.app.bookmark.persistence.SnapshotSection;
+import org.example.app.bookmark_api.model.BookmarkLink;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Storage engine keeping the bookmarks in off-heap slabs, so large datasets do not fill the old generation.
+ * Each user only keeps an array of record handles on the heap, sorted by the UTF-8 bytes of the bookmark names,
+ * and the index of distinct public links keeps link handles and reference counts. Bookmarks are decoded when read.
+ * Modifications are recorded in the journal, so the bookmarks are recovered from the write-ahead log and snapshots.
+ */
+public final class OffHeapBookmarkStore implements IBookmarkStore {
+
+    /**
+     * Number of bookmarks decoded while the user is locked by an iterator.
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    /**
+     * Journal recording bookmark modifications.
+     */
+    private final IJournal journal;
+
+    /**
+     * Off-heap memory holding the bookmarks of all users.
+     */
+    private final BookmarkArena arena;
+
+    /**
+     * Bookmark handles of each user.
+     */
+    private final ConcurrentMap<String, UserHandles> userHandleMap;
+
+    /**
+     * Index of all known public bookmarks, also stored in the arena.
+     */
+    private final OffHeapLinkIndex publicBookmarks;
+
+    /**
+     * Number of bookmarks of all users.
+     */
+    private final AtomicLong bookmarkCount;
+
+    /**
+     * Constructor.
+     *
+     * @param journal recording bookmark modifications.
+     */
+    public OffHeapBookmarkStore(final IJournal journal) {
+        this.journal = journal;
+        this.arena = new BookmarkArena();
+        this.userHandleMap = new ConcurrentHashMap<>();
+        this.publicBookmarks = new OffHeapLinkIndex(this.arena);
+        this.bookmarkCount = new AtomicLong();
+    }
+
+    @Override
+    public void open() {
+        // The bookmarks are recovered by the persistence
+    }
+
+    @Override
+    public void close() {
+        // The bookmarks are stored by the persistence, the slabs are released with the store
+    }
+
+    @Override
+    public boolean add(final String user, final Bookmark bookmark) {
+        long sequence = this.getUserHandles(user).add(bookmark);
+        return this.awaitDurable(sequence);
+    }
+
+    @Override
+    public boolean[] addAll(final String user, final List<Bookmark> bookmarks) {
+        boolean[] added = new boolean[bookmarks.size()];
+        this.awaitDurable(this.getUserHandles(user).addAll(bookmarks, added));
+        return added;
+    }
+
+    @Override
+    public boolean remove(final String user, final String bookmarkName) {
+        UserHandles userHandles = this.userHandleMap.get(user);
+        return userHandles != null && this.awaitDurable(userHandles.remove(bookmarkName));
+    }
+
+    @Override
+    public boolean replace(final String user, final String bookmarkName, final Bookmark bookmark) {
+        UserHandles userHandles = this.userHandleMap.get(user);
+        return userHandles != null && this.awaitDurable(userHandles.replace(bookmarkName, bookmark));
+    }
+
+    @Override
+    public boolean containsUser(final String user) {
+        return this.userHandleMap.containsKey(user);
+    }
+
+    @Override
+    public boolean contains(final String user, final String bookmarkName) {
+        UserHandles userHandles = this.userHandleMap.get(user);
+        return userHandles != null && userHandles.contains(bookmarkName);
+    }
+
+    @Override
+    public Collection<Bookmark> getBookmarks(final String user, final String bookmarkName) {
+        UserHandles userHandles = this.userHandleMap.get(user);
+        return userHandles == null ? Collections.emptyList() : new BookmarkView(userHandles, bookmarkName);
+    }
+
+    @Override
+    public long getBookmarkCount() {
+        return this.bookmarkCount.get();
+    }
+
+    @Override
+    public Set<BookmarkLink> getPublicBookmarks() {
+        return this.publicBookmarks.getPublicBookmarks();
+    }
+
+    @Override
+    public BookmarkPage<BookmarkLink> getPublicBookmarks(final String cursor, final int limit) {
+        return this.publicBookmarks.getPage(cursor, limit);
+    }
+
+    @Override
+    public int getPublicBookmarkCount() {
+        return this.publicBookmarks.size();
+    }
+
+    @Override
+    public void apply(final LogRecord record) {
+        switch (record.getType()) {
+            case BOOKMARK_ADDED:
+                this.getUserHandles(record.getUsername()).put(record.getBookmark());
+                break;
+            case BOOKMARK_UPDATED:
+                UserHandles userHandles = this.getUserHandles(record.getUsername());
+                userHandles.delete(record.getBookmarkName());
+                userHandles.put(record.getBookmark());
+                break;
+            case BOOKMARK_DELETED:
+                this.getUserHandles(record.getUsername()).delete(record.getBookmarkName());
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void load(final SnapshotSection section) {
+        if (section.getType() == LogRecord.Type.BOOKMARK_ADDED) {
+            UserHandles userHandles = this.getUserHandles(section.getOwner());
+            section.forEach(record -> userHandles.put(record.getBookmark()));
+        }
+    }
+
+    @Override
+    public void export(final ISnapshotWriter snapshot) {
+        this.userHandleMap.values().forEach(userHandles -> userHandles.export(snapshot));
+    }
+
+    /**
+     * Get the number of off-heap bytes allocated for bookmarks.
+     *
+     * @return allocated off-heap bytes.
+     */
+    public long getAllocatedBytes() {
+        return this.arena.getAllocatedBytes();
+    }
+
+    /**
+     * Get the number of off-heap bytes used by stored bookmarks.
+     *
+     * @return used off-heap bytes.
+     */
+    public long getUsedBytes() {
+        return this.arena.getUsedBytes();
+    }
+
+    /**
+     * Wait until a recorded modification is durable.
+     *
+     * @param sequence number of the journal record, or {@link UserBookmarks#NOT_MODIFIED}.
+     * @return true if something was modified, false otherwise.
+     */
+    private boolean awaitDurable(final long sequence) {
+        if (sequence == UserBookmarks.NOT_MODIFIED) {
+            return false;
+        }
+        this.journal.awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * Get the bookmark handles of a user, creating them if the user has none yet.
+     *
+     * @param user owning the bookmarks.
+     * @return bookmark handles of the user.
+     */
+    private UserHandles getUserHandles(final String user) {
+        return this.userHandleMap.computeIfAbsent(user, UserHandles::new);
+    }
+
+    /**
+     * Encode a bookmark name.
+     *
+     * @param bookmarkName to encode.
+     * @return UTF-8 bytes of the name.
+     */
+    private static byte[] encodeName(final String bookmarkName) {
+        return bookmarkName.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Record handles of the bookmarks of a single user, sorted by bookmark name.
+     * All access is synchronized on the user, so a record is never read after a modification of the user freed it.
+     * Modifications are recorded in the journal while the user is locked, so the records of a user are in the
+     * same order as the modifications.
+     */
+    private final class UserHandles {
+
+        /**
+         * Name of the user owning the bookmarks.
+         */
+        private final String username;
+
+        /**
+         * Handles of the stored records, the first {@link #size} are used.
+         */
+        private long[] handles;
+
+        /**
+         * Number of bookmarks of the user.
+         */
+        private int size;
+
+        /**
+         * Constructor.
+         *
+         * @param username name of the user owning the bookmarks.
+         */
+        UserHandles(final String username) {
+            this.username = username;
+            this.handles = new long[1];
+        }
+
+        /**
+         * Add the bookmark if no bookmark with the same name exists.
+         *
+         * @param bookmark to add.
+         * @return sequence number of the journal record, or {@link UserBookmarks#NOT_MODIFIED} if the name is
+         *         already taken.
+         */
+        synchronized long add(final Bookmark bookmark) {
+            byte[] name = encodeName(bookmark.getBookmarkLink().getUriName());
+            int index = this.search(name);
+            if (index >= 0) {
+                return UserBookmarks.NOT_MODIFIED;
+            }
+            this.insert(-index - 1, name, bookmark);
+            return OffHeapBookmarkStore.this.journal.append(LogRecord.bookmarkAdded(this.username, bookmark));
+        }
+
+        /**
+         * Add the bookmarks whose names are not taken yet, in order.
+         *
+         * @param bookmarks to add.
+         * @param added     set to true for each added bookmark.
+         * @return sequence number of the last journal record, or {@link UserBookmarks#NOT_MODIFIED} if no bookmark
+         *         was added.
+         */
+        synchronized long addAll(final List<Bookmark> bookmarks, final boolean[] added) {
+            long sequence = UserBookmarks.NOT_MODIFIED;
+            for (int i = 0; i < bookmarks.size(); i++) {
+                Bookmark bookmark = bookmarks.get(i);
+                byte[] name = encodeName(bookmark.getBookmarkLink().getUriName());
+                int index = this.search(name);
+                if (index < 0) {
+                    this.insert(-index - 1, name, bookmark);
+                    sequence = OffHeapBookmarkStore.this.journal.append(
+                            LogRecord.bookmarkAdded(this.username, bookmark));
+                    added[i] = true;
+                }
+            }
+            return sequence;
+        }
+
+        /**
+         * Remove the bookmark with the given name.
+         *
+         * @param bookmarkName of the bookmark to remove.
+         * @return sequence number of the journal record, or {@link UserBookmarks#NOT_MODIFIED} if the bookmark
+         *         does not exist.
+         */
+        synchronized long remove(final String bookmarkName) {
+            if (!this.delete(bookmarkName)) {
+                return UserBookmarks.NOT_MODIFIED;
+            }
+            return OffHeapBookmarkStore.this.journal.append(LogRecord.bookmarkDeleted(this.username, bookmarkName));
+        }
+
+        /**
+         * Replace the bookmark with the given name with a new bookmark, that may have a different name.
+         *
+         * @param bookmarkName of the bookmark to replace.
+         * @param bookmark     that replaces the existing bookmark.
+         * @return sequence number of the journal record, or {@link UserBookmarks#NOT_MODIFIED} if the bookmark
+         *         does not exist or another bookmark has the new name.
+         */
+        synchronized long replace(final String bookmarkName, final Bookmark bookmark) {
+            String newName = bookmark.getBookmarkLink().getUriName();
+            if (!newName.equals(bookmarkName) && this.contains(newName) || !this.delete(bookmarkName)) {
+                return UserBookmarks.NOT_MODIFIED;
+            }
+            this.put(bookmark);
+            return OffHeapBookmarkStore.this.journal.append(
+                    LogRecord.bookmarkUpdated(this.username, bookmarkName, bookmark));
+        }
+
+        /**
+         * Store the bookmark, replacing a bookmark with the same name, without recording it.
+         * Used to recover the bookmarks.
+         *
+         * @param bookmark to store.
+         */
+        synchronized void put(final Bookmark bookmark) {
+            byte[] name = encodeName(bookmark.getBookmarkLink().getUriName());
+            int index = this.search(name);
+            if (index >= 0) {
+                this.removeAt(index);
+            } else {
+                index = -index - 1;
+            }
+            this.insert(index, name, bookmark);
+        }
+
+        /**
+         * Remove the bookmark with the given name, if it exists, without recording it.
+         * Used to recover the bookmarks.
+         *
+         * @param bookmarkName of the bookmark to remove.
+         * @return true if the bookmark was removed, false if it does not exist.
+         */
+        synchronized boolean delete(final String bookmarkName) {
+            int index = this.search(encodeName(bookmarkName));
+            if (index < 0) {
+                return false;
+            }
+            this.removeAt(index);
+            return true;
+        }
+
+        /**
+         * Check if a bookmark with the given name exists.
+         *
+         * @param bookmarkName to check.
+         * @return true if the bookmark exists, false otherwise.
+         */
+        synchronized boolean contains(final String bookmarkName) {
+            return this.search(encodeName(bookmarkName)) >= 0;
+        }
+
+        /**
+         * Number of bookmarks owned by the user.
+         *
+         * @return bookmark count.
+         */
+        synchronized int size() {
+            return this.size;
+        }
+
+        /**
+         * Decode the bookmarks following a name.
+         *
+         * @param name  after which to start, encoded as UTF-8, or null to start from the first bookmark.
+         * @param chunk receiving at most {@link #CHUNK_SIZE} bookmarks.
+         * @return true if the last bookmark of the user was decoded, false otherwise.
+         */
+        synchronized boolean readChunk(final byte[] name, final List<Bookmark> chunk) {
+            int index = 0;
+            if (name != null) {
+                index = this.search(name);
+                index = index >= 0 ? index + 1 : -index - 1;
+            }
+            int end = Math.min(this.size, index + CHUNK_SIZE);
+            for (; index < end; index++) {
+                chunk.add(OffHeapBookmarkStore.this.arena.get(this.handles[index]));
+            }
+            return end == this.size;
+        }
+
+        /**
+         * Write the bookmarks to a snapshot.
+         *
+         * @param snapshot writer receiving the bookmarks.
+         */
+        synchronized void export(final ISnapshotWriter snapshot) {
+            for (int i = 0; i < this.size; i++) {
+                snapshot.write(LogRecord.bookmarkAdded(this.username,
+                        OffHeapBookmarkStore.this.arena.get(this.handles[i])));
+            }
+        }
+
+        /**
+         * Find a bookmark by name.
+         *
+         * @param name encoded as UTF-8.
+         * @return index of the bookmark, or -(insertion point) - 1 if it does not exist.
+         */
+        private int search(final byte[] name) {
+            int low = 0;
+            int high = this.size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int order = OffHeapBookmarkStore.this.arena.compareName(this.handles[middle], name);
+                if (order < 0) {
+                    low = middle + 1;
+                } else if (order > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        /**
+         * Store a bookmark and insert its handle.
+         *
+         * @param index    of the handle.
+         * @param name     of the bookmark, encoded as UTF-8.
+         * @param bookmark to store.
+         */
+        private void insert(final int index, final byte[] name, final Bookmark bookmark) {
+            if (this.size == this.handles.length) {
+                this.handles = Arrays.copyOf(this.handles, this.size + (this.size >> 1) + 1);
+            }
+            System.arraycopy(this.handles, index, this.handles, index + 1, this.size - index);
+            this.handles[index] = OffHeapBookmarkStore.this.arena.allocate(name, bookmark);
+            this.size++;
+            OffHeapBookmarkStore.this.bookmarkCount.incrementAndGet();
+            if (!bookmark.isPrivate()) {
+                OffHeapBookmarkStore.this.publicBookmarks.add(bookmark.getBookmarkLink());
+            }
+        }
+
+        /**
+         * Remove a handle and free its record.
+         *
+         * @param index of the handle.
+         */
+        private void removeAt(final int index) {
+            long handle = this.handles[index];
+            if (!OffHeapBookmarkStore.this.arena.isPrivate(handle)) {
+                OffHeapBookmarkStore.this.publicBookmarks.remove(
+                        OffHeapBookmarkStore.this.arena.get(handle).getBookmarkLink());
+            }
+            OffHeapBookmarkStore.this.arena.free(handle);
+            System.arraycopy(this.handles, index + 1, this.handles, index, this.size - index - 1);
+            this.size--;
+            OffHeapBookmarkStore.this.bookmarkCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Read-only view of the bookmarks of a user, decoded in chunks while the view is iterated.
+     * Like the views of concurrent collections, iterators reflect modifications made after they were created
+     * for the bookmarks they have not returned yet.
+     */
+    private static final class BookmarkView extends AbstractCollection<Bookmark> {
+
+        /**
+         * Handles of the bookmarks.
+         */
+        private final UserHandles userHandles;
+
+        /**
+         * Name after which the view starts, or null to start from the first bookmark.
+         */
+        private final String bookmarkName;
+
+        /**
+         * Constructor.
+         *
+         * @param userHandles  handles of the bookmarks.
+         * @param bookmarkName after which the view starts, or null to start from the first bookmark.
+         */
+        BookmarkView(final UserHandles userHandles, final String bookmarkName) {
+            this.userHandles = userHandles;
+            this.bookmarkName = bookmarkName;
+        }
+
+        @Override
+        public Iterator<Bookmark> iterator() {
+            return new ChunkIterator(this.userHandles,
+                    this.bookmarkName == null ? null : encodeName(this.bookmarkName));
+        }
+
+        @Override
+        public int size() {
+            if (this.bookmarkName == null) {
+                return this.userHandles.size();
+            }
+            int size = 0;
+            for (Iterator<Bookmark> iterator = this.iterator(); iterator.hasNext(); iterator.next()) {
+                size++;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Iterates the bookmarks of a user, decoding the next chunk after the name of the last returned bookmark.
+     */
+    private static final class ChunkIterator implements Iterator<Bookmark> {
+
+        /**
+         * Handles of the bookmarks.
+         */
+        private final UserHandles userHandles;
+
+        /**
+         * Decoded bookmarks that were not returned yet.
+         */
+        private final List<Bookmark> chunk;
+
+        /**
+         * Name of the last decoded bookmark, encoded as UTF-8, or null if none was decoded.
+         */
+        private byte[] name;
+
+        /**
+         * Position of the next bookmark in the chunk.
+         */
+        private int position;
+
+        /**
+         * Flag indicating that the last bookmark of the user was decoded.
+         */
+        private boolean exhausted;
+
+        /**
+         * Constructor.
+         *
+         * @param userHandles handles of the bookmarks.
+         * @param name        after which to start, encoded as UTF-8, or null to start from the first bookmark.
+         */
+        ChunkIterator(final UserHandles userHandles, final byte[] name) {
+            this.userHandles = userHandles;
+            this.chunk = new ArrayList<>(CHUNK_SIZE);
+            this.name = name;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.position == this.chunk.size() && !this.exhausted) {
+                this.chunk.clear();
+                this.position = 0;
+                this.exhausted = this.userHandles.readChunk(this.name, this.chunk);
+                if (!this.chunk.isEmpty()) {
+                    this.name = encodeName(this.chunk.get(this.chunk.size() - 1).getBookmarkLink().getUriName());
+                }
+            }
+            return this.position < this.chunk.size();
+        }
+
+        @Override
+        public Bookmark next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.chunk.get(this.position++);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index of all public bookmark links of the off-heap engine. The links are stored in the arena, the heap only holds
+ * their handles and reference counts in sorted chunks. Links are ordered by the UTF-8 bytes of the link name and
+ * then of the link location. Links bookmarked by several users are reference counted. All access is serialized.
+ */
+final class OffHeapLinkIndex {
+
+    /**
+     * Maximum number of links in a chunk, full chunks are split in half.
+     */
+    private static final int CHUNK_CAPACITY = 512;
+
+    /**
+     * Off-heap memory holding the links.
+     */
+    private final BookmarkArena arena;
+
+    /**
+     * Sorted chunks of links. Only the first chunk may be empty, if the index is empty.
+     */
+    private final List<Chunk> chunks;
+
+    /**
+     * Number of links in the index.
+     */
+    private int size;
+
+    /**
+     * Version of the index, incremented every time a link is added to or removed from the index.
+     */
+    private long version;
+
+    /**
+     * Version the set of all public links was last created for.
+     */
+    private long publicBookmarksVersion;
+
+    /**
+     * Last created set of all public links.
+     */
+    private Set<org.example.app.bookmark_api.model.BookmarkLink> publicBookmarks;
+
+    /**
+     * Constructor.
+     *
+     * @param arena off-heap memory holding the links.
+     */
+    OffHeapLinkIndex(final BookmarkArena arena) {
+        this.arena = arena;
+        this.chunks = new ArrayList<>();
+        this.chunks.add(new Chunk());
+        this.publicBookmarksVersion = -1;
+    }
+
+    /**
+     * Register a public bookmark pointing to the given link.
+     *
+     * @param bookmarkLink of the public bookmark.
+     */
+    synchronized void add(final BookmarkLink bookmarkLink) {
+        byte[] name = encode(bookmarkLink.getUriName());
+        byte[] uri = encode(bookmarkLink.getUri().toString());
+        int chunkIndex = this.findChunk(name, uri);
+        Chunk chunk = this.chunks.get(chunkIndex);
+        int index = this.search(chunk, name, uri);
+        if (index >= 0) {
+            chunk.counts[index]++;
+            return;
+        }
+        if (chunk.size == CHUNK_CAPACITY) {
+            this.chunks.add(chunkIndex + 1, chunk.split());
+            chunkIndex = this.findChunk(name, uri);
+            chunk = this.chunks.get(chunkIndex);
+            index = this.search(chunk, name, uri);
+        }
+        chunk.insert(-index - 1, this.arena.allocate(name, new Bookmark(bookmarkLink, false)));
+        this.size++;
+        this.version++;
+    }
+
+    /**
+     * Unregister a public bookmark pointing to the given link.
+     *
+     * @param bookmarkLink of the public bookmark.
+     */
+    synchronized void remove(final BookmarkLink bookmarkLink) {
+        byte[] name = encode(bookmarkLink.getUriName());
+        byte[] uri = encode(bookmarkLink.getUri().toString());
+        int chunkIndex = this.findChunk(name, uri);
+        Chunk chunk = this.chunks.get(chunkIndex);
+        int index = this.search(chunk, name, uri);
+        if (index < 0 || --chunk.counts[index] > 0) {
+            return;
+        }
+        this.arena.free(chunk.handles[index]);
+        chunk.removeAt(index);
+        if (chunk.size == 0 && this.chunks.size() > 1) {
+            this.chunks.remove(chunkIndex);
+        }
+        this.size--;
+        this.version++;
+    }
+
+    /**
+     * Get the number of links in the index.
+     *
+     * @return link count.
+     */
+    synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Get an immutable set of all public bookmark links.
+     * The set is only recreated if the index changed since the last call.
+     *
+     * @return set of public bookmark links.
+     */
+    synchronized Set<org.example.app.bookmark_api.model.BookmarkLink> getPublicBookmarks() {
+        if (this.publicBookmarksVersion != this.version) {
+            Set<org.example.app.bookmark_api.model.BookmarkLink> links = new LinkedHashSet<>();
+            for (Chunk chunk : this.chunks) {
+                for (int i = 0; i < chunk.size; i++) {
+                    links.add(PublicBookmarkIndex.toApiBookmarkLink(
+                            this.arena.get(chunk.handles[i]).getBookmarkLink()));
+                }
+            }
+            this.publicBookmarks = Collections.unmodifiableSet(links);
+            this.publicBookmarksVersion = this.version;
+        }
+        return this.publicBookmarks;
+    }
+
+    /**
+     * Get a page of public bookmark links.
+     *
+     * @param cursor pointing to the page, or null for the first page.
+     * @param limit  maximum number of links on the page.
+     * @return page of public bookmark links, or null if the cursor is not valid.
+     */
+    synchronized BookmarkPage<org.example.app.bookmark_api.model.BookmarkLink> getPage(final String cursor,
+                                                                                      final int limit) {
+        int chunkIndex = 0;
+        int index = 0;
+        if (cursor != null) {
+            BookmarkLink after = PublicBookmarkIndex.fromCursor(cursor);
+            if (after == null) {
+                return null;
+            }
+            byte[] name = encode(after.getUriName());
+            byte[] uri = encode(after.getUri().toString());
+            chunkIndex = this.findChunk(name, uri);
+            index = this.search(this.chunks.get(chunkIndex), name, uri);
+            index = index >= 0 ? index + 1 : -index - 1;
+        }
+
+        List<org.example.app.bookmark_api.model.BookmarkLink> items = new ArrayList<>(Math.min(limit, this.size));
+        BookmarkLink last = null;
+        boolean more = false;
+        for (; chunkIndex < this.chunks.size() && !more; chunkIndex++, index = 0) {
+            Chunk chunk = this.chunks.get(chunkIndex);
+            for (; index < chunk.size; index++) {
+                if (items.size() == limit) {
+                    more = true;
+                    break;
+                }
+                last = this.arena.get(chunk.handles[index]).getBookmarkLink();
+                items.add(PublicBookmarkIndex.toApiBookmarkLink(last));
+            }
+        }
+        return new BookmarkPage<>(items, more ? PublicBookmarkIndex.toCursor(last) : null);
+    }
+
+    /**
+     * Find the chunk that holds or would hold a link.
+     *
+     * @param name of the link, encoded as UTF-8.
+     * @param uri  location of the link, encoded as UTF-8.
+     * @return index of the last chunk whose first link is not after the link, or 0 if there is none.
+     */
+    private int findChunk(final byte[] name, final byte[] uri) {
+        int low = 0;
+        int high = this.chunks.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (this.arena.compareLink(this.chunks.get(middle).handles[0], name, uri) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find a link in a chunk.
+     *
+     * @param chunk to search.
+     * @param name  of the link, encoded as UTF-8.
+     * @param uri   location of the link, encoded as UTF-8.
+     * @return index of the link, or -(insertion point) - 1 if it is not in the chunk.
+     */
+    private int search(final Chunk chunk, final byte[] name, final byte[] uri) {
+        int low = 0;
+        int high = chunk.size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int order = this.arena.compareLink(chunk.handles[middle], name, uri);
+            if (order < 0) {
+                low = middle + 1;
+            } else if (order > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * Encode a string of a link.
+     *
+     * @param value to encode.
+     * @return UTF-8 bytes of the value.
+     */
+    private static byte[] encode(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sorted handles of consecutive links and the number of public bookmarks that point to them.
+     */
+    private static final class Chunk {
+
+        /**
+         * Handles of the link records, the first {@link #size} are used.
+         */
+        private final long[] handles;
+
+        /**
+         * Number of public bookmarks pointing to each link.
+         */
+        private final int[] counts;
+
+        /**
+         * Number of links in the chunk.
+         */
+        private int size;
+
+        /**
+         * Constructor.
+         */
+        private Chunk() {
+            this.handles = new long[CHUNK_CAPACITY];
+            this.counts = new int[CHUNK_CAPACITY];
+        }
+
+        /**
+         * Insert a link pointed to by one public bookmark.
+         *
+         * @param index  of the link.
+         * @param handle of the link record.
+         */
+        private void insert(final int index, final long handle) {
+            System.arraycopy(this.handles, index, this.handles, index + 1, this.size - index);
+            System.arraycopy(this.counts, index, this.counts, index + 1, this.size - index);
+            this.handles[index] = handle;
+            this.counts[index] = 1;
+            this.size++;
+        }
+
+        /**
+         * Remove a link.
+         *
+         * @param index of the link.
+         */
+        private void removeAt(final int index) {
+            System.arraycopy(this.handles, index + 1, this.handles, index, this.size - index - 1);
+            System.arraycopy(this.counts, index + 1, this.counts, index, this.size - index - 1);
+            this.size--;
+        }
+
+        /**
+         * Move the upper half of the links to a new chunk.
+         *
+         * @return chunk holding the upper half of the links.
+         */
+        private Chunk split() {
+            Chunk upper = new Chunk();
+            int half = this.size / 2;
+            upper.size = this.size - half;
+            System.arraycopy(this.handles, half, upper.handles, 0, upper.size);
+            System.arraycopy(this.counts, half, upper.counts, 0, upper.size);
+            this.size = half;
+            return upper;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.BookmarkLink;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of all public bookmark links, kept up to date by bookmark modifications.
+ * Links bookmarked by several users are reference counted. Links are ordered by name and then by location.
+ */
+final class PublicBookmarkIndex {
+
+    /**
+     * Order of the links by name and then by location.
+     */
+    private static final Comparator<BookmarkLink> NAME_THEN_URI_ORDER =
+            Comparator.comparing(BookmarkLink::getUriName).thenComparing(BookmarkLink::getUri);
+
+    /**
+     * Order of the links in the index. Bookmark links share canonical names and locations, so a link bookmarked by
+     * several users is matched by identity without comparing the strings.
+     */
+    private static final Comparator<BookmarkLink> LINK_ORDER = (link, other) ->
+            link.getUri() == other.getUri() && link.getUriName().equals(other.getUriName())
+                    ? 0 : NAME_THEN_URI_ORDER.compare(link, other);
+
+    /**
+     * Separates the link name from the link location in a cursor key. Cannot be a part of a valid URI.
+     */
+    private static final char CURSOR_SEPARATOR = '\n';
+
+    /**
+     * Public bookmark links and the number of public bookmarks that point to them.
+     */
+    private final ConcurrentNavigableMap<BookmarkLink, Integer> linkCounts;
+
+    /**
+     * Version of the index, incremented every time a link is added to or removed from the index.
+     */
+    private final AtomicLong version;
+
+    /**
+     * Number of links in the index.
+     */
+    private final AtomicInteger size;
+
+    /**
+     * Last created snapshot of the index.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructor.
+     */
+    PublicBookmarkIndex() {
+        this.linkCounts = new ConcurrentSkipListMap<>(LINK_ORDER);
+        this.version = new AtomicLong();
+        this.size = new AtomicInteger();
+        this.snapshot = new Snapshot(0, Collections.emptySet());
+    }
+
+    /**
+     * Register a public bookmark pointing to the given link.
+     *
+     * @param bookmarkLink of the public bookmark.
+     * @return true if the link was not in the index before.
+     */
+    boolean add(final BookmarkLink bookmarkLink) {
+        if (this.linkCounts.merge(bookmarkLink, 1, Integer::sum) == 1) {
+            this.size.incrementAndGet();
+            this.version.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Unregister a public bookmark pointing to the given link. Nothing is done if the link is not in the index.
+     *
+     * @param bookmarkLink of the public bookmark.
+     * @return true if the link was removed from the index, as no other public bookmark points to it.
+     */
+    boolean remove(final BookmarkLink bookmarkLink) {
+        // Set by the last call of the remapping function, which may be called again on contention
+        boolean[] removed = new boolean[1];
+        this.linkCounts.computeIfPresent(bookmarkLink, (link, count) -> {
+            removed[0] = count == 1;
+            return removed[0] ? null : count - 1;
+        });
+        if (removed[0]) {
+            this.size.decrementAndGet();
+            this.version.incrementAndGet();
+        }
+        return removed[0];
+    }
+
+    /**
+     * Get the current version of the index.
+     *
+     * @return version of the index.
+     */
+    long getVersion() {
+        return this.version.get();
+    }
+
+    /**
+     * Get the number of links in the index.
+     *
+     * @return link count.
+     */
+    int size() {
+        return this.size.get();
+    }
+
+    /**
+     * Get an immutable set of all public bookmark links.
+     * The set is only recreated if the index changed since the last call.
+     *
+     * @return set of public bookmark links.
+     */
+    Set<org.example.app.bookmark_api.model.BookmarkLink> getPublicBookmarks() {
+        long currentVersion = this.version.get();
+        Snapshot currentSnapshot = this.snapshot;
+        if (currentSnapshot.version != currentVersion) {
+            Set<org.example.app.bookmark_api.model.BookmarkLink> links = new LinkedHashSet<>();
+            this.linkCounts.keySet().forEach(bookmarkLink -> links.add(toApiBookmarkLink(bookmarkLink)));
+            currentSnapshot = new Snapshot(currentVersion, Collections.unmodifiableSet(links));
+            this.snapshot = currentSnapshot;
+        }
+        return currentSnapshot.links;
+    }
+
+    /**
+     * Get a page of public bookmark links.
+     *
+     * @param cursor pointing to the page, or null for the first page.
+     * @param limit  maximum number of links on the page.
+     * @return page of public bookmark links, or null if the cursor is not valid.
+     */
+    BookmarkPage<org.example.app.bookmark_api.model.BookmarkLink> getPage(final String cursor, final int limit) {
+        ConcurrentNavigableMap<BookmarkLink, Integer> links = this.linkCounts;
+        if (cursor != null) {
+            BookmarkLink after = fromCursor(cursor);
+            if (after == null) {
+                return null;
+            }
+            links = links.tailMap(after, false);
+        }
+
+        List<org.example.app.bookmark_api.model.BookmarkLink> items = new ArrayList<>(Math.min(limit, links.size()));
+        Iterator<BookmarkLink> iterator = links.keySet().iterator();
+        BookmarkLink last = null;
+        while (items.size() < limit && iterator.hasNext()) {
+            last = iterator.next();
+            items.add(toApiBookmarkLink(last));
+        }
+        String nextCursor = iterator.hasNext() ? toCursor(last) : null;
+        return new BookmarkPage<>(items, nextCursor);
+    }
+
+    /**
+     * Create an api model object from the bookmark link.
+     *
+     * @param bookmarkLink to convert.
+     * @return api model bookmark link.
+     */
+    static org.example.app.bookmark_api.model.BookmarkLink toApiBookmarkLink(final BookmarkLink bookmarkLink) {
+        org.example.app.bookmark_api.model.BookmarkLink link = new org.example.app.bookmark_api.model.BookmarkLink();
+        link.setName(bookmarkLink.getUriName());
+        link.setUri(bookmarkLink.getUri());
+        return link;
+    }
+
+    /**
+     * Create a cursor pointing after the given link.
+     *
+     * @param bookmarkLink last link on the page.
+     * @return opaque cursor.
+     */
+    static String toCursor(final BookmarkLink bookmarkLink) {
+        return BookmarkPage.encodeCursor(bookmarkLink.getUriName() + CURSOR_SEPARATOR + bookmarkLink.getUri());
+    }
+
+    /**
+     * Read the link the cursor is pointing after.
+     *
+     * @param cursor to read.
+     * @return last link on the previous page, or null if the cursor is not valid.
+     */
+    static BookmarkLink fromCursor(final String cursor) {
+        String key = BookmarkPage.decodeCursor(cursor);
+        int separator = key == null ? -1 : key.lastIndexOf(CURSOR_SEPARATOR);
+        if (separator < 0) {
+            return null;
+        }
+        org.example.app.bookmark_api.model.BookmarkLink link = new org.example.app.bookmark_api.model.BookmarkLink();
+        link.setName(key.substring(0, separator));
+        try {
+            link.setUri(new URI(key.substring(separator + 1)));
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        return new BookmarkLink(link);
+    }
+
+    /**
+     * Immutable set of public bookmark links created for a specific index version.
+     */
+    private static final class Snapshot {
+
+        /**
+         * Index version the snapshot was created for.
+         */
+        private final long version;
+
+        /**
+         * Public bookmark links.
+         */
+        private final Set<org.example.app.bookmark_api.model.BookmarkLink> links;
+
+        /**
+         * Constructor.
+         *
+         * @param version index version the snapshot was created for.
+         * @param links   public bookmark links.
+         */
+        private Snapshot(final long version, final Set<org.example.app.bookmark_api.model.BookmarkLink> links) {
+            this.version = version;
+            this.links = links;
+        }
+    }
+}
@@ -0,0 +1,901 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.persistence.IJournal;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.example.app.bookmark.persistence.SnapshotSection;
+import org.example.app.bookmark_api.model.BookmarkLink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Storage engine keeping all bookmarks on the heap, split into shards that each own the bookmarks of a part of the
+ * users. Each shard is modified by a single writer thread taking the modifications from a queue, so modifications
+ * of different shards never contend on locks or cache lines, and modifications of a shard need no locks at all.
+ * Reads do not wait for the writers, they use immutable snapshots of the bookmarks of each user that the writer
+ * replaces after every modification. Each shard has its own index of public bookmarks, merged when read, and the
+ * distinct public links of all shards are counted as shards add and remove them.
+ * Modifications are recorded in the journal by the writers, so the bookmarks are recovered from the write-ahead
+ * log and snapshots.
+ */
+public final class ShardedBookmarkStore implements IBookmarkStore {
+
+    /**
+     * Number of modifications that may wait for the writer of a shard before callers block.
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * Maximum number of modifications a writer takes from its queue at once.
+     */
+    private static final int MAXIMUM_BATCH = 256;
+
+    /**
+     * Order of the public bookmark links by name and then by location, the order of the shard indexes.
+     */
+    private static final Comparator<BookmarkLink> LINK_ORDER =
+            Comparator.comparing(BookmarkLink::getName).thenComparing(BookmarkLink::getUri);
+
+    /**
+     * Shards owning the users, picked by the hash of the user name.
+     */
+    private final Shard[] shards;
+
+    /**
+     * Count of the distinct public bookmark links of all shards.
+     */
+    private final PublicLinkCount publicLinkCount;
+
+    /**
+     * Last merged set of the public bookmark links of all shards.
+     */
+    private volatile PublicSnapshot publicSnapshot;
+
+    /**
+     * Constructor.
+     *
+     * @param journal    recording bookmark modifications.
+     * @param shardCount number of shards, each with its own writer thread.
+     */
+    public ShardedBookmarkStore(final IJournal journal, final int shardCount) {
+        this.shards = new Shard[shardCount];
+        this.publicLinkCount = new PublicLinkCount();
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard(journal, this.publicLinkCount, "bookmark-shard-" + i);
+        }
+        this.publicSnapshot = new PublicSnapshot(-1, Collections.emptySet());
+    }
+
+    @Override
+    public void open() {
+        for (Shard shard : this.shards) {
+            shard.start();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        for (Shard shard : this.shards) {
+            shard.stop();
+        }
+    }
+
+    @Override
+    public boolean add(final String user, final Bookmark bookmark) {
+        Shard shard = this.getShard(user);
+        return shard.awaitDurable(shard.execute(() -> shard.add(user, bookmark)));
+    }
+
+    @Override
+    public boolean[] addAll(final String user, final List<Bookmark> bookmarks) {
+        Shard shard = this.getShard(user);
+        boolean[] added = new boolean[bookmarks.size()];
+        shard.awaitDurable(shard.execute(() -> shard.addAll(user, bookmarks, added)));
+        return added;
+    }
+
+    @Override
+    public boolean remove(final String user, final String bookmarkName) {
+        Shard shard = this.getShard(user);
+        return shard.users.containsKey(user)
+                && shard.awaitDurable(shard.execute(() -> shard.remove(user, bookmarkName)));
+    }
+
+    @Override
+    public boolean replace(final String user, final String bookmarkName, final Bookmark bookmark) {
+        Shard shard = this.getShard(user);
+        return shard.users.containsKey(user)
+                && shard.awaitDurable(shard.execute(() -> shard.replace(user, bookmarkName, bookmark)));
+    }
+
+    @Override
+    public boolean containsUser(final String user) {
+        return this.getShard(user).users.containsKey(user);
+    }
+
+    @Override
+    public boolean contains(final String user, final String bookmarkName) {
+        UserSnapshot userSnapshot = this.getShard(user).users.get(user);
+        return userSnapshot != null && userSnapshot.indexOf(bookmarkName) >= 0;
+    }
+
+    @Override
+    public Collection<Bookmark> getBookmarks(final String user, final String bookmarkName) {
+        UserSnapshot userSnapshot = this.getShard(user).users.get(user);
+        return userSnapshot == null ? Collections.emptyList() : userSnapshot.valuesAfter(bookmarkName);
+    }
+
+    @Override
+    public long getBookmarkCount() {
+        long count = 0;
+        for (Shard shard : this.shards) {
+            count += shard.bookmarkCount.get();
+        }
+        return count;
+    }
+
+    @Override
+    public Set<BookmarkLink> getPublicBookmarks() {
+        long version = 0;
+        for (Shard shard : this.shards) {
+            version += shard.publicBookmarks.getVersion();
+        }
+        PublicSnapshot currentSnapshot = this.publicSnapshot;
+        if (currentSnapshot.version != version) {
+            Set<BookmarkLink> links = new TreeSet<>(LINK_ORDER);
+            for (Shard shard : this.shards) {
+                links.addAll(shard.publicBookmarks.getPublicBookmarks());
+            }
+            currentSnapshot = new PublicSnapshot(version, Collections.unmodifiableSet(new LinkedHashSet<>(links)));
+            this.publicSnapshot = currentSnapshot;
+        }
+        return currentSnapshot.links;
+    }
+
+    @Override
+    public BookmarkPage<BookmarkLink> getPublicBookmarks(final String cursor, final int limit) {
+        TreeSet<BookmarkLink> links = new TreeSet<>(LINK_ORDER);
+        boolean more = false;
+        for (Shard shard : this.shards) {
+            BookmarkPage<BookmarkLink> page = shard.publicBookmarks.getPage(cursor, limit);
+            if (page == null) {
+                return null;
+            }
+            links.addAll(page.getItems());
+            more |= page.getNextCursor() != null;
+        }
+
+        List<BookmarkLink> items = new ArrayList<>(Math.min(limit, links.size()));
+        Iterator<BookmarkLink> iterator = links.iterator();
+        while (items.size() < limit && iterator.hasNext()) {
+            items.add(iterator.next());
+        }
+        more |= iterator.hasNext();
+        String nextCursor = more ? PublicBookmarkIndex.toCursor(
+                new org.example.app.bookmark.bookmark.BookmarkLink(items.get(items.size() - 1))) : null;
+        return new BookmarkPage<>(items, nextCursor);
+    }
+
+    @Override
+    public int getPublicBookmarkCount() {
+        return this.publicLinkCount.get();
+    }
+
+    @Override
+    public void apply(final LogRecord record) {
+        String user = record.getUsername();
+        Shard shard = this.getShard(user);
+        switch (record.getType()) {
+            case BOOKMARK_ADDED:
+                shard.execute(() -> shard.putAll(user, Collections.singletonList(record.getBookmark())));
+                break;
+            case BOOKMARK_UPDATED:
+                shard.execute(() -> {
+                    shard.delete(user, record.getBookmarkName());
+                    return shard.putAll(user, Collections.singletonList(record.getBookmark()));
+                });
+                break;
+            case BOOKMARK_DELETED:
+                shard.execute(() -> shard.delete(user, record.getBookmarkName()));
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void load(final SnapshotSection section) {
+        if (section.getType() == LogRecord.Type.BOOKMARK_ADDED) {
+            List<Bookmark> bookmarks = new ArrayList<>(section.size());
+            section.forEach(record -> bookmarks.add(record.getBookmark()));
+            String user = section.getOwner();
+            Shard shard = this.getShard(user);
+            shard.execute(() -> shard.putAll(user, bookmarks));
+        }
+    }
+
+    @Override
+    public void export(final ISnapshotWriter snapshot) {
+        for (Shard shard : this.shards) {
+            shard.users.forEach((user, userSnapshot) -> userSnapshot.valuesAfter(null)
+                    .forEach(bookmark -> snapshot.write(LogRecord.bookmarkAdded(user, bookmark))));
+        }
+    }
+
+    /**
+     * Get the shard owning a user.
+     *
+     * @param user whose shard is returned.
+     * @return shard owning the user.
+     */
+    private Shard getShard(final String user) {
+        int hash = user.hashCode();
+        return this.shards[Math.floorMod(hash ^ (hash >>> 16), this.shards.length)];
+    }
+
+    /**
+     * Users owned by a single writer thread and the public bookmarks of these users.
+     * Only the writer modifies the shard, all other threads only read it.
+     */
+    private static final class Shard implements Runnable {
+
+        /**
+         * Journal recording the modifications.
+         */
+        private final IJournal journal;
+
+        /**
+         * Name of the writer thread.
+         */
+        private final String name;
+
+        /**
+         * Modifications waiting for the writer.
+         */
+        private final BlockingQueue<Modification> queue;
+
+        /**
+         * Immutable bookmarks of each user, replaced by the writer after every modification of the user.
+         */
+        private final ConcurrentMap<String, UserSnapshot> users;
+
+        /**
+         * Index of the public bookmarks of the users of the shard.
+         */
+        private final PublicBookmarkIndex publicBookmarks;
+
+        /**
+         * Count of the distinct public bookmark links of all shards, shared between shards.
+         */
+        private final PublicLinkCount publicLinkCount;
+
+        /**
+         * Number of bookmarks of the users of the shard, only set by the writer.
+         */
+        private final AtomicLong bookmarkCount;
+
+        /**
+         * Writer thread, null until the shard is started.
+         */
+        private Thread writer;
+
+        /**
+         * Held shared while queueing a modification and exclusively while stopping the shard,
+         * so no modification is queued after the writer was told to stop.
+         */
+        private final ReadWriteLock stopLock;
+
+        /**
+         * Flag indicating that the shard does not accept modifications anymore, only set while holding the stop lock.
+         */
+        private volatile boolean stopped;
+
+        /**
+         * Constructor.
+         *
+         * @param journal         recording the modifications.
+         * @param publicLinkCount count of the distinct public bookmark links of all shards.
+         * @param name            of the writer thread.
+         */
+        private Shard(final IJournal journal, final PublicLinkCount publicLinkCount, final String name) {
+            this.journal = journal;
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            this.users = new ConcurrentHashMap<>();
+            this.publicBookmarks = new PublicBookmarkIndex();
+            this.publicLinkCount = publicLinkCount;
+            this.bookmarkCount = new AtomicLong();
+            this.stopLock = new ReentrantReadWriteLock();
+        }
+
+        /**
+         * Start the writer thread.
+         */
+        private synchronized void start() {
+            if (this.writer == null) {
+                this.writer = new Thread(this, this.name);
+                this.writer.setDaemon(true);
+                this.writer.start();
+            }
+        }
+
+        /**
+         * Stop the writer thread once it applied the queued modifications.
+         *
+         * @throws InterruptedException if interrupted while waiting for the writer.
+         */
+        private synchronized void stop() throws InterruptedException {
+            this.stopLock.writeLock().lock();
+            try {
+                if (this.stopped) {
+                    return;
+                }
+                this.stopped = true;
+                if (this.writer != null) {
+                    this.queue.put(Modification.STOP);
+                }
+            } finally {
+                this.stopLock.writeLock().unlock();
+            }
+            if (this.writer != null) {
+                this.writer.join();
+            }
+        }
+
+        /**
+         * Apply the queued modifications until the shard is stopped.
+         */
+        @Override
+        public void run() {
+            List<Modification> batch = new ArrayList<>(MAXIMUM_BATCH);
+            while (true) {
+                try {
+                    batch.add(this.queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                this.queue.drainTo(batch, MAXIMUM_BATCH - 1);
+                for (Modification modification : batch) {
+                    // Nothing is queued after the stop modification
+                    if (modification == Modification.STOP) {
+                        return;
+                    }
+                    modification.run();
+                }
+                batch.clear();
+            }
+        }
+
+        /**
+         * Let the writer apply a modification and wait for its result.
+         *
+         * @param operation applied by the writer.
+         * @return result of the operation.
+         * @throws IllegalStateException if the shard is stopped or the operation failed.
+         */
+        private long execute(final LongSupplier operation) {
+            Modification modification = new Modification(operation);
+            this.stopLock.readLock().lock();
+            try {
+                if (this.stopped) {
+                    throw new IllegalStateException("Bookmark store is closed");
+                }
+                this.queue.put(modification);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the bookmark store", e);
+            } finally {
+                this.stopLock.readLock().unlock();
+            }
+            long result = modification.result.join();
+            if (modification.failure != null) {
+                throw modification.failure;
+            }
+            return result;
+        }
+
+        /**
+         * Wait until a recorded modification is durable.
+         *
+         * @param sequence number of the journal record, or {@link UserBookmarks#NOT_MODIFIED}.
+         * @return true if something was modified, false otherwise.
+         */
+        private boolean awaitDurable(final long sequence) {
+            if (sequence == UserBookmarks.NOT_MODIFIED) {
+                return false;
+            }
+            this.journal.awaitDurable(sequence);
+            return true;
+        }
+
+        /**
+         * Add a bookmark if the user has no bookmark with the same name. Called by the writer.
+         *
+         * @param user     owning the bookmark.
+         * @param bookmark to add.
+         * @return sequence number of the journal record, or {@link UserBookmarks#NOT_MODIFIED}.
+         */
+        private long add(final String user, final Bookmark bookmark) {
+            UserSnapshot userSnapshot = this.users.getOrDefault(user, UserSnapshot.EMPTY);
+            int index = userSnapshot.indexOf(bookmark.getBookmarkLink().getUriName());
+            if (index >= 0) {
+                return UserBookmarks.NOT_MODIFIED;
+            }
+            this.users.put(user, userSnapshot.insert(-index - 1, bookmark));
+            this.counted(1);
+            this.addPublic(bookmark);
+            return this.journal.append(LogRecord.bookmarkAdded(user, bookmark));
+        }
+
+        /**
+         * Add the bookmarks whose names are not taken yet, in order. Called by the writer.
+         *
+         * @param user      owning the bookmarks.
+         * @param bookmarks to add.
+         * @param added     set to true for each added bookmark.
+         * @return sequence number of the last journal record, or {@link UserBookmarks#NOT_MODIFIED}.
+         */
+        private long addAll(final String user, final List<Bookmark> bookmarks, final boolean[] added) {
+            UserSnapshot userSnapshot = this.users.getOrDefault(user, UserSnapshot.EMPTY);
+            Set<String> addedNames = new HashSet<>();
+            List<Bookmark> addedBookmarks = new ArrayList<>(bookmarks.size());
+            long sequence = UserBookmarks.NOT_MODIFIED;
+            for (int i = 0; i < bookmarks.size(); i++) {
+                Bookmark bookmark = bookmarks.get(i);
+                String bookmarkName = bookmark.getBookmarkLink().getUriName();
+                if (userSnapshot.indexOf(bookmarkName) < 0 && addedNames.add(bookmarkName)) {
+                    addedBookmarks.add(bookmark);
+                    this.counted(1);
+                    this.addPublic(bookmark);
+                    sequence = this.journal.append(LogRecord.bookmarkAdded(user, bookmark));
+                    added[i] = true;
+                }
+            }
+            if (!addedBookmarks.isEmpty()) {
+                this.users.put(user, userSnapshot.merge(addedBookmarks));
+            }
+            return sequence;
+        }
+
+        /**
+         * Remove a bookmark. Called by the writer.
+         *
+         * @param user         owning the bookmark.
+         * @param bookmarkName of the bookmark to remove.
+         * @return sequence number of the journal record, or {@link UserBookmarks#NOT_MODIFIED}.
+         */
+        private long remove(final String user, final String bookmarkName) {
+            if (this.delete(user, bookmarkName) == UserBookmarks.NOT_MODIFIED) {
+                return UserBookmarks.NOT_MODIFIED;
+            }
+            return this.journal.append(LogRecord.bookmarkDeleted(user, bookmarkName));
+        }
+
+        /**
+         * Replace a bookmark with a new bookmark, that may have a different name. Called by the writer.
+         *
+         * @param user         owning the bookmark.
+         * @param bookmarkName of the bookmark to replace.
+         * @param bookmark     that replaces the existing bookmark.
+         * @return sequence number of the journal record, or {@link UserBookmarks#NOT_MODIFIED} if the bookmark
+         *         does not exist or another bookmark has the new name.
+         */
+        private long replace(final String user, final String bookmarkName, final Bookmark bookmark) {
+            String newName = bookmark.getBookmarkLink().getUriName();
+            UserSnapshot userSnapshot = this.users.getOrDefault(user, UserSnapshot.EMPTY);
+            int index = userSnapshot.indexOf(bookmarkName);
+            if (index < 0 || !newName.equals(bookmarkName) && userSnapshot.indexOf(newName) >= 0) {
+                return UserBookmarks.NOT_MODIFIED;
+            }
+            Bookmark oldBookmark = userSnapshot.get(index);
+            this.users.put(user, userSnapshot.replace(index, bookmark));
+            this.removePublic(oldBookmark);
+            this.addPublic(bookmark);
+            return this.journal.append(LogRecord.bookmarkUpdated(user, bookmarkName, bookmark));
+        }
+
+        /**
+         * Store bookmarks, replacing bookmarks with the same names, without recording them.
+         * Used to recover the bookmarks. Called by the writer.
+         *
+         * @param user      owning the bookmarks.
+         * @param bookmarks to store.
+         * @return 0.
+         */
+        private long putAll(final String user, final List<Bookmark> bookmarks) {
+            UserSnapshot userSnapshot = this.users.getOrDefault(user, UserSnapshot.EMPTY);
+            Map<String, Bookmark> stored = new LinkedHashMap<>();
+            for (Bookmark bookmark : bookmarks) {
+                String bookmarkName = bookmark.getBookmarkLink().getUriName();
+                Bookmark replacedBookmark = stored.put(bookmarkName, bookmark);
+                if (replacedBookmark == null) {
+                    int index = userSnapshot.indexOf(bookmarkName);
+                    if (index >= 0) {
+                        replacedBookmark = userSnapshot.get(index);
+                    } else {
+                        this.counted(1);
+                    }
+                }
+                this.removePublic(replacedBookmark);
+                this.addPublic(bookmark);
+            }
+            this.users.put(user, userSnapshot.merge(stored.values()));
+            return 0;
+        }
+
+        /**
+         * Remove a bookmark, if it exists, without recording it. Called by the writer.
+         *
+         * @param user         owning the bookmark.
+         * @param bookmarkName of the bookmark to remove.
+         * @return 0 if the bookmark was removed, {@link UserBookmarks#NOT_MODIFIED} if it does not exist.
+         */
+        private long delete(final String user, final String bookmarkName) {
+            UserSnapshot userSnapshot = this.users.get(user);
+            int index = userSnapshot == null ? -1 : userSnapshot.indexOf(bookmarkName);
+            if (index < 0) {
+                return UserBookmarks.NOT_MODIFIED;
+            }
+            Bookmark oldBookmark = userSnapshot.get(index);
+            this.users.put(user, userSnapshot.delete(index));
+            this.counted(-1);
+            this.removePublic(oldBookmark);
+            return 0;
+        }
+
+        /**
+         * Change the bookmark count. Only the writer changes the count, so it is set without an atomic update.
+         *
+         * @param delta added to the count.
+         */
+        private void counted(final long delta) {
+            this.bookmarkCount.lazySet(this.bookmarkCount.get() + delta);
+        }
+
+        /**
+         * Add the bookmark to the public bookmark index if it is public, and count its link if it is new to the shard.
+         *
+         * @param bookmark to add.
+         */
+        private void addPublic(final Bookmark bookmark) {
+            if (!bookmark.isPrivate() && this.publicBookmarks.add(bookmark.getBookmarkLink())) {
+                this.publicLinkCount.add(bookmark.getBookmarkLink());
+            }
+        }
+
+        /**
+         * Remove the bookmark from the public bookmark index if it is public, and uncount its link if it is the last
+         * of the shard.
+         *
+         * @param bookmark to remove, may be null.
+         */
+        private void removePublic(final Bookmark bookmark) {
+            if (bookmark != null && !bookmark.isPrivate() && this.publicBookmarks.remove(bookmark.getBookmarkLink())) {
+                this.publicLinkCount.remove(bookmark.getBookmarkLink());
+            }
+        }
+    }
+
+    /**
+     * Modification applied by the writer of a shard, completed with the result of its operation.
+     */
+    private static final class Modification implements Runnable {
+
+        /**
+         * Modification telling the writer to stop.
+         */
+        private static final Modification STOP = new Modification(() -> 0);
+
+        /**
+         * Operation applied by the writer.
+         */
+        private final LongSupplier operation;
+
+        /**
+         * Result of the operation, waited for by the caller.
+         */
+        private final CompletableFuture<Long> result;
+
+        /**
+         * Exception thrown by the operation, set before the result is completed.
+         */
+        private RuntimeException failure;
+
+        /**
+         * Constructor.
+         *
+         * @param operation applied by the writer.
+         */
+        private Modification(final LongSupplier operation) {
+            this.operation = operation;
+            this.result = new CompletableFuture<>();
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.result.complete(this.operation.getAsLong());
+            } catch (RuntimeException e) {
+                this.fail(e);
+            }
+        }
+
+        /**
+         * Complete the modification with a failure, rethrown to the caller.
+         *
+         * @param exception rethrown to the caller.
+         */
+        private void fail(final RuntimeException exception) {
+            this.failure = exception;
+            this.result.complete(UserBookmarks.NOT_MODIFIED);
+        }
+    }
+
+    /**
+     * Immutable bookmarks of a single user, ordered by bookmark name.
+     */
+    private static final class UserSnapshot {
+
+        /**
+         * Bookmarks of a user without bookmarks.
+         */
+        private static final UserSnapshot EMPTY = new UserSnapshot(new Bookmark[0]);
+
+        /**
+         * Order of the bookmarks by name.
+         */
+        private static final Comparator<Bookmark> BOOKMARK_ORDER =
+                Comparator.comparing(bookmark -> bookmark.getBookmarkLink().getUriName());
+
+        /**
+         * Bookmarks ordered by name, never modified.
+         */
+        private final Bookmark[] bookmarks;
+
+        /**
+         * Constructor.
+         *
+         * @param bookmarks ordered by name, not modified afterwards.
+         */
+        private UserSnapshot(final Bookmark[] bookmarks) {
+            this.bookmarks = bookmarks;
+        }
+
+        /**
+         * Find a bookmark by name.
+         *
+         * @param bookmarkName to find.
+         * @return index of the bookmark, or (-(insertion point) - 1) if it does not exist.
+         */
+        private int indexOf(final String bookmarkName) {
+            int low = 0;
+            int high = this.bookmarks.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = this.bookmarks[middle].getBookmarkLink().getUriName().compareTo(bookmarkName);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * Get the bookmark at an index.
+         *
+         * @param index of the bookmark.
+         * @return bookmark.
+         */
+        private Bookmark get(final int index) {
+            return this.bookmarks[index];
+        }
+
+        /**
+         * Create a snapshot with a bookmark inserted at an index.
+         *
+         * @param index    of the new bookmark.
+         * @param bookmark to insert.
+         * @return new snapshot.
+         */
+        private UserSnapshot insert(final int index, final Bookmark bookmark) {
+            Bookmark[] newBookmarks = new Bookmark[this.bookmarks.length + 1];
+            System.arraycopy(this.bookmarks, 0, newBookmarks, 0, index);
+            newBookmarks[index] = bookmark;
+            System.arraycopy(this.bookmarks, index, newBookmarks, index + 1, this.bookmarks.length - index);
+            return new UserSnapshot(newBookmarks);
+        }
+
+        /**
+         * Create a snapshot without the bookmark at an index.
+         *
+         * @param index of the removed bookmark.
+         * @return new snapshot.
+         */
+        private UserSnapshot delete(final int index) {
+            Bookmark[] newBookmarks = new Bookmark[this.bookmarks.length - 1];
+            System.arraycopy(this.bookmarks, 0, newBookmarks, 0, index);
+            System.arraycopy(this.bookmarks, index + 1, newBookmarks, index, newBookmarks.length - index);
+            return new UserSnapshot(newBookmarks);
+        }
+
+        /**
+         * Create a snapshot with the bookmark at an index replaced by a bookmark, that may have a different name.
+         *
+         * @param index    of the replaced bookmark.
+         * @param bookmark that replaces the bookmark, its name is not used by another bookmark.
+         * @return new snapshot.
+         */
+        private UserSnapshot replace(final int index, final Bookmark bookmark) {
+            UserSnapshot removed = this.delete(index);
+            return removed.insert(-removed.indexOf(bookmark.getBookmarkLink().getUriName()) - 1, bookmark);
+        }
+
+        /**
+         * Create a snapshot with bookmarks stored, replacing the bookmarks with the same names.
+         * The bookmarks are merged into the ordered bookmarks in a single pass.
+         *
+         * @param stored bookmarks, each name at most once.
+         * @return new snapshot.
+         */
+        private UserSnapshot merge(final Collection<Bookmark> stored) {
+            Bookmark[] replaced = this.bookmarks.clone();
+            List<Bookmark> added = new ArrayList<>(stored.size());
+            for (Bookmark bookmark : stored) {
+                int index = this.indexOf(bookmark.getBookmarkLink().getUriName());
+                if (index >= 0) {
+                    replaced[index] = bookmark;
+                } else {
+                    added.add(bookmark);
+                }
+            }
+            if (added.isEmpty()) {
+                return new UserSnapshot(replaced);
+            }
+            added.sort(BOOKMARK_ORDER);
+            Bookmark[] merged = new Bookmark[replaced.length + added.size()];
+            int replacedIndex = 0;
+            int addedIndex = 0;
+            for (int i = 0; i < merged.length; i++) {
+                if (addedIndex == added.size() || replacedIndex < replaced.length
+                        && BOOKMARK_ORDER.compare(replaced[replacedIndex], added.get(addedIndex)) < 0) {
+                    merged[i] = replaced[replacedIndex++];
+                } else {
+                    merged[i] = added.get(addedIndex++);
+                }
+            }
+            return new UserSnapshot(merged);
+        }
+
+        /**
+         * Read-only view of the bookmarks whose names follow the given name.
+         *
+         * @param bookmarkName after which to start, or null to start from the first bookmark.
+         * @return bookmarks that follow the given name.
+         */
+        private Collection<Bookmark> valuesAfter(final String bookmarkName) {
+            int start = 0;
+            if (bookmarkName != null) {
+                int index = this.indexOf(bookmarkName);
+                start = index >= 0 ? index + 1 : -index - 1;
+            }
+            return Collections.unmodifiableList(Arrays.asList(this.bookmarks).subList(start, this.bookmarks.length));
+        }
+    }
+
+    /**
+     * Count of the distinct public bookmark links of all shards. A link is counted when it enters the index of its
+     * first shard and uncounted when it leaves the index of its last shard, so reading the count merges nothing.
+     */
+    private static final class PublicLinkCount {
+
+        /**
+         * Number of shards whose index holds each public bookmark link.
+         */
+        private final ConcurrentMap<org.example.app.bookmark.bookmark.BookmarkLink, Integer> shardCounts;
+
+        /**
+         * Number of distinct public bookmark links.
+         */
+        private final AtomicInteger count;
+
+        /**
+         * Constructor.
+         */
+        private PublicLinkCount() {
+            this.shardCounts = new ConcurrentHashMap<>();
+            this.count = new AtomicInteger();
+        }
+
+        /**
+         * Count a link that entered the index of a shard.
+         *
+         * @param bookmarkLink added to the index of a shard.
+         */
+        private void add(final org.example.app.bookmark.bookmark.BookmarkLink bookmarkLink) {
+            if (this.shardCounts.merge(bookmarkLink, 1, Integer::sum) == 1) {
+                this.count.incrementAndGet();
+            }
+        }
+
+        /**
+         * Uncount a link that left the index of a shard.
+         *
+         * @param bookmarkLink removed from the index of a shard.
+         */
+        private void remove(final org.example.app.bookmark.bookmark.BookmarkLink bookmarkLink) {
+            // Set by the last call of the remapping function, which may be called again on contention
+            boolean[] removed = new boolean[1];
+            this.shardCounts.computeIfPresent(bookmarkLink, (link, shardCount) -> {
+                removed[0] = shardCount == 1;
+                return removed[0] ? null : shardCount - 1;
+            });
+            if (removed[0]) {
+                this.count.decrementAndGet();
+            }
+        }
+
+        /**
+         * Get the number of distinct public bookmark links.
+         *
+         * @return link count.
+         */
+        private int get() {
+            return this.count.get();
+        }
+    }
+
+    /**
+     * Immutable set of the public bookmark links of all shards, created for the sum of the index versions.
+     */
+    private static final class PublicSnapshot {
+
+        /**
+         * Sum of the index versions the snapshot was created for, changed by every modification of an index.
+         */
+        private final long version;
+
+        /**
+         * Public bookmark links.
+         */
+        private final Set<BookmarkLink> links;
+
+        /**
+         * Constructor.
+         *
+         * @param version sum of the index versions the snapshot was created for.
+         * @param links   public bookmark links.
+         */
+        private PublicSnapshot(final long version, final Set<BookmarkLink> links) {
+            this.version = version;
+            this.links = links;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.persistence.IJournal;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.example.app.bookmark.persistence.SnapshotSection;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bookmarks of a single user, ordered by bookmark name.
+ * Reads are lock-free, modifications are serialized per user and keep the public bookmark index up to date.
+ * Modifications are recorded in the journal while the user is locked, so the records of a user are in the
+ * same order as the modifications.
+ * Bookmarks loaded from a snapshot stay encoded in the mapped snapshot until they are first used.
+ */
+final class UserBookmarks {
+
+    /**
+     * Sequence number returned when nothing was modified, so nothing was recorded.
+     */
+    static final long NOT_MODIFIED = -1;
+
+    /**
+     * Index of all public bookmarks, shared between users.
+     */
+    private final PublicBookmarkIndex publicBookmarkIndex;
+
+    /**
+     * Journal recording the modifications.
+     */
+    private final IJournal journal;
+
+    /**
+     * Name of the user owning the bookmarks.
+     */
+    private final String username;
+
+    /**
+     * Bookmarks of the user, keyed by bookmark name.
+     */
+    private final ConcurrentNavigableMap<String, Bookmark> bookmarks;
+
+    /**
+     * Number of bookmarks owned by the user, the size of the skip list map is computed by traversing it.
+     */
+    private final AtomicInteger count;
+
+    /**
+     * Number of bookmarks owned by all users of the store, shared between users.
+     */
+    private final LongAdder storeCount;
+
+    /**
+     * Snapshot section holding bookmarks that were not decoded yet, null once they are decoded.
+     */
+    private volatile SnapshotSection pending;
+
+    /**
+     * Constructor.
+     *
+     * @param publicBookmarkIndex index of all public bookmarks.
+     * @param storeCount          number of bookmarks of all users.
+     * @param journal             recording the modifications.
+     * @param username            name of the user owning the bookmarks.
+     */
+    UserBookmarks(final PublicBookmarkIndex publicBookmarkIndex, final LongAdder storeCount, final IJournal journal,
+                  final String username) {
+        this.publicBookmarkIndex = publicBookmarkIndex;
+        this.storeCount = storeCount;
+        this.journal = journal;
+        this.username = username;
+        this.bookmarks = new ConcurrentSkipListMap<>();
+        this.count = new AtomicInteger();
+    }
+
+    /**
+     * Add the bookmark if no bookmark with the same name exists.
+     *
+     * @param bookmark to add.
+     * @return sequence number of the journal record, or {@link #NOT_MODIFIED} if the name is already taken.
+     */
+    synchronized long add(final Bookmark bookmark) {
+        this.decodePending();
+        if (this.bookmarks.putIfAbsent(bookmark.getBookmarkLink().getUriName(), bookmark) != null) {
+            return NOT_MODIFIED;
+        }
+        this.addCount(1);
+        this.addPublic(bookmark);
+        return this.journal.append(LogRecord.bookmarkAdded(this.username, bookmark));
+    }
+
+    /**
+     * Add the bookmarks whose names are not taken yet, in order.
+     *
+     * @param bookmarks to add.
+     * @param added     set to true for each added bookmark.
+     * @return sequence number of the last journal record, or {@link #NOT_MODIFIED} if no bookmark was added.
+     */
+    synchronized long addAll(final List<Bookmark> bookmarks, final boolean[] added) {
+        this.decodePending();
+        long sequence = NOT_MODIFIED;
+        for (int i = 0; i < bookmarks.size(); i++) {
+            Bookmark bookmark = bookmarks.get(i);
+            if (this.bookmarks.putIfAbsent(bookmark.getBookmarkLink().getUriName(), bookmark) == null) {
+                this.addCount(1);
+                this.addPublic(bookmark);
+                sequence = this.journal.append(LogRecord.bookmarkAdded(this.username, bookmark));
+                added[i] = true;
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Remove the bookmark with the given name.
+     *
+     * @param bookmarkName of the bookmark to remove.
+     * @return sequence number of the journal record, or {@link #NOT_MODIFIED} if the bookmark does not exist.
+     */
+    synchronized long remove(final String bookmarkName) {
+        this.decodePending();
+        if (this.delete(bookmarkName) == null) {
+            return NOT_MODIFIED;
+        }
+        return this.journal.append(LogRecord.bookmarkDeleted(this.username, bookmarkName));
+    }
+
+    /**
+     * Replace the bookmark with the given name with a new bookmark, that may have a different name.
+     *
+     * @param bookmarkName of the bookmark to replace.
+     * @param bookmark     that replaces the existing bookmark.
+     * @return sequence number of the journal record, or {@link #NOT_MODIFIED} if the bookmark does not exist
+     *         or another bookmark has the new name.
+     */
+    synchronized long replace(final String bookmarkName, final Bookmark bookmark) {
+        this.decodePending();
+        String newName = bookmark.getBookmarkLink().getUriName();
+        if (!newName.equals(bookmarkName) && this.bookmarks.containsKey(newName)
+                || this.delete(bookmarkName) == null) {
+            return NOT_MODIFIED;
+        }
+        this.put(bookmark);
+        return this.journal.append(LogRecord.bookmarkUpdated(this.username, bookmarkName, bookmark));
+    }
+
+    /**
+     * Store the bookmark, replacing a bookmark with the same name, without recording it.
+     * Used to recover the bookmarks.
+     *
+     * @param bookmark to store.
+     */
+    synchronized void put(final Bookmark bookmark) {
+        this.decodePending();
+        Bookmark replacedBookmark = this.bookmarks.put(bookmark.getBookmarkLink().getUriName(), bookmark);
+        if (replacedBookmark == null) {
+            this.addCount(1);
+        }
+        this.removePublic(replacedBookmark);
+        this.addPublic(bookmark);
+    }
+
+    /**
+     * Remove the bookmark with the given name, if it exists, without recording it.
+     * Used to recover the bookmarks.
+     *
+     * @param bookmarkName of the bookmark to remove.
+     * @return removed bookmark, or null if it does not exist.
+     */
+    synchronized Bookmark delete(final String bookmarkName) {
+        this.decodePending();
+        Bookmark oldBookmark = this.bookmarks.remove(bookmarkName);
+        if (oldBookmark != null) {
+            this.addCount(-1);
+        }
+        this.removePublic(oldBookmark);
+        return oldBookmark;
+    }
+
+    /**
+     * Check if a bookmark with the given name exists.
+     *
+     * @param bookmarkName to check.
+     * @return true if the bookmark exists, false otherwise.
+     */
+    boolean contains(final String bookmarkName) {
+        this.decode();
+        return this.bookmarks.containsKey(bookmarkName);
+    }
+
+    /**
+     * Number of bookmarks owned by the user.
+     *
+     * @return bookmark count.
+     */
+    int size() {
+        return this.count.get();
+    }
+
+    /**
+     * Read-only view of the bookmarks, ordered by bookmark name.
+     *
+     * @return bookmarks of the user.
+     */
+    Collection<Bookmark> values() {
+        this.decode();
+        return Collections.unmodifiableCollection(this.bookmarks.values());
+    }
+
+    /**
+     * Read-only view of the bookmarks whose names follow the given name, ordered by bookmark name.
+     *
+     * @param bookmarkName after which to start, or null to start from the first bookmark.
+     * @return bookmarks of the user that follow the given name.
+     */
+    Collection<Bookmark> valuesAfter(final String bookmarkName) {
+        if (bookmarkName == null) {
+            return this.values();
+        }
+        this.decode();
+        return Collections.unmodifiableCollection(this.bookmarks.tailMap(bookmarkName, false).values());
+    }
+
+    /**
+     * Load the bookmarks of a snapshot section without decoding them. Used to recover the bookmarks.
+     *
+     * @param section holding bookmarks of the user.
+     */
+    synchronized void load(final SnapshotSection section) {
+        if (this.pending == null && this.bookmarks.isEmpty()) {
+            this.addCount(section.size());
+            this.pending = section;
+        } else {
+            section.forEach(record -> this.put(record.getBookmark()));
+        }
+    }
+
+    /**
+     * Write the bookmarks to a snapshot, copying bookmarks that were not decoded yet.
+     *
+     * @param snapshot writer receiving the bookmarks.
+     */
+    void export(final ISnapshotWriter snapshot) {
+        SnapshotSection section = this.pending;
+        if (section != null) {
+            snapshot.copy(section);
+            return;
+        }
+        this.bookmarks.values().forEach(bookmark -> snapshot.write(LogRecord.bookmarkAdded(this.username, bookmark)));
+    }
+
+    /**
+     * Decode the bookmarks loaded from a snapshot, if that was not done yet.
+     */
+    void decode() {
+        if (this.pending != null) {
+            synchronized (this) {
+                this.decodePending();
+            }
+        }
+    }
+
+    /**
+     * Decode the bookmarks loaded from a snapshot while the user is locked.
+     * The decoded bookmarks were already counted when the section was loaded.
+     */
+    private void decodePending() {
+        SnapshotSection section = this.pending;
+        if (section == null) {
+            return;
+        }
+        section.forEach(record -> {
+            Bookmark bookmark = record.getBookmark();
+            this.bookmarks.put(bookmark.getBookmarkLink().getUriName(), bookmark);
+            this.addPublic(bookmark);
+        });
+        this.pending = null;
+    }
+
+    /**
+     * Count added or removed bookmarks, for the user and for the store.
+     *
+     * @param delta number of added bookmarks, negative for removed bookmarks.
+     */
+    private void addCount(final int delta) {
+        this.count.addAndGet(delta);
+        this.storeCount.add(delta);
+    }
+
+    /**
+     * Add the bookmark to the public bookmark index if it is public.
+     *
+     * @param bookmark to add.
+     */
+    private void addPublic(final Bookmark bookmark) {
+        if (!bookmark.isPrivate()) {
+            this.publicBookmarkIndex.add(bookmark.getBookmarkLink());
+        }
+    }
+
+    /**
+     * Remove the bookmark from the public bookmark index if it is public.
+     *
+     * @param bookmark to remove, may be null.
+     */
+    private void removePublic(final Bookmark bookmark) {
+        if (bookmark != null && !bookmark.isPrivate()) {
+            this.publicBookmarkIndex.remove(bookmark.getBookmarkLink());
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.example.app.bookmark.config;
 
 import org.example.app.bookmark.bookmarkmanager.BookmarkManager;
 import org.example.app.bookmark.bookmarkmanager.IBookmarkManager;
+import org.example.app.bookmark.rest.PublicBookmarkCache;
+import org.example.app.bookmark.rest.RequestExecutor;
 import org.example.app.bookmark.usermanager.IUserManager;
 import org.example.app.bookmark.usermanager.UserManager;
 import org.glassfish.jersey.internal.inject.AbstractBinder;
@@ -15,5 +17,7 @@ public class Binder extends AbstractBinder {
         // Injects singletons into REST resources
         bind(BookmarkManager.getInstance()).to(IBookmarkManager.class);
         bind(UserManager.getInstance()).to(IUserManager.class);
+        bind(PublicBookmarkCache.getInstance()).to(PublicBookmarkCache.class);
+        bind(RequestExecutor.getInstance()).to(RequestExecutor.class);
     }
 }
\ No newline at end of file
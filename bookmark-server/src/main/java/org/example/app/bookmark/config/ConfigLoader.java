@@ -0,0 +1,265 @@
+package org.example.app.bookmark.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.app.bookmark.exceptions.BadParametersException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.BiConsumer;
+import java.util.zip.Deflater;
+
+/**
+ * Creates the internal configuration from a properties file, environment variables and system properties.
+ * Later sources override earlier ones: defaults, then the file, then environment variables, then system properties.
+ * Environment variable names are the property keys in upper case with dots replaced by underscores,
+ * for example {@code BOOKMARK_HTTP_PORT} for {@code bookmark.http.port}.
+ */
+public final class ConfigLoader {
+
+    /**
+     * System property holding the path of the configuration file.
+     */
+    public static final String CONFIG_FILE_PROPERTY = "bookmark.config";
+
+    /**
+     * Message indicating that the configuration file could not be read.
+     */
+    public static final String CONFIG_FILE_ERROR = "Configuration file could not be read: ";
+
+    /**
+     * Message indicating that a configuration value is not valid.
+     */
+    public static final String INVALID_VALUE = "Invalid configuration value for ";
+
+    /**
+     * Highest valid TCP port.
+     */
+    private static final int MAX_PORT = 65535;
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(ConfigLoader.class.getSimpleName());
+
+    /**
+     * Supported configuration keys and the setters that apply their values.
+     */
+    private static final Map<String, BiConsumer<InternalConfig, String>> SETTERS = new LinkedHashMap<>();
+
+    static {
+        SETTERS.put("bookmark.http.port", (config, value) -> config.setHttpPort(Integer.parseInt(value)));
+        SETTERS.put("bookmark.http.rootApiPath", InternalConfig::setRootApiPath);
+        SETTERS.put("bookmark.http.metricsPath", InternalConfig::setMetricsPath);
+        SETTERS.put("bookmark.http.threadMode",
+                (config, value) -> config.setThreadMode(ThreadMode.valueOf(value.toUpperCase(Locale.ROOT))));
+        SETTERS.put("bookmark.http.maxThreads", (config, value) -> config.setMaxThreads(Integer.parseInt(value)));
+        SETTERS.put("bookmark.http.minThreads", (config, value) -> config.setMinThreads(Integer.parseInt(value)));
+        SETTERS.put("bookmark.http.threadQueueCapacity",
+                (config, value) -> config.setThreadQueueCapacity(Integer.parseInt(value)));
+        SETTERS.put("bookmark.http.acceptors", (config, value) -> config.setAcceptors(Integer.parseInt(value)));
+        SETTERS.put("bookmark.http.selectors", (config, value) -> config.setSelectors(Integer.parseInt(value)));
+        SETTERS.put("bookmark.http.idleTimeout", (config, value) -> config.setIdleTimeout(Long.parseLong(value)));
+        SETTERS.put("bookmark.http.acceptQueueSize",
+                (config, value) -> config.setAcceptQueueSize(Integer.parseInt(value)));
+        SETTERS.put("bookmark.http.compression", (config, value) -> config.setCompression(parseBoolean(value)));
+        SETTERS.put("bookmark.http.compressionMinSize",
+                (config, value) -> config.setCompressionMinSize(Integer.parseInt(value)));
+        SETTERS.put("bookmark.http.compressionLevel",
+                (config, value) -> config.setCompressionLevel(Integer.parseInt(value)));
+        SETTERS.put("bookmark.http.http2", (config, value) -> config.setHttp2(parseBoolean(value)));
+        SETTERS.put("bookmark.http.http2MaxConcurrentStreams",
+                (config, value) -> config.setHttp2MaxConcurrentStreams(Integer.parseInt(value)));
+        SETTERS.put("bookmark.executor.threads",
+                (config, value) -> config.setExecutorThreads(Integer.parseInt(value)));
+        SETTERS.put("bookmark.executor.queueCapacity",
+                (config, value) -> config.setExecutorQueueCapacity(Integer.parseInt(value)));
+        SETTERS.put("bookmark.executor.requestTimeout",
+                (config, value) -> config.setRequestTimeout(Long.parseLong(value)));
+        SETTERS.put("bookmark.limit.maxConcurrentRequests",
+                (config, value) -> config.setMaxConcurrentRequests(Integer.parseInt(value)));
+        SETTERS.put("bookmark.limit.userRate", (config, value) -> config.setUserRateLimit(Integer.parseInt(value)));
+        SETTERS.put("bookmark.limit.readRate", (config, value) -> config.setReadRateLimit(Integer.parseInt(value)));
+        SETTERS.put("bookmark.limit.writeRate", (config, value) -> config.setWriteRateLimit(Integer.parseInt(value)));
+        SETTERS.put("bookmark.session.timeToLive",
+                (config, value) -> config.setSessionTimeToLive(Long.parseLong(value)));
+        SETTERS.put("bookmark.session.idleTimeout",
+                (config, value) -> config.setSessionIdleTimeout(Long.parseLong(value)));
+        SETTERS.put("bookmark.storage.directory", InternalConfig::setStorageDirectory);
+        SETTERS.put("bookmark.storage.fsync",
+                (config, value) -> config.setFsyncPolicy(FsyncPolicy.valueOf(value.toUpperCase(Locale.ROOT))));
+        SETTERS.put("bookmark.storage.fsyncInterval",
+                (config, value) -> config.setFsyncInterval(Long.parseLong(value)));
+        SETTERS.put("bookmark.storage.engine",
+                (config, value) -> config.setStorageEngine(StorageEngine.valueOf(value.toUpperCase(Locale.ROOT))));
+        SETTERS.put("bookmark.storage.memTableSize",
+                (config, value) -> config.setMemTableSize(Long.parseLong(value)));
+        SETTERS.put("bookmark.storage.shards", (config, value) -> config.setStorageShards(Integer.parseInt(value)));
+        SETTERS.put("bookmark.storage.snapshotInterval",
+                (config, value) -> config.setSnapshotInterval(Long.parseLong(value)));
+    }
+
+    /**
+     * Private constructor that prevents the default constructor from being created.
+     */
+    private ConfigLoader() {
+    }
+
+    /**
+     * Create the configuration from the environment and system properties of the process.
+     *
+     * @return loaded configuration.
+     * @throws BadParametersException if the configuration file cannot be read or a value is not valid.
+     */
+    public static InternalConfig load() {
+        return load(System.getenv(), System.getProperties());
+    }
+
+    /**
+     * Create the configuration from the given environment and system properties.
+     *
+     * @param environment      variables to read.
+     * @param systemProperties to read.
+     * @return loaded configuration.
+     * @throws BadParametersException if the configuration file cannot be read or a value is not valid.
+     */
+    public static InternalConfig load(final Map<String, String> environment, final Properties systemProperties) {
+        Properties properties = new Properties();
+        String configFile = systemProperties.getProperty(CONFIG_FILE_PROPERTY,
+                environment.get(toEnvironmentName(CONFIG_FILE_PROPERTY)));
+        if (configFile != null) {
+            LOGGER.info("Reading configuration from {}", configFile);
+            try {
+                properties.load(new StringReader(
+                        new String(Files.readAllBytes(Paths.get(configFile)), StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                throw new BadParametersException(CONFIG_FILE_ERROR + configFile, e);
+            }
+        }
+
+        for (String key : SETTERS.keySet()) {
+            String environmentValue = environment.get(toEnvironmentName(key));
+            if (environmentValue != null) {
+                properties.setProperty(key, environmentValue);
+            }
+            String systemValue = systemProperties.getProperty(key);
+            if (systemValue != null) {
+                properties.setProperty(key, systemValue);
+            }
+        }
+
+        InternalConfig internalConfig = new InternalConfig();
+        for (Map.Entry<String, BiConsumer<InternalConfig, String>> setter : SETTERS.entrySet()) {
+            String value = properties.getProperty(setter.getKey());
+            if (value != null) {
+                try {
+                    setter.getValue().accept(internalConfig, value.trim());
+                } catch (IllegalArgumentException e) {
+                    throw new BadParametersException(INVALID_VALUE + setter.getKey(), e);
+                }
+            }
+        }
+        validate(internalConfig);
+        return internalConfig;
+    }
+
+    /**
+     * Check that the loaded values can be used together.
+     *
+     * @param internalConfig to check.
+     * @throws BadParametersException if a value is not valid.
+     */
+    private static void validate(final InternalConfig internalConfig) {
+        if (internalConfig.getHttpPort() < 1 || internalConfig.getHttpPort() > MAX_PORT) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.http.port");
+        }
+        if (internalConfig.getIdleTimeout() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.http.idleTimeout");
+        }
+        if (internalConfig.getMinThreads() < 1 || internalConfig.getMaxThreads() < internalConfig.getMinThreads()) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.http.minThreads/maxThreads");
+        }
+        if (internalConfig.getThreadQueueCapacity() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.http.threadQueueCapacity");
+        }
+        if (internalConfig.getAcceptors() < 0 || internalConfig.getSelectors() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.http.acceptors/selectors");
+        }
+        if (!internalConfig.getMetricsPath().startsWith("/")
+                || internalConfig.getMetricsPath().equals(internalConfig.getRootApiPath())) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.http.metricsPath");
+        }
+        if (internalConfig.getCompressionMinSize() < 0) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.http.compressionMinSize");
+        }
+        if (internalConfig.getCompressionLevel() < Deflater.DEFAULT_COMPRESSION
+                || internalConfig.getCompressionLevel() > Deflater.BEST_COMPRESSION) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.http.compressionLevel");
+        }
+        if (internalConfig.getHttp2MaxConcurrentStreams() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.http.http2MaxConcurrentStreams");
+        }
+        if (internalConfig.getExecutorThreads() < 1 || internalConfig.getExecutorQueueCapacity() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.executor.threads/queueCapacity");
+        }
+        if (internalConfig.getRequestTimeout() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.executor.requestTimeout");
+        }
+        if (internalConfig.getMaxConcurrentRequests() < 0) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.limit.maxConcurrentRequests");
+        }
+        if (internalConfig.getUserRateLimit() < 0 || internalConfig.getReadRateLimit() < 0
+                || internalConfig.getWriteRateLimit() < 0) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.limit.userRate/readRate/writeRate");
+        }
+        if (internalConfig.getSessionTimeToLive() < 1 || internalConfig.getSessionIdleTimeout() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.session.timeToLive/idleTimeout");
+        }
+        if (internalConfig.getFsyncInterval() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.storage.fsyncInterval");
+        }
+        if (internalConfig.getSnapshotInterval() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.storage.snapshotInterval");
+        }
+        if (internalConfig.getStorageEngine() == StorageEngine.DISK && internalConfig.getStorageDirectory().isEmpty()) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.storage.engine/directory");
+        }
+        if (internalConfig.getMemTableSize() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.storage.memTableSize");
+        }
+        if (internalConfig.getStorageShards() < 1) {
+            throw new BadParametersException(INVALID_VALUE + "bookmark.storage.shards");
+        }
+    }
+
+    /**
+     * Parse a flag, accepting only true and false in any case.
+     *
+     * @param value to parse.
+     * @return parsed flag.
+     * @throws IllegalArgumentException if the value is neither true nor false.
+     */
+    private static boolean parseBoolean(final String value) {
+        if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+            throw new IllegalArgumentException("Not a boolean: " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Name of the environment variable holding the value of the property.
+     *
+     * @param key of the property.
+     * @return environment variable name.
+     */
+    private static String toEnvironmentName(final String key) {
+        return key.replace('.', '_').toUpperCase(Locale.ROOT);
+    }
+}
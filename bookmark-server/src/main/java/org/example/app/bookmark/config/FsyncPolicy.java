@@ -0,0 +1,22 @@
+package org.example.app.bookmark.config;
+
+/**
+ * When the write-ahead log forces written records to the storage device.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Every batch of records is forced before the requests that wrote it are answered.
+     */
+    ALWAYS,
+
+    /**
+     * Records are forced periodically, requests are answered as soon as their records are queued.
+     */
+    INTERVAL,
+
+    /**
+     * Records are never forced explicitly, the operating system decides when they reach the storage device.
+     */
+    NEVER
+}
@@ -1,19 +1,292 @@
 package org.example.app.bookmark.config;
 
+import org.example.app.bookmark.javajws.JavaJws;
+
+import java.util.zip.Deflater;
+
 /**
- * Holds configuration read from the configuration file.
+ * Holds the configuration of the server. Every value starts at its default and is overridden by
+ * {@link ConfigLoader} from the configuration file, then environment variables, then system properties.
+ * Defaults of the HTTP server settings scale with the number of available processors.
  */
 public class InternalConfig {
 
+    /**
+     * Number of processors available when the application started.
+     */
+    private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Default port of the embedded HTTP server.
+     */
+    private static final int DEFAULT_HTTP_PORT = 8080;
+
+    /**
+     * Default root path for the REST API.
+     */
+    private static final String DEFAULT_ROOT_API_PATH = "/management";
+
+    /**
+     * Default path of the metrics endpoint.
+     */
+    private static final String DEFAULT_METRICS_PATH = "/metrics";
+
+    /**
+     * Lower bound of the default maximum number of server threads.
+     */
+    private static final int MIN_DEFAULT_MAX_THREADS = 16;
+
+    /**
+     * Default maximum number of server threads per available processor.
+     */
+    private static final int MAX_THREADS_PER_PROCESSOR = 8;
+
+    /**
+     * Lower bound of the default minimum number of server threads.
+     */
+    private static final int MIN_DEFAULT_MIN_THREADS = 4;
+
+    /**
+     * Default capacity of the server job queue per server thread.
+     */
+    private static final int QUEUED_JOBS_PER_THREAD = 4;
+
+    /**
+     * Number of available processors per default acceptor thread.
+     */
+    private static final int PROCESSORS_PER_ACCEPTOR = 8;
+
+    /**
+     * Upper bound of the default number of acceptor threads.
+     */
+    private static final int MAX_DEFAULT_ACCEPTORS = 4;
+
+    /**
+     * Number of available processors per default selector thread.
+     */
+    private static final int PROCESSORS_PER_SELECTOR = 2;
+
+    /**
+     * Default timeout for idle connections (in ms).
+     */
+    private static final long DEFAULT_IDLE_TIMEOUT = 30000;
+
+    /**
+     * Default time between forced writes of the write-ahead log with the interval fsync policy (in ms).
+     */
+    private static final long DEFAULT_FSYNC_INTERVAL = 1000;
+
+    /**
+     * Default time between snapshots of the stored state (in seconds).
+     */
+    private static final long DEFAULT_SNAPSHOT_INTERVAL = 300;
+
+    /**
+     * Default size of the in-memory table of the disk storage engine (in bytes).
+     */
+    private static final long DEFAULT_MEM_TABLE_SIZE = 32L * 1024 * 1024;
+
+    /**
+     * Default minimum size of a response body that is compressed (in bytes).
+     */
+    private static final int DEFAULT_COMPRESSION_MIN_SIZE = 1024;
+
+    /**
+     * Default maximum number of concurrent requests on a single HTTP/2 connection.
+     */
+    private static final int DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS = 256;
+
+    /**
+     * Default number of business threads handling requests for each available processor.
+     */
+    private static final int EXECUTOR_THREADS_PER_PROCESSOR = 4;
+
+    /**
+     * Default number of requests that may wait for a business thread.
+     */
+    private static final int DEFAULT_EXECUTOR_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Default time after which a request that was not answered is rejected (in ms).
+     */
+    private static final long DEFAULT_REQUEST_TIMEOUT = 5000;
+
+    /**
+     * Default number of requests per second a single client may send to the user endpoints.
+     */
+    private static final int DEFAULT_USER_RATE_LIMIT = 10;
+
+    /**
+     * Default number of requests per second a single client may send to read bookmarks.
+     */
+    private static final int DEFAULT_READ_RATE_LIMIT = 200;
+
+    /**
+     * Default number of requests per second a single client may send to modify bookmarks.
+     */
+    private static final int DEFAULT_WRITE_RATE_LIMIT = 50;
+
     /**
      * Root path for the REST API.
      */
-    private String rootApiPath;
+    private String rootApiPath = DEFAULT_ROOT_API_PATH;
+
+    /**
+     * Path of the metrics endpoint.
+     */
+    private String metricsPath = DEFAULT_METRICS_PATH;
 
     /**
      * Port that will be used by the embedded HTTP server in this process.
      */
-    private int httpPort;
+    private int httpPort = DEFAULT_HTTP_PORT;
+
+    /**
+     * Kind of threads used to handle requests.
+     */
+    private ThreadMode threadMode = ThreadMode.PLATFORM;
+
+    /**
+     * Maximum number of server threads.
+     */
+    private int maxThreads = Math.max(MIN_DEFAULT_MAX_THREADS, AVAILABLE_PROCESSORS * MAX_THREADS_PER_PROCESSOR);
+
+    /**
+     * Minimum number of server threads.
+     */
+    private int minThreads = Math.max(MIN_DEFAULT_MIN_THREADS, AVAILABLE_PROCESSORS);
+
+    /**
+     * Maximum number of jobs waiting for a server thread.
+     */
+    private int threadQueueCapacity = this.maxThreads * QUEUED_JOBS_PER_THREAD;
+
+    /**
+     * Number of acceptor threads of the HTTP connector.
+     */
+    private int acceptors =
+            Math.max(1, Math.min(MAX_DEFAULT_ACCEPTORS, AVAILABLE_PROCESSORS / PROCESSORS_PER_ACCEPTOR));
+
+    /**
+     * Number of selector threads of the HTTP connector.
+     */
+    private int selectors = Math.max(1, AVAILABLE_PROCESSORS / PROCESSORS_PER_SELECTOR);
+
+    /**
+     * Timeout for idle connections (in ms).
+     */
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    /**
+     * Size of the accept queue of the HTTP connector, 0 uses the operating system default.
+     */
+    private int acceptQueueSize;
+
+    /**
+     * Flag indicating that response bodies are compressed for clients accepting it.
+     */
+    private boolean compression = true;
+
+    /**
+     * Minimum size of a response body that is compressed (in bytes).
+     */
+    private int compressionMinSize = DEFAULT_COMPRESSION_MIN_SIZE;
+
+    /**
+     * Deflate level used to compress response bodies, -1 uses the default level.
+     */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * Flag indicating that the HTTP connector also accepts cleartext HTTP/2 (h2c).
+     */
+    private boolean http2;
+
+    /**
+     * Maximum number of concurrent requests on a single HTTP/2 connection.
+     */
+    private int http2MaxConcurrentStreams = DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS;
+
+    /**
+     * Number of business threads handling requests.
+     */
+    private int executorThreads =
+            Math.max(MIN_DEFAULT_MAX_THREADS, AVAILABLE_PROCESSORS * EXECUTOR_THREADS_PER_PROCESSOR);
+
+    /**
+     * Number of requests that may wait for a business thread.
+     */
+    private int executorQueueCapacity = DEFAULT_EXECUTOR_QUEUE_CAPACITY;
+
+    /**
+     * Time after which a request that was not answered is rejected (in ms).
+     */
+    private long requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+
+    /**
+     * Maximum number of concurrent requests to the REST API, 0 uses the capacity of the request executor.
+     */
+    private int maxConcurrentRequests;
+
+    /**
+     * Number of requests per second a single client may send to the user endpoints, 0 for no limit.
+     */
+    private int userRateLimit = DEFAULT_USER_RATE_LIMIT;
+
+    /**
+     * Number of requests per second a single client may send to read bookmarks, 0 for no limit.
+     */
+    private int readRateLimit = DEFAULT_READ_RATE_LIMIT;
+
+    /**
+     * Number of requests per second a single client may send to modify bookmarks, 0 for no limit.
+     */
+    private int writeRateLimit = DEFAULT_WRITE_RATE_LIMIT;
+
+    /**
+     * Time in seconds after which a user session expires.
+     */
+    private long sessionTimeToLive = JavaJws.DEFAULT_SESSION_TIME_TO_LIVE;
+
+    /**
+     * Time in seconds without use after which a user session expires.
+     */
+    private long sessionIdleTimeout = JavaJws.DEFAULT_SESSION_IDLE_TIMEOUT;
+
+    /**
+     * Directory holding the write-ahead log and snapshots, empty if the state is only kept in memory.
+     */
+    private String storageDirectory = "";
+
+    /**
+     * When the write-ahead log forces written records to the storage device.
+     */
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.ALWAYS;
+
+    /**
+     * Time between forced writes of the write-ahead log with the interval fsync policy (in ms).
+     */
+    private long fsyncInterval = DEFAULT_FSYNC_INTERVAL;
+
+    /**
+     * Time between snapshots of the stored state (in seconds).
+     */
+    private long snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+
+    /**
+     * Where the bookmarks are kept.
+     */
+    private StorageEngine storageEngine = StorageEngine.MEMORY;
+
+    /**
+     * Size of the in-memory table of the disk storage engine before it is written to a table file (in bytes).
+     */
+    private long memTableSize = DEFAULT_MEM_TABLE_SIZE;
+
+    /**
+     * Number of shards of the sharded storage engine, each with its own writer thread.
+     */
+    private int storageShards = AVAILABLE_PROCESSORS;
 
     /**
      * Getter for the rootApiPath.
@@ -33,6 +306,24 @@ public class InternalConfig {
         this.rootApiPath = rootApiPath;
     }
 
+    /**
+     * Getter for metricsPath.
+     *
+     * @return path of the metrics endpoint.
+     */
+    public final String getMetricsPath() {
+        return this.metricsPath;
+    }
+
+    /**
+     * Setter for metricsPath.
+     *
+     * @param metricsPath set value.
+     */
+    public final void setMetricsPath(final String metricsPath) {
+        this.metricsPath = metricsPath;
+    }
+
     /**
      * Getter for httpPort.
      *
@@ -50,4 +341,526 @@ public class InternalConfig {
     public final void setHttpPort(final int httpPort) {
         this.httpPort = httpPort;
     }
+
+    /**
+     * Getter for threadMode.
+     *
+     * @return kind of threads used to handle requests.
+     */
+    public final ThreadMode getThreadMode() {
+        return this.threadMode;
+    }
+
+    /**
+     * Setter for threadMode.
+     *
+     * @param threadMode set value.
+     */
+    public final void setThreadMode(final ThreadMode threadMode) {
+        this.threadMode = threadMode;
+    }
+
+    /**
+     * Getter for maxThreads.
+     *
+     * @return maximum number of server threads.
+     */
+    public final int getMaxThreads() {
+        return this.maxThreads;
+    }
+
+    /**
+     * Setter for maxThreads.
+     *
+     * @param maxThreads set value.
+     */
+    public final void setMaxThreads(final int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Getter for minThreads.
+     *
+     * @return minimum number of server threads.
+     */
+    public final int getMinThreads() {
+        return this.minThreads;
+    }
+
+    /**
+     * Setter for minThreads.
+     *
+     * @param minThreads set value.
+     */
+    public final void setMinThreads(final int minThreads) {
+        this.minThreads = minThreads;
+    }
+
+    /**
+     * Getter for threadQueueCapacity.
+     *
+     * @return maximum number of jobs waiting for a server thread.
+     */
+    public final int getThreadQueueCapacity() {
+        return this.threadQueueCapacity;
+    }
+
+    /**
+     * Setter for threadQueueCapacity.
+     *
+     * @param threadQueueCapacity set value.
+     */
+    public final void setThreadQueueCapacity(final int threadQueueCapacity) {
+        this.threadQueueCapacity = threadQueueCapacity;
+    }
+
+    /**
+     * Getter for acceptors.
+     *
+     * @return number of acceptor threads of the HTTP connector.
+     */
+    public final int getAcceptors() {
+        return this.acceptors;
+    }
+
+    /**
+     * Setter for acceptors.
+     *
+     * @param acceptors set value.
+     */
+    public final void setAcceptors(final int acceptors) {
+        this.acceptors = acceptors;
+    }
+
+    /**
+     * Getter for selectors.
+     *
+     * @return number of selector threads of the HTTP connector.
+     */
+    public final int getSelectors() {
+        return this.selectors;
+    }
+
+    /**
+     * Setter for selectors.
+     *
+     * @param selectors set value.
+     */
+    public final void setSelectors(final int selectors) {
+        this.selectors = selectors;
+    }
+
+    /**
+     * Getter for idleTimeout.
+     *
+     * @return timeout for idle connections (in ms).
+     */
+    public final long getIdleTimeout() {
+        return this.idleTimeout;
+    }
+
+    /**
+     * Setter for idleTimeout.
+     *
+     * @param idleTimeout set value.
+     */
+    public final void setIdleTimeout(final long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Getter for acceptQueueSize.
+     *
+     * @return size of the accept queue of the HTTP connector, 0 uses the operating system default.
+     */
+    public final int getAcceptQueueSize() {
+        return this.acceptQueueSize;
+    }
+
+    /**
+     * Setter for acceptQueueSize.
+     *
+     * @param acceptQueueSize set value.
+     */
+    public final void setAcceptQueueSize(final int acceptQueueSize) {
+        this.acceptQueueSize = acceptQueueSize;
+    }
+
+    /**
+     * Getter for compression.
+     *
+     * @return true if response bodies are compressed for clients accepting it.
+     */
+    public final boolean isCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Setter for compression.
+     *
+     * @param compression set value.
+     */
+    public final void setCompression(final boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Getter for compressionMinSize.
+     *
+     * @return minimum size of a response body that is compressed (in bytes).
+     */
+    public final int getCompressionMinSize() {
+        return this.compressionMinSize;
+    }
+
+    /**
+     * Setter for compressionMinSize.
+     *
+     * @param compressionMinSize set value.
+     */
+    public final void setCompressionMinSize(final int compressionMinSize) {
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    /**
+     * Getter for compressionLevel.
+     *
+     * @return deflate level used to compress response bodies, -1 uses the default level.
+     */
+    public final int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    /**
+     * Setter for compressionLevel.
+     *
+     * @param compressionLevel set value.
+     */
+    public final void setCompressionLevel(final int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Getter for http2.
+     *
+     * @return true if the HTTP connector also accepts cleartext HTTP/2 (h2c).
+     */
+    public final boolean isHttp2() {
+        return this.http2;
+    }
+
+    /**
+     * Setter for http2.
+     *
+     * @param http2 set value.
+     */
+    public final void setHttp2(final boolean http2) {
+        this.http2 = http2;
+    }
+
+    /**
+     * Getter for http2MaxConcurrentStreams.
+     *
+     * @return maximum number of concurrent requests on a single HTTP/2 connection.
+     */
+    public final int getHttp2MaxConcurrentStreams() {
+        return this.http2MaxConcurrentStreams;
+    }
+
+    /**
+     * Setter for http2MaxConcurrentStreams.
+     *
+     * @param http2MaxConcurrentStreams set value.
+     */
+    public final void setHttp2MaxConcurrentStreams(final int http2MaxConcurrentStreams) {
+        this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+    }
+
+    /**
+     * Getter for executorThreads.
+     *
+     * @return number of business threads handling requests.
+     */
+    public final int getExecutorThreads() {
+        return this.executorThreads;
+    }
+
+    /**
+     * Setter for executorThreads.
+     *
+     * @param executorThreads set value.
+     */
+    public final void setExecutorThreads(final int executorThreads) {
+        this.executorThreads = executorThreads;
+    }
+
+    /**
+     * Getter for executorQueueCapacity.
+     *
+     * @return number of requests that may wait for a business thread.
+     */
+    public final int getExecutorQueueCapacity() {
+        return this.executorQueueCapacity;
+    }
+
+    /**
+     * Setter for executorQueueCapacity.
+     *
+     * @param executorQueueCapacity set value.
+     */
+    public final void setExecutorQueueCapacity(final int executorQueueCapacity) {
+        this.executorQueueCapacity = executorQueueCapacity;
+    }
+
+    /**
+     * Getter for requestTimeout.
+     *
+     * @return time after which a request that was not answered is rejected (in ms).
+     */
+    public final long getRequestTimeout() {
+        return this.requestTimeout;
+    }
+
+    /**
+     * Setter for requestTimeout.
+     *
+     * @param requestTimeout set value.
+     */
+    public final void setRequestTimeout(final long requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Getter for maxConcurrentRequests.
+     *
+     * @return maximum number of concurrent requests to the REST API, 0 uses the capacity of the request executor.
+     */
+    public final int getMaxConcurrentRequests() {
+        return this.maxConcurrentRequests;
+    }
+
+    /**
+     * Setter for maxConcurrentRequests.
+     *
+     * @param maxConcurrentRequests set value.
+     */
+    public final void setMaxConcurrentRequests(final int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * Getter for userRateLimit.
+     *
+     * @return number of requests per second a single client may send to the user endpoints, 0 for no limit.
+     */
+    public final int getUserRateLimit() {
+        return this.userRateLimit;
+    }
+
+    /**
+     * Setter for userRateLimit.
+     *
+     * @param userRateLimit set value.
+     */
+    public final void setUserRateLimit(final int userRateLimit) {
+        this.userRateLimit = userRateLimit;
+    }
+
+    /**
+     * Getter for readRateLimit.
+     *
+     * @return number of requests per second a single client may send to read bookmarks, 0 for no limit.
+     */
+    public final int getReadRateLimit() {
+        return this.readRateLimit;
+    }
+
+    /**
+     * Setter for readRateLimit.
+     *
+     * @param readRateLimit set value.
+     */
+    public final void setReadRateLimit(final int readRateLimit) {
+        this.readRateLimit = readRateLimit;
+    }
+
+    /**
+     * Getter for writeRateLimit.
+     *
+     * @return number of requests per second a single client may send to modify bookmarks, 0 for no limit.
+     */
+    public final int getWriteRateLimit() {
+        return this.writeRateLimit;
+    }
+
+    /**
+     * Setter for writeRateLimit.
+     *
+     * @param writeRateLimit set value.
+     */
+    public final void setWriteRateLimit(final int writeRateLimit) {
+        this.writeRateLimit = writeRateLimit;
+    }
+
+    /**
+     * Getter for sessionTimeToLive.
+     *
+     * @return time in seconds after which a user session expires.
+     */
+    public final long getSessionTimeToLive() {
+        return this.sessionTimeToLive;
+    }
+
+    /**
+     * Setter for sessionTimeToLive.
+     *
+     * @param sessionTimeToLive set value.
+     */
+    public final void setSessionTimeToLive(final long sessionTimeToLive) {
+        this.sessionTimeToLive = sessionTimeToLive;
+    }
+
+    /**
+     * Getter for sessionIdleTimeout.
+     *
+     * @return time in seconds without use after which a user session expires.
+     */
+    public final long getSessionIdleTimeout() {
+        return this.sessionIdleTimeout;
+    }
+
+    /**
+     * Setter for sessionIdleTimeout.
+     *
+     * @param sessionIdleTimeout set value.
+     */
+    public final void setSessionIdleTimeout(final long sessionIdleTimeout) {
+        this.sessionIdleTimeout = sessionIdleTimeout;
+    }
+
+    /**
+     * Getter for storageDirectory.
+     *
+     * @return directory holding the write-ahead log and snapshots, empty if the state is only kept in memory.
+     */
+    public final String getStorageDirectory() {
+        return this.storageDirectory;
+    }
+
+    /**
+     * Setter for storageDirectory.
+     *
+     * @param storageDirectory set value.
+     */
+    public final void setStorageDirectory(final String storageDirectory) {
+        this.storageDirectory = storageDirectory;
+    }
+
+    /**
+     * Getter for fsyncPolicy.
+     *
+     * @return when the write-ahead log forces written records to the storage device.
+     */
+    public final FsyncPolicy getFsyncPolicy() {
+        return this.fsyncPolicy;
+    }
+
+    /**
+     * Setter for fsyncPolicy.
+     *
+     * @param fsyncPolicy set value.
+     */
+    public final void setFsyncPolicy(final FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * Getter for fsyncInterval.
+     *
+     * @return time between forced writes with the interval fsync policy (in ms).
+     */
+    public final long getFsyncInterval() {
+        return this.fsyncInterval;
+    }
+
+    /**
+     * Setter for fsyncInterval.
+     *
+     * @param fsyncInterval set value.
+     */
+    public final void setFsyncInterval(final long fsyncInterval) {
+        this.fsyncInterval = fsyncInterval;
+    }
+
+    /**
+     * Getter for snapshotInterval.
+     *
+     * @return time between snapshots of the stored state (in seconds).
+     */
+    public final long getSnapshotInterval() {
+        return this.snapshotInterval;
+    }
+
+    /**
+     * Setter for snapshotInterval.
+     *
+     * @param snapshotInterval set value.
+     */
+    public final void setSnapshotInterval(final long snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Getter for storageEngine.
+     *
+     * @return where the bookmarks are kept.
+     */
+    public final StorageEngine getStorageEngine() {
+        return this.storageEngine;
+    }
+
+    /**
+     * Setter for storageEngine.
+     *
+     * @param storageEngine set value.
+     */
+    public final void setStorageEngine(final StorageEngine storageEngine) {
+        this.storageEngine = storageEngine;
+    }
+
+    /**
+     * Getter for memTableSize.
+     *
+     * @return size of the in-memory table of the disk storage engine (in bytes).
+     */
+    public final long getMemTableSize() {
+        return this.memTableSize;
+    }
+
+    /**
+     * Setter for memTableSize.
+     *
+     * @param memTableSize set value.
+     */
+    public final void setMemTableSize(final long memTableSize) {
+        this.memTableSize = memTableSize;
+    }
+
+    /**
+     * Getter for storageShards.
+     *
+     * @return number of shards of the sharded storage engine.
+     */
+    public final int getStorageShards() {
+        return this.storageShards;
+    }
+
+    /**
+     * Setter for storageShards.
+     *
+     * @param storageShards set value.
+     */
+    public final void setStorageShards(final int storageShards) {
+        this.storageShards = storageShards;
+    }
 }
@@ -1,7 +1,9 @@
 package org.example.app.bookmark.config;
 
+import org.example.app.bookmark.metrics.MetricsFilter;
 import org.glassfish.jersey.jackson.JacksonFeature;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
 
 /**
  * Configuration class for Jersey.
@@ -14,5 +16,8 @@ public class JerseyConfig extends ResourceConfig {
         packages("org.example.app.bookmark.rest");
         register(new Binder());
         register(JacksonFeature.class);
+        register(MetricsFilter.class);
+        // WADL is not used and its JAXB context cannot be created on newer Java runtimes
+        property(ServerProperties.WADL_FEATURE_DISABLE, true);
     }
 }
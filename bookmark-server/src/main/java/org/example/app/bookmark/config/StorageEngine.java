@@ -0,0 +1,30 @@
+package org.example.app.bookmark.config;
+
+/**
+ * Where the bookmarks are kept.
+ */
+public enum StorageEngine {
+
+    /**
+     * All bookmarks are kept on the heap and recovered from the write-ahead log and snapshots.
+     */
+    MEMORY,
+
+    /**
+     * Bookmarks are kept in off-heap slabs and recovered from the write-ahead log and snapshots,
+     * only compact record handles are kept on the heap.
+     */
+    OFF_HEAP,
+
+    /**
+     * Bookmarks are kept in an embedded key-value store in the storage directory, only recent modifications
+     * and table indexes are kept on the heap.
+     */
+    DISK,
+
+    /**
+     * All bookmarks are kept on the heap in shards, each modified by its own writer thread,
+     * and recovered from the write-ahead log and snapshots.
+     */
+    SHARDED
+}
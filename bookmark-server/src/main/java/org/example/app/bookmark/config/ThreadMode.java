@@ -0,0 +1,17 @@
+package org.example.app.bookmark.config;
+
+/**
+ * Kind of threads the HTTP server uses to handle requests.
+ */
+public enum ThreadMode {
+
+    /**
+     * Requests are handled by a bounded pool of platform threads.
+     */
+    PLATFORM,
+
+    /**
+     * Every request is handled by a new virtual thread. Requires a Java runtime with virtual thread support.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,307 @@
+package org.example.app.bookmark.httpserver;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.example.app.bookmark.config.InternalConfig;
+import org.example.app.bookmark.javajws.IJavaJws;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Admits requests to the REST API before the request body is read, so a single client cannot saturate the server.
+ * Each client gets a request rate per endpoint group, by remote address and by the user of its token,
+ * requests over the rate are rejected with 429 Too Many Requests.
+ * Requests over the limit of concurrent requests are rejected with 503 Service Unavailable.
+ */
+public class AdmissionHandler extends HandlerWrapper {
+
+    /**
+     * Seconds after which a client rejected because of concurrent requests may retry.
+     */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    /**
+     * Status of a request rejected because of its rate.
+     */
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Path prefix of the REST API.
+     */
+    private final String apiPath;
+
+    /**
+     * Path prefix of the user endpoints.
+     */
+    private final String userPath;
+
+    /**
+     * Maximum number of concurrent requests to the REST API.
+     */
+    private final int maxConcurrentRequests;
+
+    /**
+     * Used to find the user of a request.
+     */
+    private final IJavaJws javaJws;
+
+    /**
+     * Rate limiters by endpoint group, groups without a rate limit have none.
+     */
+    private final Map<EndpointGroup, RateLimiter> rateLimiters;
+
+    /**
+     * Number of requests to the REST API being handled.
+     */
+    private final AtomicInteger concurrentRequests;
+
+    /**
+     * Number of requests rejected because of their rate.
+     */
+    private final LongAdder rateLimitedRequests;
+
+    /**
+     * Number of requests rejected because of the limit of concurrent requests.
+     */
+    private final LongAdder shedRequests;
+
+    /**
+     * Constructor.
+     *
+     * @param internalConfig holding the REST API path and the request limits.
+     * @param javaJws        used to find the user of a request.
+     */
+    public AdmissionHandler(final InternalConfig internalConfig, final IJavaJws javaJws) {
+        this(internalConfig, javaJws, System::nanoTime);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param internalConfig holding the REST API path and the request limits.
+     * @param javaJws        used to find the user of a request.
+     * @param clock          returning the current time (in ns).
+     */
+    AdmissionHandler(final InternalConfig internalConfig, final IJavaJws javaJws, final LongSupplier clock) {
+        this.apiPath = internalConfig.getRootApiPath() + "/";
+        this.userPath = this.apiPath + "user/";
+        this.maxConcurrentRequests = internalConfig.getMaxConcurrentRequests() > 0
+                ? internalConfig.getMaxConcurrentRequests()
+                : internalConfig.getExecutorThreads() + internalConfig.getExecutorQueueCapacity();
+        this.javaJws = javaJws;
+        this.rateLimiters = new EnumMap<>(EndpointGroup.class);
+        addRateLimiter(this.rateLimiters, EndpointGroup.USER, internalConfig.getUserRateLimit(), clock);
+        addRateLimiter(this.rateLimiters, EndpointGroup.READ, internalConfig.getReadRateLimit(), clock);
+        addRateLimiter(this.rateLimiters, EndpointGroup.WRITE, internalConfig.getWriteRateLimit(), clock);
+        this.concurrentRequests = new AtomicInteger();
+        this.rateLimitedRequests = new LongAdder();
+        this.shedRequests = new LongAdder();
+    }
+
+    @Override
+    public final void handle(final String target, final Request baseRequest, final HttpServletRequest request,
+                             final HttpServletResponse response) throws IOException, ServletException {
+        if (!target.startsWith(this.apiPath)) {
+            super.handle(target, baseRequest, request, response);
+            return;
+        }
+        long wait = this.acquireRate(target, request);
+        if (wait > 0) {
+            this.rateLimitedRequests.increment();
+            long retryAfter = Math.max(1, (wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+            reject(baseRequest, response, SC_TOO_MANY_REQUESTS, Long.toString(retryAfter));
+            return;
+        }
+        if (this.concurrentRequests.incrementAndGet() > this.maxConcurrentRequests) {
+            this.concurrentRequests.decrementAndGet();
+            this.shedRequests.increment();
+            reject(baseRequest, response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, RETRY_AFTER_SECONDS);
+            return;
+        }
+        try {
+            super.handle(target, baseRequest, request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(this.concurrentRequests));
+            } else {
+                this.concurrentRequests.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Getter for the number of requests to the REST API being handled.
+     *
+     * @return number of concurrent requests.
+     */
+    public long getConcurrentRequests() {
+        return this.concurrentRequests.get();
+    }
+
+    /**
+     * Getter for the number of requests rejected because of their rate.
+     *
+     * @return number of rate limited requests since the start.
+     */
+    public long getRateLimitedRequests() {
+        return this.rateLimitedRequests.sum();
+    }
+
+    /**
+     * Getter for the number of requests rejected because of the limit of concurrent requests.
+     *
+     * @return number of shed requests since the start.
+     */
+    public long getShedRequests() {
+        return this.shedRequests.sum();
+    }
+
+    /**
+     * Take a token for the request from the buckets of its remote address and of its user.
+     * The user is only taken from tokens that were already verified, so the token is not verified twice and the
+     * session is not used before the request is admitted. Other requests are only limited by their remote address.
+     *
+     * @param target  path of the request.
+     * @param request to admit.
+     * @return 0 if the request is admitted, otherwise the time until the client may retry (in ns).
+     */
+    private long acquireRate(final String target, final HttpServletRequest request) {
+        RateLimiter rateLimiter = this.rateLimiters.get(this.getEndpointGroup(target, request.getMethod()));
+        if (rateLimiter == null) {
+            return 0;
+        }
+        long wait = rateLimiter.acquire("address:" + request.getRemoteAddr());
+        if (wait > 0) {
+            return wait;
+        }
+        String authString = request.getHeader(HttpHeader.AUTHORIZATION.asString());
+        if (authString == null) {
+            return 0;
+        }
+        String userName = this.javaJws.peekUser(authString);
+        return userName.isEmpty() ? 0 : rateLimiter.acquire("user:" + userName);
+    }
+
+    /**
+     * Find the endpoint group of a request.
+     *
+     * @param target path of the request.
+     * @param method of the request.
+     * @return endpoint group.
+     */
+    private EndpointGroup getEndpointGroup(final String target, final String method) {
+        if (target.startsWith(this.userPath)) {
+            return EndpointGroup.USER;
+        }
+        if (HttpMethod.GET.is(method) || HttpMethod.HEAD.is(method)) {
+            return EndpointGroup.READ;
+        }
+        return EndpointGroup.WRITE;
+    }
+
+    /**
+     * Add the rate limiter of an endpoint group, if its rate is limited.
+     *
+     * @param rateLimiters  by endpoint group.
+     * @param endpointGroup whose rate is limited.
+     * @param rate          maximum number of requests per second of a single client, 0 for no limit.
+     * @param clock         returning the current time (in ns).
+     */
+    private static void addRateLimiter(final Map<EndpointGroup, RateLimiter> rateLimiters,
+                                       final EndpointGroup endpointGroup, final int rate, final LongSupplier clock) {
+        if (rate > 0) {
+            rateLimiters.put(endpointGroup, new RateLimiter(rate, clock));
+        }
+    }
+
+    /**
+     * Reject a request without reading it.
+     *
+     * @param baseRequest that is rejected.
+     * @param response    to the request.
+     * @param status      of the response.
+     * @param retryAfter  seconds after which the client may retry.
+     */
+    private static void reject(final Request baseRequest, final HttpServletResponse response, final int status,
+                               final String retryAfter) {
+        response.setStatus(status);
+        response.setHeader(HttpHeader.RETRY_AFTER.asString(), retryAfter);
+        baseRequest.setHandled(true);
+    }
+
+    /**
+     * Groups of endpoints with their own request rate.
+     */
+    enum EndpointGroup {
+        /**
+         * Registering, logging in and logging out users.
+         */
+        USER,
+        /**
+         * Reading bookmarks.
+         */
+        READ,
+        /**
+         * Adding, updating and deleting bookmarks.
+         */
+        WRITE
+    }
+
+    /**
+     * Ends an asynchronous request once it completes.
+     */
+    private static final class CompletionListener implements AsyncListener {
+
+        /**
+         * Number of requests being handled.
+         */
+        private final AtomicInteger concurrentRequests;
+
+        /**
+         * Constructor.
+         *
+         * @param concurrentRequests number of requests being handled.
+         */
+        private CompletionListener(final AtomicInteger concurrentRequests) {
+            this.concurrentRequests = concurrentRequests;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            this.concurrentRequests.decrementAndGet();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            // Ended when the request completes
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            // Ended when the request completes
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // Ended when the request completes
+        }
+    }
+}
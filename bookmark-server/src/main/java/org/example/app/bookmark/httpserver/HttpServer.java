@@ -3,8 +3,11 @@ package org.example.app.bookmark.httpserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.BlockingArrayQueue;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.example.app.bookmark.config.InternalConfig;
+import org.example.app.bookmark.config.ThreadMode;
 import org.example.app.bookmark.utils.IUtils;
 
 /**
@@ -18,14 +21,9 @@ public class HttpServer implements IHttpServer {
     private static final Logger LOGGER = LogManager.getLogger(HttpServer.class.getSimpleName());
 
     /**
-     * Minimum number of threads to be used by the server.
+     * Time after which idle threads above the minimum are stopped (in ms).
      */
-    private static final int MIN_THREADS = 4;
-
-    /**
-     * Maximum number of threads to be used by the server.
-     */
-    private static final int MAX_THREADS = 10;
+    private static final int THREAD_IDLE_TIMEOUT = 60000;
 
     /**
      * Object with utility methods.
@@ -49,11 +47,18 @@ public class HttpServer implements IHttpServer {
      * @param utils          object with utility methods
      */
     public HttpServer(final InternalConfig internalConfig, final IUtils utils) {
-        LOGGER.debug("HTTP server will be started on port {}", internalConfig.getHttpPort());
-        QueuedThreadPool threadPool = new QueuedThreadPool(HttpServer.MAX_THREADS, HttpServer.MIN_THREADS);
+        ThreadPool threadPool;
+        if (internalConfig.getThreadMode() == ThreadMode.VIRTUAL) {
+            LOGGER.debug("HTTP server will be started on port {} with virtual threads", internalConfig.getHttpPort());
+            threadPool = new VirtualThreadPool();
+        } else {
+            LOGGER.debug("HTTP server will be started on port {} with {}-{} threads", internalConfig.getHttpPort(),
+                    internalConfig.getMinThreads(), internalConfig.getMaxThreads());
+            threadPool = new QueuedThreadPool(internalConfig.getMaxThreads(), internalConfig.getMinThreads(),
+                    HttpServer.THREAD_IDLE_TIMEOUT, new BlockingArrayQueue<>(internalConfig.getThreadQueueCapacity()));
+        }
         this.utils = utils;
-        this.server = this.utils.setupJettyServer(
-                threadPool, internalConfig.getHttpPort(), internalConfig.getRootApiPath());
+        this.server = this.utils.setupJettyServer(threadPool, internalConfig);
         this.serverRunning = false;
     }
 
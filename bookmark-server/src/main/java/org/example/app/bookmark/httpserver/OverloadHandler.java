@@ -0,0 +1,57 @@
+package org.example.app.bookmark.httpserver;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Rejects requests with 503 Service Unavailable while the server thread pool is saturated,
+ * instead of letting them wait in the job queue.
+ * Half of the job queue is kept free for connection handling jobs, that are dropped when the queue is full.
+ */
+public class OverloadHandler extends HandlerWrapper {
+
+    /**
+     * Seconds after which a rejected client may retry.
+     */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    /**
+     * Thread pool of the server.
+     */
+    private final QueuedThreadPool threadPool;
+
+    /**
+     * Number of queued jobs at which requests are rejected.
+     */
+    private final int rejectQueueSize;
+
+    /**
+     * Constructor.
+     *
+     * @param threadPool          of the server.
+     * @param threadQueueCapacity capacity of the job queue of the thread pool.
+     */
+    public OverloadHandler(final QueuedThreadPool threadPool, final int threadQueueCapacity) {
+        this.threadPool = threadPool;
+        this.rejectQueueSize = Math.max(1, threadQueueCapacity / 2);
+    }
+
+    @Override
+    public final void handle(final String target, final Request baseRequest, final HttpServletRequest request,
+                             final HttpServletResponse response) throws IOException, ServletException {
+        if (this.threadPool.getQueueSize() >= this.rejectQueueSize) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeader.RETRY_AFTER.asString(), RETRY_AFTER_SECONDS);
+            baseRequest.setHandled(true);
+            return;
+        }
+        super.handle(target, baseRequest, request, response);
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.app.bookmark.httpserver;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the request rate of each client with a token bucket per client, holding one second of requests.
+ * Buckets are lock-free: as in the generic cell rate algorithm, a bucket is a single timestamp, the time
+ * at which it is full again, advanced with compare-and-set by every accepted request.
+ * Buckets that are full again are removed once a minute, as they are equal to a new bucket.
+ */
+final class RateLimiter {
+
+    /**
+     * Time between removals of full buckets (in ns).
+     */
+    private static final long SWEEP_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Time in which a single token is added to a bucket (in ns).
+     */
+    private final long tokenInterval;
+
+    /**
+     * Time a bucket may be ahead of the current time and still accept a request (in ns).
+     */
+    private final long burstTolerance;
+
+    /**
+     * Current time (in ns).
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Time at which the bucket of each client is full again, by client.
+     */
+    private final ConcurrentMap<String, AtomicLong> buckets;
+
+    /**
+     * Time of the next removal of full buckets.
+     */
+    private final AtomicLong nextSweep;
+
+    /**
+     * Constructor.
+     *
+     * @param rate  maximum number of requests per second of a single client, at least 1.
+     * @param clock returning the current time (in ns).
+     */
+    RateLimiter(final int rate, final LongSupplier clock) {
+        this.tokenInterval = TimeUnit.SECONDS.toNanos(1) / rate;
+        this.burstTolerance = this.tokenInterval * (rate - 1);
+        this.clock = clock;
+        this.buckets = new ConcurrentHashMap<>();
+        this.nextSweep = new AtomicLong(clock.getAsLong() + SWEEP_INTERVAL);
+    }
+
+    /**
+     * Take a token from the bucket of a client.
+     *
+     * @param client whose bucket is used.
+     * @return 0 if the request is accepted, otherwise the time until the client may retry (in ns).
+     */
+    long acquire(final String client) {
+        long now = this.clock.getAsLong();
+        this.sweep(now);
+        AtomicLong bucket = this.buckets.get(client);
+        if (bucket == null) {
+            bucket = this.buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+        }
+        while (true) {
+            long full = bucket.get();
+            long start = full - now > 0 ? full : now;
+            long wait = start - this.burstTolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(full, start + this.tokenInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Getter for the number of clients with a bucket that is not full.
+     *
+     * @return number of buckets.
+     */
+    int size() {
+        return this.buckets.size();
+    }
+
+    /**
+     * Remove the buckets that are full again, at most once per sweep interval.
+     * A request racing with the removal of its bucket may get one more token.
+     *
+     * @param now current time (in ns).
+     */
+    private void sweep(final long now) {
+        long sweep = this.nextSweep.get();
+        if (now - sweep >= 0 && this.nextSweep.compareAndSet(sweep, now + SWEEP_INTERVAL)) {
+            this.buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+}
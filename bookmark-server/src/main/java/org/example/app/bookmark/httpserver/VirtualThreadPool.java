@@ -0,0 +1,125 @@
+package org.example.app.bookmark.httpserver;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.example.app.bookmark.exceptions.BadParametersException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jetty thread pool that runs every job on a new virtual thread.
+ * The application is compiled for Java 11, so the virtual thread executor is looked up at runtime
+ * and is only available on a Java runtime that supports virtual threads.
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    /**
+     * Message indicating that the Java runtime does not support virtual threads.
+     */
+    public static final String NOT_AVAILABLE = "Virtual threads are not available on this Java runtime";
+
+    /**
+     * Name of the factory method of the virtual thread executor.
+     */
+    private static final String EXECUTOR_FACTORY_METHOD = "newVirtualThreadPerTaskExecutor";
+
+    /**
+     * Time to wait for running jobs when the pool is stopped (in ms).
+     */
+    private static final long STOP_TIMEOUT = 30000;
+
+    /**
+     * Executor that starts a virtual thread for every job.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Number of jobs that are currently running.
+     */
+    private final AtomicInteger runningJobs;
+
+    /**
+     * Constructor.
+     *
+     * @throws BadParametersException if the Java runtime does not support virtual threads.
+     */
+    public VirtualThreadPool() {
+        this.executor = createExecutor();
+        this.runningJobs = new AtomicInteger();
+    }
+
+    /**
+     * Check if the Java runtime supports virtual threads.
+     *
+     * @return true if virtual threads are available, false otherwise.
+     */
+    public static boolean isAvailable() {
+        try {
+            Executors.class.getMethod(EXECUTOR_FACTORY_METHOD);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public final void execute(final Runnable job) {
+        this.executor.execute(() -> {
+            this.runningJobs.incrementAndGet();
+            try {
+                job.run();
+            } finally {
+                this.runningJobs.decrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    public final void join() throws InterruptedException {
+        this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public final int getThreads() {
+        return this.runningJobs.get();
+    }
+
+    @Override
+    public final int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public final boolean isLowOnThreads() {
+        return false;
+    }
+
+    @Override
+    protected final void doStop() throws Exception {
+        this.executor.shutdown();
+        if (!this.executor.awaitTermination(STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            this.executor.shutdownNow();
+        }
+        super.doStop();
+    }
+
+    /**
+     * Create a virtual thread executor.
+     *
+     * @return executor that starts a virtual thread for every job.
+     * @throws BadParametersException if the Java runtime does not support virtual threads.
+     */
+    public static ExecutorService createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod(EXECUTOR_FACTORY_METHOD);
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new BadParametersException(NOT_AVAILABLE, e);
+        }
+    }
+}
@@ -32,6 +32,15 @@ public interface IJavaJws {
      */
     String authorizeUser(final String authString);
 
+    /**
+     * Find the user of a token whose signature was already verified, without verifying the token or using the
+     * session of the user. Used to tell clients apart before their requests are authorized.
+     *
+     * @param authString that holds the token information.
+     * @return username in jws subject, or empty string if the token was not verified recently.
+     */
+    String peekUser(final String authString);
+
     /**
      * Check if the user session already exists.
      *
@@ -39,4 +48,11 @@ public interface IJavaJws {
      * @return true if the user session exists, false otherwise.
      */
     boolean checkUserLoggedIn(final String username);
+
+    /**
+     * Get the number of user sessions, including expired sessions that were not swept yet.
+     *
+     * @return session count.
+     */
+    int getSessionCount();
 }
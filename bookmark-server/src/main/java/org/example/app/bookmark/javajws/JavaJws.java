@@ -1,19 +1,22 @@
 package org.example.app.bookmark.javajws;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.example.app.bookmark.config.InternalConfig;
 
 import javax.crypto.SecretKey;
 import java.sql.Date;
 import java.time.Instant;
 import java.util.AbstractMap;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class JavaJws implements IJavaJws {
 
@@ -22,40 +25,113 @@ public class JavaJws implements IJavaJws {
      */
     public static final String JWS_ISSUER = "BookmarkApplication";
 
+    /**
+     * Maximum number of tokens in the verification cache.
+     */
+    static final int VERIFIED_TOKENS_MAXIMUM_SIZE = 10000;
+
+    /**
+     * Time in seconds after which a cached token signature has to be verified again.
+     */
+    static final long VERIFIED_TOKENS_TIME_TO_LIVE = 60;
+
+    /**
+     * Default time in seconds after which a session expires.
+     */
+    public static final long DEFAULT_SESSION_TIME_TO_LIVE = 3600;
+
+    /**
+     * Default time in seconds without use after which a session expires.
+     */
+    public static final long DEFAULT_SESSION_IDLE_TIMEOUT = 900;
+
+    /**
+     * Time in seconds between two removals of expired sessions.
+     */
+    static final long SESSION_SWEEP_INTERVAL = 30;
+
     /**
      * Singleton instance.
      */
     private static volatile JavaJws instance;
 
     /**
-     * Map containing a user and a private key associated with that user.
-     * Contains a list of active sessions.
+     * Table of active sessions, containing a user and the id of the session of that user.
      */
-    private final Map<String, String> authorizedUsers;
+    private final SessionTable authorizedUsers;
+
+    /**
+     * Executor that periodically removes expired sessions and expired cached tokens.
+     */
+    private final ScheduledExecutorService sessionSweeper;
 
     /**
      * Secret key used to verify and sign the jws signature.
      */
     private final SecretKey secretKey;
 
+    /**
+     * Parser used to verify the jws signature. Immutable and shared between threads.
+     */
+    private final JwtParser jwtParser;
+
+    /**
+     * Tokens with an already verified signature.
+     */
+    private final VerifiedTokenCache verifiedTokens;
+
     /**
      * Private constructor.
+     *
+     * @param sessionTimeToLive  time in seconds after which a session expires.
+     * @param sessionIdleTimeout time in seconds without use after which a session expires.
      */
-    private JavaJws() {
-        this.authorizedUsers = new HashMap<>();
+    private JavaJws(final long sessionTimeToLive, final long sessionIdleTimeout) {
+        this.authorizedUsers = new SessionTable(sessionTimeToLive, sessionIdleTimeout, TimeUnit.SECONDS);
+        this.sessionSweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
         this.secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(this.secretKey).requireIssuer(JWS_ISSUER).build();
+        this.verifiedTokens = new VerifiedTokenCache(VERIFIED_TOKENS_MAXIMUM_SIZE, VERIFIED_TOKENS_TIME_TO_LIVE,
+                TimeUnit.SECONDS);
+        this.sessionSweeper.scheduleWithFixedDelay(this::sweep,
+                SESSION_SWEEP_INTERVAL, SESSION_SWEEP_INTERVAL, TimeUnit.SECONDS);
     }
 
     /**
-     * Getter for the singleton.
+     * Getter for the singleton, creates the singleton with default session timeouts.
      *
      * @return IRESTManager instance.
      */
     public static IJavaJws getInstance() {
+        return getInstance(DEFAULT_SESSION_TIME_TO_LIVE, DEFAULT_SESSION_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Getter for the singleton, creates the singleton with session timeouts from the configuration.
+     *
+     * @param internalConfig holding the session timeouts.
+     * @return IRESTManager instance.
+     */
+    public static IJavaJws getInstance(final InternalConfig internalConfig) {
+        return getInstance(internalConfig.getSessionTimeToLive(), internalConfig.getSessionIdleTimeout());
+    }
+
+    /**
+     * Getter for the singleton, creates the singleton with the given session timeouts.
+     *
+     * @param sessionTimeToLive  time in seconds after which a session expires.
+     * @param sessionIdleTimeout time in seconds without use after which a session expires.
+     * @return IRESTManager instance.
+     */
+    public static IJavaJws getInstance(final long sessionTimeToLive, final long sessionIdleTimeout) {
         if (instance == null) {
             synchronized (JavaJws.class) {
                 if (instance == null) {
-                    instance = new JavaJws();
+                    instance = new JavaJws(sessionTimeToLive, sessionIdleTimeout);
                 }
             }
         }
@@ -64,23 +140,24 @@ public class JavaJws implements IJavaJws {
 
     @Override
     public Map.Entry<JwsStatus, String> createJws(final String username) {
-        if (this.authorizedUsers.containsKey(username)) {
+        String uuid = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        SessionTable.Session session = this.authorizedUsers.create(username, uuid, now.toEpochMilli());
+        if (session == null) {
             return new AbstractMap.SimpleEntry<>(JwsStatus.ALREADY_EXISTS, "");
-        } else {
-            String uuid = UUID.randomUUID().toString();
-            String jws = Jwts.builder().setIssuer(JWS_ISSUER).setSubject(username).setId(uuid)
-                    .setIssuedAt(Date.from(Instant.now())).signWith(this.secretKey).compact();
-
-            this.authorizedUsers.put(username, uuid);
-            return new AbstractMap.SimpleEntry<>(JwsStatus.CREATED, jws);
         }
+        String jws = Jwts.builder().setIssuer(JWS_ISSUER).setSubject(username).setId(uuid)
+                .setIssuedAt(Date.from(now)).setExpiration(new Date(session.getExpiresAt()))
+                .signWith(this.secretKey).compact();
+        return new AbstractMap.SimpleEntry<>(JwsStatus.CREATED, jws);
     }
 
     @Override
     public JwsStatus abolishJws(final String userName, final String authString) {
-        if (this.authorizedUsers.containsKey(userName)) {
+        if (this.authorizedUsers.isActive(userName)) {
             if (this.authorizeUser(authString).equals(userName)) {
                 this.authorizedUsers.remove(userName);
+                this.verifiedTokens.remove(authString);
                 return JwsStatus.REMOVED;
             } else {
                 return JwsStatus.UNAUTHORIZED;
@@ -95,22 +172,43 @@ public class JavaJws implements IJavaJws {
         if (authString == null || authString.isEmpty()) {
             return "";
         }
-        try {
-            Jws<Claims> claim = Jwts.parserBuilder().setSigningKey(this.secretKey)
-                    .requireIssuer(JWS_ISSUER).build().parseClaimsJws(authString);
-            String subject = claim.getBody().getSubject();
-            if (claim.getBody().getId().equals(this.authorizedUsers.get(subject))) {
-                return subject;
-            } else {
+        VerifiedTokenCache.VerifiedToken token = this.verifiedTokens.get(authString);
+        if (token == null) {
+            try {
+                Claims claims = this.jwtParser.parseClaimsJws(authString).getBody();
+                token = this.verifiedTokens.put(authString, claims.getSubject(), claims.getId());
+            } catch (JwtException ex) {
                 return "";
             }
-        } catch (JwtException ex) {
+        }
+        if (this.authorizedUsers.touch(token.getSubject(), token.getId())) {
+            return token.getSubject();
+        } else {
             return "";
         }
     }
 
+    @Override
+    public String peekUser(final String authString) {
+        VerifiedTokenCache.VerifiedToken token = authString == null ? null : this.verifiedTokens.get(authString);
+        return token == null ? "" : token.getSubject();
+    }
+
     @Override
     public boolean checkUserLoggedIn(final String username) {
-        return this.authorizedUsers.containsKey(username);
+        return this.authorizedUsers.isActive(username);
+    }
+
+    @Override
+    public int getSessionCount() {
+        return this.authorizedUsers.size();
+    }
+
+    /**
+     * Remove the expired sessions and the expired cached tokens.
+     */
+    private void sweep() {
+        this.authorizedUsers.sweep();
+        this.verifiedTokens.sweep();
     }
 }
@@ -0,0 +1,188 @@
+package org.example.app.bookmark.javajws;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe table of active user sessions, keyed by username.
+ * A session expires after a fixed time to live, or earlier if it is not used for longer than the idle timeout.
+ * Expired sessions are ignored on lookup and removed by {@link #sweep()}.
+ */
+final class SessionTable {
+
+    /**
+     * Active sessions keyed by username.
+     */
+    private final ConcurrentMap<String, Session> sessions;
+
+    /**
+     * Time after which a session expires, in milliseconds.
+     */
+    private final long timeToLiveMillis;
+
+    /**
+     * Time without use after which a session expires, in milliseconds.
+     */
+    private final long idleTimeoutMillis;
+
+    /**
+     * Constructor.
+     *
+     * @param timeToLive  time after which a session expires.
+     * @param idleTimeout time without use after which a session expires.
+     * @param timeUnit    unit of the time to live and the idle timeout.
+     */
+    SessionTable(final long timeToLive, final long idleTimeout, final TimeUnit timeUnit) {
+        this.sessions = new ConcurrentHashMap<>();
+        this.timeToLiveMillis = timeUnit.toMillis(timeToLive);
+        this.idleTimeoutMillis = timeUnit.toMillis(idleTimeout);
+    }
+
+    /**
+     * Create a session for the user if the user has no active session.
+     *
+     * @param username  owner of the session.
+     * @param id        of the session.
+     * @param createdAt time of creation in milliseconds since the epoch.
+     * @return created session, or null if the user already has an active session.
+     */
+    Session create(final String username, final String id, final long createdAt) {
+        Session session = new Session(id, createdAt + this.timeToLiveMillis, createdAt);
+        Session current = this.sessions.compute(username,
+                (key, existing) -> existing == null || this.isExpired(existing, createdAt) ? session : existing);
+        return current == session ? session : null;
+    }
+
+    /**
+     * Check if the user has an active session.
+     *
+     * @param username to check.
+     * @return true if the user has an active session, false otherwise.
+     */
+    boolean isActive(final String username) {
+        return this.getActive(username, System.currentTimeMillis()) != null;
+    }
+
+    /**
+     * Check that the session id belongs to the active session of the user and mark the session as used.
+     *
+     * @param username owner of the session.
+     * @param id       of the session.
+     * @return true if the session is active, false otherwise.
+     */
+    boolean touch(final String username, final String id) {
+        long now = System.currentTimeMillis();
+        Session session = this.getActive(username, now);
+        if (session == null || !session.id.equals(id)) {
+            return false;
+        }
+        session.lastAccessed = now;
+        return true;
+    }
+
+    /**
+     * Remove the session of the user.
+     *
+     * @param username owner of the session.
+     */
+    void remove(final String username) {
+        this.sessions.remove(username);
+    }
+
+    /**
+     * Remove all expired sessions.
+     *
+     * @return number of removed sessions.
+     */
+    int sweep() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Map.Entry<String, Session> entry : this.sessions.entrySet()) {
+            if (this.isExpired(entry.getValue(), now) && this.sessions.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Number of sessions in the table, including expired sessions that were not swept yet.
+     *
+     * @return session count.
+     */
+    int size() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Get the active session of the user, removing it if it expired.
+     *
+     * @param username owner of the session.
+     * @param now      current time in milliseconds since the epoch.
+     * @return active session, or null if there is none.
+     */
+    private Session getActive(final String username, final long now) {
+        Session session = this.sessions.get(username);
+        if (session != null && this.isExpired(session, now)) {
+            this.sessions.remove(username, session);
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Check if the session expired.
+     *
+     * @param session to check.
+     * @param now     current time in milliseconds since the epoch.
+     * @return true if the session expired, false otherwise.
+     */
+    private boolean isExpired(final Session session, final long now) {
+        return now >= session.expiresAt || now - session.lastAccessed >= this.idleTimeoutMillis;
+    }
+
+    /**
+     * Single user session.
+     */
+    static final class Session {
+
+        /**
+         * Id of the session, stored in the jws id claim.
+         */
+        private final String id;
+
+        /**
+         * Time of expiry in milliseconds since the epoch, stored in the jws expiration claim.
+         */
+        private final long expiresAt;
+
+        /**
+         * Time of the last use in milliseconds since the epoch.
+         */
+        private volatile long lastAccessed;
+
+        /**
+         * Constructor.
+         *
+         * @param id           of the session.
+         * @param expiresAt    time of expiry in milliseconds since the epoch.
+         * @param lastAccessed time of the last use in milliseconds since the epoch.
+         */
+        private Session(final String id, final long expiresAt, final long lastAccessed) {
+            this.id = id;
+            this.expiresAt = expiresAt;
+            this.lastAccessed = lastAccessed;
+        }
+
+        /**
+         * Getter for the expiry time.
+         *
+         * @return time of expiry in milliseconds since the epoch.
+         */
+        long getExpiresAt() {
+            return this.expiresAt;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.app.bookmark.javajws;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of tokens whose signature was already verified, keyed by the token string.
+ * Entries expire after a short time and are removed by {@link #sweep()}. When the cache is full, the oldest
+ * entry is evicted, all entries have the same time to live so the oldest entry expires first.
+ */
+final class VerifiedTokenCache {
+
+    /**
+     * Verified tokens keyed by the token string.
+     */
+    private final ConcurrentMap<String, VerifiedToken> tokens;
+
+    /**
+     * Cached tokens from the oldest to the newest, may still hold tokens that were removed from the cache.
+     */
+    private final Queue<VerifiedToken> order;
+
+    /**
+     * Maximum number of cached tokens.
+     */
+    private final int maximumSize;
+
+    /**
+     * Time after which a cached token has to be verified again, in nanoseconds.
+     */
+    private final long timeToLiveNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize  maximum number of cached tokens.
+     * @param timeToLive   time after which a cached token has to be verified again.
+     * @param timeUnit     unit of the time to live.
+     */
+    VerifiedTokenCache(final int maximumSize, final long timeToLive, final TimeUnit timeUnit) {
+        this.tokens = new ConcurrentHashMap<>();
+        this.order = new ConcurrentLinkedQueue<>();
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeUnit.toNanos(timeToLive);
+    }
+
+    /**
+     * Get the verified token.
+     *
+     * @param token string to look up.
+     * @return verified token, or null if the token is not cached or has expired.
+     */
+    VerifiedToken get(final String token) {
+        VerifiedToken verifiedToken = this.tokens.get(token);
+        if (verifiedToken != null && verifiedToken.isExpired(System.nanoTime())) {
+            this.tokens.remove(token, verifiedToken);
+            return null;
+        }
+        return verifiedToken;
+    }
+
+    /**
+     * Cache a token with a verified signature.
+     *
+     * @param token   string that was verified.
+     * @param subject of the token.
+     * @param id      of the token.
+     * @return verified token.
+     */
+    VerifiedToken put(final String token, final String subject, final String id) {
+        VerifiedToken verifiedToken = new VerifiedToken(token, subject, id, System.nanoTime() + this.timeToLiveNanos);
+        this.tokens.put(token, verifiedToken);
+        this.order.add(verifiedToken);
+        while (this.tokens.size() > this.maximumSize) {
+            VerifiedToken oldest = this.order.poll();
+            if (oldest == null) {
+                break;
+            }
+            this.tokens.remove(oldest.token, oldest);
+        }
+        return verifiedToken;
+    }
+
+    /**
+     * Remove the expired tokens, starting from the oldest token.
+     *
+     * @return number of removed tokens.
+     */
+    int sweep() {
+        long now = System.nanoTime();
+        int removed = 0;
+        VerifiedToken oldest = this.order.peek();
+        while (oldest != null && oldest.isExpired(now)) {
+            if (this.order.remove(oldest) && this.tokens.remove(oldest.token, oldest)) {
+                removed++;
+            }
+            oldest = this.order.peek();
+        }
+        return removed;
+    }
+
+    /**
+     * Remove the token from the cache.
+     *
+     * @param token string to remove.
+     */
+    void remove(final String token) {
+        this.tokens.remove(token);
+    }
+
+    /**
+     * Number of cached tokens.
+     *
+     * @return cached token count.
+     */
+    int size() {
+        return this.tokens.size();
+    }
+
+    /**
+     * Claims of a token with a verified signature.
+     */
+    static final class VerifiedToken {
+
+        /**
+         * Token string.
+         */
+        private final String token;
+
+        /**
+         * Subject of the token.
+         */
+        private final String subject;
+
+        /**
+         * Id of the token.
+         */
+        private final String id;
+
+        /**
+         * Value of {@link System#nanoTime()} after which the token has to be verified again.
+         */
+        private final long expiresAt;
+
+        /**
+         * Constructor.
+         *
+         * @param token     string.
+         * @param subject   of the token.
+         * @param id        of the token.
+         * @param expiresAt value of {@link System#nanoTime()} after which the token has to be verified again.
+         */
+        private VerifiedToken(final String token, final String subject, final String id, final long expiresAt) {
+            this.token = token;
+            this.subject = subject;
+            this.id = id;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Getter for the subject.
+         *
+         * @return subject of the token.
+         */
+        String getSubject() {
+            return this.subject;
+        }
+
+        /**
+         * Getter for the id.
+         *
+         * @return id of the token.
+         */
+        String getId() {
+            return this.id;
+        }
+
+        /**
+         * Check if the token has to be verified again.
+         *
+         * @param now current value of {@link System#nanoTime()}.
+         * @return true if the token expired, false otherwise.
+         */
+        private boolean isExpired(final long now) {
+            return now - this.expiresAt >= 0;
+        }
+    }
+}
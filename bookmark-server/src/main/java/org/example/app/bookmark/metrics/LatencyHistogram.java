@@ -0,0 +1,129 @@
+package org.example.app.bookmark.metrics;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of request latencies with fixed bucket bounds.
+ * Recording is lock-free and does not allocate, buckets are only summed up when the histogram is read.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Upper bounds of the buckets (in ns), the last bucket has no upper bound.
+     */
+    private static final long[] BUCKET_BOUNDS = {
+        TimeUnit.MICROSECONDS.toNanos(100),
+        TimeUnit.MICROSECONDS.toNanos(250),
+        TimeUnit.MICROSECONDS.toNanos(500),
+        TimeUnit.MILLISECONDS.toNanos(1),
+        TimeUnit.MICROSECONDS.toNanos(2500),
+        TimeUnit.MILLISECONDS.toNanos(5),
+        TimeUnit.MILLISECONDS.toNanos(10),
+        TimeUnit.MILLISECONDS.toNanos(25),
+        TimeUnit.MILLISECONDS.toNanos(50),
+        TimeUnit.MILLISECONDS.toNanos(100),
+        TimeUnit.MILLISECONDS.toNanos(250),
+        TimeUnit.MILLISECONDS.toNanos(500),
+        TimeUnit.SECONDS.toNanos(1),
+        TimeUnit.MILLISECONDS.toNanos(2500),
+        TimeUnit.SECONDS.toNanos(5),
+        TimeUnit.SECONDS.toNanos(10),
+    };
+
+    /**
+     * Number of decimal places between nanoseconds and seconds.
+     */
+    private static final int NANOS_SCALE = 9;
+
+    /**
+     * Number of recorded latencies in each bucket.
+     */
+    private final LongAdder[] buckets;
+
+    /**
+     * Sum of all recorded latencies (in ns).
+     */
+    private final LongAdder sum;
+
+    /**
+     * Constructor.
+     */
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+        this.sum = new LongAdder();
+    }
+
+    /**
+     * Number of buckets, including the last bucket without an upper bound.
+     *
+     * @return bucket count.
+     */
+    public static int getBucketCount() {
+        return BUCKET_BOUNDS.length + 1;
+    }
+
+    /**
+     * Upper bound of the bucket in seconds, formatted for the text exposition.
+     *
+     * @param bucket index of the bucket.
+     * @return upper bound of the bucket, or +Inf for the last bucket.
+     */
+    public static String getBucketBound(final int bucket) {
+        if (bucket >= BUCKET_BOUNDS.length) {
+            return "+Inf";
+        }
+        return toSeconds(BUCKET_BOUNDS[bucket]);
+    }
+
+    /**
+     * Format a duration in nanoseconds as seconds.
+     *
+     * @param nanos duration to format.
+     * @return duration in seconds, without trailing zeros.
+     */
+    public static String toSeconds(final long nanos) {
+        return BigDecimal.valueOf(nanos, NANOS_SCALE).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Record a single latency.
+     *
+     * @param nanos latency to record (in ns).
+     */
+    public void record(final long nanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && nanos > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        this.buckets[bucket].increment();
+        this.sum.add(nanos);
+    }
+
+    /**
+     * Read the number of latencies recorded in each bucket.
+     * Counts are not cumulative, each latency is counted only in the first bucket whose bound it does not exceed.
+     *
+     * @return latency count per bucket.
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[this.buckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Read the sum of all recorded latencies.
+     *
+     * @return sum of latencies (in ns).
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.app.bookmark.metrics;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+
+/**
+ * Stores the metrics of the REST resource method that handled the request in the request,
+ * so that {@link MetricsHandler} can record the request once the response is written.
+ */
+public class MetricsFilter implements ContainerResponseFilter {
+
+    /**
+     * Holds all metrics of the application.
+     */
+    private final MetricsRegistry metricsRegistry;
+
+    /**
+     * Resource method that matched the request, injected by Jersey.
+     */
+    @Context
+    private ResourceInfo resourceInfo;
+
+    /**
+     * Constructor.
+     */
+    public MetricsFilter() {
+        this.metricsRegistry = MetricsRegistry.getInstance();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param metricsRegistry holds all metrics of the application.
+     * @param resourceInfo    resource method that matched the request.
+     */
+    MetricsFilter(final MetricsRegistry metricsRegistry, final ResourceInfo resourceInfo) {
+        this.metricsRegistry = metricsRegistry;
+        this.resourceInfo = resourceInfo;
+    }
+
+    @Override
+    public final void filter(final ContainerRequestContext requestContext,
+                             final ContainerResponseContext responseContext) {
+        requestContext.setProperty(MetricsHandler.ROUTE_ATTRIBUTE,
+                this.metricsRegistry.getRoute(this.resourceInfo.getResourceMethod()));
+    }
+}
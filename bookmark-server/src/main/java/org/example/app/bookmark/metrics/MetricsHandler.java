@@ -0,0 +1,110 @@
+package org.example.app.bookmark.metrics;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Measures the time it takes to handle each request, including writing the response entity,
+ * and records it for the route that was stored in the request by {@link MetricsFilter}.
+ * Asynchronous requests are recorded once they complete, instead of when the server thread returns.
+ * Requests that did not reach the REST API are not recorded.
+ */
+public class MetricsHandler extends HandlerWrapper {
+
+    /**
+     * Request attribute holding the metrics of the route that handled the request.
+     */
+    public static final String ROUTE_ATTRIBUTE = MetricsHandler.class.getName() + ".route";
+
+    @Override
+    public final void handle(final String target, final Request baseRequest, final HttpServletRequest request,
+                             final HttpServletResponse response) throws IOException, ServletException {
+        long start = System.nanoTime();
+        try {
+            super.handle(target, baseRequest, request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(request, response, start));
+            } else {
+                record(request, response, start);
+            }
+        }
+    }
+
+    /**
+     * Record a handled request for its route.
+     *
+     * @param request  that was handled.
+     * @param response to the request.
+     * @param start    time at which handling the request started (in ns).
+     */
+    private static void record(final HttpServletRequest request, final HttpServletResponse response,
+                               final long start) {
+        Object route = request.getAttribute(ROUTE_ATTRIBUTE);
+        if (route instanceof RouteMetrics) {
+            ((RouteMetrics) route).record(response.getStatus(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records an asynchronous request once it completes.
+     */
+    private static final class CompletionListener implements AsyncListener {
+
+        /**
+         * Request that was handled.
+         */
+        private final HttpServletRequest request;
+
+        /**
+         * Response to the request.
+         */
+        private final HttpServletResponse response;
+
+        /**
+         * Time at which handling the request started (in ns).
+         */
+        private final long start;
+
+        /**
+         * Constructor.
+         *
+         * @param request  that was handled.
+         * @param response to the request.
+         * @param start    time at which handling the request started (in ns).
+         */
+        private CompletionListener(final HttpServletRequest request, final HttpServletResponse response,
+                                   final long start) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            record(this.request, this.response, this.start);
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            // Recorded when the request completes
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            // Recorded when the request completes
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // Recorded when the request completes
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package org.example.app.bookmark.metrics;
+
+import org.example.app.bookmark.bookmarkmanager.BookmarkStatus;
+import org.example.app.bookmark.usermanager.UserStatus;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds all metrics of the application and writes them in the Prometheus text exposition format.
+ * Request metrics are recorded without locks or allocations, gauges are only evaluated when metrics are read.
+ */
+public final class MetricsRegistry {
+
+    /**
+     * Content type of the text exposition format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Name of the request counter.
+     */
+    public static final String REQUESTS = "bookmark_http_requests_total";
+
+    /**
+     * Name of the request latency histogram.
+     */
+    public static final String REQUEST_DURATION = "bookmark_http_request_duration_seconds";
+
+    /**
+     * Name of the bookmark operation status counter.
+     */
+    public static final String BOOKMARK_OPERATIONS = "bookmark_bookmark_operations_total";
+
+    /**
+     * Name of the user operation status counter.
+     */
+    public static final String USER_OPERATIONS = "bookmark_user_operations_total";
+
+    /**
+     * Handler name of requests that did not match a REST resource method.
+     */
+    public static final String UNMATCHED = "unmatched";
+
+    /**
+     * Singleton instance.
+     */
+    private static volatile MetricsRegistry instance;
+
+    /**
+     * Metrics of the REST resource methods, created on first use.
+     */
+    private final ConcurrentMap<Method, RouteMetrics> routes;
+
+    /**
+     * Metrics of requests that did not match a REST resource method.
+     */
+    private final RouteMetrics unmatchedRoute;
+
+    /**
+     * Statuses returned by bookmark operations.
+     */
+    private final StatusCounter<BookmarkStatus> bookmarkStatuses;
+
+    /**
+     * Statuses returned by user operations.
+     */
+    private final StatusCounter<UserStatus> userStatuses;
+
+    /**
+     * Registered gauges, keyed by name.
+     */
+    private final ConcurrentNavigableMap<String, Gauge> gauges;
+
+    /**
+     * Private constructor.
+     */
+    private MetricsRegistry() {
+        this.routes = new ConcurrentHashMap<>();
+        this.unmatchedRoute = new RouteMetrics(UNMATCHED, UNMATCHED);
+        this.bookmarkStatuses = new StatusCounter<>(BookmarkStatus.class);
+        this.userStatuses = new StatusCounter<>(UserStatus.class);
+        this.gauges = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Getter for the singleton.
+     *
+     * @return MetricsRegistry instance.
+     */
+    public static MetricsRegistry getInstance() {
+        if (instance == null) {
+            synchronized (MetricsRegistry.class) {
+                if (instance == null) {
+                    instance = new MetricsRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the metrics of a REST resource method.
+     *
+     * @param resourceMethod handling the route, or null if the request did not match a resource method.
+     * @return metrics of the route.
+     */
+    public RouteMetrics getRoute(final Method resourceMethod) {
+        if (resourceMethod == null) {
+            return this.unmatchedRoute;
+        }
+        RouteMetrics route = this.routes.get(resourceMethod);
+        if (route == null) {
+            route = this.routes.computeIfAbsent(resourceMethod,
+                    method -> new RouteMetrics(method.getDeclaringClass().getSimpleName(), method.getName()));
+        }
+        return route;
+    }
+
+    /**
+     * Count a status returned by a bookmark operation.
+     *
+     * @param status to count.
+     */
+    public void recordBookmarkStatus(final BookmarkStatus status) {
+        this.bookmarkStatuses.increment(status);
+    }
+
+    /**
+     * Count a status returned by a user operation.
+     *
+     * @param status to count.
+     */
+    public void recordUserStatus(final UserStatus status) {
+        this.userStatuses.increment(status);
+    }
+
+    /**
+     * Register a gauge, replacing an existing gauge with the same name.
+     *
+     * @param name  of the gauge.
+     * @param help  describing the gauge.
+     * @param value supplies the current value of the gauge when metrics are read.
+     */
+    public void registerGauge(final String name, final String help, final LongSupplier value) {
+        this.gauges.put(name, new Gauge(help, value));
+    }
+
+    /**
+     * Read the current value of a registered gauge.
+     *
+     * @param name of the gauge.
+     * @return value of the gauge, or an empty value if no gauge is registered with the name.
+     */
+    public OptionalLong readGauge(final String name) {
+        Gauge gauge = this.gauges.get(name);
+        return gauge == null ? OptionalLong.empty() : OptionalLong.of(gauge.value.getAsLong());
+    }
+
+    /**
+     * Write all metrics in the text exposition format.
+     *
+     * @return metrics text.
+     */
+    public String scrape() {
+        StringBuilder output = new StringBuilder();
+        List<RouteMetrics> routeList = new ArrayList<>(this.routes.values());
+        routeList.sort(Comparator.comparing(RouteMetrics::getHandler).thenComparing(RouteMetrics::getMethod));
+        routeList.add(this.unmatchedRoute);
+
+        writeHeader(output, REQUESTS, "counter", "Number of handled requests by route and status code.");
+        for (RouteMetrics route : routeList) {
+            for (int code = 0; code < RouteMetrics.getStatusCodeCount(); code++) {
+                long count = route.getRequestCount(code);
+                if (count > 0) {
+                    output.append(REQUESTS).append('{');
+                    writeRouteLabels(output, route);
+                    output.append(",code=\"").append(code).append("\"} ").append(count).append('\n');
+                }
+            }
+        }
+
+        writeHeader(output, REQUEST_DURATION, "histogram", "Time it took to handle requests by route.");
+        for (RouteMetrics route : routeList) {
+            writeHistogram(output, route);
+        }
+
+        writeStatuses(output, BOOKMARK_OPERATIONS, "Statuses returned by bookmark operations.",
+                this.bookmarkStatuses);
+        writeStatuses(output, USER_OPERATIONS, "Statuses returned by user operations.", this.userStatuses);
+
+        for (Map.Entry<String, Gauge> gauge : this.gauges.entrySet()) {
+            writeHeader(output, gauge.getKey(), "gauge", gauge.getValue().help);
+            output.append(gauge.getKey()).append(' ').append(gauge.getValue().value.getAsLong()).append('\n');
+        }
+        return output.toString();
+    }
+
+    /**
+     * Write the latency histogram of a route.
+     *
+     * @param output to write to.
+     * @param route  to write.
+     */
+    private static void writeHistogram(final StringBuilder output, final RouteMetrics route) {
+        long[] buckets = route.getLatency().getBucketCounts();
+        long cumulative = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            cumulative += buckets[bucket];
+            output.append(REQUEST_DURATION).append("_bucket{");
+            writeRouteLabels(output, route);
+            output.append(",le=\"").append(LatencyHistogram.getBucketBound(bucket)).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        output.append(REQUEST_DURATION).append("_sum{");
+        writeRouteLabels(output, route);
+        output.append("} ").append(LatencyHistogram.toSeconds(route.getLatency().getSum())).append('\n');
+        output.append(REQUEST_DURATION).append("_count{");
+        writeRouteLabels(output, route);
+        output.append("} ").append(cumulative).append('\n');
+    }
+
+    /**
+     * Write the counts of a status enum.
+     *
+     * @param output  to write to.
+     * @param name    of the metric.
+     * @param help    describing the metric.
+     * @param counter holding the counts.
+     * @param <E>     type of the status enum.
+     */
+    private static <E extends Enum<E>> void writeStatuses(final StringBuilder output, final String name,
+                                                          final String help, final StatusCounter<E> counter) {
+        writeHeader(output, name, "counter", help);
+        for (E status : counter.getStatuses()) {
+            output.append(name).append("{status=\"").append(status.name()).append("\"} ")
+                    .append(counter.get(status)).append('\n');
+        }
+    }
+
+    /**
+     * Write the help and type lines of a metric.
+     *
+     * @param output to write to.
+     * @param name   of the metric.
+     * @param type   of the metric.
+     * @param help   describing the metric.
+     */
+    private static void writeHeader(final StringBuilder output, final String name, final String type,
+                                    final String help) {
+        output.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        output.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Write the labels identifying a route.
+     *
+     * @param output to write to.
+     * @param route  to identify.
+     */
+    private static void writeRouteLabels(final StringBuilder output, final RouteMetrics route) {
+        output.append("handler=\"").append(route.getHandler()).append("\",method=\"").append(route.getMethod())
+                .append('"');
+    }
+
+    /**
+     * Metric whose value is read when metrics are written.
+     */
+    private static final class Gauge {
+
+        /**
+         * Description of the gauge.
+         */
+        private final String help;
+
+        /**
+         * Supplies the current value of the gauge.
+         */
+        private final LongSupplier value;
+
+        /**
+         * Constructor.
+         *
+         * @param help  description of the gauge.
+         * @param value supplies the current value of the gauge.
+         */
+        private Gauge(final String help, final LongSupplier value) {
+            this.help = help;
+            this.value = value;
+        }
+    }
+}
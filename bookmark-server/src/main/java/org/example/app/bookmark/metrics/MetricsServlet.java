@@ -0,0 +1,25 @@
+package org.example.app.bookmark.metrics;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Serves all metrics of the application in the Prometheus text exposition format.
+ */
+public class MetricsServlet extends HttpServlet {
+
+    /**
+     * Serialization version.
+     */
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected final void doGet(final HttpServletRequest request, final HttpServletResponse response)
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MetricsRegistry.CONTENT_TYPE);
+        response.getWriter().write(MetricsRegistry.getInstance().scrape());
+    }
+}
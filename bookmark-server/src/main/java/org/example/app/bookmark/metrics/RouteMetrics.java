@@ -0,0 +1,104 @@
+package org.example.app.bookmark.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Request counters and latency histogram of a single REST resource method.
+ */
+public final class RouteMetrics {
+
+    /**
+     * Number of counters for response status codes, codes outside of the range are counted as 0.
+     */
+    private static final int STATUS_CODE_COUNT = 600;
+
+    /**
+     * Name of the class handling the route.
+     */
+    private final String handler;
+
+    /**
+     * Name of the method handling the route.
+     */
+    private final String method;
+
+    /**
+     * Latencies of the handled requests.
+     */
+    private final LatencyHistogram latency;
+
+    /**
+     * Number of handled requests, indexed by response status code.
+     */
+    private final AtomicLongArray statusCodes;
+
+    /**
+     * Constructor.
+     *
+     * @param handler name of the class handling the route.
+     * @param method  name of the method handling the route.
+     */
+    public RouteMetrics(final String handler, final String method) {
+        this.handler = handler;
+        this.method = method;
+        this.latency = new LatencyHistogram();
+        this.statusCodes = new AtomicLongArray(STATUS_CODE_COUNT);
+    }
+
+    /**
+     * Record a handled request.
+     *
+     * @param statusCode of the response.
+     * @param nanos      time it took to handle the request (in ns).
+     */
+    public void record(final int statusCode, final long nanos) {
+        this.statusCodes.incrementAndGet(statusCode > 0 && statusCode < STATUS_CODE_COUNT ? statusCode : 0);
+        this.latency.record(nanos);
+    }
+
+    /**
+     * Getter for handler.
+     *
+     * @return name of the class handling the route.
+     */
+    public String getHandler() {
+        return this.handler;
+    }
+
+    /**
+     * Getter for method.
+     *
+     * @return name of the method handling the route.
+     */
+    public String getMethod() {
+        return this.method;
+    }
+
+    /**
+     * Getter for latency.
+     *
+     * @return latencies of the handled requests.
+     */
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * Read the number of requests answered with the given status code.
+     *
+     * @param statusCode of the response, 0 for codes outside of the valid range.
+     * @return request count.
+     */
+    public long getRequestCount(final int statusCode) {
+        return this.statusCodes.get(statusCode);
+    }
+
+    /**
+     * Number of status code counters.
+     *
+     * @return counter count, status codes are lower than this number.
+     */
+    public static int getStatusCodeCount() {
+        return STATUS_CODE_COUNT;
+    }
+}
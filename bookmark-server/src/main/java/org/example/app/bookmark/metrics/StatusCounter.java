@@ -0,0 +1,61 @@
+package org.example.app.bookmark.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts how often each value of a status enum was returned by an operation.
+ *
+ * @param <E> type of the status enum.
+ */
+public final class StatusCounter<E extends Enum<E>> {
+
+    /**
+     * Values of the status enum, in ordinal order.
+     */
+    private final E[] statuses;
+
+    /**
+     * Number of occurrences, indexed by status ordinal.
+     */
+    private final AtomicLongArray counts;
+
+    /**
+     * Constructor.
+     *
+     * @param statusClass class of the status enum.
+     */
+    public StatusCounter(final Class<E> statusClass) {
+        this.statuses = statusClass.getEnumConstants();
+        this.counts = new AtomicLongArray(this.statuses.length);
+    }
+
+    /**
+     * Count a returned status.
+     *
+     * @param status to count, ignored if null.
+     */
+    public void increment(final E status) {
+        if (status != null) {
+            this.counts.incrementAndGet(status.ordinal());
+        }
+    }
+
+    /**
+     * Read the number of occurrences of a status.
+     *
+     * @param status to read.
+     * @return occurrence count.
+     */
+    public long get(final E status) {
+        return this.counts.get(status.ordinal());
+    }
+
+    /**
+     * Getter for statuses.
+     *
+     * @return values of the status enum, in ordinal order.
+     */
+    public E[] getStatuses() {
+        return this.statuses.clone();
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Request metrics of the application and their text exposition.
+ */
+package org.example.app.bookmark.metrics;
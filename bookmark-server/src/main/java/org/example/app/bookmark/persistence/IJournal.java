@@ -0,0 +1,41 @@
+package org.example.app.bookmark.persistence;
+
+/**
+ * Records state modifications so they can be recovered after a restart.
+ * Records are appended while the modified state is locked, so they are ordered like the modifications,
+ * and waited for after the lock is released, so durability does not serialize modifications.
+ */
+public interface IJournal {
+
+    /**
+     * Journal that does not record anything, used when the state is only kept in memory.
+     */
+    IJournal NONE = new IJournal() {
+        @Override
+        public long append(final LogRecord record) {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(final long sequence) {
+            // Nothing is recorded, so there is nothing to wait for
+        }
+    };
+
+    /**
+     * Append a record to the journal.
+     *
+     * @param record to append.
+     * @return sequence number of the record.
+     * @throws IllegalStateException if the journal is closed or failed.
+     */
+    long append(LogRecord record);
+
+    /**
+     * Wait until the record with the given sequence number is durable according to the fsync policy.
+     *
+     * @param sequence number of the record.
+     * @throws IllegalStateException if the journal failed before the record became durable.
+     */
+    void awaitDurable(long sequence);
+}
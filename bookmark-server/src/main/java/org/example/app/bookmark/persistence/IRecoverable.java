@@ -0,0 +1,31 @@
+package org.example.app.bookmark.persistence;
+
+/**
+ * State that can be rebuilt from log records.
+ */
+public interface IRecoverable {
+
+    /**
+     * Apply a recovered record to the state. Records that belong to other state are ignored.
+     * Applying a record must give the same result when the state already contains its effect,
+     * because snapshots are taken while the state is modified.
+     *
+     * @param record to apply.
+     */
+    void apply(LogRecord record);
+
+    /**
+     * Load a section of a snapshot into empty state. Sections that belong to other state are ignored.
+     * The records of the section may be decoded later, when the state they belong to is used.
+     *
+     * @param section of the snapshot.
+     */
+    void load(SnapshotSection section);
+
+    /**
+     * Describe the current state as records, that recreate it when applied to empty state.
+     *
+     * @param snapshot writer receiving the records.
+     */
+    void export(ISnapshotWriter snapshot);
+}
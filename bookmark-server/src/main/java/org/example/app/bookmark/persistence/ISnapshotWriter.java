@@ -0,0 +1,23 @@
+package org.example.app.bookmark.persistence;
+
+/**
+ * Receives the state that is written to a snapshot.
+ */
+public interface ISnapshotWriter {
+
+    /**
+     * Write a record. Only user registrations and added bookmarks can be written, the records of one user
+     * should be written consecutively so they end up in one section.
+     *
+     * @param record to write.
+     * @throws IllegalArgumentException if the record type cannot be stored in a snapshot.
+     */
+    void write(LogRecord record);
+
+    /**
+     * Copy a section of a previous snapshot without decoding it.
+     *
+     * @param section to copy.
+     */
+    void copy(SnapshotSection section);
+}
@@ -0,0 +1,593 @@
+package org.example.app.bookmark.persistence;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.app.bookmark.config.FsyncPolicy;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Embedded key-value store that keeps sorted keys in local files, so the stored data is not limited by the heap.
+ * The store is a log-structured merge tree: modifications are recorded in a write-ahead log and applied to a
+ * sorted in-memory table. When the table reaches its configured size it is written to an immutable sorted table
+ * file by a background thread, and the log segments it covers are deleted. Adjacent table files of similar size are
+ * merged into new ones once there are enough of them, dropping overwritten values, so each merge only rewrites tables
+ * about as large as the tables written since the last merge, whatever the total size of the store. Deleted keys are
+ * dropped when the oldest table is merged as well, otherwise they are kept to hide the keys in older tables.
+ * Full tables, split at the maximum table size, are never merged again.
+ * A manifest lists the table files in use and the sequence number of the last log record they contain,
+ * on open the tables are mapped and the newer log records are applied to an empty in-memory table.
+ * Reads are lock-free and look at the in-memory tables first and then at the table files from newest to oldest.
+ * Modifications are made by one thread at a time, and waited for after the store is unlocked,
+ * so concurrent modifications share forced writes of the log.
+ */
+public final class KeyValueStore {
+
+    /**
+     * Message indicating that the store cannot accept modifications.
+     */
+    public static final String NOT_WRITABLE = "Key-value store is not writable";
+
+    /**
+     * Message indicating that the stored data is damaged.
+     */
+    public static final String DAMAGED = "Key-value store is damaged: ";
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(KeyValueStore.class.getSimpleName());
+
+    /**
+     * Name of the manifest file.
+     */
+    private static final String MANIFEST = "manifest";
+
+    /**
+     * Name of the manifest while it is written.
+     */
+    private static final String TEMPORARY_MANIFEST = MANIFEST + SortedTable.TEMPORARY_SUFFIX;
+
+    /**
+     * Magic number identifying manifest files.
+     */
+    private static final int MANIFEST_MAGIC = 0x424D4B4D;
+
+    /**
+     * Minimum number of adjacent tables of similar size that are merged.
+     */
+    private static final int MERGE_WIDTH = 4;
+
+    /**
+     * Maximum ratio between the largest and the smallest of the tables merged together.
+     */
+    private static final int SIZE_RATIO = 2;
+
+    /**
+     * Directory holding the log, the table files and the manifest.
+     */
+    private final Path directory;
+
+    /**
+     * Log of the modifications that are not in a table file yet.
+     */
+    private final WriteAheadLog writeAheadLog;
+
+    /**
+     * Size of the in-memory table at which it is written to a table file (in bytes).
+     */
+    private final long memTableSize;
+
+    /**
+     * Serializes modifications and guards the state of the store.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * Signaled when an in-memory table is ready to be written or the store is closed.
+     */
+    private final Condition flushRequested;
+
+    /**
+     * Signaled when an in-memory table was written, the store failed or was closed.
+     */
+    private final Condition flushCompleted;
+
+    /**
+     * Tables that are currently read.
+     */
+    private volatile Version version;
+
+    /**
+     * Flag indicating that the store does not accept modifications.
+     */
+    private boolean closed;
+
+    /**
+     * Error that stopped the background thread, null while the store works.
+     */
+    private IOException failure;
+
+    /**
+     * Sequence number of the last log record contained in the table files. Used by the background thread.
+     */
+    private long coveredSequence;
+
+    /**
+     * Generation of the next table file. Used by the background thread.
+     */
+    private long nextGeneration;
+
+    /**
+     * Thread writing in-memory tables and merging table files.
+     */
+    private Thread flusher;
+
+    /**
+     * Constructor. The store is empty and does not accept modifications until it is opened.
+     *
+     * @param directory         holding the log, the table files and the manifest.
+     * @param fsyncPolicy       when logged modifications are forced to the storage device.
+     * @param fsyncInterval     time between forced writes with the interval fsync policy.
+     * @param fsyncIntervalUnit unit of the fsync interval.
+     * @param memTableSize      size of the in-memory table at which it is written to a table file (in bytes).
+     */
+    public KeyValueStore(final Path directory, final FsyncPolicy fsyncPolicy, final long fsyncInterval,
+                         final TimeUnit fsyncIntervalUnit, final long memTableSize) {
+        this.directory = directory;
+        this.writeAheadLog = new WriteAheadLog(directory, fsyncPolicy, fsyncInterval, fsyncIntervalUnit);
+        this.memTableSize = memTableSize;
+        this.lock = new ReentrantLock();
+        this.flushRequested = this.lock.newCondition();
+        this.flushCompleted = this.lock.newCondition();
+        this.version = new Version(new MemTable(), null, 0, Collections.emptyList());
+        this.closed = true;
+    }
+
+    /**
+     * Read the stored data and start accepting modifications.
+     *
+     * @throws IOException if the stored data cannot be read or is damaged.
+     */
+    public void open() throws IOException {
+        Files.createDirectories(this.directory);
+        for (Path temporaryFile : LogFile.list(this.directory, SortedTable.PREFIX,
+                SortedTable.SUFFIX + SortedTable.TEMPORARY_SUFFIX)) {
+            Files.delete(temporaryFile);
+        }
+        Files.deleteIfExists(this.directory.resolve(TEMPORARY_MANIFEST));
+
+        List<SortedTable> tables = new ArrayList<>();
+        Set<Long> generations = new HashSet<>();
+        for (long generation : this.readManifest()) {
+            tables.add(SortedTable.open(this.directory.resolve(
+                    LogFile.fileName(SortedTable.PREFIX, generation, SortedTable.SUFFIX))));
+            generations.add(generation);
+        }
+        for (Path table : LogFile.list(this.directory, SortedTable.PREFIX, SortedTable.SUFFIX)) {
+            if (!generations.contains(LogFile.sequenceOf(table, SortedTable.PREFIX, SortedTable.SUFFIX))) {
+                LOGGER.debug("Deleting unused table {}", table);
+                Files.delete(table);
+            }
+        }
+
+        MemTable memTable = new MemTable();
+        long lastSequence;
+        try {
+            lastSequence = this.writeAheadLog.replay(this.coveredSequence,
+                    (payload, sequence) -> WriteBatch.fromBytes(payload).applyTo(memTable));
+        } catch (BufferUnderflowException e) {
+            throw new IOException(DAMAGED + this.directory, e);
+        }
+        this.writeAheadLog.open(lastSequence);
+        LOGGER.info("Opened {} tables in {}, recovered modifications up to record {}", tables.size(),
+                this.directory, lastSequence);
+
+        this.lock.lock();
+        try {
+            this.version = new Version(memTable, null, 0, Collections.unmodifiableList(tables));
+            this.closed = false;
+        } finally {
+            this.lock.unlock();
+        }
+        this.flusher = new Thread(this::flushTables, "table-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key to look up.
+     * @return stored value, or null if the key is not stored.
+     */
+    public byte[] get(final byte[] key) {
+        Version current = this.version;
+        byte[] value = current.memTable.get(key);
+        if (value == null && current.flushing != null) {
+            value = current.flushing.get(key);
+        }
+        Iterator<SortedTable> tables = current.tables.iterator();
+        while (value == null && tables.hasNext()) {
+            value = tables.next().get(key);
+        }
+        return value == MemTable.TOMBSTONE ? null : value;
+    }
+
+    /**
+     * Iterate the stored entries in a key range, in unsigned lexicographic key order.
+     * The iterator sees the tables at the time it was created, modifications made while iterating may be seen.
+     *
+     * @param from first key of the range, or null to start from the first key.
+     * @param to   key at which the range ends, exclusive, or null to iterate to the last key.
+     * @return iterator of the stored entries.
+     */
+    public Iterator<Map.Entry<byte[], byte[]>> scan(final byte[] from, final byte[] to) {
+        Version current = this.version;
+        List<Iterator<Map.Entry<byte[], byte[]>>> iterators = new ArrayList<>(current.tables.size() + 2);
+        iterators.add(current.memTable.iterator(from));
+        if (current.flushing != null) {
+            iterators.add(current.flushing.iterator(from));
+        }
+        current.tables.forEach(table -> iterators.add(table.iterator(from)));
+        return new MergingIterator(iterators, to, false);
+    }
+
+    /**
+     * Log and apply the modifications of a batch. The modifications are visible when this returns,
+     * and durable once {@link #awaitDurable(long)} returns for the returned sequence number.
+     * Waits while the in-memory table is full and the previous one is still being written.
+     *
+     * @param batch of modifications.
+     * @return sequence number of the log record.
+     * @throws IllegalStateException if the store is closed or failed.
+     */
+    public long write(final WriteBatch batch) {
+        byte[] payload = batch.toBytes();
+        this.lock.lock();
+        try {
+            Version current = this.version;
+            while (current.flushing != null && current.memTable.size() >= this.memTableSize
+                    && !this.closed && this.failure == null) {
+                this.flushCompleted.awaitUninterruptibly();
+                current = this.version;
+            }
+            if (this.closed || this.failure != null) {
+                throw new IllegalStateException(NOT_WRITABLE, this.failure);
+            }
+            long sequence = this.writeAheadLog.append(payload);
+            batch.applyTo(current.memTable);
+            if (current.memTable.size() >= this.memTableSize && current.flushing == null) {
+                long flushingSequence = this.writeAheadLog.roll();
+                this.version = new Version(new MemTable(), current.memTable, flushingSequence, current.tables);
+                this.flushRequested.signal();
+            }
+            return sequence;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until the modifications with the given sequence number are durable according to the fsync policy.
+     *
+     * @param sequence number returned by {@link #write(WriteBatch)}.
+     * @throws IllegalStateException if the log failed before the modifications became durable.
+     */
+    public void awaitDurable(final long sequence) {
+        this.writeAheadLog.awaitDurable(sequence);
+    }
+
+    /**
+     * Stop accepting modifications, wait for the background thread and close the log.
+     * The in-memory table is not written, its modifications are recovered from the log.
+     *
+     * @throws InterruptedException if interrupted while waiting for the background thread or the log.
+     */
+    public void close() throws InterruptedException {
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.flushRequested.signalAll();
+            this.flushCompleted.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        this.flusher.join();
+        this.writeAheadLog.close();
+    }
+
+    /**
+     * Get the number of table files that are currently read.
+     *
+     * @return table count.
+     */
+    int getTableCount() {
+        return this.version.tables.size();
+    }
+
+    /**
+     * Get the table files that are currently read.
+     *
+     * @return table files, from newest to oldest.
+     */
+    List<Path> getTableFiles() {
+        List<Path> files = new ArrayList<>();
+        this.version.tables.forEach(table -> files.add(table.getFile()));
+        return files;
+    }
+
+    /**
+     * Main loop of the background thread.
+     */
+    private void flushTables() {
+        while (true) {
+            Version current;
+            this.lock.lock();
+            try {
+                while (this.version.flushing == null && !this.closed) {
+                    this.flushRequested.awaitUninterruptibly();
+                }
+                if (this.closed) {
+                    return;
+                }
+                current = this.version;
+            } finally {
+                this.lock.unlock();
+            }
+
+            try {
+                this.flush(current);
+                int[] run = findMergeRun(this.version.tables);
+                while (run.length > 0) {
+                    this.compact(run[0], run[1]);
+                    run = findMergeRun(this.version.tables);
+                }
+            } catch (IOException e) {
+                this.fail(e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write the in-memory table that is being flushed to a table file and delete the log segments it covers.
+     *
+     * @param current version holding the in-memory table.
+     * @throws IOException if the table file or the manifest cannot be written.
+     */
+    private void flush(final Version current) throws IOException {
+        List<SortedTable> tables = new ArrayList<>(SortedTable.write(this.directory, this::newGeneration,
+                current.flushing.iterator(null)));
+        tables.addAll(current.tables);
+        this.writeManifest(tables, current.flushingSequence);
+        this.coveredSequence = current.flushingSequence;
+
+        this.lock.lock();
+        try {
+            this.version = new Version(this.version.memTable, null, 0, Collections.unmodifiableList(tables));
+            this.flushCompleted.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        this.writeAheadLog.truncate(current.flushingSequence);
+    }
+
+    /**
+     * Find the newest run of adjacent tables that are not full and have similar sizes, long enough to be merged.
+     *
+     * @param tables from newest to oldest.
+     * @return start and end, exclusive, of the run, or an empty array if no tables need to be merged.
+     */
+    private static int[] findMergeRun(final List<SortedTable> tables) {
+        int start = 0;
+        while (start < tables.size()) {
+            long smallest = Long.MAX_VALUE;
+            long largest = 0;
+            int end = start;
+            while (end < tables.size() && !tables.get(end).isFull()) {
+                long size = tables.get(end).size();
+                if (Math.max(largest, size) > Math.min(smallest, size) * SIZE_RATIO) {
+                    break;
+                }
+                smallest = Math.min(smallest, size);
+                largest = Math.max(largest, size);
+                end++;
+            }
+            if (end - start >= MERGE_WIDTH) {
+                return new int[]{start, end};
+            }
+            start = Math.max(end, start + 1);
+        }
+        return new int[0];
+    }
+
+    /**
+     * Merge a run of adjacent table files into new table files that take their place, dropping overwritten values.
+     * Replaced files stay mapped by readers that are still using them.
+     *
+     * @param start of the run of tables to merge.
+     * @param end   of the run of tables to merge, exclusive.
+     * @throws IOException if a table file or the manifest cannot be written.
+     */
+    private void compact(final int start, final int end) throws IOException {
+        List<SortedTable> current = this.version.tables;
+        List<SortedTable> run = current.subList(start, end);
+        List<Iterator<Map.Entry<byte[], byte[]>>> iterators = new ArrayList<>(run.size());
+        run.forEach(table -> iterators.add(table.iterator(null)));
+        List<SortedTable> tables = new ArrayList<>(current.subList(0, start));
+        tables.addAll(SortedTable.write(this.directory, this::newGeneration,
+                new MergingIterator(iterators, null, end < current.size())));
+        tables.addAll(current.subList(end, current.size()));
+        this.writeManifest(tables, this.coveredSequence);
+
+        this.lock.lock();
+        try {
+            Version latest = this.version;
+            this.version = new Version(latest.memTable, latest.flushing, latest.flushingSequence,
+                    Collections.unmodifiableList(tables));
+        } finally {
+            this.lock.unlock();
+        }
+        LOGGER.debug("Merged {} of {} tables", run.size(), current.size());
+        for (SortedTable table : run) {
+            try {
+                Files.delete(table.getFile());
+            } catch (IOException e) {
+                LOGGER.warn("Merged table {} could not be deleted", table.getFile(), e);
+            }
+        }
+    }
+
+    /**
+     * Read the manifest, if one was written.
+     *
+     * @return generations of the table files in use, from newest to oldest.
+     * @throws IOException if the manifest cannot be read or is damaged.
+     */
+    private List<Long> readManifest() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        this.coveredSequence = 0;
+        this.nextGeneration = 1;
+        Path manifest = this.directory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            return generations;
+        }
+        byte[] content = Files.readAllBytes(manifest);
+        try {
+            ByteBuffer input = ByteBuffer.wrap(content);
+            if (input.getInt() != MANIFEST_MAGIC) {
+                throw new IOException(DAMAGED + manifest);
+            }
+            int count = input.getInt();
+            for (int i = 0; i < count; i++) {
+                generations.add(input.getLong());
+            }
+            this.coveredSequence = input.getLong();
+            this.nextGeneration = input.getLong();
+            int checksumOffset = input.position();
+            if (input.getInt() != LogFile.checksum(Arrays.copyOf(content, checksumOffset))) {
+                throw new IOException(DAMAGED + manifest);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException(DAMAGED + manifest, e);
+        }
+        return generations;
+    }
+
+    /**
+     * Replace the manifest.
+     *
+     * @param tables       in use, from newest to oldest.
+     * @param lastSequence number of the last log record contained in the tables.
+     * @throws IOException if the manifest cannot be written.
+     */
+    private void writeManifest(final List<SortedTable> tables, final long lastSequence) throws IOException {
+        ByteBuffer content = ByteBuffer.allocate(Integer.BYTES + Integer.BYTES + Long.BYTES * (tables.size() + 2));
+        content.putInt(MANIFEST_MAGIC).putInt(tables.size());
+        tables.forEach(table -> content.putLong(table.getGeneration()));
+        content.putLong(lastSequence).putLong(this.nextGeneration);
+        ByteBuffer checksum = ByteBuffer.allocate(Integer.BYTES).putInt(LogFile.checksum(content.array()));
+        content.flip();
+        checksum.flip();
+
+        Path temporaryFile = this.directory.resolve(TEMPORARY_MANIFEST);
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining() || checksum.hasRemaining()) {
+                channel.write(new ByteBuffer[]{content, checksum});
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryFile, this.directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE);
+        LogFile.forceDirectory(this.directory);
+    }
+
+    /**
+     * Allocate the generation of a new table file. Used by the background thread.
+     *
+     * @return generation.
+     */
+    private long newGeneration() {
+        return this.nextGeneration++;
+    }
+
+    /**
+     * Stop accepting modifications after the background thread failed.
+     *
+     * @param error that stopped the background thread.
+     */
+    private void fail(final IOException error) {
+        LOGGER.error("Key-value store failed, modifications are not accepted anymore", error);
+        this.lock.lock();
+        try {
+            this.failure = error;
+            this.flushCompleted.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Immutable set of tables that are read, replaced whenever a table is added or removed.
+     */
+    private static final class Version {
+
+        /**
+         * In-memory table receiving modifications.
+         */
+        private final MemTable memTable;
+
+        /**
+         * Full in-memory table that is being written to a table file, null if there is none.
+         */
+        private final MemTable flushing;
+
+        /**
+         * Sequence number of the last log record contained in the table that is being written.
+         */
+        private final long flushingSequence;
+
+        /**
+         * Table files, from newest to oldest.
+         */
+        private final List<SortedTable> tables;
+
+        /**
+         * Constructor.
+         *
+         * @param memTable         in-memory table receiving modifications.
+         * @param flushing         in-memory table that is being written, may be null.
+         * @param flushingSequence sequence number of the last log record contained in the table being written.
+         * @param tables           table files, from newest to oldest.
+         */
+        Version(final MemTable memTable, final MemTable flushing, final long flushingSequence,
+                final List<SortedTable> tables) {
+            this.memTable = memTable;
+            this.flushing = flushing;
+            this.flushingSequence = flushingSequence;
+            this.tables = tables;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.example.app.bookmark.persistence;
+
+import org.example.app.bookmark.exceptions.BadParametersException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Layout of the files holding log records.
+ * Every record is stored in a frame holding the record length, the CRC32 checksum of the record,
+ * the record sequence number and the serialized record. Files are named by a prefix, a zero padded
+ * sequence number and a suffix, so they sort by sequence number.
+ */
+final class LogFile {
+
+    /**
+     * Size of the frame fields that precede the serialized record.
+     */
+    static final int FRAME_HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    /**
+     * Maximum size of a serialized record, larger lengths indicate a damaged frame.
+     */
+    static final int MAXIMUM_RECORD_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Size of the buffer used to read files.
+     */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Private constructor that prevents the default constructor from being created.
+     */
+    private LogFile() {
+    }
+
+    /**
+     * Receives the records read from a file.
+     */
+    interface FrameConsumer {
+
+        /**
+         * Receive a record.
+         *
+         * @param sequence number of the record.
+         * @param record   read from the file.
+         */
+        void accept(long sequence, LogRecord record);
+    }
+
+    /**
+     * Receives the serialized records read from a file.
+     */
+    interface PayloadConsumer {
+
+        /**
+         * Receive a serialized record.
+         *
+         * @param sequence number of the record.
+         * @param payload  serialized record.
+         * @return true to continue reading, false if the record is damaged and reading should stop.
+         */
+        boolean accept(long sequence, byte[] payload);
+    }
+
+    /**
+     * Calculate the checksum of a serialized record.
+     *
+     * @param payload serialized record.
+     * @return CRC32 checksum.
+     */
+    static int checksum(final byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Write a frame to the buffer, which must have enough space left.
+     *
+     * @param target   buffer to write to.
+     * @param sequence number of the record.
+     * @param payload  serialized record.
+     * @param checksum of the serialized record.
+     */
+    static void writeFrame(final ByteBuffer target, final long sequence, final byte[] payload, final int checksum) {
+        target.putInt(payload.length);
+        target.putInt(checksum);
+        target.putLong(sequence);
+        target.put(payload);
+    }
+
+    /**
+     * Read all complete and undamaged frames from the start of a file.
+     *
+     * @param file     to read.
+     * @param consumer receiving the records.
+     * @return number of bytes taken by the frames that were read, less than the file size if the file has a damaged
+     *         or incomplete frame.
+     * @throws IOException if the file cannot be read.
+     */
+    static long readFrames(final Path file, final FrameConsumer consumer) throws IOException {
+        return readPayloads(file, (sequence, payload) -> {
+            LogRecord record;
+            try {
+                record = LogRecord.fromBytes(payload);
+            } catch (BadParametersException e) {
+                return false;
+            }
+            consumer.accept(sequence, record);
+            return true;
+        });
+    }
+
+    /**
+     * Read the serialized records of all complete and undamaged frames from the start of a file.
+     *
+     * @param file     to read.
+     * @param consumer receiving the serialized records.
+     * @return number of bytes taken by the frames that were read, less than the file size if the file has a damaged
+     *         or incomplete frame.
+     * @throws IOException if the file cannot be read.
+     */
+    static long readPayloads(final Path file, final PayloadConsumer consumer) throws IOException {
+        long validLength = 0;
+        InputStream stream = Files.newInputStream(file);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(stream, READ_BUFFER_SIZE))) {
+            while (true) {
+                int length;
+                try {
+                    length = input.readInt();
+                } catch (EOFException e) {
+                    return validLength;
+                }
+                if (length < 0 || length > MAXIMUM_RECORD_SIZE) {
+                    return validLength;
+                }
+                byte[] payload = new byte[length];
+                int checksum;
+                long sequence;
+                try {
+                    checksum = input.readInt();
+                    sequence = input.readLong();
+                    input.readFully(payload);
+                } catch (EOFException e) {
+                    return validLength;
+                }
+                if (checksum != checksum(payload) || !consumer.accept(sequence, payload)) {
+                    return validLength;
+                }
+                validLength += FRAME_HEADER_SIZE + length;
+            }
+        }
+    }
+
+    /**
+     * Force the directory entries of a directory, so created and renamed files survive a crash.
+     * Not every platform allows opening a directory, in which case nothing is done.
+     *
+     * @param directory to force.
+     * @throws IOException if the directory entries cannot be forced.
+     */
+    static void forceDirectory(final Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Directories cannot be opened on every platform, the entries are then written by the file system
+            return;
+        }
+        try (FileChannel directoryChannel = channel) {
+            directoryChannel.force(true);
+        }
+    }
+
+    /**
+     * Create the name of a file.
+     *
+     * @param prefix   of the file name.
+     * @param sequence number identifying the file.
+     * @param suffix   of the file name.
+     * @return file name.
+     */
+    static String fileName(final String prefix, final long sequence, final String suffix) {
+        return String.format("%s%020d%s", prefix, sequence, suffix);
+    }
+
+    /**
+     * List the files of a kind in a directory, ordered by their sequence number.
+     *
+     * @param directory to list.
+     * @param prefix    of the file names.
+     * @param suffix    of the file names.
+     * @return matching files.
+     * @throws IOException if the directory cannot be listed.
+     */
+    static List<Path> list(final Path directory, final String prefix, final String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path entry : entries) {
+                if (sequenceOf(entry, prefix, suffix) >= 0) {
+                    files.add(entry);
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(file -> sequenceOf(file, prefix, suffix)));
+        return files;
+    }
+
+    /**
+     * Read the sequence number from a file name.
+     *
+     * @param file   to read the name of.
+     * @param prefix of the file name.
+     * @param suffix of the file name.
+     * @return sequence number, or -1 if the name does not match.
+     */
+    static long sequenceOf(final Path file, final String prefix, final String suffix) {
+        String name = String.valueOf(file.getFileName());
+        if (!name.startsWith(prefix) || !name.endsWith(suffix) || name.length() <= prefix.length() + suffix.length()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package org.example.app.bookmark.persistence;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.exceptions.BadParametersException;
+import org.example.app.bookmark.user.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single state modification, as stored in the write-ahead log and in snapshots.
+ */
+public final class LogRecord {
+
+    /**
+     * Message indicating that a stored record cannot be read.
+     */
+    public static final String BAD_RECORD = "Stored record is not valid";
+
+    /**
+     * Kind of state modification.
+     */
+    public enum Type {
+
+        /**
+         * A user was registered.
+         */
+        USER_REGISTERED,
+
+        /**
+         * A bookmark was added.
+         */
+        BOOKMARK_ADDED,
+
+        /**
+         * A bookmark was replaced by a bookmark that may have a different name.
+         */
+        BOOKMARK_UPDATED,
+
+        /**
+         * A bookmark was deleted.
+         */
+        BOOKMARK_DELETED
+    }
+
+    /**
+     * Kind of state modification.
+     */
+    private final Type type;
+
+    /**
+     * Name of the user the modification belongs to.
+     */
+    private final String username;
+
+    /**
+     * Name of the updated or deleted bookmark, null for other records.
+     */
+    private final String bookmarkName;
+
+    /**
+     * Added bookmark or the bookmark replacing the updated one, null for other records.
+     */
+    private final Bookmark bookmark;
+
+    /**
+     * Registered user, null for other records.
+     */
+    private final User user;
+
+    /**
+     * Constructor.
+     *
+     * @param type         kind of state modification.
+     * @param username     name of the user the modification belongs to.
+     * @param bookmarkName name of the updated or deleted bookmark.
+     * @param bookmark     added bookmark or the bookmark replacing the updated one.
+     * @param user         registered user.
+     */
+    private LogRecord(final Type type, final String username, final String bookmarkName, final Bookmark bookmark,
+                      final User user) {
+        this.type = type;
+        this.username = username;
+        this.bookmarkName = bookmarkName;
+        this.bookmark = bookmark;
+        this.user = user;
+    }
+
+    /**
+     * Create a record of a user registration.
+     *
+     * @param user registered user.
+     * @return created record.
+     */
+    public static LogRecord userRegistered(final User user) {
+        return new LogRecord(Type.USER_REGISTERED, user.getUsername(), null, null, user);
+    }
+
+    /**
+     * Create a record of an added bookmark.
+     *
+     * @param username of the bookmark owner.
+     * @param bookmark added bookmark.
+     * @return created record.
+     */
+    public static LogRecord bookmarkAdded(final String username, final Bookmark bookmark) {
+        return new LogRecord(Type.BOOKMARK_ADDED, username, null, bookmark, null);
+    }
+
+    /**
+     * Create a record of an updated bookmark.
+     *
+     * @param username     of the bookmark owner.
+     * @param bookmarkName name of the bookmark before the update.
+     * @param bookmark     bookmark replacing the updated one.
+     * @return created record.
+     */
+    public static LogRecord bookmarkUpdated(final String username, final String bookmarkName,
+                                            final Bookmark bookmark) {
+        return new LogRecord(Type.BOOKMARK_UPDATED, username, bookmarkName, bookmark, null);
+    }
+
+    /**
+     * Create a record of a deleted bookmark.
+     *
+     * @param username     of the bookmark owner.
+     * @param bookmarkName name of the deleted bookmark.
+     * @return created record.
+     */
+    public static LogRecord bookmarkDeleted(final String username, final String bookmarkName) {
+        return new LogRecord(Type.BOOKMARK_DELETED, username, bookmarkName, null, null);
+    }
+
+    /**
+     * Getter for type.
+     *
+     * @return kind of state modification.
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Getter for username.
+     *
+     * @return name of the user the modification belongs to.
+     */
+    public String getUsername() {
+        return this.username;
+    }
+
+    /**
+     * Getter for bookmarkName.
+     *
+     * @return name of the updated or deleted bookmark, null for other records.
+     */
+    public String getBookmarkName() {
+        return this.bookmarkName;
+    }
+
+    /**
+     * Getter for bookmark.
+     *
+     * @return added bookmark or the bookmark replacing the updated one, null for other records.
+     */
+    public Bookmark getBookmark() {
+        return this.bookmark;
+    }
+
+    /**
+     * Getter for user.
+     *
+     * @return registered user, null for other records.
+     */
+    public User getUser() {
+        return this.user;
+    }
+
+    /**
+     * Serialize the record. Strings are stored as length-prefixed UTF-8.
+     *
+     * @return serialized record.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(this.type.ordinal());
+            writeString(output, this.username);
+            switch (this.type) {
+                case USER_REGISTERED:
+                    writeBytes(output, this.user.getSalt());
+                    writeBytes(output, this.user.getPasswordHash());
+                    break;
+                case BOOKMARK_UPDATED:
+                    writeString(output, this.bookmarkName);
+                    writeBookmark(output, this.bookmark);
+                    break;
+                case BOOKMARK_ADDED:
+                    writeBookmark(output, this.bookmark);
+                    break;
+                default:
+                    writeString(output, this.bookmarkName);
+                    break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserialize a record.
+     *
+     * @param bytes serialized record.
+     * @return deserialized record.
+     * @throws BadParametersException if the record is not valid.
+     */
+    public static LogRecord fromBytes(final byte[] bytes) {
+        try {
+            return read(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new BadParametersException(BAD_RECORD, e);
+        }
+    }
+
+    /**
+     * Read a record written by {@link #toBytes()}.
+     *
+     * @param data to read from.
+     * @return read record.
+     * @throws IOException if the record is truncated.
+     */
+    private static LogRecord read(final DataInputStream data) throws IOException {
+        int ordinal = data.readUnsignedByte();
+        if (ordinal >= Type.values().length) {
+            throw new BadParametersException(BAD_RECORD);
+        }
+        Type type = Type.values()[ordinal];
+        String username = readString(data);
+        switch (type) {
+            case USER_REGISTERED:
+                return userRegistered(new User(username, readBytes(data), readBytes(data)));
+            case BOOKMARK_UPDATED:
+                String bookmarkName = readString(data);
+                return bookmarkUpdated(username, bookmarkName, readBookmark(data));
+            case BOOKMARK_ADDED:
+                return bookmarkAdded(username, readBookmark(data));
+            default:
+                return bookmarkDeleted(username, readString(data));
+        }
+    }
+
+    /**
+     * Write a bookmark as its name, location and access flag.
+     *
+     * @param output   to write to.
+     * @param bookmark to write.
+     * @throws IOException if writing fails.
+     */
+    private static void writeBookmark(final DataOutputStream output, final Bookmark bookmark) throws IOException {
+        writeString(output, bookmark.getBookmarkLink().getUriName());
+        writeString(output, bookmark.getBookmarkLink().getUri().toString());
+        output.writeBoolean(bookmark.isPrivate());
+    }
+
+    /**
+     * Read a bookmark written by {@link #writeBookmark(DataOutputStream, Bookmark)}.
+     *
+     * @param input to read from.
+     * @return read bookmark.
+     * @throws IOException if reading fails.
+     */
+    private static Bookmark readBookmark(final DataInputStream input) throws IOException {
+        String name = readString(input);
+        String uri = readString(input);
+        boolean isPrivate = input.readBoolean();
+        try {
+            return new Bookmark(new BookmarkLink(new URI(uri), name), isPrivate);
+        } catch (URISyntaxException e) {
+            throw new BadParametersException(BAD_RECORD, e);
+        }
+    }
+
+    /**
+     * Write a string as length-prefixed UTF-8.
+     *
+     * @param output to write to.
+     * @param value  to write.
+     * @throws IOException if writing fails.
+     */
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        writeBytes(output, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read a string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param input to read from.
+     * @return read string.
+     * @throws IOException if reading fails.
+     */
+    private static String readString(final DataInputStream input) throws IOException {
+        return new String(readBytes(input), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a length-prefixed byte array.
+     *
+     * @param output to write to.
+     * @param value  to write.
+     * @throws IOException if writing fails.
+     */
+    private static void writeBytes(final DataOutputStream output, final byte[] value) throws IOException {
+        output.writeInt(value.length);
+        output.write(value);
+    }
+
+    /**
+     * Read a byte array written by {@link #writeBytes(DataOutputStream, byte[])}.
+     *
+     * @param input to read from.
+     * @return read byte array.
+     * @throws IOException if reading fails.
+     */
+    private static byte[] readBytes(final DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > input.available()) {
+            throw new BadParametersException(BAD_RECORD);
+        }
+        byte[] value = new byte[length];
+        input.readFully(value);
+        return value;
+    }
+}
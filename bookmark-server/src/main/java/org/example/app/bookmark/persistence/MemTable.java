@@ -0,0 +1,99 @@
+package org.example.app.bookmark.persistence;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorted in-memory table holding the latest modifications of a key-value store, until it is written to a
+ * sorted table file. Deleted keys are kept as tombstones, so they hide older values in the table files.
+ * Reads are lock-free, modifications are made by one thread at a time.
+ */
+final class MemTable {
+
+    /**
+     * Value marking a deleted key, compared by identity.
+     */
+    static final byte[] TOMBSTONE = new byte[0];
+
+    /**
+     * Order of the keys, unsigned lexicographic.
+     */
+    static final Comparator<byte[]> KEY_ORDER = Arrays::compareUnsigned;
+
+    /**
+     * Estimated memory taken by an entry besides its key and value.
+     */
+    private static final int ENTRY_OVERHEAD = 64;
+
+    /**
+     * Entries of the table.
+     */
+    private final ConcurrentNavigableMap<byte[], byte[]> entries;
+
+    /**
+     * Estimated memory taken by the entries.
+     */
+    private final AtomicLong size;
+
+    /**
+     * Constructor.
+     */
+    MemTable() {
+        this.entries = new ConcurrentSkipListMap<>(KEY_ORDER);
+        this.size = new AtomicLong();
+    }
+
+    /**
+     * Store a value or a tombstone. Replaced values are still counted in the size of the table.
+     *
+     * @param key   to store.
+     * @param value to store, or {@link #TOMBSTONE} if the key is deleted.
+     */
+    void put(final byte[] key, final byte[] value) {
+        this.entries.put(key, value);
+        this.size.addAndGet(ENTRY_OVERHEAD + key.length + value.length);
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key to look up.
+     * @return stored value, {@link #TOMBSTONE} if the key is deleted, or null if the table does not know the key.
+     */
+    byte[] get(final byte[] key) {
+        return this.entries.get(key);
+    }
+
+    /**
+     * Iterate the entries in key order, including tombstones.
+     *
+     * @param from first key to iterate, or null to start from the first key.
+     * @return weakly consistent iterator.
+     */
+    Iterator<Map.Entry<byte[], byte[]>> iterator(final byte[] from) {
+        return (from == null ? this.entries : this.entries.tailMap(from, true)).entrySet().iterator();
+    }
+
+    /**
+     * Check if the table has entries.
+     *
+     * @return true if nothing was stored, false otherwise.
+     */
+    boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    /**
+     * Estimated memory taken by the entries.
+     *
+     * @return size in bytes.
+     */
+    long size() {
+        return this.size.get();
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.app.bookmark.persistence;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges sorted entry iterators of tables of different ages into one sorted iterator.
+ * When several tables hold a key, only the entry of the newest table is returned. Deleted keys are skipped, or kept
+ * when the merged tables are written over older tables that may still hold the keys.
+ */
+final class MergingIterator implements Iterator<Map.Entry<byte[], byte[]>> {
+
+    /**
+     * Sources that have entries left, ordered by their next key and then by their age.
+     */
+    private final PriorityQueue<Source> sources;
+
+    /**
+     * Key at which the iteration ends, exclusive, or null to iterate to the last key.
+     */
+    private final byte[] to;
+
+    /**
+     * Flag indicating that deleted keys are returned, with {@link MemTable#TOMBSTONE} as their value.
+     */
+    private final boolean keepDeleted;
+
+    /**
+     * Next entry, null if it was not looked up yet or there are no more entries.
+     */
+    private Map.Entry<byte[], byte[]> next;
+
+    /**
+     * Constructor.
+     *
+     * @param iterators   of the tables, ordered from the newest to the oldest table.
+     * @param to          key at which the iteration ends, exclusive, or null to iterate to the last key.
+     * @param keepDeleted true to return deleted keys, false to skip them.
+     */
+    MergingIterator(final List<Iterator<Map.Entry<byte[], byte[]>>> iterators, final byte[] to,
+                    final boolean keepDeleted) {
+        this.sources = new PriorityQueue<>(Math.max(1, iterators.size()), (first, second) -> {
+            int order = MemTable.KEY_ORDER.compare(first.head.getKey(), second.head.getKey());
+            return order != 0 ? order : Integer.compare(first.age, second.age);
+        });
+        this.to = to;
+        this.keepDeleted = keepDeleted;
+        for (int i = 0; i < iterators.size(); i++) {
+            Source source = new Source(iterators.get(i), i);
+            if (source.advance()) {
+                this.sources.add(source);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next == null) {
+            this.next = this.findNext();
+        }
+        return this.next != null;
+    }
+
+    @Override
+    public Map.Entry<byte[], byte[]> next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map.Entry<byte[], byte[]> entry = this.next;
+        this.next = null;
+        return entry;
+    }
+
+    /**
+     * Find the next entry, skipping deleted keys unless they are kept.
+     *
+     * @return next entry, or null if there are no more entries.
+     */
+    private Map.Entry<byte[], byte[]> findNext() {
+        while (!this.sources.isEmpty()) {
+            Source newest = this.sources.poll();
+            Map.Entry<byte[], byte[]> entry = newest.head;
+            if (this.to != null && MemTable.KEY_ORDER.compare(entry.getKey(), this.to) >= 0) {
+                this.sources.clear();
+                return null;
+            }
+            this.advance(newest);
+            while (!this.sources.isEmpty()
+                    && MemTable.KEY_ORDER.compare(this.sources.peek().head.getKey(), entry.getKey()) == 0) {
+                this.advance(this.sources.poll());
+            }
+            if (this.keepDeleted || entry.getValue() != MemTable.TOMBSTONE) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Move a source that was taken from the queue to its next entry and put it back if it has one.
+     *
+     * @param source to advance.
+     */
+    private void advance(final Source source) {
+        if (source.advance()) {
+            this.sources.add(source);
+        }
+    }
+
+    /**
+     * Iterator of one table and its next entry.
+     */
+    private static final class Source {
+
+        /**
+         * Iterator of the table.
+         */
+        private final Iterator<Map.Entry<byte[], byte[]>> iterator;
+
+        /**
+         * Age of the table, lower values are newer.
+         */
+        private final int age;
+
+        /**
+         * Next entry of the table.
+         */
+        private Map.Entry<byte[], byte[]> head;
+
+        /**
+         * Constructor.
+         *
+         * @param iterator of the table.
+         * @param age      of the table, lower values are newer.
+         */
+        Source(final Iterator<Map.Entry<byte[], byte[]>> iterator, final int age) {
+            this.iterator = iterator;
+            this.age = age;
+        }
+
+        /**
+         * Move to the next entry of the table.
+         *
+         * @return true if the table has another entry, false otherwise.
+         */
+        boolean advance() {
+            this.head = this.iterator.hasNext() ? this.iterator.next() : null;
+            return this.head != null;
+        }
+    }
+}
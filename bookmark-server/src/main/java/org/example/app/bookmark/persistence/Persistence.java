@@ -0,0 +1,234 @@
+package org.example.app.bookmark.persistence;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.app.bookmark.config.InternalConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the application state across restarts with a write-ahead log and periodic snapshots.
+ * On start the state is rebuilt from the latest snapshot and the log records written after it.
+ * Snapshots are taken while the state is modified, which is safe because applying a record
+ * whose effect is already contained in the state does not change it.
+ * Persistence is disabled if no storage directory is configured.
+ */
+public final class Persistence {
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(Persistence.class.getSimpleName());
+
+    /**
+     * Time to wait for a running snapshot when persistence is closed (in ms).
+     */
+    private static final long CLOSE_TIMEOUT = 60000;
+
+    /**
+     * Directory holding the log and the snapshots, null if persistence is disabled.
+     */
+    private final Path directory;
+
+    /**
+     * Log of state modifications, null if persistence is disabled.
+     */
+    private final WriteAheadLog writeAheadLog;
+
+    /**
+     * Time between snapshots (in seconds).
+     */
+    private final long snapshotInterval;
+
+    /**
+     * State that is persisted.
+     */
+    private final List<IRecoverable> recoverables;
+
+    /**
+     * Takes the periodic snapshots, created when persistence is started.
+     */
+    private ScheduledExecutorService snapshotScheduler;
+
+    /**
+     * Constructor.
+     *
+     * @param internalConfig holding the storage directory, the fsync policy and the snapshot interval.
+     */
+    public Persistence(final InternalConfig internalConfig) {
+        String storageDirectory = internalConfig.getStorageDirectory();
+        if (storageDirectory == null || storageDirectory.isEmpty()) {
+            this.directory = null;
+            this.writeAheadLog = null;
+        } else {
+            this.directory = Paths.get(storageDirectory);
+            this.writeAheadLog = new WriteAheadLog(this.directory, internalConfig.getFsyncPolicy(),
+                    internalConfig.getFsyncInterval(), TimeUnit.MILLISECONDS);
+        }
+        this.snapshotInterval = internalConfig.getSnapshotInterval();
+        this.recoverables = new ArrayList<>();
+    }
+
+    /**
+     * Check if the state is persisted.
+     *
+     * @return true if a storage directory is configured, false otherwise.
+     */
+    public boolean isEnabled() {
+        return this.directory != null;
+    }
+
+    /**
+     * Get the journal that state modifications are recorded in.
+     * Records are only accepted once persistence is started.
+     *
+     * @return write-ahead log, or a journal that does not record anything if persistence is disabled.
+     */
+    public IJournal getJournal() {
+        return this.isEnabled() ? this.writeAheadLog : IJournal.NONE;
+    }
+
+    /**
+     * Rebuild the state from the storage directory and start recording modifications.
+     * Must be called before the state is modified.
+     *
+     * @param persistedState state that is persisted, empty when this is called.
+     * @throws IOException if the stored state cannot be read or the log cannot be created.
+     */
+    public void start(final List<IRecoverable> persistedState) throws IOException {
+        if (!this.isEnabled()) {
+            LOGGER.info("No storage directory configured, state is only kept in memory");
+            return;
+        }
+        this.recoverables.addAll(persistedState);
+        Files.createDirectories(this.directory);
+        for (Path temporaryFile : LogFile.list(this.directory, SnapshotFile.PREFIX,
+                SnapshotFile.SUFFIX + SnapshotFile.TEMPORARY_SUFFIX)) {
+            Files.delete(temporaryFile);
+        }
+
+        long lastSequence = this.recover();
+        this.writeAheadLog.open(lastSequence);
+
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly, this.snapshotInterval,
+                this.snapshotInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Write a snapshot of the state and delete the log segments and snapshots it replaces.
+     *
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public synchronized void snapshot() throws IOException {
+        long sequence = this.writeAheadLog.roll();
+        Path snapshot = SnapshotFile.write(this.directory, sequence, this.recoverables);
+        LOGGER.info("Snapshot {} written", snapshot);
+
+        for (Path oldSnapshot : LogFile.list(this.directory, SnapshotFile.PREFIX, SnapshotFile.SUFFIX)) {
+            if (LogFile.sequenceOf(oldSnapshot, SnapshotFile.PREFIX, SnapshotFile.SUFFIX) < sequence) {
+                Files.delete(oldSnapshot);
+            }
+        }
+        this.writeAheadLog.truncate(sequence);
+    }
+
+    /**
+     * Stop the periodic snapshots, write a final snapshot and close the log.
+     *
+     * @throws InterruptedException if interrupted while waiting for a running snapshot or the log.
+     */
+    public void close() throws InterruptedException {
+        if (!this.isEnabled() || this.snapshotScheduler == null) {
+            return;
+        }
+        this.snapshotScheduler.shutdownNow();
+        this.snapshotScheduler.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+        this.snapshotQuietly();
+        this.writeAheadLog.close();
+    }
+
+    /**
+     * Rebuild the state from the latest snapshot and the log records written after it.
+     *
+     * @return sequence number of the last recovered record.
+     * @throws IOException if the stored state cannot be read.
+     */
+    private long recover() throws IOException {
+        AtomicLong lastSequence = new AtomicLong();
+        List<Path> snapshots = LogFile.list(this.directory, SnapshotFile.PREFIX, SnapshotFile.SUFFIX);
+        if (!snapshots.isEmpty()) {
+            Path snapshot = snapshots.get(snapshots.size() - 1);
+            lastSequence.set(LogFile.sequenceOf(snapshot, SnapshotFile.PREFIX, SnapshotFile.SUFFIX));
+            LOGGER.info("Loading snapshot {}", snapshot);
+            try {
+                SnapshotFile.read(snapshot, this::loadSection);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        long snapshotSequence = lastSequence.get();
+        for (Path segment : LogFile.list(this.directory, WriteAheadLog.SEGMENT_PREFIX,
+                WriteAheadLog.SEGMENT_SUFFIX)) {
+            long validLength = LogFile.readFrames(segment, (sequence, record) -> {
+                if (sequence > snapshotSequence) {
+                    this.applyRecord(record);
+                    lastSequence.accumulateAndGet(sequence, Math::max);
+                }
+            });
+            if (validLength < Files.size(segment)) {
+                LOGGER.warn("Ignoring incomplete records at the end of log segment {}", segment);
+            }
+        }
+        LOGGER.info("Recovered state up to record {}", lastSequence.get());
+        return lastSequence.get();
+    }
+
+    /**
+     * Apply a recovered record to all persisted state.
+     *
+     * @param record to apply.
+     */
+    private void applyRecord(final LogRecord record) {
+        for (IRecoverable recoverable : this.recoverables) {
+            recoverable.apply(record);
+        }
+    }
+
+    /**
+     * Load a snapshot section into all persisted state.
+     *
+     * @param section of the snapshot.
+     */
+    private void loadSection(final SnapshotSection section) {
+        for (IRecoverable recoverable : this.recoverables) {
+            recoverable.load(section);
+        }
+    }
+
+    /**
+     * Write a snapshot, logging instead of throwing errors. Used by the snapshot scheduler.
+     */
+    private void snapshotQuietly() {
+        try {
+            this.snapshot();
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.error("Snapshot could not be written", e);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package org.example.app.bookmark.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Compacted copy of the state in a binary format that is memory-mapped when it is loaded.
+ * A snapshot starts with a header holding a magic number, the format version and the sequence number of
+ * the last log record whose effect it contains, followed by sections and an end marker. Each section holds
+ * the records of one kind and one owner, preceded by the record kind, the owner, the record count,
+ * the encoded size and the CRC32 checksum of the records. Loading only reads the section headers,
+ * records are decoded when the state they belong to is used.
+ * A snapshot is written to a temporary file that is only renamed once it is complete and forced,
+ * so a snapshot file is never partially written.
+ */
+final class SnapshotFile {
+
+    /**
+     * Prefix of the snapshot file names.
+     */
+    static final String PREFIX = "snapshot-";
+
+    /**
+     * Suffix of the snapshot file names.
+     */
+    static final String SUFFIX = ".dat";
+
+    /**
+     * Suffix of snapshots that are being written.
+     */
+    static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * Message indicating that a snapshot file is damaged.
+     */
+    static final String DAMAGED = "Snapshot is damaged: ";
+
+    /**
+     * Magic number identifying snapshot files.
+     */
+    static final int MAGIC = 0x424D4B53;
+
+    /**
+     * Version of the snapshot format.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * Marker following the last section.
+     */
+    private static final byte END = -1;
+
+    /**
+     * Size of the section fields following the owner.
+     */
+    private static final int SECTION_TRAILER_SIZE = Integer.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /**
+     * Maximum size of a single mapping of the snapshot file, sections must fit into one mapping.
+     */
+    private static final int MAXIMUM_MAPPING_SIZE = 1 << 30;
+
+    /**
+     * Encoded size of the records at which a new section is started, so every section fits into one mapping.
+     */
+    private static final int MAXIMUM_SECTION_SIZE = MAXIMUM_MAPPING_SIZE / 2;
+
+    /**
+     * Size of the buffer used to write snapshots.
+     */
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * Private constructor that prevents the default constructor from being created.
+     */
+    private SnapshotFile() {
+    }
+
+    /**
+     * Write a snapshot of the state.
+     *
+     * @param directory    to write the snapshot to.
+     * @param sequence     number of the last log record whose effect is contained in the state.
+     * @param recoverables state to write.
+     * @return written snapshot file.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    static Path write(final Path directory, final long sequence, final List<IRecoverable> recoverables)
+            throws IOException {
+        Path file = directory.resolve(LogFile.fileName(PREFIX, sequence, SUFFIX));
+        Path temporaryFile = directory.resolve(file.getFileName() + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            try {
+                writer.writeHeader(sequence);
+                for (IRecoverable recoverable : recoverables) {
+                    recoverable.export(writer);
+                }
+                writer.finish();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+        LogFile.forceDirectory(directory);
+        return file;
+    }
+
+    /**
+     * Map a snapshot and read its section headers.
+     *
+     * @param file     to read.
+     * @param consumer receiving the sections, whose records are decoded from the mapped file when iterated.
+     * @throws IOException if the snapshot cannot be read or is damaged.
+     */
+    static void read(final Path file, final Consumer<SnapshotSection> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long mappingStart = 0;
+            ByteBuffer mapping = map(channel, mappingStart, size);
+            try {
+                if (mapping.getInt() != MAGIC || mapping.getInt() != VERSION
+                        || mapping.getLong() != LogFile.sequenceOf(file, PREFIX, SUFFIX)) {
+                    throw new IOException(DAMAGED + file);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException(DAMAGED + file, e);
+            }
+
+            while (true) {
+                int sectionStart = mapping.position();
+                try {
+                    byte type = mapping.get();
+                    if (type == END) {
+                        break;
+                    }
+                    consumer.accept(readSection(mapping, type));
+                } catch (BufferUnderflowException e) {
+                    if (sectionStart == 0 || mappingStart + mapping.limit() == size) {
+                        throw new IOException(DAMAGED + file, e);
+                    }
+                    mappingStart += sectionStart;
+                    mapping = map(channel, mappingStart, size);
+                }
+            }
+            if (mappingStart + mapping.position() != size) {
+                throw new IOException(DAMAGED + file);
+            }
+        }
+    }
+
+    /**
+     * Map a part of the snapshot file.
+     *
+     * @param channel of the snapshot file.
+     * @param start   of the mapping in the file.
+     * @param size    of the file.
+     * @return mapped part, starting at the given position.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private static ByteBuffer map(final FileChannel channel, final long start, final long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, MAXIMUM_MAPPING_SIZE));
+    }
+
+    /**
+     * Read a section header and skip the records of the section.
+     *
+     * @param mapping positioned after the record kind.
+     * @param type    ordinal of the record kind.
+     * @return section backed by the mapping.
+     */
+    private static SnapshotSection readSection(final ByteBuffer mapping, final byte type) {
+        if (type != LogRecord.Type.USER_REGISTERED.ordinal() && type != LogRecord.Type.BOOKMARK_ADDED.ordinal()) {
+            throw new BufferUnderflowException();
+        }
+        int ownerLength = mapping.getInt();
+        if (ownerLength < 0 || ownerLength > mapping.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] owner = new byte[ownerLength];
+        mapping.get(owner);
+        int count = mapping.getInt();
+        int length = mapping.getInt();
+        int checksum = mapping.getInt();
+        if (count < 0 || length < 0 || length > mapping.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        ByteBuffer records = mapping.duplicate();
+        records.limit(mapping.position() + length);
+        mapping.position(mapping.position() + length);
+        return new SnapshotSection(LogRecord.Type.values()[type], new String(owner, StandardCharsets.UTF_8), count,
+                records.slice(), checksum);
+    }
+
+    /**
+     * Writes the sections of a snapshot through a buffer.
+     * The header of a section is completed when the section ends, in the buffer or in the file.
+     */
+    private static final class Writer implements ISnapshotWriter {
+
+        /**
+         * Channel of the snapshot file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Bytes that were not written to the channel yet.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Checksum of the records of the open section.
+         */
+        private final CRC32 crc;
+
+        /**
+         * Number of bytes written to the channel.
+         */
+        private long flushed;
+
+        /**
+         * Record kind of the open section, null if no section is open.
+         */
+        private LogRecord.Type sectionType;
+
+        /**
+         * Owner of the open section.
+         */
+        private String sectionOwner;
+
+        /**
+         * Position of the record count of the open section in the file.
+         */
+        private long sectionCountPosition;
+
+        /**
+         * Number of records in the open section.
+         */
+        private int sectionCount;
+
+        /**
+         * Encoded size of the records in the open section.
+         */
+        private int sectionLength;
+
+        /**
+         * Constructor.
+         *
+         * @param channel of the snapshot file.
+         */
+        Writer(final FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            this.crc = new CRC32();
+        }
+
+        @Override
+        public void write(final LogRecord record) {
+            byte[] encoded = SnapshotSection.encode(record);
+            String owner = record.getType() == LogRecord.Type.USER_REGISTERED ? "" : record.getUsername();
+            if (record.getType() != this.sectionType || !owner.equals(this.sectionOwner)
+                    || this.sectionLength + encoded.length > MAXIMUM_SECTION_SIZE) {
+                this.endSection();
+                this.startSection(record.getType(), owner, 0, 0, 0);
+            }
+            this.crc.update(encoded, 0, encoded.length);
+            this.sectionCount++;
+            this.sectionLength += encoded.length;
+            this.put(ByteBuffer.wrap(encoded));
+        }
+
+        @Override
+        public void copy(final SnapshotSection section) {
+            this.endSection();
+            this.startSection(section.getType(), section.getOwner(), section.size(), section.getLength(),
+                    section.getChecksum());
+            this.sectionType = null;
+            this.put(section.getRecords());
+        }
+
+        /**
+         * Write the snapshot header.
+         *
+         * @param sequence number of the last log record whose effect is contained in the state.
+         */
+        void writeHeader(final long sequence) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Integer.BYTES + Long.BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(sequence).flip();
+            this.put(header);
+        }
+
+        /**
+         * End the open section, write the end marker and flush the buffer.
+         *
+         * @throws IOException if writing fails.
+         */
+        void finish() throws IOException {
+            this.endSection();
+            this.put(ByteBuffer.wrap(new byte[]{END}));
+            this.flush();
+        }
+
+        /**
+         * Write the header of a section.
+         *
+         * @param type     kind of the records.
+         * @param owner    of the section.
+         * @param count    number of records, completed when the section ends if the section is written.
+         * @param length   encoded size of the records.
+         * @param checksum CRC32 checksum of the records.
+         */
+        private void startSection(final LogRecord.Type type, final String owner, final int count, final int length,
+                                  final int checksum) {
+            byte[] ownerBytes = owner.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer header = ByteBuffer.allocate(1 + Integer.BYTES + ownerBytes.length + SECTION_TRAILER_SIZE);
+            header.put((byte) type.ordinal()).putInt(ownerBytes.length).put(ownerBytes);
+            header.putInt(count).putInt(length).putInt(checksum).flip();
+            this.sectionType = type;
+            this.sectionOwner = owner;
+            this.sectionCountPosition = this.flushed + this.buffer.position() + header.remaining()
+                    - SECTION_TRAILER_SIZE;
+            this.sectionCount = 0;
+            this.sectionLength = 0;
+            this.crc.reset();
+            this.put(header);
+        }
+
+        /**
+         * Complete the header of the open section.
+         */
+        private void endSection() {
+            if (this.sectionType == null) {
+                return;
+            }
+            this.sectionType = null;
+            ByteBuffer trailer = ByteBuffer.allocate(SECTION_TRAILER_SIZE);
+            trailer.putInt(this.sectionCount).putInt(this.sectionLength).putInt((int) this.crc.getValue()).flip();
+            if (this.sectionCountPosition >= this.flushed) {
+                int index = (int) (this.sectionCountPosition - this.flushed);
+                for (int i = 0; i < SECTION_TRAILER_SIZE; i++) {
+                    this.buffer.put(index + i, trailer.get(i));
+                }
+                return;
+            }
+            try {
+                long position = this.sectionCountPosition;
+                while (trailer.hasRemaining()) {
+                    position += this.channel.write(trailer, position);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Append bytes to the snapshot.
+         *
+         * @param bytes to append.
+         */
+        private void put(final ByteBuffer bytes) {
+            try {
+                if (this.buffer.remaining() < bytes.remaining()) {
+                    this.flush();
+                }
+                if (this.buffer.remaining() < bytes.remaining()) {
+                    while (bytes.hasRemaining()) {
+                        this.flushed += this.channel.write(bytes);
+                    }
+                } else {
+                    this.buffer.put(bytes);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Write the buffered bytes to the channel and clear the buffer.
+         *
+         * @throws IOException if writing fails.
+         */
+        private void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.flushed += this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.example.app.bookmark.persistence;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.user.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Records of one kind and one owner, stored consecutively in a memory-mapped snapshot.
+ * The records stay encoded in the mapped file until they are iterated, so state that is not touched after
+ * a restart is never decoded. User registrations are stored as the username, salt and password hash,
+ * bookmarks of a user as the name, location and access flag. Strings are stored as length-prefixed UTF-8.
+ */
+public final class SnapshotSection {
+
+    /**
+     * Value of the access flag of private bookmarks.
+     */
+    private static final byte PRIVATE = 1;
+
+    /**
+     * Kind of the records, user registrations or added bookmarks.
+     */
+    private final LogRecord.Type type;
+
+    /**
+     * Name of the user owning the bookmarks, empty for user registrations.
+     */
+    private final String owner;
+
+    /**
+     * Number of records.
+     */
+    private final int size;
+
+    /**
+     * Encoded records, a read-only view of the mapped snapshot.
+     */
+    private final ByteBuffer records;
+
+    /**
+     * CRC32 checksum of the encoded records.
+     */
+    private final int checksum;
+
+    /**
+     * Constructor.
+     *
+     * @param type     kind of the records.
+     * @param owner    name of the user owning the bookmarks, empty for user registrations.
+     * @param size     number of records.
+     * @param records  encoded records.
+     * @param checksum CRC32 checksum of the encoded records.
+     */
+    SnapshotSection(final LogRecord.Type type, final String owner, final int size, final ByteBuffer records,
+                    final int checksum) {
+        this.type = type;
+        this.owner = owner;
+        this.size = size;
+        this.records = records.asReadOnlyBuffer();
+        this.checksum = checksum;
+    }
+
+    /**
+     * Getter for type.
+     *
+     * @return {@link LogRecord.Type#USER_REGISTERED} or {@link LogRecord.Type#BOOKMARK_ADDED}.
+     */
+    public LogRecord.Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Getter for owner.
+     *
+     * @return name of the user owning the bookmarks, empty for user registrations.
+     */
+    public String getOwner() {
+        return this.owner;
+    }
+
+    /**
+     * Number of records in the section.
+     *
+     * @return record count.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Decode all records of the section.
+     *
+     * @param consumer receiving the records.
+     * @throws UncheckedIOException if the section is damaged.
+     */
+    public void forEach(final Consumer<LogRecord> consumer) {
+        ByteBuffer input = this.records.duplicate();
+        CRC32 crc = new CRC32();
+        crc.update(input.duplicate());
+        if ((int) crc.getValue() != this.checksum) {
+            throw new UncheckedIOException(new IOException(SnapshotFile.DAMAGED + this.owner));
+        }
+        try {
+            for (int i = 0; i < this.size; i++) {
+                consumer.accept(this.read(input));
+            }
+        } catch (BufferUnderflowException | URISyntaxException e) {
+            throw new UncheckedIOException(new IOException(SnapshotFile.DAMAGED + this.owner, e));
+        }
+    }
+
+    /**
+     * Encoded size of the records.
+     *
+     * @return size in bytes.
+     */
+    int getLength() {
+        return this.records.remaining();
+    }
+
+    /**
+     * Getter for checksum.
+     *
+     * @return CRC32 checksum of the encoded records.
+     */
+    int getChecksum() {
+        return this.checksum;
+    }
+
+    /**
+     * Get the encoded records.
+     *
+     * @return read-only view of the encoded records.
+     */
+    ByteBuffer getRecords() {
+        return this.records.duplicate();
+    }
+
+    /**
+     * Encode a record as stored in a section.
+     *
+     * @param record user registration or added bookmark.
+     * @return encoded record.
+     * @throws IllegalArgumentException if the record type cannot be stored in a section.
+     */
+    static byte[] encode(final LogRecord record) {
+        byte[][] fields;
+        byte flag = 0;
+        switch (record.getType()) {
+            case USER_REGISTERED:
+                fields = new byte[][]{record.getUsername().getBytes(StandardCharsets.UTF_8),
+                        record.getUser().getSalt(), record.getUser().getPasswordHash()};
+                break;
+            case BOOKMARK_ADDED:
+                BookmarkLink bookmarkLink = record.getBookmark().getBookmarkLink();
+                fields = new byte[][]{bookmarkLink.getUriName().getBytes(StandardCharsets.UTF_8),
+                        bookmarkLink.getUri().toString().getBytes(StandardCharsets.UTF_8)};
+                flag = record.getBookmark().isPrivate() ? PRIVATE : 0;
+                break;
+            default:
+                throw new IllegalArgumentException(record.getType().name());
+        }
+        int length = record.getType() == LogRecord.Type.BOOKMARK_ADDED ? 1 : 0;
+        for (byte[] field : fields) {
+            length += Integer.BYTES + field.length;
+        }
+        ByteBuffer encoded = ByteBuffer.allocate(length);
+        for (byte[] field : fields) {
+            encoded.putInt(field.length);
+            encoded.put(field);
+        }
+        if (record.getType() == LogRecord.Type.BOOKMARK_ADDED) {
+            encoded.put(flag);
+        }
+        return encoded.array();
+    }
+
+    /**
+     * Decode the next record.
+     *
+     * @param input positioned at the record.
+     * @return decoded record.
+     * @throws URISyntaxException if a bookmark location is damaged.
+     */
+    private LogRecord read(final ByteBuffer input) throws URISyntaxException {
+        if (this.type == LogRecord.Type.USER_REGISTERED) {
+            String username = new String(readBytes(input), StandardCharsets.UTF_8);
+            return LogRecord.userRegistered(new User(username, readBytes(input), readBytes(input)));
+        }
+        String name = new String(readBytes(input), StandardCharsets.UTF_8);
+        String uri = new String(readBytes(input), StandardCharsets.UTF_8);
+        boolean isPrivate = input.get() == PRIVATE;
+        return LogRecord.bookmarkAdded(this.owner, new Bookmark(new BookmarkLink(new URI(uri), name), isPrivate));
+    }
+
+    /**
+     * Read a length-prefixed byte array.
+     *
+     * @param input positioned at the length.
+     * @return read bytes.
+     */
+    private static byte[] readBytes(final ByteBuffer input) {
+        int length = input.getInt();
+        if (length < 0 || length > input.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] value = new byte[length];
+        input.get(value);
+        return value;
+    }
+}
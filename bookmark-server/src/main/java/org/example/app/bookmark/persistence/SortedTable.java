@@ -0,0 +1,528 @@
+package org.example.app.bookmark.persistence;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.LongSupplier;
+
+/**
+ * Immutable file of key-value entries sorted by key, memory-mapped when it is opened.
+ * Entries are stored as the key length, the key, the value length and the value, a negative value length marks
+ * a deleted key. The entries are followed by a sparse index holding the first key and the offset of every block
+ * of entries, and a footer holding the index offset, the index size, the format version and a magic number.
+ * Only the sparse index is kept on the heap, a lookup searches the index and scans one block of the mapped file.
+ * Tables are written to a temporary file that is only renamed once it is complete and forced.
+ */
+final class SortedTable {
+
+    /**
+     * Prefix of the table file names.
+     */
+    static final String PREFIX = "table-";
+
+    /**
+     * Suffix of the table file names.
+     */
+    static final String SUFFIX = ".sst";
+
+    /**
+     * Suffix of tables that are being written.
+     */
+    static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * Message indicating that a table file is damaged.
+     */
+    static final String DAMAGED = "Table is damaged: ";
+
+    /**
+     * Magic number identifying table files.
+     */
+    private static final int MAGIC = 0x424D4B54;
+
+    /**
+     * Version of the table format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Size of the footer.
+     */
+    private static final int FOOTER_SIZE = 4 * Integer.BYTES;
+
+    /**
+     * Encoded value length marking a deleted key.
+     */
+    private static final int DELETED = -1;
+
+    /**
+     * Number of entry bytes covered by one index entry.
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    /**
+     * Size at which a new table is started when entries are written, so every table fits into one mapping.
+     */
+    private static final int MAXIMUM_TABLE_SIZE = 1 << 30;
+
+    /**
+     * Size of the buffer used to write tables.
+     */
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * Table file.
+     */
+    private final Path file;
+
+    /**
+     * Generation of the table, newer tables have higher generations.
+     */
+    private final long generation;
+
+    /**
+     * Mapped entries of the table.
+     */
+    private final ByteBuffer entries;
+
+    /**
+     * First key of every block.
+     */
+    private final byte[][] indexKeys;
+
+    /**
+     * Offset of every block.
+     */
+    private final int[] indexOffsets;
+
+    /**
+     * Constructor.
+     *
+     * @param file         table file.
+     * @param generation   of the table.
+     * @param entries      mapped entries.
+     * @param indexKeys    first key of every block.
+     * @param indexOffsets offset of every block.
+     */
+    private SortedTable(final Path file, final long generation, final ByteBuffer entries, final byte[][] indexKeys,
+                        final int[] indexOffsets) {
+        this.file = file;
+        this.generation = generation;
+        this.entries = entries;
+        this.indexKeys = indexKeys;
+        this.indexOffsets = indexOffsets;
+    }
+
+    /**
+     * Map a table and read its index.
+     *
+     * @param file to open.
+     * @return opened table.
+     * @throws IOException if the table cannot be read or is damaged.
+     */
+    static SortedTable open(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FOOTER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException(DAMAGED + file);
+            }
+            ByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapping.position((int) size - FOOTER_SIZE);
+            int indexOffset = mapping.getInt();
+            int indexCount = mapping.getInt();
+            int version = mapping.getInt();
+            if (mapping.getInt() != MAGIC || version != VERSION || indexOffset < 0
+                    || indexOffset > size - FOOTER_SIZE || indexCount < 0) {
+                throw new IOException(DAMAGED + file);
+            }
+
+            byte[][] indexKeys = new byte[indexCount][];
+            int[] indexOffsets = new int[indexCount];
+            mapping.position(indexOffset);
+            mapping.limit((int) size - FOOTER_SIZE);
+            try {
+                for (int i = 0; i < indexCount; i++) {
+                    indexKeys[i] = readBytes(mapping, mapping.getInt());
+                    indexOffsets[i] = mapping.getInt();
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException(DAMAGED + file, e);
+            }
+            mapping.position(0);
+            mapping.limit(indexOffset);
+            return new SortedTable(file, LogFile.sequenceOf(file, PREFIX, SUFFIX), mapping.slice(), indexKeys,
+                    indexOffsets);
+        }
+    }
+
+    /**
+     * Write entries to new tables, starting a new table when a table reaches the maximum size.
+     *
+     * @param directory   to write the tables to.
+     * @param generations supplying the generations of the new tables.
+     * @param entries     to write, in key order, values are {@link MemTable#TOMBSTONE} for deleted keys.
+     * @return written tables, ordered by key range.
+     * @throws IOException if a table cannot be written.
+     */
+    static List<SortedTable> write(final Path directory, final LongSupplier generations,
+                                   final Iterator<Map.Entry<byte[], byte[]>> entries) throws IOException {
+        List<SortedTable> tables = new ArrayList<>();
+        while (entries.hasNext()) {
+            Path file = directory.resolve(LogFile.fileName(PREFIX, generations.getAsLong(), SUFFIX));
+            Path temporaryFile = directory.resolve(file.getFileName() + TEMPORARY_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                Writer writer = new Writer(channel);
+                while (entries.hasNext() && writer.position < MAXIMUM_TABLE_SIZE) {
+                    Map.Entry<byte[], byte[]> entry = entries.next();
+                    writer.writeEntry(entry.getKey(), entry.getValue());
+                }
+                writer.finish();
+                channel.force(true);
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+            tables.add(open(file));
+        }
+        LogFile.forceDirectory(directory);
+        return tables;
+    }
+
+    /**
+     * Getter for file.
+     *
+     * @return table file.
+     */
+    Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * Getter for generation.
+     *
+     * @return generation of the table, newer tables have higher generations.
+     */
+    long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Get the size of the entries of the table.
+     *
+     * @return size in bytes, without the index.
+     */
+    int size() {
+        return this.entries.capacity();
+    }
+
+    /**
+     * Check if the table reached the maximum size, so its entries were split from the entries of a following table.
+     *
+     * @return true if the table is full, false otherwise.
+     */
+    boolean isFull() {
+        return this.entries.capacity() >= MAXIMUM_TABLE_SIZE;
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key to look up.
+     * @return stored value, {@link MemTable#TOMBSTONE} if the key is deleted, or null if the table does not know
+     *         the key.
+     */
+    byte[] get(final byte[] key) {
+        byte[] value = null;
+        int block = this.findBlock(key);
+        if (block >= 0) {
+            ByteBuffer input = this.entries.duplicate();
+            input.position(this.indexOffsets[block]);
+            if (block + 1 < this.indexOffsets.length) {
+                input.limit(this.indexOffsets[block + 1]);
+            }
+            int order = -1;
+            while (order < 0 && input.hasRemaining()) {
+                order = MemTable.KEY_ORDER.compare(readBytes(input, input.getInt()), key);
+                int valueLength = input.getInt();
+                if (order == 0) {
+                    value = valueLength == DELETED ? MemTable.TOMBSTONE : readBytes(input, valueLength);
+                } else {
+                    skip(input, valueLength);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Iterate the entries in key order, including deleted keys.
+     *
+     * @param from first key to iterate, or null to start from the first key.
+     * @return iterator returning {@link MemTable#TOMBSTONE} as the value of deleted keys.
+     */
+    Iterator<Map.Entry<byte[], byte[]>> iterator(final byte[] from) {
+        ByteBuffer input = this.entries.duplicate();
+        int block = from == null ? -1 : this.findBlock(from);
+        if (block > 0) {
+            input.position(this.indexOffsets[block]);
+        }
+        TableIterator iterator = new TableIterator(input);
+        if (from != null) {
+            iterator.skipBefore(from);
+        }
+        return iterator;
+    }
+
+    /**
+     * Find the block that may hold a key.
+     *
+     * @param key to find.
+     * @return index of the last block whose first key is not greater than the key, or -1 if the key precedes
+     *         all blocks.
+     */
+    private int findBlock(final byte[] key) {
+        int low = 0;
+        int high = this.indexKeys.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (MemTable.KEY_ORDER.compare(this.indexKeys[middle], key) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Read a byte array of the given length.
+     *
+     * @param input  positioned at the bytes.
+     * @param length number of bytes.
+     * @return read bytes.
+     */
+    private static byte[] readBytes(final ByteBuffer input, final int length) {
+        if (length < 0 || length > input.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] value = new byte[length];
+        input.get(value);
+        return value;
+    }
+
+    /**
+     * Skip a value.
+     *
+     * @param input  positioned at the value.
+     * @param length of the value, negative for deleted keys.
+     */
+    private static void skip(final ByteBuffer input, final int length) {
+        if (length > 0) {
+            input.position(input.position() + length);
+        }
+    }
+
+    /**
+     * Iterates the entries of a table from a position in the mapped entries.
+     */
+    private static final class TableIterator implements Iterator<Map.Entry<byte[], byte[]>> {
+
+        /**
+         * Mapped entries, positioned at the entry following the next entry.
+         */
+        private final ByteBuffer input;
+
+        /**
+         * Next entry, null if there are no more entries.
+         */
+        private Map.Entry<byte[], byte[]> next;
+
+        /**
+         * Constructor.
+         *
+         * @param input mapped entries, positioned at the first entry to iterate.
+         */
+        TableIterator(final ByteBuffer input) {
+            this.input = input;
+            this.advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public Map.Entry<byte[], byte[]> next() {
+            if (this.next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<byte[], byte[]> entry = this.next;
+            this.advance();
+            return entry;
+        }
+
+        /**
+         * Skip the entries whose keys precede the given key.
+         *
+         * @param key first key to return.
+         */
+        void skipBefore(final byte[] key) {
+            while (this.next != null && MemTable.KEY_ORDER.compare(this.next.getKey(), key) < 0) {
+                this.advance();
+            }
+        }
+
+        /**
+         * Read the next entry.
+         */
+        private void advance() {
+            if (!this.input.hasRemaining()) {
+                this.next = null;
+                return;
+            }
+            byte[] key = readBytes(this.input, this.input.getInt());
+            int valueLength = this.input.getInt();
+            byte[] value = valueLength == DELETED ? MemTable.TOMBSTONE : readBytes(this.input, valueLength);
+            this.next = new AbstractMap.SimpleImmutableEntry<>(key, value);
+        }
+    }
+
+    /**
+     * Writes the entries, the index and the footer of a table through a buffer.
+     */
+    private static final class Writer {
+
+        /**
+         * Channel of the table file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Bytes that were not written to the channel yet.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * First key of every block.
+         */
+        private final List<byte[]> indexKeys;
+
+        /**
+         * Offset of every block.
+         */
+        private final List<Integer> indexOffsets;
+
+        /**
+         * Number of bytes written to the table.
+         */
+        private int position;
+
+        /**
+         * Constructor.
+         *
+         * @param channel of the table file.
+         */
+        Writer(final FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            this.indexKeys = new ArrayList<>();
+            this.indexOffsets = new ArrayList<>();
+        }
+
+        /**
+         * Write an entry, starting a new block if the current block is full.
+         *
+         * @param key   of the entry.
+         * @param value of the entry, {@link MemTable#TOMBSTONE} for deleted keys.
+         * @throws IOException if writing fails.
+         */
+        void writeEntry(final byte[] key, final byte[] value) throws IOException {
+            if (this.indexOffsets.isEmpty()
+                    || this.position - this.indexOffsets.get(this.indexOffsets.size() - 1) >= BLOCK_SIZE) {
+                this.indexKeys.add(Arrays.copyOf(key, key.length));
+                this.indexOffsets.add(this.position);
+            }
+            this.putInt(key.length);
+            this.put(key);
+            this.putInt(value == MemTable.TOMBSTONE ? DELETED : value.length);
+            this.put(value);
+        }
+
+        /**
+         * Write the index and the footer and flush the buffer.
+         *
+         * @throws IOException if writing fails.
+         */
+        void finish() throws IOException {
+            int indexOffset = this.position;
+            for (int i = 0; i < this.indexKeys.size(); i++) {
+                this.putInt(this.indexKeys.get(i).length);
+                this.put(this.indexKeys.get(i));
+                this.putInt(this.indexOffsets.get(i));
+            }
+            this.putInt(indexOffset);
+            this.putInt(this.indexKeys.size());
+            this.putInt(VERSION);
+            this.putInt(MAGIC);
+            this.flush();
+        }
+
+        /**
+         * Write an int.
+         *
+         * @param value to write.
+         * @throws IOException if writing fails.
+         */
+        private void putInt(final int value) throws IOException {
+            if (this.buffer.remaining() < Integer.BYTES) {
+                this.flush();
+            }
+            this.buffer.putInt(value);
+            this.position += Integer.BYTES;
+        }
+
+        /**
+         * Write bytes.
+         *
+         * @param bytes to write.
+         * @throws IOException if writing fails.
+         */
+        private void put(final byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!this.buffer.hasRemaining()) {
+                    this.flush();
+                }
+                int length = Math.min(bytes.length - offset, this.buffer.remaining());
+                this.buffer.put(bytes, offset, length);
+                offset += length;
+            }
+            this.position += bytes.length;
+        }
+
+        /**
+         * Write the buffered bytes to the channel.
+         *
+         * @throws IOException if writing fails.
+         */
+        private void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+}
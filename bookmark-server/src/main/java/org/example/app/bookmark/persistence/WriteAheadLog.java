@@ -0,0 +1,466 @@
+package org.example.app.bookmark.persistence;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.app.bookmark.config.FsyncPolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Append-only log of state modifications with group commit.
+ * Request threads only copy their records into a shared buffer. A single writer thread writes everything
+ * that was buffered since its last write with one write call, and forces it according to the fsync policy,
+ * so concurrent modifications share the cost of a forced write.
+ * The log is split into segments, a new segment is started when the log is rolled before a snapshot,
+ * so segments that are covered by the snapshot can be deleted.
+ */
+public final class WriteAheadLog implements IJournal {
+
+    /**
+     * Prefix of the segment file names.
+     */
+    public static final String SEGMENT_PREFIX = "wal-";
+
+    /**
+     * Suffix of the segment file names.
+     */
+    public static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Message indicating that the log cannot accept records.
+     */
+    public static final String NOT_WRITABLE = "Write-ahead log is not writable";
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(WriteAheadLog.class.getSimpleName());
+
+    /**
+     * Initial size of the buffers holding records that were not written yet.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Number of buffered bytes at which appending waits for the writer thread.
+     */
+    private static final int MAXIMUM_BUFFERED_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * Directory holding the segments.
+     */
+    private final Path directory;
+
+    /**
+     * When written records are forced to the storage device.
+     */
+    private final FsyncPolicy fsyncPolicy;
+
+    /**
+     * Time between forced writes with the interval fsync policy (in ns).
+     */
+    private final long fsyncIntervalNanos;
+
+    /**
+     * Guards the buffered records and the sequence numbers.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * Signaled when records are buffered, the log is rolled or closed.
+     */
+    private final Condition recordsBuffered;
+
+    /**
+     * Signaled when the writer thread took the buffered records.
+     */
+    private final Condition bufferTaken;
+
+    /**
+     * Signaled when records became durable, a new segment was started or the log failed.
+     */
+    private final Condition recordsDurable;
+
+    /**
+     * Records that were appended but not taken by the writer thread yet.
+     */
+    private ByteBuffer buffered;
+
+    /**
+     * Sequence number of the last appended record.
+     */
+    private long lastSequence;
+
+    /**
+     * Sequence number of the last record that is durable according to the fsync policy.
+     */
+    private long durableSequence;
+
+    /**
+     * Number of times a new segment was requested.
+     */
+    private long rollsRequested;
+
+    /**
+     * Number of segment requests the writer thread completed.
+     */
+    private long rollsCompleted;
+
+    /**
+     * Flag indicating that the log does not accept records anymore.
+     */
+    private boolean closed;
+
+    /**
+     * Error that stopped the writer thread, null while the log works.
+     */
+    private IOException failure;
+
+    /**
+     * Segment the writer thread writes to.
+     */
+    private FileChannel segment;
+
+    /**
+     * Thread writing the buffered records.
+     */
+    private Thread writer;
+
+    /**
+     * Constructor. The log does not accept records until it is opened.
+     *
+     * @param directory         holding the segments.
+     * @param fsyncPolicy       when written records are forced to the storage device.
+     * @param fsyncInterval     time between forced writes with the interval fsync policy.
+     * @param fsyncIntervalUnit unit of the fsync interval.
+     */
+    public WriteAheadLog(final Path directory, final FsyncPolicy fsyncPolicy, final long fsyncInterval,
+                         final TimeUnit fsyncIntervalUnit) {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncIntervalUnit.toNanos(fsyncInterval);
+        this.lock = new ReentrantLock();
+        this.recordsBuffered = this.lock.newCondition();
+        this.bufferTaken = this.lock.newCondition();
+        this.recordsDurable = this.lock.newCondition();
+        this.buffered = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        this.closed = true;
+    }
+
+    /**
+     * Start a new segment and the writer thread.
+     *
+     * @param lastRecoveredSequence sequence number of the last record that was recovered.
+     * @throws IOException if the segment cannot be created.
+     */
+    public void open(final long lastRecoveredSequence) throws IOException {
+        this.segment = this.createSegment(lastRecoveredSequence + 1);
+        this.lock.lock();
+        try {
+            this.lastSequence = lastRecoveredSequence;
+            this.durableSequence = lastRecoveredSequence;
+            this.closed = false;
+        } finally {
+            this.lock.unlock();
+        }
+        this.writer = new Thread(this::writeRecords, "wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public long append(final LogRecord record) {
+        return this.append(record.toBytes());
+    }
+
+    /**
+     * Append a serialized record to the log. Used by stores that define their own records.
+     *
+     * @param payload serialized record.
+     * @return sequence number of the record.
+     * @throws IllegalStateException if the log is closed or failed.
+     */
+    long append(final byte[] payload) {
+        int checksum = LogFile.checksum(payload);
+        int frameSize = LogFile.FRAME_HEADER_SIZE + payload.length;
+
+        this.lock.lock();
+        try {
+            while (this.buffered.position() > MAXIMUM_BUFFERED_BYTES && !this.closed && this.failure == null) {
+                this.bufferTaken.awaitUninterruptibly();
+            }
+            if (this.closed || this.failure != null) {
+                throw new IllegalStateException(NOT_WRITABLE, this.failure);
+            }
+            if (this.buffered.remaining() < frameSize) {
+                this.buffered = grow(this.buffered, frameSize);
+            }
+            this.lastSequence++;
+            LogFile.writeFrame(this.buffered, this.lastSequence, payload, checksum);
+            this.recordsBuffered.signal();
+            return this.lastSequence;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(final long sequence) {
+        if (this.fsyncPolicy != FsyncPolicy.ALWAYS) {
+            return;
+        }
+        this.lock.lock();
+        try {
+            while (this.durableSequence < sequence && this.failure == null) {
+                this.recordsDurable.awaitUninterruptibly();
+            }
+            if (this.durableSequence < sequence) {
+                throw new IllegalStateException(NOT_WRITABLE, this.failure);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Get the sequence number of the last appended record.
+     *
+     * @return sequence number.
+     */
+    public long getLastSequence() {
+        this.lock.lock();
+        try {
+            return this.lastSequence;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Start a new segment for the records appended from now on and wait until it is created.
+     *
+     * @return sequence number of the last record appended before the new segment.
+     */
+    public long roll() {
+        this.lock.lock();
+        try {
+            long sequence = this.lastSequence;
+            long roll = ++this.rollsRequested;
+            this.recordsBuffered.signal();
+            while (this.rollsCompleted < roll && !this.closed && this.failure == null) {
+                this.recordsDurable.awaitUninterruptibly();
+            }
+            return sequence;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Read the serialized records appended after the given sequence number from all segments.
+     * Damaged or incomplete records at the end of a segment, left by a crash, are skipped.
+     *
+     * @param afterSequence sequence number of the last record that does not have to be read.
+     * @param consumer      receiving the serialized records and their sequence numbers.
+     * @return sequence number of the last record that was read, or the given sequence number if none was read.
+     * @throws IOException if a segment cannot be read.
+     */
+    long replay(final long afterSequence, final ObjLongConsumer<byte[]> consumer) throws IOException {
+        long[] lastSequence = {afterSequence};
+        for (Path file : LogFile.list(this.directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            long validLength = LogFile.readPayloads(file, (sequence, payload) -> {
+                if (sequence > afterSequence) {
+                    consumer.accept(payload, sequence);
+                    lastSequence[0] = Math.max(lastSequence[0], sequence);
+                }
+                return true;
+            });
+            if (validLength < Files.size(file)) {
+                LOGGER.warn("Ignoring incomplete records at the end of log segment {}", file);
+            }
+        }
+        return lastSequence[0];
+    }
+
+    /**
+     * Delete the segments that only hold records up to the given sequence number,
+     * after their records were stored elsewhere.
+     *
+     * @param sequence number of the last record that is not needed anymore.
+     * @throws IOException if a segment cannot be deleted.
+     */
+    void truncate(final long sequence) throws IOException {
+        List<Path> segments = LogFile.list(this.directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            long nextSegmentStart = LogFile.sequenceOf(segments.get(i + 1), SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            if (nextSegmentStart <= sequence + 1) {
+                Files.delete(segments.get(i));
+            }
+        }
+    }
+
+    /**
+     * Write and force all appended records and stop the writer thread.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer thread.
+     */
+    public void close() throws InterruptedException {
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.recordsBuffered.signal();
+            this.bufferTaken.signalAll();
+            this.recordsDurable.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        this.writer.join();
+    }
+
+    /**
+     * Main loop of the writer thread.
+     */
+    private void writeRecords() {
+        long lastForced = System.nanoTime();
+        boolean unforced = false;
+        ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        while (true) {
+            ByteBuffer batch;
+            long batchSequence;
+            long rolls;
+            boolean roll;
+            boolean last;
+            this.lock.lock();
+            try {
+                while (this.buffered.position() == 0 && this.rollsRequested == this.rollsCompleted && !this.closed) {
+                    if (unforced && this.fsyncPolicy == FsyncPolicy.INTERVAL) {
+                        long remaining = this.fsyncIntervalNanos - (System.nanoTime() - lastForced);
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        if (this.recordsBuffered.awaitNanos(remaining) <= 0) {
+                            break;
+                        }
+                    } else {
+                        this.recordsBuffered.await();
+                    }
+                }
+                batch = this.buffered;
+                this.buffered = spare;
+                batchSequence = this.lastSequence;
+                rolls = this.rollsRequested;
+                roll = rolls > this.rollsCompleted;
+                last = this.closed;
+                this.bufferTaken.signalAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.fail(new IOException("Writer thread interrupted", e));
+                return;
+            } finally {
+                this.lock.unlock();
+            }
+
+            try {
+                batch.flip();
+                unforced |= batch.hasRemaining();
+                while (batch.hasRemaining()) {
+                    this.segment.write(batch);
+                }
+                batch.clear();
+                spare = batch;
+
+                boolean force = this.fsyncPolicy == FsyncPolicy.ALWAYS || roll || last
+                        || this.fsyncPolicy == FsyncPolicy.INTERVAL
+                        && System.nanoTime() - lastForced >= this.fsyncIntervalNanos;
+                if (force && unforced) {
+                    if (this.fsyncPolicy != FsyncPolicy.NEVER) {
+                        this.segment.force(false);
+                    }
+                    lastForced = System.nanoTime();
+                    unforced = false;
+                }
+                if (roll || last) {
+                    this.segment.close();
+                }
+                if (roll && !last) {
+                    this.segment = this.createSegment(batchSequence + 1);
+                }
+            } catch (IOException e) {
+                this.fail(e);
+                return;
+            }
+
+            this.lock.lock();
+            try {
+                this.durableSequence = batchSequence;
+                this.rollsCompleted = rolls;
+                this.recordsDurable.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+            if (last) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stop accepting records after the writer thread failed.
+     *
+     * @param error that stopped the writer thread.
+     */
+    private void fail(final IOException error) {
+        LOGGER.error("Write-ahead log failed, modifications are not stored anymore", error);
+        this.lock.lock();
+        try {
+            this.failure = error;
+            this.recordsDurable.signalAll();
+            this.bufferTaken.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Create a segment file.
+     *
+     * @param firstSequence sequence number of the first record in the segment.
+     * @return channel appending to the segment.
+     * @throws IOException if the segment cannot be created.
+     */
+    private FileChannel createSegment(final long firstSequence) throws IOException {
+        Path file = this.directory.resolve(LogFile.fileName(SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        LOGGER.debug("Starting log segment {}", file);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        LogFile.forceDirectory(this.directory);
+        return channel;
+    }
+
+    /**
+     * Copy the buffer into a larger buffer.
+     *
+     * @param buffer   to copy, in write mode.
+     * @param required number of bytes that have to fit in the new buffer.
+     * @return new buffer, in write mode.
+     */
+    private static ByteBuffer grow(final ByteBuffer buffer, final int required) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + required));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.app.bookmark.persistence;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modifications of a key-value store that are recorded and applied together.
+ * Later modifications of a key override earlier modifications of the same key.
+ */
+public final class WriteBatch {
+
+    /**
+     * Encoded value length marking a deleted key.
+     */
+    private static final int DELETED = -1;
+
+    /**
+     * Modified keys.
+     */
+    private final List<byte[]> keys;
+
+    /**
+     * New values of the modified keys, {@link MemTable#TOMBSTONE} for deleted keys.
+     */
+    private final List<byte[]> values;
+
+    /**
+     * Constructor.
+     */
+    public WriteBatch() {
+        this.keys = new ArrayList<>();
+        this.values = new ArrayList<>();
+    }
+
+    /**
+     * Store a value.
+     *
+     * @param key   to store, must not be modified afterwards.
+     * @param value to store, must not be modified afterwards.
+     * @return this batch.
+     */
+    public WriteBatch put(final byte[] key, final byte[] value) {
+        this.keys.add(key);
+        this.values.add(value);
+        return this;
+    }
+
+    /**
+     * Delete a key.
+     *
+     * @param key to delete, must not be modified afterwards.
+     * @return this batch.
+     */
+    public WriteBatch delete(final byte[] key) {
+        this.keys.add(key);
+        this.values.add(MemTable.TOMBSTONE);
+        return this;
+    }
+
+    /**
+     * Check if the batch has modifications.
+     *
+     * @return true if nothing is modified, false otherwise.
+     */
+    public boolean isEmpty() {
+        return this.keys.isEmpty();
+    }
+
+    /**
+     * Apply the modifications to a table.
+     *
+     * @param memTable to modify.
+     */
+    void applyTo(final MemTable memTable) {
+        for (int i = 0; i < this.keys.size(); i++) {
+            memTable.put(this.keys.get(i), this.values.get(i));
+        }
+    }
+
+    /**
+     * Serialize the batch as a log record.
+     *
+     * @return serialized batch.
+     */
+    byte[] toBytes() {
+        int length = Integer.BYTES;
+        for (int i = 0; i < this.keys.size(); i++) {
+            length += Integer.BYTES + this.keys.get(i).length + Integer.BYTES + this.values.get(i).length;
+        }
+        ByteBuffer output = ByteBuffer.allocate(length);
+        output.putInt(this.keys.size());
+        for (int i = 0; i < this.keys.size(); i++) {
+            byte[] value = this.values.get(i);
+            output.putInt(this.keys.get(i).length);
+            output.put(this.keys.get(i));
+            output.putInt(value == MemTable.TOMBSTONE ? DELETED : value.length);
+            output.put(value);
+        }
+        return output.array();
+    }
+
+    /**
+     * Deserialize a batch from a log record.
+     *
+     * @param payload serialized batch.
+     * @return deserialized batch.
+     * @throws BufferUnderflowException if the record is damaged.
+     */
+    static WriteBatch fromBytes(final byte[] payload) {
+        ByteBuffer input = ByteBuffer.wrap(payload);
+        WriteBatch batch = new WriteBatch();
+        int count = input.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] key = readBytes(input, input.getInt());
+            int valueLength = input.getInt();
+            if (valueLength == DELETED) {
+                batch.delete(key);
+            } else {
+                batch.put(key, readBytes(input, valueLength));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Read a byte array of the given length.
+     *
+     * @param input  positioned at the bytes.
+     * @param length number of bytes.
+     * @return read bytes.
+     */
+    private static byte[] readBytes(final ByteBuffer input, final int length) {
+        if (length < 0 || length > input.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] value = new byte[length];
+        input.get(value);
+        return value;
+    }
+}
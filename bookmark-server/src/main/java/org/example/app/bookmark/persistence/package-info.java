@@ -0,0 +1,4 @@
+/**
+ * Write-ahead log and snapshots that keep the application state across restarts.
+ */
+package org.example.app.bookmark.persistence;
@@ -1,11 +1,19 @@
 package org.example.app.bookmark.rest;
 
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.example.app.bookmark_api.model.Bookmark;
+import org.example.app.bookmark_api.model.BookmarkBatchResult;
+import org.example.app.bookmark_api.model.BookmarkBatchStatus;
 import org.example.app.bookmark_api.model.BookmarkLink;
 import org.example.app.bookmark_api.model.Message;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.app.bookmark.metrics.MetricsRegistry;
+import org.example.app.bookmark.bookmarkmanager.BookmarkManager;
+import org.example.app.bookmark.bookmarkmanager.BookmarkPage;
 import org.example.app.bookmark.bookmarkmanager.BookmarkStatus;
 import org.example.app.bookmark.bookmarkmanager.IBookmarkManager;
 
@@ -18,14 +26,24 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Implements methods used to manage Bookmark objects.
+ * Requests are handled on the business threads of the {@link RequestExecutor}.
  */
 @Path("/")
 public class BookmarkHandler {
@@ -35,6 +53,36 @@ public class BookmarkHandler {
      */
     public static final String DEFAULT_MESSAGE = "An issue occurred";
 
+    /**
+     * Response header containing the cursor pointing to the next page of a paged collection.
+     */
+    public static final String NEXT_CURSOR_HEADER = "Next-Cursor";
+
+    /**
+     * Media type of newline delimited JSON, holding one JSON value per line.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Prefix of a weak entity tag.
+     */
+    private static final String WEAK_TAG_PREFIX = "W/";
+
+    /**
+     * Content coding of gzip compressed responses.
+     */
+    private static final String GZIP_ENCODING = "gzip";
+
+    /**
+     * Suffix of the entity tag of a gzip compressed response, the same suffix is used by the gzip handler of Jetty.
+     */
+    private static final String GZIP_TAG_SUFFIX = "--gzip";
+
+    /**
+     * Reader for bookmarks given as newline delimited JSON.
+     */
+    private static final ObjectReader BOOKMARK_READER = new ObjectMapper().readerFor(Bookmark.class);
+
     /**
      * Logger for the class.
      */
@@ -46,37 +94,115 @@ public class BookmarkHandler {
     private final IBookmarkManager bookmarkManager;
 
     /**
-     * Constructor.
+     * Used for recording the statuses of bookmark operations.
+     */
+    private final MetricsRegistry metricsRegistry;
+
+    /**
+     * Used for serving the public bookmarks as ready-encoded bytes.
+     */
+    private final PublicBookmarkCache publicBookmarkCache;
+
+    /**
+     * Used for handling requests on business threads.
+     */
+    private final RequestExecutor requestExecutor;
+
+    /**
+     * Constructor, with a public bookmark cache of its own and the shared request executor.
      *
      * @param bookmarkManager used for managing bookmark objects.
      */
-    @Inject
     public BookmarkHandler(final IBookmarkManager bookmarkManager) {
+        this(bookmarkManager, new PublicBookmarkCache(), RequestExecutor.getInstance());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param bookmarkManager     used for managing bookmark objects.
+     * @param publicBookmarkCache used for serving the public bookmarks as ready-encoded bytes.
+     * @param requestExecutor     used for handling requests on business threads.
+     */
+    @Inject
+    public BookmarkHandler(final IBookmarkManager bookmarkManager, final PublicBookmarkCache publicBookmarkCache,
+                           final RequestExecutor requestExecutor) {
         this.bookmarkManager = bookmarkManager;
+        this.metricsRegistry = MetricsRegistry.getInstance();
+        this.publicBookmarkCache = publicBookmarkCache;
+        this.requestExecutor = requestExecutor;
     }
 
     /**
      * Get all bookmarks for associated user.
+     * If a limit or a cursor is provided, only a single page of bookmarks is returned,
+     * and the cursor for the next page is returned in the Next-Cursor header.
      *
      * @param authString to authorize the user.
-     * @return  OK and list of associated bookmarks if operation is successful.
-     *          NO_CONTENT if no bookmarks are associated with the user.
-     *          UNAUTHORIZED if authorization failed.
-     *          INTERNAL SERVER ERROR in case of an error.
+     * @param limit maximum number of bookmarks to return, optional.
+     * @param cursor pointing to the page of bookmarks to return, optional.
+     * @param ifNoneMatch entity tags of the bookmarks the client already has, optional.
+     * @param asyncResponse resumed with OK and list of associated bookmarks if operation is successful.
+     *     NOT_MODIFIED if the bookmarks did not change since one of the given entity tags was returned.
+     *     BAD_REQUEST if the limit or the cursor is not valid.
+     *     UNAUTHORIZED if authorization failed.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL SERVER ERROR in case of an error.
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/bookmark")
-    public Response getBookmark(@HeaderParam("authorization") String authString) {
+    public void getBookmark(
+            @HeaderParam("authorization") String authString,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("cursor") String cursor,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @Suspended AsyncResponse asyncResponse) {
+        this.requestExecutor.submit(asyncResponse,
+                () -> this.getTaggedBookmarks(authString, limit, cursor, ifNoneMatch));
+    }
+
+    /**
+     * Get all bookmarks, or a single page of bookmarks, for associated user, on a business thread.
+     *
+     * @param authString to authorize the user.
+     * @param limit maximum number of bookmarks to return, null if not provided.
+     * @param cursor pointing to the page of bookmarks to return, null if not provided.
+     * @param ifNoneMatch entity tags of the bookmarks the client already has, null if not provided.
+     * @return response containing the bookmarks and their entity tag.
+     */
+    private Response getTaggedBookmarks(final String authString, final Integer limit, final String cursor,
+                                        final String ifNoneMatch) {
+        Map.Entry<BookmarkStatus, String> tag = this.bookmarkManager.getBookmarkTag(authString);
+        if (matchesTag(ifNoneMatch, tag)) {
+            LOGGER.info("Bookmarks not modified");
+            return this.createNotModifiedResponse(tag.getValue(), HttpHeaders.AUTHORIZATION);
+        }
+
+        Response response = limit != null || cursor != null
+                ? this.getBookmarkPage(authString, limit == null ? BookmarkPage.DEFAULT_LIMIT : limit, cursor)
+                : this.getBookmarkList(authString);
+        return addTag(response, tag, HttpHeaders.AUTHORIZATION);
+    }
 
+    /**
+     * Get all bookmarks for associated user.
+     *
+     * @param authString to authorize the user.
+     * @return response containing all bookmarks of the user.
+     */
+    private Response getBookmarkList(final String authString) {
         Response response;
-        Map.Entry<BookmarkStatus, List<Bookmark>> getStatus = this.bookmarkManager.getBookmarks(authString);
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> getStatus =
+                this.bookmarkManager.getBookmarkView(authString);
         LOGGER.info("Getting bookmarks");
 
+        this.metricsRegistry.recordBookmarkStatus(getStatus.getKey());
         Message message = new Message();
         switch (getStatus.getKey()) {
             case OK:
-                response = Response.status(Response.Status.OK).entity(getStatus.getValue()).build();
+                response = Response.status(Response.Status.OK)
+                        .entity(new BookmarkStreamingOutput(getStatus.getValue())).build();
                 break;
             case UNAUTHORIZED:
                 message.setMessage("Authorization information is not correct");
@@ -96,22 +222,37 @@ public class BookmarkHandler {
      *
      * @param bookmark to add.
      * @param authString to authorize the user.
-     * @return  CREATED if operation is successful.
-     *          BAD_REQUEST if a bookmarks with the same name already exists for the user,
-     *              or information provided is not valid.
-     *          UNAUTHORIZED if authorization failed.
-     *          INTERNAL SERVER ERROR in case of an error.
+     * @param asyncResponse resumed with CREATED if operation is successful.
+     *     BAD_REQUEST if a bookmarks with the same name already exists for the user,
+     *     or information provided is not valid.
+     *     UNAUTHORIZED if authorization failed.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL SERVER ERROR in case of an error.
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/bookmark")
-    public Response addBookmark(Bookmark bookmark, @HeaderParam("authorization") String authString) {
+    public void addBookmark(
+            Bookmark bookmark,
+            @HeaderParam("authorization") String authString,
+            @Suspended AsyncResponse asyncResponse) {
+        this.requestExecutor.submitModification(asyncResponse, () -> this.addSingleBookmark(bookmark, authString));
+    }
 
+    /**
+     * Add bookmark to user bookmark collection, on a business thread.
+     *
+     * @param bookmark to add.
+     * @param authString to authorize the user.
+     * @return response holding the result of the operation.
+     */
+    private Response addSingleBookmark(final Bookmark bookmark, final String authString) {
         Response response;
         BookmarkStatus addStatus = this.bookmarkManager.addBookmark(bookmark, authString);
         LOGGER.info("Adding bookmark: " + bookmark.getBookmarkLink().getName());
 
+        this.metricsRegistry.recordBookmarkStatus(addStatus);
         Message message = new Message();
         switch (addStatus) {
             case CREATED:
@@ -139,36 +280,150 @@ public class BookmarkHandler {
         return response;
     }
 
+    /**
+     * Add several bookmarks, given as a JSON array, to user bookmark collection.
+     *
+     * @param bookmarks to add, in order.
+     * @param authString to authorize the user.
+     * @param asyncResponse resumed with OK and the result of each bookmark if operation is successful.
+     *     BAD_REQUEST if no bookmarks or too many bookmarks are provided.
+     *     UNAUTHORIZED if authorization failed.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL SERVER ERROR in case of an error.
+     */
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/bookmark/batch")
+    public void addBookmarks(
+            List<Bookmark> bookmarks, @HeaderParam("authorization") String authString,
+            @Suspended AsyncResponse asyncResponse) {
+        this.requestExecutor.submitModification(asyncResponse, () -> this.addBookmarkBatch(bookmarks, authString));
+    }
+
+    /**
+     * Add several bookmarks, given as newline delimited JSON, to user bookmark collection.
+     *
+     * @param input holding one bookmark per line.
+     * @param authString to authorize the user.
+     * @param asyncResponse resumed with OK and the result of each bookmark if operation is successful.
+     *     BAD_REQUEST if the input cannot be read or too many bookmarks are provided.
+     *     UNAUTHORIZED if authorization failed.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL SERVER ERROR in case of an error.
+     */
+    @POST
+    @Consumes(APPLICATION_NDJSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/bookmark/batch")
+    public void addBookmarkStream(
+            InputStream input, @HeaderParam("authorization") String authString,
+            @Suspended AsyncResponse asyncResponse) {
+        List<Bookmark> bookmarks = readBookmarks(input);
+        this.requestExecutor.submitModification(asyncResponse, () -> this.addBookmarkBatch(bookmarks, authString));
+    }
+
+    /**
+     * Export all bookmarks for associated user as newline delimited JSON, one bookmark per line.
+     *
+     * @param authString to authorize the user.
+     * @param asyncResponse resumed with OK and the bookmarks if operation is successful.
+     *     UNAUTHORIZED if authorization failed.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL SERVER ERROR in case of an error.
+     */
+    @GET
+    @Produces(APPLICATION_NDJSON)
+    @Path("/bookmark/export")
+    public void exportBookmarks(
+            @HeaderParam("authorization") String authString, @Suspended AsyncResponse asyncResponse) {
+        this.requestExecutor.submit(asyncResponse, () -> this.exportBookmarkView(authString));
+    }
+
+    /**
+     * Export all bookmarks for associated user, on a business thread.
+     *
+     * @param authString to authorize the user.
+     * @return response streaming the bookmarks as newline delimited JSON.
+     */
+    private Response exportBookmarkView(final String authString) {
+        Response response;
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> getStatus =
+                this.bookmarkManager.getBookmarkView(authString);
+        LOGGER.info("Exporting bookmarks");
+
+        this.metricsRegistry.recordBookmarkStatus(getStatus.getKey());
+        Message message = new Message();
+        switch (getStatus.getKey()) {
+            case OK:
+                response = Response.status(Response.Status.OK).type(APPLICATION_NDJSON)
+                        .entity(new BookmarkStreamingOutput(getStatus.getValue(), true)).build();
+                break;
+            case UNAUTHORIZED:
+                message.setMessage("Authorization information is not correct");
+                response = Response.status(Response.Status.UNAUTHORIZED).type(MediaType.APPLICATION_JSON)
+                        .entity(message).build();
+                break;
+            default:
+                message.setMessage(DEFAULT_MESSAGE);
+                response = Response.status(Response.Status.INTERNAL_SERVER_ERROR).type(MediaType.APPLICATION_JSON)
+                        .entity(message).build();
+                break;
+        }
+
+        return response;
+    }
+
     /**
      * Update existing bookmark with new information.
      *
      * @param bookmark info with which to update the existing bookmark.
      * @param bookmarkName of the bookmark that will be updated.
      * @param authString to authorize the user.
-     * @return OK if operation is successful.
-     *         BAD_REQUEST if information provided is not valid.
-     *         UNAUTHORIZED if authorization failed.
-     *         INTERNAL SERVER ERROR in case of an error.
+     * @param asyncResponse resumed with OK if operation is successful.
+     *     BAD_REQUEST if information provided is not valid, or another bookmark has the new name.
+     *     UNAUTHORIZED if authorization failed.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL SERVER ERROR in case of an error.
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/bookmark/{bookmarkName}")
-    public Response updateBookmark(
+    public void updateBookmark(
             Bookmark bookmark,
             @PathParam("bookmarkName") String bookmarkName,
-            @HeaderParam("authorization") String authString) {
+            @HeaderParam("authorization") String authString,
+            @Suspended AsyncResponse asyncResponse) {
+        this.requestExecutor.submitModification(asyncResponse,
+                () -> this.updateExistingBookmark(bookmark, bookmarkName, authString));
+    }
 
+    /**
+     * Update existing bookmark with new information, on a business thread.
+     *
+     * @param bookmark info with which to update the existing bookmark.
+     * @param bookmarkName of the bookmark that will be updated.
+     * @param authString to authorize the user.
+     * @return response holding the result of the operation.
+     */
+    private Response updateExistingBookmark(final Bookmark bookmark, final String bookmarkName,
+                                            final String authString) {
         Response response;
         BookmarkStatus updateStatus = this.bookmarkManager.updateBookmark(bookmarkName, bookmark, authString);
         LOGGER.info("Updating bookmark: " + bookmarkName);
 
+        this.metricsRegistry.recordBookmarkStatus(updateStatus);
         Message message = new Message();
         switch (updateStatus) {
             case UPDATED:
                 message.setMessage("Successfully updated bookmark: " + bookmarkName);
                 response = Response.status(Response.Status.OK).entity(message).build();
                 break;
+            case BOOKMARK_EXISTS:
+                message.setMessage("Bookmark already exists: " + bookmark.getBookmarkLink().getName());
+                response = Response.status(Response.Status.BAD_REQUEST).entity(message).build();
+                break;
             case INVALID_DATA:
                 message.setMessage("Not enough information provided to update the bookmark.");
                 response = Response.status(Response.Status.BAD_REQUEST).entity(message).build();
@@ -192,21 +447,35 @@ public class BookmarkHandler {
      *
      * @param bookmarkName of the bookmark to delete.
      * @param authString to authorize the user.
-     * @return OK if operation is successful.
-     *         NOT_FOUND if information provided is not valid.
-     *         UNAUTHORIZED if authorization failed.
-     *         INTERNAL SERVER ERROR in case of an error.
+     * @param asyncResponse resumed with OK if operation is successful.
+     *     NOT_FOUND if information provided is not valid.
+     *     UNAUTHORIZED if authorization failed.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL SERVER ERROR in case of an error.
      */
     @DELETE
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/bookmark/{bookmarkName}")
-    public Response deleteBookmark(
-            @PathParam("bookmarkName") String bookmarkName, @HeaderParam("authorization") String authString) {
+    public void deleteBookmark(
+            @PathParam("bookmarkName") String bookmarkName, @HeaderParam("authorization") String authString,
+            @Suspended AsyncResponse asyncResponse) {
+        this.requestExecutor.submitModification(asyncResponse,
+                () -> this.deleteExistingBookmark(bookmarkName, authString));
+    }
 
+    /**
+     * Delete existing bookmark, on a business thread.
+     *
+     * @param bookmarkName of the bookmark to delete.
+     * @param authString to authorize the user.
+     * @return response holding the result of the operation.
+     */
+    private Response deleteExistingBookmark(final String bookmarkName, final String authString) {
         Response response;
         BookmarkStatus deleteStatus = this.bookmarkManager.deleteBookmark(bookmarkName, authString);
         LOGGER.info("Deleting bookmark: " + bookmarkName);
 
+        this.metricsRegistry.recordBookmarkStatus(deleteStatus);
         Message message = new Message();
         switch (deleteStatus) {
             case DELETED:
@@ -232,26 +501,341 @@ public class BookmarkHandler {
 
     /**
      * Get all public bookmarks available, from every user.
+     * If a limit or a cursor is provided, only a single page of bookmarks is returned,
+     * and the cursor for the next page is returned in the Next-Cursor header.
+     * All public bookmarks are served from bytes encoded once per version, gzip compressed if the client accepts it.
      *
      * @param authString to authorize the user.
-     * @return OK and a list of all public bookmarks if operation is successful.
-     *        UNAUTHORIZED if authorization failed.
-     *        INTERNAL SERVER ERROR in case of an error.
+     * @param limit maximum number of bookmarks to return, optional.
+     * @param cursor pointing to the page of bookmarks to return, optional.
+     * @param ifNoneMatch entity tags of the public bookmarks the client already has, optional.
+     * @param acceptEncoding content codings accepted by the client, optional.
+     * @param asyncResponse resumed with OK and a list of all public bookmarks if operation is successful.
+     *     NOT_MODIFIED if the public bookmarks did not change since one of the given entity tags was returned.
+     *     BAD_REQUEST if the limit or the cursor is not valid.
+     *     UNAUTHORIZED if authorization failed.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL SERVER ERROR in case of an error.
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/bookmark/public")
-    public Response getPublicBookmarks(@HeaderParam("authorization") String authString) {
+    public void getPublicBookmarks(
+            @HeaderParam("authorization") String authString,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("cursor") String cursor,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding,
+            @Suspended AsyncResponse asyncResponse) {
+        this.requestExecutor.submit(asyncResponse,
+                () -> this.getTaggedPublicBookmarks(authString, limit, cursor, ifNoneMatch, acceptEncoding));
+    }
+
+    /**
+     * Get all public bookmarks, or a single page of public bookmarks, on a business thread.
+     *
+     * @param authString to authorize the user.
+     * @param limit maximum number of bookmarks to return, null if not provided.
+     * @param cursor pointing to the page of bookmarks to return, null if not provided.
+     * @param ifNoneMatch entity tags of the public bookmarks the client already has, null if not provided.
+     * @param acceptEncoding content codings accepted by the client, null if not provided.
+     * @return response containing the public bookmarks and their entity tag.
+     */
+    private Response getTaggedPublicBookmarks(final String authString, final Integer limit, final String cursor,
+                                              final String ifNoneMatch, final String acceptEncoding) {
+        Map.Entry<BookmarkStatus, String> tag = this.bookmarkManager.getPublicBookmarkTag(authString);
+        boolean paged = limit != null || cursor != null;
+        if (matchesTag(ifNoneMatch, tag)) {
+            LOGGER.info("Public bookmarks not modified");
+            if (paged) {
+                return this.createNotModifiedResponse(tag.getValue(), null);
+            }
+            return this.createNotModifiedResponse(acceptsGzip(acceptEncoding)
+                    ? tag.getValue() + GZIP_TAG_SUFFIX : tag.getValue(), HttpHeaders.ACCEPT_ENCODING);
+        }
 
+        if (paged) {
+            return addTag(this.getPublicBookmarkPage(authString,
+                    limit == null ? BookmarkPage.DEFAULT_LIMIT : limit, cursor), tag, null);
+        }
+        return this.getPublicBookmarkList(authString, tag, acceptEncoding);
+    }
+
+    /**
+     * Get all public bookmarks available, from every user.
+     *
+     * @param authString     to authorize the user.
+     * @param tag            status of the authorization and the entity tag of the public bookmarks.
+     * @param acceptEncoding content codings accepted by the client, or null if none were sent.
+     * @return response containing all public bookmarks.
+     */
+    private Response getPublicBookmarkList(final String authString, final Map.Entry<BookmarkStatus, String> tag,
+                                           final String acceptEncoding) {
         Response response;
-        Map.Entry<BookmarkStatus, Set<BookmarkLink>> publicBookmarks =
-                this.bookmarkManager.getPublicBookmarks(authString);
+        Map.Entry<BookmarkStatus, PublicBookmarkCache.EncodedBookmarks> publicBookmarks =
+                tag.getKey() == BookmarkStatus.OK
+                        ? this.publicBookmarkCache.getPublicBookmarks(tag.getValue(),
+                                () -> this.bookmarkManager.getPublicBookmarks(authString))
+                        : new AbstractMap.SimpleEntry<>(tag.getKey(), null);
         LOGGER.info("Getting public bookmarks.");
 
+        this.metricsRegistry.recordBookmarkStatus(publicBookmarks.getKey());
         Message message = new Message();
         switch (publicBookmarks.getKey()) {
             case OK:
-                response = Response.status(Response.Status.OK).entity(publicBookmarks.getValue()).build();
+                response = createEncodedResponse(publicBookmarks.getValue(), acceptEncoding);
+                break;
+            case UNAUTHORIZED:
+                message.setMessage("Authorization information is not correct");
+                response = Response.status(Response.Status.UNAUTHORIZED).entity(message).build();
+                break;
+            default:
+                message.setMessage(DEFAULT_MESSAGE);
+                response = Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(message).build();
+                break;
+        }
+
+        return response;
+    }
+
+    /**
+     * Create the response holding encoded bookmarks, gzip compressed if the client accepts it.
+     * The compressed response has its own entity tag, as it is a different representation of the bookmarks.
+     *
+     * @param encodedBookmarks to return.
+     * @param acceptEncoding   content codings accepted by the client, or null if none were sent.
+     * @return OK response containing the bookmarks.
+     */
+    private static Response createEncodedResponse(final PublicBookmarkCache.EncodedBookmarks encodedBookmarks,
+                                                  final String acceptEncoding) {
+        Response.ResponseBuilder builder = Response.ok().type(MediaType.APPLICATION_JSON_TYPE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return builder.entity(encodedBookmarks.getGzip()).encoding(GZIP_ENCODING)
+                    .tag(new EntityTag(encodedBookmarks.getTag() + GZIP_TAG_SUFFIX)).build();
+        }
+        return builder.entity(encodedBookmarks.getJson()).tag(new EntityTag(encodedBookmarks.getTag())).build();
+    }
+
+    /**
+     * Check if the client accepts gzip compressed responses.
+     * An explicit gzip coding takes priority over the * coding, whatever their order.
+     *
+     * @param acceptEncoding content codings accepted by the client, or null if none were sent.
+     * @return true if gzip, or any coding if gzip is not listed, is accepted with a quality above zero.
+     */
+    static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQuality = -1;
+        double anyQuality = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if (GZIP_ENCODING.equalsIgnoreCase(name)) {
+                gzipQuality = Math.max(gzipQuality, getQuality(parameters));
+            } else if ("*".equals(name)) {
+                anyQuality = Math.max(anyQuality, getQuality(parameters));
+            }
+        }
+        return (gzipQuality >= 0 ? gzipQuality : anyQuality) > 0;
+    }
+
+    /**
+     * Get the quality of a content coding.
+     *
+     * @param parameters of the content coding, following its name.
+     * @return quality of the coding, 1 if none is given, 0 if it is not a number.
+     */
+    private static double getQuality(final String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            int separator = parameters[i].indexOf('=');
+            if (separator > 0 && "q".equalsIgnoreCase(parameters[i].substring(0, separator).trim())) {
+                try {
+                    return Double.parseDouble(parameters[i].substring(separator + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Create the response telling the client that its copy is up to date, without reading the bookmarks.
+     *
+     * @param tag  current entity tag of the bookmarks.
+     * @param vary request header the response varies on, the same as for the OK response, null if none.
+     * @return NOT_MODIFIED response.
+     */
+    private Response createNotModifiedResponse(final String tag, final String vary) {
+        this.metricsRegistry.recordBookmarkStatus(BookmarkStatus.OK);
+        return Response.notModified(new EntityTag(tag)).header(HttpHeaders.VARY, vary).build();
+    }
+
+    /**
+     * Check if the client already has the current version of the bookmarks.
+     * Uses the weak comparison required for If-None-Match, so weak tags of the client match as well,
+     * and so do the tags of gzip compressed responses.
+     *
+     * @param ifNoneMatch entity tags of the client, or null if none were sent.
+     * @param tag         status of the authorization and the current entity tag.
+     * @return true if the user is authorized and one of the tags matches the current tag.
+     */
+    private static boolean matchesTag(final String ifNoneMatch, final Map.Entry<BookmarkStatus, String> tag) {
+        if (ifNoneMatch == null || tag.getKey() != BookmarkStatus.OK) {
+            return false;
+        }
+        String quotedTag = '"' + tag.getValue() + '"';
+        for (String clientTag : ifNoneMatch.split(",")) {
+            String value = clientTag.trim();
+            if (value.startsWith(WEAK_TAG_PREFIX)) {
+                value = value.substring(WEAK_TAG_PREFIX.length());
+            }
+            if (value.endsWith(GZIP_TAG_SUFFIX + '"')) {
+                value = value.substring(0, value.length() - GZIP_TAG_SUFFIX.length() - 1) + '"';
+            }
+            if ("*".equals(value) || quotedTag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add the entity tag to a successful response.
+     *
+     * @param response to tag.
+     * @param tag      status of the authorization and the entity tag read before the response was created.
+     * @param vary     request header the tagged bookmarks vary on, null if none.
+     * @return tagged response, or the response itself if it was not successful.
+     */
+    private static Response addTag(final Response response, final Map.Entry<BookmarkStatus, String> tag,
+                                   final String vary) {
+        if (tag.getKey() != BookmarkStatus.OK || response.getStatus() != Response.Status.OK.getStatusCode()) {
+            return response;
+        }
+        return Response.fromResponse(response).tag(new EntityTag(tag.getValue())).header(HttpHeaders.VARY, vary)
+                .build();
+    }
+
+    /**
+     * Add a batch of bookmarks and create the response holding the result of each bookmark.
+     *
+     * @param bookmarks to add, null if they could not be read.
+     * @param authString to authorize the user.
+     * @return response containing the result of each bookmark.
+     */
+    private Response addBookmarkBatch(final List<Bookmark> bookmarks, final String authString) {
+
+        Response response;
+        Map.Entry<BookmarkStatus, List<BookmarkStatus>> addStatus =
+                this.bookmarkManager.addBookmarks(bookmarks, authString);
+        LOGGER.info("Adding bookmark batch");
+
+        this.metricsRegistry.recordBookmarkStatus(addStatus.getKey());
+        Message message = new Message();
+        switch (addStatus.getKey()) {
+            case OK:
+                List<BookmarkBatchResult> results = new ArrayList<>(bookmarks.size());
+                for (int i = 0; i < bookmarks.size(); i++) {
+                    BookmarkBatchResult result = new BookmarkBatchResult();
+                    result.setIndex(i);
+                    if (bookmarks.get(i) != null && bookmarks.get(i).getBookmarkLink() != null) {
+                        result.setName(bookmarks.get(i).getBookmarkLink().getName());
+                    }
+                    result.setStatus(BookmarkBatchStatus.fromValue(addStatus.getValue().get(i).name()));
+                    results.add(result);
+                }
+                response = Response.status(Response.Status.OK).entity(results).build();
+                break;
+            case INVALID_DATA:
+                message.setMessage("Provided bookmarks are not valid, at most "
+                        + BookmarkManager.MAXIMUM_BATCH_SIZE + " bookmarks can be added at once.");
+                response = Response.status(Response.Status.BAD_REQUEST).entity(message).build();
+                break;
+            case UNAUTHORIZED:
+                message.setMessage("Authorization information is not correct");
+                response = Response.status(Response.Status.UNAUTHORIZED).entity(message).build();
+                break;
+            default:
+                message.setMessage(DEFAULT_MESSAGE);
+                response = Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(message).build();
+                break;
+        }
+
+        return response;
+    }
+
+    /**
+     * Read bookmarks given as newline delimited JSON. Reading stops after more than
+     * {@link BookmarkManager#MAXIMUM_BATCH_SIZE} bookmarks, so the batch is rejected without reading all of them.
+     *
+     * @param input holding one bookmark per line.
+     * @return bookmarks that were read, or null if the input is not valid.
+     */
+    private static List<Bookmark> readBookmarks(final InputStream input) {
+        List<Bookmark> bookmarks = new ArrayList<>();
+        try (MappingIterator<Bookmark> iterator = BOOKMARK_READER.readValues(input)) {
+            while (bookmarks.size() <= BookmarkManager.MAXIMUM_BATCH_SIZE && iterator.hasNextValue()) {
+                bookmarks.add(iterator.nextValue());
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Bookmark batch cannot be read: " + e.getMessage());
+            return null;
+        }
+        return bookmarks;
+    }
+
+    /**
+     * Get a single page of bookmarks for associated user.
+     *
+     * @param authString to authorize the user.
+     * @param limit maximum number of bookmarks to return.
+     * @param cursor pointing to the page of bookmarks to return, null for the first page.
+     * @return response containing the page of bookmarks.
+     */
+    private Response getBookmarkPage(final String authString, final int limit, final String cursor) {
+        Map.Entry<BookmarkStatus, BookmarkPage<Bookmark>> getStatus =
+                this.bookmarkManager.getBookmarks(authString, cursor, limit);
+        LOGGER.info("Getting bookmark page");
+        return this.createPageResponse(getStatus);
+    }
+
+    /**
+     * Get a single page of public bookmarks.
+     *
+     * @param authString to authorize the user.
+     * @param limit maximum number of bookmarks to return.
+     * @param cursor pointing to the page of bookmarks to return, null for the first page.
+     * @return response containing the page of public bookmarks.
+     */
+    private Response getPublicBookmarkPage(final String authString, final int limit, final String cursor) {
+        Map.Entry<BookmarkStatus, BookmarkPage<BookmarkLink>> getStatus =
+                this.bookmarkManager.getPublicBookmarks(authString, cursor, limit);
+        LOGGER.info("Getting public bookmark page");
+        return this.createPageResponse(getStatus);
+    }
+
+    /**
+     * Create the response for a paged get operation.
+     *
+     * @param getStatus status of the operation and the page if successful.
+     * @return response containing the page items and the cursor for the next page.
+     */
+    private Response createPageResponse(final Map.Entry<BookmarkStatus, ? extends BookmarkPage<?>> getStatus) {
+        Response response;
+        this.metricsRegistry.recordBookmarkStatus(getStatus.getKey());
+        Message message = new Message();
+        switch (getStatus.getKey()) {
+            case OK:
+                response = Response.status(Response.Status.OK).entity(getStatus.getValue().getItems())
+                        .header(NEXT_CURSOR_HEADER, getStatus.getValue().getNextCursor()).build();
+                break;
+            case INVALID_DATA:
+                message.setMessage("Provided limit or cursor is not valid.");
+                response = Response.status(Response.Status.BAD_REQUEST).entity(message).build();
                 break;
             case UNAUTHORIZED:
                 message.setMessage("Authorization information is not correct");
@@ -0,0 +1,104 @@
+package org.example.app.bookmark.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark_api.model.BookmarkAccess;
+import org.example.app.bookmark_api.model.BookmarkLink;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * Writes bookmarks as a JSON array, or as newline delimited JSON, directly to the response stream,
+ * without creating api model objects for each bookmark.
+ * The output matches the JSON serialization of a list of api model bookmarks, or of each api model bookmark.
+ */
+public class BookmarkStreamingOutput implements StreamingOutput {
+
+    /**
+     * Factory for JSON generators, thread-safe and shared by all responses.
+     */
+    private static final JsonFactory JSON_FACTORY =
+            new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    /**
+     * Name of the bookmark link field in the api model bookmark.
+     */
+    private static final String BOOKMARK_LINK_FIELD =
+            org.example.app.bookmark_api.model.Bookmark.JSON_PROPERTY_BOOKMARK_LINK;
+
+    /**
+     * Name of the access field in the api model bookmark.
+     */
+    private static final String ACCESS_FIELD = org.example.app.bookmark_api.model.Bookmark.JSON_PROPERTY_ACCESS;
+
+    /**
+     * Bookmarks to write.
+     */
+    private final Collection<Bookmark> bookmarks;
+
+    /**
+     * Flag indicating that every bookmark is written on its own line instead of in an array.
+     */
+    private final boolean newlineDelimited;
+
+    /**
+     * Constructor for a JSON array.
+     *
+     * @param bookmarks to write, read while the response is being written.
+     */
+    public BookmarkStreamingOutput(final Collection<Bookmark> bookmarks) {
+        this(bookmarks, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param bookmarks        to write, read while the response is being written.
+     * @param newlineDelimited true to write every bookmark on its own line, false to write a JSON array.
+     */
+    public BookmarkStreamingOutput(final Collection<Bookmark> bookmarks, final boolean newlineDelimited) {
+        this.bookmarks = bookmarks;
+        this.newlineDelimited = newlineDelimited;
+    }
+
+    @Override
+    public final void write(final OutputStream output) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(output)) {
+            if (this.newlineDelimited) {
+                generator.setRootValueSeparator(null);
+                for (Bookmark bookmark : this.bookmarks) {
+                    writeBookmark(generator, bookmark);
+                    generator.writeRaw('\n');
+                }
+            } else {
+                generator.writeStartArray();
+                for (Bookmark bookmark : this.bookmarks) {
+                    writeBookmark(generator, bookmark);
+                }
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    /**
+     * Write a single bookmark as a JSON object.
+     *
+     * @param generator used to write the bookmark.
+     * @param bookmark  to write.
+     * @throws IOException if writing fails.
+     */
+    private static void writeBookmark(final JsonGenerator generator, final Bookmark bookmark) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectFieldStart(BOOKMARK_LINK_FIELD);
+        generator.writeStringField(BookmarkLink.JSON_PROPERTY_URI, bookmark.getBookmarkLink().getUri().toString());
+        generator.writeStringField(BookmarkLink.JSON_PROPERTY_NAME, bookmark.getBookmarkLink().getUriName());
+        generator.writeEndObject();
+        generator.writeStringField(ACCESS_FIELD,
+                bookmark.isPrivate() ? BookmarkAccess.PRIVATE.getValue() : BookmarkAccess.PUBLIC.getValue());
+        generator.writeEndObject();
+    }
+}
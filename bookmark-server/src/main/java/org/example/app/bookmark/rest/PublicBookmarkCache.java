@@ -0,0 +1,190 @@
+package org.example.app.bookmark.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.app.bookmark.bookmarkmanager.BookmarkStatus;
+import org.example.app.bookmark_api.model.BookmarkLink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the latest list of public bookmarks serialized as JSON and compressed with gzip, keyed by the entity tag
+ * of the public bookmarks. Clients polling the public bookmarks get a copy of the same bytes until the bookmarks
+ * change, instead of serializing and compressing the list on every request.
+ */
+public final class PublicBookmarkCache {
+
+    /**
+     * Writer creating the same JSON as the serialization of the response entity.
+     */
+    private static final ObjectWriter LINK_WRITER = new ObjectMapper().writer();
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(PublicBookmarkCache.class.getSimpleName());
+
+    /**
+     * Singleton instance.
+     */
+    private static volatile PublicBookmarkCache instance;
+
+    /**
+     * Lock held while the public bookmarks are encoded, so concurrent requests encode each version only once.
+     */
+    private final Object encodeLock;
+
+    /**
+     * Latest encoded public bookmarks, null until they are first requested.
+     */
+    private volatile EncodedBookmarks encodedBookmarks;
+
+    /**
+     * Constructor, for a cache that is not shared with the REST resources.
+     */
+    public PublicBookmarkCache() {
+        this.encodeLock = new Object();
+    }
+
+    /**
+     * Getter for the singleton shared by the REST resources.
+     *
+     * @return PublicBookmarkCache instance.
+     */
+    public static PublicBookmarkCache getInstance() {
+        if (instance == null) {
+            synchronized (PublicBookmarkCache.class) {
+                if (instance == null) {
+                    instance = new PublicBookmarkCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the encoded public bookmarks of a version, reading and encoding them if another version is cached.
+     * The tag has to be read before the bookmarks, so the cached bytes are never older than their tag.
+     *
+     * @param tag    current entity tag of the public bookmarks.
+     * @param reader reading the public bookmarks.
+     * @return OK and the encoded public bookmarks, or the status of the reader if it failed.
+     */
+    Map.Entry<BookmarkStatus, EncodedBookmarks> getPublicBookmarks(
+            final String tag, final Supplier<Map.Entry<BookmarkStatus, Set<BookmarkLink>>> reader) {
+        EncodedBookmarks current = this.encodedBookmarks;
+        if (current == null || !current.getTag().equals(tag)) {
+            synchronized (this.encodeLock) {
+                current = this.encodedBookmarks;
+                if (current == null || !current.getTag().equals(tag)) {
+                    Map.Entry<BookmarkStatus, Set<BookmarkLink>> publicBookmarks = reader.get();
+                    if (publicBookmarks.getKey() != BookmarkStatus.OK) {
+                        return new AbstractMap.SimpleEntry<>(publicBookmarks.getKey(), null);
+                    }
+                    try {
+                        current = encode(tag, publicBookmarks.getValue());
+                    } catch (IOException e) {
+                        LOGGER.error("Public bookmarks could not be encoded", e);
+                        return new AbstractMap.SimpleEntry<>(BookmarkStatus.INVALID_DATA, null);
+                    }
+                    this.encodedBookmarks = current;
+                }
+            }
+        }
+        return new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, current);
+    }
+
+    /**
+     * Serialize the public bookmarks and compress them once with the best compression,
+     * as the compressed bytes are shared by every request until the bookmarks change.
+     *
+     * @param tag             entity tag of the public bookmarks.
+     * @param publicBookmarks to encode.
+     * @return encoded public bookmarks.
+     * @throws IOException if the bookmarks could not be serialized.
+     */
+    private static EncodedBookmarks encode(final String tag, final Set<BookmarkLink> publicBookmarks)
+            throws IOException {
+        byte[] json = LINK_WRITER.writeValueAsBytes(publicBookmarks);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(gzip) {
+            {
+                this.def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            output.write(json);
+        }
+        return new EncodedBookmarks(tag, json, gzip.toByteArray());
+    }
+
+    /**
+     * Public bookmarks of a single version, as JSON and as gzip compressed JSON.
+     * The arrays are shared by all responses and must not be modified.
+     */
+    static final class EncodedBookmarks {
+
+        /**
+         * Entity tag of the public bookmarks.
+         */
+        private final String tag;
+
+        /**
+         * Public bookmarks as a JSON array.
+         */
+        private final byte[] json;
+
+        /**
+         * Public bookmarks as a gzip compressed JSON array.
+         */
+        private final byte[] gzip;
+
+        /**
+         * Constructor.
+         *
+         * @param tag  entity tag of the public bookmarks.
+         * @param json public bookmarks as a JSON array.
+         * @param gzip public bookmarks as a gzip compressed JSON array.
+         */
+        private EncodedBookmarks(final String tag, final byte[] json, final byte[] gzip) {
+            this.tag = tag;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        /**
+         * Getter for tag.
+         *
+         * @return entity tag of the public bookmarks.
+         */
+        String getTag() {
+            return this.tag;
+        }
+
+        /**
+         * Getter for json.
+         *
+         * @return public bookmarks as a JSON array, shared and not to be modified.
+         */
+        byte[] getJson() {
+            return this.json;
+        }
+
+        /**
+         * Getter for gzip.
+         *
+         * @return public bookmarks as a gzip compressed JSON array, shared and not to be modified.
+         */
+        byte[] getGzip() {
+            return this.gzip;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package org.example.app.bookmark.rest;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.app.bookmark.config.InternalConfig;
+import org.example.app.bookmark.config.ThreadMode;
+import org.example.app.bookmark.httpserver.VirtualThreadPool;
+import org.example.app.bookmark_api.model.Message;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the work of the REST resources on a bounded pool of business threads, so the server threads only read
+ * requests and write responses. Requests are rejected with 503 Service Unavailable when the queue of the pool is
+ * full, or when they are not answered within the request timeout, instead of letting the queue build up.
+ * Requests that modify data are only timed out while they are queued, never once they started.
+ * With virtual threads every request runs on a new virtual thread instead, as blocking work would otherwise be
+ * limited by the pool again.
+ */
+public final class RequestExecutor implements AutoCloseable {
+
+    /**
+     * Seconds after which a rejected client may retry.
+     */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    /**
+     * Time to wait for running requests to finish when the executor is closed (in ms).
+     */
+    private static final long CLOSE_TIMEOUT = 5000;
+
+    /**
+     * Logger for the class.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(RequestExecutor.class.getSimpleName());
+
+    /**
+     * Singleton instance.
+     */
+    private static volatile RequestExecutor instance;
+
+    /**
+     * Pool of business threads with a bounded queue, or executor starting a virtual thread for every request.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Single thread rejecting the requests that are not answered in time, their timeouts are cancelled when they are
+     * answered.
+     */
+    private final ScheduledThreadPoolExecutor timer;
+
+    /**
+     * Time after which a request that was not answered is rejected (in ms).
+     */
+    private final long requestTimeout;
+
+    /**
+     * Number of requests being handled by a business thread.
+     */
+    private final AtomicInteger activeRequests;
+
+    /**
+     * Number of requests rejected because the queue was full.
+     */
+    private final LongAdder rejectedRequests;
+
+    /**
+     * Number of requests rejected because they were not answered in time.
+     */
+    private final LongAdder timedOutRequests;
+
+    /**
+     * Constructor of an executor running the requests on a bounded pool of business threads.
+     *
+     * @param threads        number of business threads.
+     * @param queueCapacity  number of requests that may wait for a business thread.
+     * @param requestTimeout time after which a request that was not answered is rejected (in ms).
+     */
+    public RequestExecutor(final int threads, final int queueCapacity, final long requestTimeout) {
+        this(createPool(threads, queueCapacity), requestTimeout);
+    }
+
+    /**
+     * Constructor of an executor running every request on a new virtual thread.
+     *
+     * @param requestTimeout time after which a request that was not answered is rejected (in ms).
+     * @throws org.example.app.bookmark.exceptions.BadParametersException if the Java runtime does not support
+     *         virtual threads.
+     */
+    public RequestExecutor(final long requestTimeout) {
+        this(VirtualThreadPool.createExecutor(), requestTimeout);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param executor       running the requests.
+     * @param requestTimeout time after which a request that was not answered is rejected (in ms).
+     */
+    private RequestExecutor(final ExecutorService executor, final long requestTimeout) {
+        this.executor = executor;
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "request-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.requestTimeout = requestTimeout;
+        this.activeRequests = new AtomicInteger();
+        this.rejectedRequests = new LongAdder();
+        this.timedOutRequests = new LongAdder();
+    }
+
+    /**
+     * Getter for the singleton, creates the singleton with the default configuration.
+     *
+     * @return RequestExecutor instance.
+     */
+    public static RequestExecutor getInstance() {
+        return getInstance(new InternalConfig());
+    }
+
+    /**
+     * Getter for the singleton, creates the singleton with the executor settings and the thread mode
+     * from the configuration.
+     *
+     * @param internalConfig holding the executor settings.
+     * @return RequestExecutor instance.
+     */
+    public static RequestExecutor getInstance(final InternalConfig internalConfig) {
+        if (instance == null) {
+            synchronized (RequestExecutor.class) {
+                if (instance == null) {
+                    instance = internalConfig.getThreadMode() == ThreadMode.VIRTUAL
+                            ? new RequestExecutor(internalConfig.getRequestTimeout())
+                            : new RequestExecutor(internalConfig.getExecutorThreads(),
+                                    internalConfig.getExecutorQueueCapacity(), internalConfig.getRequestTimeout());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Create the response of a request that only reads on a business thread.
+     * A request that is still queued when it times out is not run anymore, a running request is answered with
+     * 503 Service Unavailable and its result is dropped, so the client can safely retry it.
+     * Exceptions thrown by the work complete the response exceptionally, so they are mapped by Jersey.
+     *
+     * @param work creating the response.
+     * @return stage completed with the response, or with 503 Service Unavailable if the request was rejected.
+     */
+    public CompletionStage<Response> submit(final Supplier<Response> work) {
+        return this.execute(work, false);
+    }
+
+    /**
+     * Create the response of a request that only reads on a business thread and resume the suspended request with it.
+     *
+     * @param asyncResponse of the suspended request.
+     * @param work          creating the response.
+     */
+    public void submit(final AsyncResponse asyncResponse, final Supplier<Response> work) {
+        resume(asyncResponse, this.execute(work, false));
+    }
+
+    /**
+     * Create the response of a request that modifies data on a business thread.
+     * A request that is still queued when it times out is not run anymore and is answered with
+     * 503 Service Unavailable, as the client can safely retry it. A running request is not timed out, as
+     * the modification is applied anyway and a retry would not find the data it expects.
+     *
+     * @param work creating the response.
+     * @return stage completed with the response, or with 503 Service Unavailable if the request was rejected.
+     */
+    public CompletionStage<Response> submitModification(final Supplier<Response> work) {
+        return this.execute(work, true);
+    }
+
+    /**
+     * Create the response of a request that modifies data on a business thread and resume the suspended request
+     * with it.
+     *
+     * @param asyncResponse of the suspended request.
+     * @param work          creating the response.
+     */
+    public void submitModification(final AsyncResponse asyncResponse, final Supplier<Response> work) {
+        resume(asyncResponse, this.execute(work, true));
+    }
+
+    /**
+     * Getter for the number of requests waiting for a business thread.
+     *
+     * @return number of queued requests.
+     */
+    public long getQueueSize() {
+        return this.executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) this.executor).getQueue().size() : 0;
+    }
+
+    /**
+     * Getter for the number of business threads handling a request.
+     *
+     * @return number of busy threads.
+     */
+    public long getActiveThreads() {
+        return this.activeRequests.get();
+    }
+
+    /**
+     * Getter for the number of requests rejected because the queue was full.
+     *
+     * @return number of rejected requests since the start.
+     */
+    public long getRejectedRequests() {
+        return this.rejectedRequests.sum();
+    }
+
+    /**
+     * Getter for the number of requests rejected because they were not answered in time.
+     *
+     * @return number of timed out requests since the start.
+     */
+    public long getTimedOutRequests() {
+        return this.timedOutRequests.sum();
+    }
+
+    /**
+     * Getter for the number of requests whose timeout is pending.
+     *
+     * @return number of pending timeouts.
+     */
+    int getPendingTimeouts() {
+        return this.timer.getQueue().size();
+    }
+
+    /**
+     * Stop accepting requests and wait for the running ones to finish.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Requests still running after {} ms", CLOSE_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Create the response of a request on a business thread.
+     *
+     * @param work         creating the response.
+     * @param modification true if the request modifies data, so it is not timed out once it started.
+     * @return stage completed with the response, or with 503 Service Unavailable if the request was rejected.
+     */
+    private CompletionStage<Response> execute(final Supplier<Response> work, final boolean modification) {
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        // Set by the business thread that runs the request, or by the timeout if the request did not run yet
+        AtomicBoolean started = new AtomicBoolean();
+        Future<?> task;
+        try {
+            task = this.executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return;
+                }
+                this.activeRequests.incrementAndGet();
+                try {
+                    response.complete(work.get());
+                } catch (RuntimeException e) {
+                    response.completeExceptionally(e);
+                } finally {
+                    this.activeRequests.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.rejectedRequests.increment();
+            LOGGER.warn("Request rejected, all business threads are busy");
+            response.complete(createUnavailableResponse("Server is busy, retry later."));
+            return response;
+        }
+        ScheduledFuture<?> timeout = this.timer.schedule(() -> {
+            boolean queued = started.compareAndSet(false, true);
+            if ((queued || !modification)
+                    && response.complete(createUnavailableResponse("Request timed out, retry later."))) {
+                this.timedOutRequests.increment();
+                task.cancel(false);
+                LOGGER.warn("Request timed out after {} ms", this.requestTimeout);
+            }
+        }, this.requestTimeout, TimeUnit.MILLISECONDS);
+        response.whenComplete((result, failure) -> timeout.cancel(false));
+        return response;
+    }
+
+    /**
+     * Create a pool of business threads with a bounded queue.
+     *
+     * @param threads       number of business threads.
+     * @param queueCapacity number of requests that may wait for a business thread.
+     * @return pool of business threads.
+     */
+    private static ExecutorService createPool(final int threads, final int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "request-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Resume a suspended request once its response is created.
+     *
+     * @param asyncResponse of the suspended request.
+     * @param response      stage completed with the response.
+     */
+    private static void resume(final AsyncResponse asyncResponse, final CompletionStage<Response> response) {
+        response.whenComplete((result, failure) -> {
+            if (failure == null) {
+                asyncResponse.resume(result);
+            } else {
+                asyncResponse.resume(failure);
+            }
+        });
+    }
+
+    /**
+     * Create the response of a rejected request.
+     *
+     * @param reason for rejecting the request.
+     * @return SERVICE_UNAVAILABLE response telling the client when to retry.
+     */
+    private static Response createUnavailableResponse(final String reason) {
+        Message message = new Message();
+        message.setMessage(reason);
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE).type(MediaType.APPLICATION_JSON_TYPE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).entity(message).build();
+    }
+}
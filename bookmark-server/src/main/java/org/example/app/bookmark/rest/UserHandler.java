@@ -4,6 +4,7 @@ import org.example.app.bookmark_api.model.Message;
 import org.example.app.bookmark_api.model.UserData;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.app.bookmark.metrics.MetricsRegistry;
 import org.example.app.bookmark.usermanager.IUserManager;
 import org.example.app.bookmark.usermanager.UserStatus;
 
@@ -13,12 +14,15 @@ import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.Map;
 
 /**
  * Implements methods used to manage Bookmark objects.
+ * Requests are handled on the business threads of the {@link RequestExecutor}.
  */
 @Path("/user")
 public class UserHandler {
@@ -39,33 +43,66 @@ public class UserHandler {
     private final IUserManager userManager;
 
     /**
-     * Constructor.
+     * Used for recording the statuses of user operations.
+     */
+    private final MetricsRegistry metricsRegistry;
+
+    /**
+     * Used for handling requests on business threads.
+     */
+    private final RequestExecutor requestExecutor;
+
+    /**
+     * Constructor, with the shared request executor.
      *
      * @param userManager used for managing user objects.
      */
-    @Inject
     public UserHandler(final IUserManager userManager) {
+        this(userManager, RequestExecutor.getInstance());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param userManager     used for managing user objects.
+     * @param requestExecutor used for handling requests on business threads.
+     */
+    @Inject
+    public UserHandler(final IUserManager userManager, final RequestExecutor requestExecutor) {
         this.userManager = userManager;
+        this.metricsRegistry = MetricsRegistry.getInstance();
+        this.requestExecutor = requestExecutor;
     }
 
     /**
      * Register a new user.
      *
      * @param userData with which a user will be registered.
-     * @return  CREATED if operation is successful.
-     *          BAD REQUEST if something went wrong during registration attempt.
-     *          INTERNAL SERVER ERROR in case of an error.
+     * @param asyncResponse resumed with CREATED if operation is successful.
+     *     BAD REQUEST if something went wrong during registration attempt.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL SERVER ERROR in case of an error.
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/register")
-    public Response registerUser(UserData userData) {
+    public void registerUser(UserData userData, @Suspended AsyncResponse asyncResponse) {
+        this.requestExecutor.submitModification(asyncResponse, () -> this.register(userData));
+    }
 
+    /**
+     * Register a new user, on a business thread.
+     *
+     * @param userData with which a user will be registered.
+     * @return response holding the result of the registration.
+     */
+    private Response register(final UserData userData) {
         Response response;
         UserStatus registrationStatus = this.userManager.registerUser(userData);
         LOGGER.info("Registering user attempt: " + userData.getName());
 
+        this.metricsRegistry.recordUserStatus(registrationStatus);
         Message message = new Message();
         switch (registrationStatus) {
             case REGISTERED:
@@ -97,20 +134,31 @@ public class UserHandler {
      * Login a registrated user.
      *
      * @param userData of the user to login.
-     * @return  OK and jws token information is operation is successful.
-     *          BAD_REQUEST if something went wrong during login attempt.
-     *          INTERNAL_SERVER_ERROR in case of an error.
+     * @param asyncResponse resumed with OK and jws token information is operation is successful.
+     *     BAD_REQUEST if something went wrong during login attempt.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL_SERVER_ERROR in case of an error.
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/login")
-    public Response loginUser(UserData userData) {
+    public void loginUser(UserData userData, @Suspended AsyncResponse asyncResponse) {
+        this.requestExecutor.submit(asyncResponse, () -> this.login(userData));
+    }
 
+    /**
+     * Login a registrated user, on a business thread.
+     *
+     * @param userData of the user to login.
+     * @return response holding the result of the login.
+     */
+    private Response login(final UserData userData) {
         Response response;
         Map.Entry<UserStatus, String> loginStatus = this.userManager.loginUser(userData);
         LOGGER.info("User login attempt: " + userData.getName());
 
+        this.metricsRegistry.recordUserStatus(loginStatus.getKey());
         Message message = new Message();
         switch (loginStatus.getKey()) {
             case OK:
@@ -151,22 +199,34 @@ public class UserHandler {
      *
      * @param userName of the user to log-out.
      * @param authString to authorize the user.
-     * @return  OK if operation is successful.
-     *          BAD_REQUEST if something went wrong during log-out attempt.
-     *          UNAUTHORIZED if authorization failed.
-     *          INTERNAL_SERVER_ERROR in case of an error.
+     * @param asyncResponse resumed with OK if operation is successful.
+     *     BAD_REQUEST if something went wrong during log-out attempt.
+     *     UNAUTHORIZED if authorization failed.
+     *     SERVICE_UNAVAILABLE if the server is overloaded.
+     *     INTERNAL_SERVER_ERROR in case of an error.
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/logout")
-    public Response logoutUser(String userName, @HeaderParam("authorization") String authString) {
-
+    public void logoutUser(
+            String userName, @HeaderParam("authorization") String authString, @Suspended AsyncResponse asyncResponse) {
+        this.requestExecutor.submitModification(asyncResponse, () -> this.logout(userName, authString));
+    }
 
+    /**
+     * Log-out a logged in user, on a business thread.
+     *
+     * @param userName of the user to log-out.
+     * @param authString to authorize the user.
+     * @return response holding the result of the log-out.
+     */
+    private Response logout(final String userName, final String authString) {
         Response response;
         UserStatus logoutStatus = this.userManager.logoutUser(userName, authString);
         LOGGER.info("User logout attempt: " + userName);
 
+        this.metricsRegistry.recordUserStatus(logoutStatus);
         Message message = new Message();
         switch (logoutStatus) {
             case OK:
@@ -3,6 +3,12 @@ package org.example.app.bookmark.user;
 import org.example.app.bookmark_api.model.UserData;
 import org.example.app.bookmark.exceptions.BadParametersException;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
 /**
  * Class defining User entity.
  */
@@ -23,15 +29,45 @@ public class User {
      */
     public static final String BAD_DATA = "Bad user data provided";
 
+    /**
+     * Algorithm used to hash the password.
+     */
+    private static final String HASH_ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    /**
+     * Number of hash iterations.
+     */
+    private static final int HASH_ITERATIONS = 10000;
+
+    /**
+     * Length of the password hash in bits.
+     */
+    private static final int HASH_LENGTH = 256;
+
+    /**
+     * Length of the password salt in bytes.
+     */
+    private static final int SALT_LENGTH = 16;
+
+    /**
+     * Source of random password salts.
+     */
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
     /**
      * Name of the user.
      */
     private String username;
 
     /**
-     * Password of the user.
+     * Random salt used to hash the password of the user.
      */
-    private String password;
+    private final byte[] salt;
+
+    /**
+     * Salted hash of the user password.
+     */
+    private byte[] passwordHash;
 
     /**
      * Constructor that creates the user from the provided user data object.
@@ -42,10 +78,28 @@ public class User {
         if (userData.getName() == null || userData.getPassword() == null) {
             throw new BadParametersException(BAD_DATA);
         }
+        this.salt = new byte[SALT_LENGTH];
+        SECURE_RANDOM.nextBytes(this.salt);
         this.setUsername(userData.getName());
         this.setPassword(userData.getPassword());
     }
 
+    /**
+     * Constructor that restores a stored user.
+     *
+     * @param username     name of the user.
+     * @param salt         used to hash the password of the user.
+     * @param passwordHash salted hash of the user password.
+     */
+    public User(String username, byte[] salt, byte[] passwordHash) {
+        if (username == null || salt == null || passwordHash == null) {
+            throw new BadParametersException(BAD_DATA);
+        }
+        this.salt = salt.clone();
+        this.passwordHash = passwordHash.clone();
+        this.setUsername(username);
+    }
+
     /**
      * Get username.
      *
@@ -65,16 +119,25 @@ public class User {
     }
 
     /**
-     * Get password.
+     * Get the salt used to hash the password.
      *
-     * @return password of the user.
+     * @return copy of the password salt.
      */
-    public String getPassword() {
-        return password;
+    public byte[] getSalt() {
+        return this.salt.clone();
     }
 
     /**
-     * Set password.
+     * Get the salted hash of the password.
+     *
+     * @return copy of the password hash.
+     */
+    public byte[] getPasswordHash() {
+        return this.passwordHash.clone();
+    }
+
+    /**
+     * Set password. Only the salted hash of the password is stored.
      *
      * @param password to set for the user.
      */
@@ -82,6 +145,34 @@ public class User {
         if (password.length() > MAXIMUM_PASSWORD_LENGTH) {
             throw new BadParametersException(PASSWORD_TOO_LONG);
         }
-        this.password = password;
+        this.passwordHash = this.hashPassword(password);
+    }
+
+    /**
+     * Check if the password is correct.
+     * Hashes are compared in constant time, so the comparison does not leak how many bytes match.
+     *
+     * @param password provided by the user.
+     * @return true if the password matches, false otherwise.
+     */
+    public boolean checkPassword(String password) {
+        return MessageDigest.isEqual(this.hashPassword(password), this.passwordHash);
+    }
+
+    /**
+     * Hash the password with the salt of the user.
+     *
+     * @param password to hash.
+     * @return salted hash of the password.
+     */
+    private byte[] hashPassword(String password) {
+        PBEKeySpec keySpec = new PBEKeySpec(password.toCharArray(), this.salt, HASH_ITERATIONS, HASH_LENGTH);
+        try {
+            return SecretKeyFactory.getInstance(HASH_ALGORITHM).generateSecret(keySpec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Password hashing is not available", e);
+        } finally {
+            keySpec.clearPassword();
+        }
     }
 }
@@ -1,13 +1,15 @@
 package org.example.app.bookmark.usermanager;
 
+import org.example.app.bookmark.persistence.IRecoverable;
 import org.example.app.bookmark_api.model.UserData;
 
 import java.util.Map;
 
 /**
  * Interface that describes the user manager.
+ * Registered users can be rebuilt from log records.
  */
-public interface IUserManager {
+public interface IUserManager extends IRecoverable {
 
     /**
      *  Register the user into the application.
@@ -33,4 +35,11 @@ public interface IUserManager {
      * @return status code signaling the success or failure of the operation.
      */
     UserStatus logoutUser(final String userName, String authString);
+
+    /**
+     * Get the number of registered users.
+     *
+     * @return user count.
+     */
+    int getUserCount();
 }
@@ -3,14 +3,17 @@ package org.example.app.bookmark.usermanager;
 import org.example.app.bookmark.exceptions.BadParametersException;
 import org.example.app.bookmark.javajws.IJavaJws;
 import org.example.app.bookmark.javajws.JwsStatus;
+import org.example.app.bookmark.persistence.IJournal;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.example.app.bookmark.persistence.SnapshotSection;
 import org.example.app.bookmark.user.User;
 import org.example.app.bookmark_api.model.UserData;
 
 import java.util.AbstractMap;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Class that manages users.
@@ -28,19 +31,26 @@ public class UserManager implements IUserManager {
     private final IJavaJws javaJws;
 
     /**
-     * List of existing users.
+     * Journal recording user registrations.
      */
-    private final List<User> userList;
+    private final IJournal journal;
+
+    /**
+     * Existing users, keyed by username.
+     */
+    private final ConcurrentMap<String, User> users;
 
     /**
      * Private constructor.
      *
      * @param javaJws object used for jws token management.
+     * @param journal recording user registrations.
      */
-    private UserManager(final IJavaJws javaJws) {
+    private UserManager(final IJavaJws javaJws, final IJournal journal) {
         this.javaJws = javaJws;
+        this.journal = journal;
 
-        this.userList = new ArrayList<>();
+        this.users = new ConcurrentHashMap<>();
     }
 
     /**
@@ -59,10 +69,21 @@ public class UserManager implements IUserManager {
      * @return IUserManager instance.
      */
     public static IUserManager getInstance(final IJavaJws javaJws) {
+        return getInstance(javaJws, IJournal.NONE);
+    }
+
+    /**
+     * Getter for the singleton that records user registrations.
+     *
+     * @param javaJws object used for jws token management.
+     * @param journal recording user registrations.
+     * @return IUserManager instance.
+     */
+    public static IUserManager getInstance(final IJavaJws javaJws, final IJournal journal) {
         if (instance == null) {
             synchronized (UserManager.class) {
                 if (instance == null) {
-                    instance = new UserManager(javaJws);
+                    instance = new UserManager(javaJws, journal);
                 }
             }
         }
@@ -76,7 +97,7 @@ public class UserManager implements IUserManager {
             return UserStatus.INVALID_DATA;
         }
 
-        if (userList.stream().anyMatch(user -> user.getUsername().equals(userData.getName()))) {
+        if (this.users.containsKey(userData.getName())) {
             return UserStatus.USERNAME_EXISTS;
         }
 
@@ -91,7 +112,10 @@ public class UserManager implements IUserManager {
             }
         }
 
-        this.userList.add(user);
+        if (this.users.putIfAbsent(user.getUsername(), user) != null) {
+            return UserStatus.USERNAME_EXISTS;
+        }
+        this.journal.awaitDurable(this.journal.append(LogRecord.userRegistered(user)));
 
         return UserStatus.REGISTERED;
     }
@@ -104,16 +128,15 @@ public class UserManager implements IUserManager {
             return new AbstractMap.SimpleEntry<>(UserStatus.INVALID_DATA, jws);
         }
 
-        User user;
-        Optional<User> optionalUser =
-                this.userList.stream().filter(tmpUser -> tmpUser.getUsername().equals(userData.getName())).findFirst();
-        if (optionalUser.isPresent()) {
-            user = optionalUser.get();
-        } else {
+        User user = this.users.get(userData.getName());
+        if (user == null) {
             return new AbstractMap.SimpleEntry<>(UserStatus.NOT_FOUND, jws);
         }
+        if (userData.getPassword().length() > User.MAXIMUM_PASSWORD_LENGTH) {
+            return new AbstractMap.SimpleEntry<>(UserStatus.INVALID_PASSWORD, jws);
+        }
 
-        if (checkPassword(userData.getPassword(), user.getPassword())) {
+        if (user.checkPassword(userData.getPassword())) {
             if (!this.javaJws.checkUserLoggedIn(user.getUsername())) {
                 Map.Entry<JwsStatus, String> javaJwsToken = this.javaJws.createJws(userData.getName());
                 if (javaJwsToken.getKey().equals(JwsStatus.CREATED)) {
@@ -136,7 +159,7 @@ public class UserManager implements IUserManager {
             return UserStatus.INVALID_DATA;
         }
 
-        if (this.userList.stream().noneMatch(user -> user.getUsername().equals(userName))) {
+        if (!this.users.containsKey(userName)) {
             return UserStatus.NOT_FOUND;
         }
 
@@ -153,42 +176,27 @@ public class UserManager implements IUserManager {
         }
     }
 
+    @Override
+    public int getUserCount() {
+        return this.users.size();
+    }
 
-    /**
-     * Check if the password is correct.
-     *
-     * @param providedPassword password provided by the user.
-     * @param internalPassword internal password of the user.
-     * @return true if the password matches, false otherwise.
-     */
-    private boolean checkPassword(String providedPassword, String internalPassword) {
-        int integer = 1;
-        boolean equals = true;
-        int length = User.MAXIMUM_PASSWORD_LENGTH;
-        providedPassword = padPassword(providedPassword, length);
-        internalPassword = padPassword(internalPassword, length);
-
-        for (int i = 0; i < length; i++) {
-            if (providedPassword.charAt(i) != internalPassword.charAt(i)) {
-                equals = false;
-            }
-            integer++;
+    @Override
+    public void apply(final LogRecord record) {
+        if (record.getType() == LogRecord.Type.USER_REGISTERED) {
+            this.users.put(record.getUsername(), record.getUser());
         }
-        return equals;
     }
 
-    /**
-     * Pad password to desired length.
-     *
-     * @param passwordToPad password to pad.
-     * @param length        to pad the password to.
-     * @return padded password.
-     */
-    private String padPassword(String passwordToPad, final int length) {
-        while (passwordToPad.length() < length) {
-            passwordToPad = passwordToPad.concat("A");
+    @Override
+    public void load(final SnapshotSection section) {
+        if (section.getType() == LogRecord.Type.USER_REGISTERED) {
+            section.forEach(this::apply);
         }
+    }
 
-        return passwordToPad;
+    @Override
+    public void export(final ISnapshotWriter snapshot) {
+        this.users.values().forEach(user -> snapshot.write(LogRecord.userRegistered(user)));
     }
 }
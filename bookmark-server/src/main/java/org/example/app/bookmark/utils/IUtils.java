@@ -1,7 +1,8 @@
 package org.example.app.bookmark.utils;
 
 import org.eclipse.jetty.server.Server;
-import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.example.app.bookmark.config.InternalConfig;
 
 /**
  * Defines utility methods to be used in other classes. Used to isolate references
@@ -13,14 +14,13 @@ public interface IUtils {
     /**
      * Setup properties for HTTP server.
      *
-     * @param threadPool  for the server
-     * @param port        for the server
-     * @param pathMapping path mapping for the servlet
+     * @param threadPool     for the server
+     * @param internalConfig holding the port, path mapping and connector settings
      * @return Server object
      * @see org.eclipse.jetty.server.Server
      * Creates and sets-up Jetty server that will use the provided thread pool
      */
-    Server setupJettyServer(final QueuedThreadPool threadPool, final int port, final String pathMapping);
+    Server setupJettyServer(final ThreadPool threadPool, final InternalConfig internalConfig);
 
     /**
      * Starts the provided Jetty server.
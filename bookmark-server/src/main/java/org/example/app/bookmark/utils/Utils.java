@@ -1,15 +1,33 @@
 package org.example.app.bookmark.utils;
 
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.io.ConnectionStatistics;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.example.app.bookmark.config.InternalConfig;
 import org.example.app.bookmark.config.JerseyConfig;
+import org.example.app.bookmark.httpserver.AdmissionHandler;
+import org.example.app.bookmark.httpserver.OverloadHandler;
+import org.example.app.bookmark.javajws.JavaJws;
+import org.example.app.bookmark.metrics.MetricsHandler;
+import org.example.app.bookmark.metrics.MetricsRegistry;
+import org.example.app.bookmark.metrics.MetricsServlet;
+import org.example.app.bookmark.rest.BookmarkHandler;
 import org.glassfish.jersey.servlet.ServletContainer;
 import org.glassfish.jersey.servlet.ServletProperties;
 
+import javax.ws.rs.core.MediaType;
+
 /**
  * Class with utilities for Bookmark application.
  * Used to isolate references to external packages.
@@ -17,19 +35,14 @@ import org.glassfish.jersey.servlet.ServletProperties;
 public class Utils implements IUtils {
 
     /**
-     * Timeout for idle connections (in ms).
-     */
-    private static final int IDLE_CONNECTION_TIMEOUT = 30000;
-
-    /**
-     * Number of acceptor threads to be used by the server.
+     * Name of the gauge holding the number of open connections.
      */
-    private static final int ACCEPTOR_THREADS = 1;
+    public static final String CONNECTIONS_GAUGE = "bookmark_jetty_connections";
 
     /**
-     * Number of selector threads to be used by the server.
+     * Name of the gauge holding the number of connections opened since the start.
      */
-    private static final int SELECTOR_THREADS = 2;
+    public static final String CONNECTIONS_OPENED_GAUGE = "bookmark_jetty_connections_opened";
 
     /**
      * Constructor for the utility class.
@@ -42,22 +55,47 @@ public class Utils implements IUtils {
     }
 
     @Override
-    public final Server setupJettyServer(final QueuedThreadPool threadPool, final int port, final String pathMapping) {
+    public final Server setupJettyServer(final ThreadPool threadPool, final InternalConfig internalConfig) {
         Server server = new Server(threadPool);
-        ServerConnector httpConnector = new ServerConnector(server, ACCEPTOR_THREADS,
-                SELECTOR_THREADS, new HttpConnectionFactory());
-        httpConnector.setPort(port);
-        httpConnector.setIdleTimeout(Utils.IDLE_CONNECTION_TIMEOUT);
+        ServerConnector httpConnector = new ServerConnector(server, internalConfig.getAcceptors(),
+                internalConfig.getSelectors(), createConnectionFactories(internalConfig));
+        httpConnector.setPort(internalConfig.getHttpPort());
+        httpConnector.setIdleTimeout(internalConfig.getIdleTimeout());
+        httpConnector.setAcceptQueueSize(internalConfig.getAcceptQueueSize());
+        ConnectionStatistics connectionStatistics = new ConnectionStatistics();
+        httpConnector.addBean(connectionStatistics);
         server.addConnector(httpConnector);
 
         ServletContextHandler contextHandler = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
         contextHandler.setContextPath("/");
-        server.setHandler(contextHandler);
+        MetricsHandler metricsHandler = new MetricsHandler();
+        if (internalConfig.isCompression()) {
+            metricsHandler.setHandler(createGzipHandler(contextHandler, internalConfig));
+        } else {
+            metricsHandler.setHandler(contextHandler);
+        }
+        AdmissionHandler admissionHandler = new AdmissionHandler(internalConfig, JavaJws.getInstance(internalConfig));
+        admissionHandler.setHandler(metricsHandler);
+        if (threadPool instanceof QueuedThreadPool) {
+            OverloadHandler overloadHandler = new OverloadHandler((QueuedThreadPool) threadPool,
+                    internalConfig.getThreadQueueCapacity());
+            overloadHandler.setHandler(admissionHandler);
+            server.setHandler(overloadHandler);
+        } else {
+            server.setHandler(admissionHandler);
+        }
 
-        ServletHolder servletHolder = contextHandler.addServlet(ServletContainer.class, pathMapping + "/*");
+        ServletHolder servletHolder = contextHandler.addServlet(ServletContainer.class,
+                internalConfig.getRootApiPath() + "/*");
         servletHolder.setInitOrder(0);
+        // REST resources complete their responses on the business threads of the request executor
+        servletHolder.setAsyncSupported(true);
         servletHolder.setInitParameter(ServletProperties.JAXRS_APPLICATION_CLASS,
                 JerseyConfig.class.getCanonicalName());
+        contextHandler.addServlet(MetricsServlet.class, internalConfig.getMetricsPath());
+        registerThreadPoolGauges(MetricsRegistry.getInstance(), threadPool);
+        registerConnectionGauges(MetricsRegistry.getInstance(), connectionStatistics);
+        registerAdmissionGauges(MetricsRegistry.getInstance(), admissionHandler);
 
         return server;
     }
@@ -71,4 +109,93 @@ public class Utils implements IUtils {
     public final void stopJettyServer(final Server server) throws Exception {
         server.stop();
     }
+
+    /**
+     * Create the protocols of the HTTP connector. HTTP/1.1 is always accepted,
+     * cleartext HTTP/2 is accepted with prior knowledge or as an upgrade of an HTTP/1.1 request if enabled.
+     *
+     * @param internalConfig selecting the protocols.
+     * @return connection factories, HTTP/1.1 first.
+     */
+    private static ConnectionFactory[] createConnectionFactories(final InternalConfig internalConfig) {
+        HttpConfiguration httpConfiguration = new HttpConfiguration();
+        HttpConnectionFactory http1 = new HttpConnectionFactory(httpConfiguration);
+        if (!internalConfig.isHttp2()) {
+            return new ConnectionFactory[] {http1};
+        }
+        HTTP2CServerConnectionFactory http2 = new HTTP2CServerConnectionFactory(httpConfiguration);
+        http2.setMaxConcurrentStreams(internalConfig.getHttp2MaxConcurrentStreams());
+        return new ConnectionFactory[] {http1, http2};
+    }
+
+    /**
+     * Create the handler compressing response bodies with gzip for clients accepting it.
+     * Responses that are already encoded, like the cached public bookmarks, are passed through unchanged.
+     *
+     * @param handler        whose responses are compressed.
+     * @param internalConfig holding the compression settings.
+     * @return gzip handler wrapping the handler.
+     */
+    private static GzipHandler createGzipHandler(final Handler handler, final InternalConfig internalConfig) {
+        GzipHandler gzipHandler = new GzipHandler();
+        gzipHandler.setMinGzipSize(internalConfig.getCompressionMinSize());
+        gzipHandler.setCompressionLevel(internalConfig.getCompressionLevel());
+        gzipHandler.setExcludedAgentPatterns();
+        gzipHandler.setIncludedMethods(HttpMethod.GET.asString(), HttpMethod.POST.asString());
+        gzipHandler.setIncludedMimeTypes(MediaType.APPLICATION_JSON, BookmarkHandler.APPLICATION_NDJSON);
+        gzipHandler.setHandler(handler);
+        return gzipHandler;
+    }
+
+    /**
+     * Register gauges exposing the requests admitted to and rejected from the REST API.
+     *
+     * @param metricsRegistry  in which to register the gauges.
+     * @param admissionHandler admitting the requests.
+     */
+    private static void registerAdmissionGauges(final MetricsRegistry metricsRegistry,
+                                                final AdmissionHandler admissionHandler) {
+        metricsRegistry.registerGauge("bookmark_requests_concurrent", "Number of REST requests being handled.",
+                admissionHandler::getConcurrentRequests);
+        metricsRegistry.registerGauge("bookmark_requests_rate_limited",
+                "Number of REST requests rejected with 429 because of the request rate of the client.",
+                admissionHandler::getRateLimitedRequests);
+        metricsRegistry.registerGauge("bookmark_requests_shed",
+                "Number of REST requests rejected with 503 because of the limit of concurrent requests.",
+                admissionHandler::getShedRequests);
+    }
+
+    /**
+     * Register gauges exposing the connections of the HTTP connector.
+     * An HTTP/1.1 connection upgraded to HTTP/2 is counted once as open, and twice as opened.
+     *
+     * @param metricsRegistry      in which to register the gauges.
+     * @param connectionStatistics of the HTTP connector.
+     */
+    private static void registerConnectionGauges(final MetricsRegistry metricsRegistry,
+                                                 final ConnectionStatistics connectionStatistics) {
+        metricsRegistry.registerGauge(CONNECTIONS_GAUGE, "Number of open connections.",
+                connectionStatistics::getConnections);
+        metricsRegistry.registerGauge(CONNECTIONS_OPENED_GAUGE, "Number of connections opened since the start.",
+                connectionStatistics::getConnectionsTotal);
+    }
+
+    /**
+     * Register gauges exposing the state of the server thread pool.
+     *
+     * @param metricsRegistry in which to register the gauges.
+     * @param threadPool      of the server.
+     */
+    private static void registerThreadPoolGauges(final MetricsRegistry metricsRegistry, final ThreadPool threadPool) {
+        metricsRegistry.registerGauge("bookmark_jetty_threads", "Number of server threads.", threadPool::getThreads);
+        metricsRegistry.registerGauge("bookmark_jetty_threads_idle", "Number of idle server threads.",
+                threadPool::getIdleThreads);
+        if (threadPool instanceof QueuedThreadPool) {
+            QueuedThreadPool queuedThreadPool = (QueuedThreadPool) threadPool;
+            metricsRegistry.registerGauge("bookmark_jetty_threads_max", "Maximum number of server threads.",
+                    queuedThreadPool::getMaxThreads);
+            metricsRegistry.registerGauge("bookmark_jetty_queue_size", "Number of jobs waiting for a server thread.",
+                    queuedThreadPool::getQueueSize);
+        }
+    }
 }
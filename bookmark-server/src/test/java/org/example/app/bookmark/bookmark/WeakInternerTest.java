@@ -0,0 +1,71 @@
+package org.example.app.bookmark.bookmark;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import java.net.URI;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class WeakInternerTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testShareBookmarkLinks() {
+        BookmarkLink first = new BookmarkLink(URI.create("https://example.org/docs"), new String("docs"));
+        BookmarkLink second = new BookmarkLink(URI.create("https://example.org/docs"), new String("docs"));
+
+        assertSame("Locations should be shared", second.getUri(), first.getUri());
+        assertSame("Names should be shared", second.getUriName(), first.getUriName());
+        assertEquals("Bookmark links should be equal", second, first);
+    }
+
+    @Test
+    public void testKeepExactLocation() {
+        BookmarkLink lower = new BookmarkLink(URI.create("https://example.org/docs"), "docs");
+        BookmarkLink upper = new BookmarkLink(URI.create("https://EXAMPLE.org/docs"), "docs");
+
+        assertNotSame("Differently written locations should not be shared", upper.getUri(), lower.getUri());
+        assertEquals("Location should be kept as written", upper.getUri().toString(), "https://EXAMPLE.org/docs");
+    }
+
+    @Test
+    public void testRemoveCollectedValues() throws InterruptedException {
+        WeakInterner<String> interner = new WeakInterner<>(String::hashCode, String::equals);
+        assertNull("Null should not be pooled", interner.intern(null));
+        for (int i = 0; i < 1000; i++) {
+            interner.intern(new String("value" + i));
+        }
+
+        String value = interner.intern(new String("kept"));
+        for (int i = 0; i < 50 && interner.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+            interner.intern(value);
+        }
+        assertEquals("Collected values should be removed", interner.size(), 1);
+        assertSame("Canonical value should be kept", interner.intern(new String("kept")), value);
+        interner.intern(new String("value0"));
+        assertEquals("Collected value should be pooled again", interner.size(), 2);
+    }
+}
@@ -1,6 +1,12 @@
 package org.example.app.bookmark.bookmarkmanager;
 
+import org.example.app.bookmark.config.InternalConfig;
 import org.example.app.bookmark.javajws.IJavaJws;
+import org.example.app.bookmark.persistence.IJournal;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.example.app.bookmark.persistence.Persistence;
+import org.example.app.bookmark.persistence.SnapshotSection;
 import org.example.app.bookmark_api.model.Bookmark;
 import org.example.app.bookmark_api.model.BookmarkAccess;
 import org.example.app.bookmark_api.model.BookmarkLink;
@@ -8,21 +14,34 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestName;
 
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
 import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class BookmarkManagerTest {
@@ -30,6 +49,9 @@ public class BookmarkManagerTest {
     @Rule
     public TestName testName = new TestName();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private IBookmarkManager bookmarkManager;
     private IJavaJws javaJws;
 
@@ -39,13 +61,10 @@ public class BookmarkManagerTest {
             //Required for testing singleton
             //Has to be up to date with constructor
             switch (field.getName()) {
-                case "publicBookmarks":
-                    field.set(bookmarkManager, null);
-                    break;
-                case "userBookmarkMap":
+                case "javaJws":
                     field.set(bookmarkManager, null);
                     break;
-                case "javaJws":
+                case "store":
                     field.set(bookmarkManager, null);
                     break;
                 case "instance":
@@ -150,6 +169,136 @@ public class BookmarkManagerTest {
 
 
 
+    @Test
+    public void testAddBookmarks() throws URISyntaxException {
+        String authString = "authString";
+        List<Bookmark> bookmarks = new ArrayList<>();
+        for (String name : List.of("existing", "first", "second", "first")) {
+            Bookmark bookmark = new Bookmark();
+            BookmarkLink bookmarkLink = new BookmarkLink();
+            bookmarkLink.setName(name);
+            bookmarkLink.setUri(new URI("uri"));
+            bookmark.setBookmarkLink(bookmarkLink);
+            bookmarks.add(bookmark);
+        }
+        bookmarks.add(new Bookmark());
+        bookmarks.add(null);
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        this.bookmarkManager.addBookmark(bookmarks.get(0), authString);
+        Map.Entry<BookmarkStatus, List<BookmarkStatus>> entry = this.bookmarkManager.addBookmarks(bookmarks, authString);
+        assertEquals("Add bookmarks should succeed!", entry.getKey(), BookmarkStatus.OK);
+        assertEquals("Bookmark statuses do not match!", entry.getValue(), List.of(BookmarkStatus.BOOKMARK_EXISTS,
+                BookmarkStatus.CREATED, BookmarkStatus.CREATED, BookmarkStatus.BOOKMARK_EXISTS,
+                BookmarkStatus.INVALID_DATA, BookmarkStatus.INVALID_DATA));
+        assertEquals("Bookmark count does not match!", this.bookmarkManager.getBookmarkCount(), 3L);
+    }
+
+    @Test
+    public void testAddBookmarksTooMany() {
+        String authString = "authString";
+        List<Bookmark> bookmarks = Collections.nCopies(BookmarkManager.MAXIMUM_BATCH_SIZE + 1, new Bookmark());
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        assertEquals("Add bookmarks should not succeed!",
+                this.bookmarkManager.addBookmarks(bookmarks, authString).getKey(), BookmarkStatus.INVALID_DATA);
+        assertEquals("Add bookmarks should not succeed!",
+                this.bookmarkManager.addBookmarks(null, authString).getKey(), BookmarkStatus.INVALID_DATA);
+    }
+
+    @Test
+    public void testAddBookmarksUnauthorized() {
+        String authString = "authString";
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn("");
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        assertEquals("Add bookmarks should not succeed!",
+                this.bookmarkManager.addBookmarks(List.of(new Bookmark()), authString).getKey(),
+                BookmarkStatus.UNAUTHORIZED);
+    }
+
+
+    @Test
+    public void testBookmarkTags() throws URISyntaxException {
+        String authString = "authString";
+        Bookmark bookmark = new Bookmark();
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName("name");
+        bookmarkLink.setUri(new URI("uri"));
+        bookmark.setBookmarkLink(bookmarkLink);
+        bookmark.setAccess(BookmarkAccess.PRIVATE);
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+        when(this.javaJws.authorizeUser("other")).thenReturn("other");
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        String userTag = this.bookmarkManager.getBookmarkTag(authString).getValue();
+        String otherTag = this.bookmarkManager.getBookmarkTag("other").getValue();
+        String publicTag = this.bookmarkManager.getPublicBookmarkTag(authString).getValue();
+        assertEquals("Tag should not change without modifications!",
+                this.bookmarkManager.getBookmarkTag(authString).getValue(), userTag);
+
+        this.bookmarkManager.addBookmark(bookmark, authString);
+        String addedTag = this.bookmarkManager.getBookmarkTag(authString).getValue();
+        assertNotEquals("Tag should change after adding a bookmark!", addedTag, userTag);
+        assertEquals("Public tag should not change after adding a private bookmark!",
+                this.bookmarkManager.getPublicBookmarkTag(authString).getValue(), publicTag);
+        assertEquals("Tag of other users should not change!",
+                this.bookmarkManager.getBookmarkTag("other").getValue(), otherTag);
+
+        this.bookmarkManager.addBookmark(bookmark, authString);
+        assertEquals("Tag should not change after a failed modification!",
+                this.bookmarkManager.getBookmarkTag(authString).getValue(), addedTag);
+
+        this.bookmarkManager.deleteBookmark("name", authString);
+        assertNotEquals("Tag should change after deleting a bookmark!",
+                this.bookmarkManager.getBookmarkTag(authString).getValue(), addedTag);
+        assertNotEquals("Public tag should change after deleting a bookmark!",
+                this.bookmarkManager.getPublicBookmarkTag(authString).getValue(), publicTag);
+    }
+
+    @Test
+    public void testBookmarkTagsOfUsers() throws URISyntaxException {
+        Bookmark bookmark = new Bookmark();
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName("name");
+        bookmarkLink.setUri(new URI("uri"));
+        bookmark.setBookmarkLink(bookmarkLink);
+        bookmark.setAccess(BookmarkAccess.PRIVATE);
+
+        when(this.javaJws.authorizeUser("first")).thenReturn("first");
+        when(this.javaJws.authorizeUser("second")).thenReturn("second");
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        assertNotEquals("Tags of new users should not match!",
+                this.bookmarkManager.getBookmarkTag("first").getValue(),
+                this.bookmarkManager.getBookmarkTag("second").getValue());
+
+        this.bookmarkManager.addBookmark(bookmark, "first");
+        this.bookmarkManager.addBookmark(bookmark, "second");
+        assertNotEquals("Tags of users with as many modifications should not match!",
+                this.bookmarkManager.getBookmarkTag("first").getValue(),
+                this.bookmarkManager.getBookmarkTag("second").getValue());
+    }
+
+    @Test
+    public void testBookmarkTagsUnauthorized() {
+        String authString = "authString";
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn("");
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        assertEquals("Get tag should not succeed!",
+                this.bookmarkManager.getBookmarkTag(authString).getKey(), BookmarkStatus.UNAUTHORIZED);
+        assertEquals("Get public tag should not succeed!",
+                this.bookmarkManager.getPublicBookmarkTag(authString).getKey(), BookmarkStatus.UNAUTHORIZED);
+    }
+
     @Test
     public void testGetBookmarksEmpty() {
         String authString = "authString";
@@ -181,6 +330,152 @@ public class BookmarkManagerTest {
         assertEquals("List of bookmarks should be empty!", entry.getValue().size(), 1);
     }
 
+    @Test
+    public void testAddBookmarkConcurrent() throws InterruptedException {
+        String authString = "authString";
+        int bookmarkCount = 1000;
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < bookmarkCount; i++) {
+            Bookmark bookmark = new Bookmark();
+            BookmarkLink bookmarkLink = new BookmarkLink();
+            bookmarkLink.setName("name" + i);
+            bookmarkLink.setUri(URI.create("uri" + i));
+            bookmark.setBookmarkLink(bookmarkLink);
+            executorService.submit(() -> this.bookmarkManager.addBookmark(bookmark, authString));
+        }
+        executorService.shutdown();
+        assertTrue("Executor should terminate!", executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+        Map.Entry<BookmarkStatus, List<Bookmark>> entry = this.bookmarkManager.getBookmarks(authString);
+        assertEquals("Get bookmark should succeed!", entry.getKey(), BookmarkStatus.OK);
+        assertEquals("All bookmarks should have been added!", entry.getValue().size(), bookmarkCount);
+    }
+
+    @Test
+    public void testUpdateBookmarkRename() throws URISyntaxException {
+        String authString = "authString";
+        String bookmarkName = "name";
+        Bookmark bookmark = new Bookmark();
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName(bookmarkName);
+        bookmarkLink.setUri(new URI("uri"));
+        bookmark.setBookmarkLink(bookmarkLink);
+        Bookmark bookmark1 = new Bookmark();
+        BookmarkLink bookmarkLink1 = new BookmarkLink();
+        bookmarkLink1.setName(bookmarkName + "2");
+        bookmarkLink1.setUri(new URI("uri"));
+        bookmark1.setBookmarkLink(bookmarkLink1);
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        this.bookmarkManager.addBookmark(bookmark, authString);
+        BookmarkStatus updateStatus = this.bookmarkManager.updateBookmark(bookmarkName, bookmark1, authString);
+        assertEquals("Update bookmark should succeed!", updateStatus, BookmarkStatus.UPDATED);
+        assertEquals("Old bookmark name should be gone!",
+                this.bookmarkManager.deleteBookmark(bookmarkName, authString), BookmarkStatus.INVALID_DATA);
+        assertEquals("New bookmark name should exist!",
+                this.bookmarkManager.deleteBookmark(bookmarkName + "2", authString), BookmarkStatus.DELETED);
+    }
+
+    @Test
+    public void testUpdateBookmarkRenameExisting() throws URISyntaxException {
+        String authString = "authString";
+        String bookmarkName = "name";
+        Bookmark bookmark = new Bookmark();
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName(bookmarkName);
+        bookmarkLink.setUri(new URI("uri"));
+        bookmark.setBookmarkLink(bookmarkLink);
+        Bookmark bookmark1 = new Bookmark();
+        BookmarkLink bookmarkLink1 = new BookmarkLink();
+        bookmarkLink1.setName(bookmarkName + "2");
+        bookmarkLink1.setUri(new URI("uri2"));
+        bookmark1.setBookmarkLink(bookmarkLink1);
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        this.bookmarkManager.addBookmark(bookmark, authString);
+        this.bookmarkManager.addBookmark(bookmark1, authString);
+        BookmarkStatus updateStatus = this.bookmarkManager.updateBookmark(bookmarkName, bookmark1, authString);
+        assertEquals("Renaming to an existing name should fail!", updateStatus, BookmarkStatus.BOOKMARK_EXISTS);
+        assertEquals("Old bookmark should still exist!",
+                this.bookmarkManager.deleteBookmark(bookmarkName, authString), BookmarkStatus.DELETED);
+        assertEquals("Other bookmark should still exist!",
+                this.bookmarkManager.deleteBookmark(bookmarkName + "2", authString), BookmarkStatus.DELETED);
+    }
+
+    @Test
+    public void testGetBookmarksPaged() {
+        String authString = "authString";
+        int bookmarkCount = 25;
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        for (int i = 0; i < bookmarkCount; i++) {
+            Bookmark bookmark = new Bookmark();
+            BookmarkLink bookmarkLink = new BookmarkLink();
+            bookmarkLink.setName(String.format("name%02d", i));
+            bookmarkLink.setUri(URI.create("uri" + i));
+            bookmark.setBookmarkLink(bookmarkLink);
+            this.bookmarkManager.addBookmark(bookmark, authString);
+        }
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            Map.Entry<BookmarkStatus, BookmarkPage<Bookmark>> entry =
+                    this.bookmarkManager.getBookmarks(authString, cursor, 10);
+            assertEquals("Get bookmark page should succeed!", entry.getKey(), BookmarkStatus.OK);
+            assertTrue("Page should not exceed the limit!", entry.getValue().getItems().size() <= 10);
+            entry.getValue().getItems().forEach(bookmark -> names.add(bookmark.getBookmarkLink().getName()));
+            cursor = entry.getValue().getNextCursor();
+        } while (cursor != null);
+
+        assertEquals("All bookmarks should have been returned!", names.size(), bookmarkCount);
+        assertEquals("Bookmarks should be ordered by name!", names.get(0), "name00");
+        assertEquals("Bookmarks should be ordered by name!", names.get(bookmarkCount - 1), "name24");
+    }
+
+    @Test
+    public void testGetBookmarksPagedInvalidData() {
+        String authString = "authString";
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        assertEquals("Get bookmark page should not succeed!",
+                this.bookmarkManager.getBookmarks(authString, null, 0).getKey(), BookmarkStatus.INVALID_DATA);
+        assertEquals("Get bookmark page should not succeed!",
+                this.bookmarkManager.getBookmarks(authString, "%%", 10).getKey(), BookmarkStatus.INVALID_DATA);
+    }
+
+    @Test
+    public void testGetBookmarkView() throws URISyntaxException {
+        String authString = "authString";
+        Bookmark bookmark = new Bookmark();
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName("name");
+        bookmarkLink.setUri(new URI("uri"));
+        bookmark.setBookmarkLink(bookmarkLink);
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        assertEquals("View should be empty!", this.bookmarkManager.getBookmarkView(authString).getValue().size(), 0);
+        this.bookmarkManager.addBookmark(bookmark, authString);
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> entry =
+                this.bookmarkManager.getBookmarkView(authString);
+        assertEquals("Get bookmark view should succeed!", entry.getKey(), BookmarkStatus.OK);
+        assertEquals("View should contain the bookmark!", entry.getValue().size(), 1);
+    }
+
     @Test
     public void testGetBookmarksUnauthorized() {
         String authString = "authString";
@@ -368,6 +663,90 @@ public class BookmarkManagerTest {
         assertEquals("1 bookmarks should exist!", entry.getValue().size(), 1);
     }
 
+    @Test
+    public void testGetPublicBookmarksSharedLink() throws URISyntaxException {
+        String authString = "authString";
+        String authString2 = "authString2";
+        Bookmark bookmark = new Bookmark();
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName("name");
+        bookmarkLink.setUri(new URI("uri"));
+        bookmark.setBookmarkLink(bookmarkLink);
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+        when(this.javaJws.authorizeUser(authString2)).thenReturn(authString2);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        this.bookmarkManager.addBookmark(bookmark, authString);
+        this.bookmarkManager.addBookmark(bookmark, authString2);
+        Map.Entry<BookmarkStatus, Set<BookmarkLink>> entry = this.bookmarkManager.getPublicBookmarks(authString);
+        assertEquals("Shared link should be listed once!", entry.getValue().size(), 1);
+
+        this.bookmarkManager.deleteBookmark("name", authString);
+        entry = this.bookmarkManager.getPublicBookmarks(authString);
+        assertEquals("Link is still bookmarked by another user!", entry.getValue().size(), 1);
+
+        this.bookmarkManager.deleteBookmark("name", authString2);
+        entry = this.bookmarkManager.getPublicBookmarks(authString);
+        assertEquals("No bookmarks should exist!", entry.getValue().size(), 0);
+    }
+
+    @Test
+    public void testGetPublicBookmarksAfterUpdateToPrivate() throws URISyntaxException {
+        String authString = "authString";
+        Bookmark bookmark = new Bookmark();
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName("name");
+        bookmarkLink.setUri(new URI("uri"));
+        bookmark.setBookmarkLink(bookmarkLink);
+        Bookmark bookmark1 = new Bookmark();
+        bookmark1.setBookmarkLink(bookmarkLink);
+        bookmark1.setAccess(BookmarkAccess.PRIVATE);
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        this.bookmarkManager.addBookmark(bookmark, authString);
+        Map.Entry<BookmarkStatus, Set<BookmarkLink>> entry = this.bookmarkManager.getPublicBookmarks(authString);
+        assertEquals("1 bookmarks should exist!", entry.getValue().size(), 1);
+        assertEquals("Repeated read should return the same snapshot!",
+                entry.getValue(), this.bookmarkManager.getPublicBookmarks(authString).getValue());
+
+        this.bookmarkManager.updateBookmark("name", bookmark1, authString);
+        entry = this.bookmarkManager.getPublicBookmarks(authString);
+        assertEquals("No bookmarks should exist!", entry.getValue().size(), 0);
+    }
+
+    @Test
+    public void testGetPublicBookmarksPaged() {
+        String authString = "authString";
+        int bookmarkCount = 25;
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        for (int i = 0; i < bookmarkCount; i++) {
+            Bookmark bookmark = new Bookmark();
+            BookmarkLink bookmarkLink = new BookmarkLink();
+            bookmarkLink.setName("name" + i);
+            bookmarkLink.setUri(URI.create("uri" + i));
+            bookmark.setBookmarkLink(bookmarkLink);
+            this.bookmarkManager.addBookmark(bookmark, authString);
+        }
+
+        Set<BookmarkLink> links = new HashSet<>();
+        String cursor = null;
+        do {
+            Map.Entry<BookmarkStatus, BookmarkPage<BookmarkLink>> entry =
+                    this.bookmarkManager.getPublicBookmarks(authString, cursor, 7);
+            assertEquals("Get public bookmark page should succeed!", entry.getKey(), BookmarkStatus.OK);
+            links.addAll(entry.getValue().getItems());
+            cursor = entry.getValue().getNextCursor();
+        } while (cursor != null);
+
+        assertEquals("All public bookmarks should have been returned!", links.size(), bookmarkCount);
+    }
+
     @Test
     public void testGetPublicBookmarksUnauthorized() {
         String authString = "authString";
@@ -379,4 +758,141 @@ public class BookmarkManagerTest {
         assertEquals("Get public bookmark should not succeed!", entry.getKey(), BookmarkStatus.UNAUTHORIZED);
     }
 
+    @Test
+    public void testGetBookmarkCount() {
+        String authString = "authString";
+
+        when(this.javaJws.authorizeUser(authString)).thenReturn(authString);
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        for (int i = 0; i < 3; i++) {
+            Bookmark bookmark = new Bookmark();
+            BookmarkLink bookmarkLink = new BookmarkLink();
+            bookmarkLink.setName("name" + i);
+            bookmarkLink.setUri(URI.create("uri"));
+            bookmark.setBookmarkLink(bookmarkLink);
+            bookmark.setAccess(i == 0 ? BookmarkAccess.PRIVATE : BookmarkAccess.PUBLIC);
+            this.bookmarkManager.addBookmark(bookmark, authString);
+        }
+        assertEquals("Bookmark count does not match!", this.bookmarkManager.getBookmarkCount(), 3L);
+        assertEquals("Public link count does not match!", this.bookmarkManager.getPublicBookmarkCount(), 2);
+
+        this.bookmarkManager.deleteBookmark("name1", authString);
+        assertEquals("Bookmark count does not match!", this.bookmarkManager.getBookmarkCount(), 2L);
+        assertEquals("Public link count does not match!", this.bookmarkManager.getPublicBookmarkCount(), 1);
+    }
+
+    @Test
+    public void testJournal() {
+        String authString = "authString";
+        IJournal journal = mock(IJournal.class);
+        List<LogRecord> records = new ArrayList<>();
+        when(journal.append(any(LogRecord.class))).thenAnswer(invocation -> {
+            records.add(invocation.getArgument(0));
+            return (long) records.size();
+        });
+        when(this.javaJws.authorizeUser(authString)).thenReturn("user");
+
+        this.bookmarkManager = BookmarkManager.getInstance(this.javaJws, journal);
+        Bookmark bookmark = new Bookmark();
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName("name");
+        bookmarkLink.setUri(URI.create("uri"));
+        bookmark.setBookmarkLink(bookmarkLink);
+        bookmark.setAccess(BookmarkAccess.PUBLIC);
+        this.bookmarkManager.addBookmark(bookmark, authString);
+        this.bookmarkManager.addBookmark(bookmark, authString);
+        bookmarkLink.setName("newName");
+        this.bookmarkManager.updateBookmark("name", bookmark, authString);
+        this.bookmarkManager.deleteBookmark("name", authString);
+        this.bookmarkManager.deleteBookmark("newName", authString);
+
+        assertEquals("Only modifications should be recorded!", records.size(), 3);
+        assertEquals("First record does not match!", records.get(0).getType(), LogRecord.Type.BOOKMARK_ADDED);
+        assertEquals("Second record does not match!", records.get(1).getType(), LogRecord.Type.BOOKMARK_UPDATED);
+        assertEquals("Updated name does not match!", records.get(1).getBookmarkName(), "name");
+        assertEquals("Third record does not match!", records.get(2).getType(), LogRecord.Type.BOOKMARK_DELETED);
+        assertEquals("Username does not match!", records.get(2).getUsername(), "user");
+        verify(journal).awaitDurable(3L);
+        verify(journal, never()).awaitDurable(-1L);
+    }
+
+    @Test
+    public void testApplyAndExport() {
+        String authString = "authString";
+        when(this.javaJws.authorizeUser(authString)).thenReturn("user");
+
+        this.bookmarkManager = this.getBookmarkManagerInstance();
+        org.example.app.bookmark.bookmark.Bookmark first = new org.example.app.bookmark.bookmark.Bookmark(
+                new org.example.app.bookmark.bookmark.BookmarkLink(URI.create("first"), "first"), false);
+        org.example.app.bookmark.bookmark.Bookmark second = new org.example.app.bookmark.bookmark.Bookmark(
+                new org.example.app.bookmark.bookmark.BookmarkLink(URI.create("second"), "second"), true);
+        this.bookmarkManager.apply(LogRecord.bookmarkAdded("user", first));
+        this.bookmarkManager.apply(LogRecord.bookmarkAdded("user", first));
+        this.bookmarkManager.apply(LogRecord.bookmarkAdded("user", second));
+        this.bookmarkManager.apply(LogRecord.bookmarkUpdated("user", "second", first));
+        this.bookmarkManager.apply(LogRecord.bookmarkDeleted("user", "missing"));
+        this.bookmarkManager.apply(LogRecord.bookmarkAdded("other", second));
+
+        assertEquals("Bookmark count does not match!", this.bookmarkManager.getBookmarkCount(), 2L);
+        assertEquals("Public link count does not match!", this.bookmarkManager.getPublicBookmarkCount(), 1);
+        Map.Entry<BookmarkStatus, List<Bookmark>> entry = this.bookmarkManager.getBookmarks(authString);
+        assertEquals("Bookmarks do not match!", entry.getValue().size(), 1);
+        assertEquals("Bookmark name does not match!", entry.getValue().get(0).getBookmarkLink().getName(), "first");
+
+        List<LogRecord> records = new ArrayList<>();
+        this.bookmarkManager.export(new ISnapshotWriter() {
+            @Override
+            public void write(final LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void copy(final SnapshotSection section) {
+                section.forEach(records::add);
+            }
+        });
+        assertEquals("Exported record count does not match!", records.size(), 2);
+        for (LogRecord record : records) {
+            assertEquals("Exported record does not match!", record.getType(), LogRecord.Type.BOOKMARK_ADDED);
+        }
+    }
+
+    @Test
+    public void testRecoverFromSnapshot() throws Exception {
+        when(this.javaJws.authorizeUser("userAuth")).thenReturn("user");
+        when(this.javaJws.authorizeUser("otherAuth")).thenReturn("other");
+        InternalConfig internalConfig = new InternalConfig();
+        internalConfig.setStorageDirectory(temporaryFolder.getRoot().getAbsolutePath());
+        internalConfig.setSnapshotInterval(3600);
+
+        Persistence persistence = new Persistence(internalConfig);
+        this.bookmarkManager = BookmarkManager.getInstance(this.javaJws, persistence.getJournal());
+        persistence.start(Collections.singletonList(this.bookmarkManager));
+        for (int i = 0; i < 3; i++) {
+            Bookmark bookmark = new Bookmark();
+            BookmarkLink bookmarkLink = new BookmarkLink();
+            bookmarkLink.setName("name" + i);
+            bookmarkLink.setUri(URI.create("uri" + i));
+            bookmark.setBookmarkLink(bookmarkLink);
+            bookmark.setAccess(i == 0 ? BookmarkAccess.PRIVATE : BookmarkAccess.PUBLIC);
+            this.bookmarkManager.addBookmark(bookmark, "userAuth");
+            this.bookmarkManager.addBookmark(bookmark, "otherAuth");
+        }
+        this.bookmarkManager.deleteBookmark("name2", "otherAuth");
+        persistence.close();
+        resetFields();
+
+        persistence = new Persistence(internalConfig);
+        this.bookmarkManager = BookmarkManager.getInstance(this.javaJws, persistence.getJournal());
+        persistence.start(Collections.singletonList(this.bookmarkManager));
+        assertEquals("Bookmark count does not match!", this.bookmarkManager.getBookmarkCount(), 5L);
+        assertEquals("Public link count does not match!", this.bookmarkManager.getPublicBookmarkCount(), 2);
+        Map.Entry<BookmarkStatus, List<Bookmark>> entry = this.bookmarkManager.getBookmarks("otherAuth");
+        assertEquals("Bookmarks do not match!", entry.getValue().size(), 2);
+        assertEquals("Bookmark should be added after recovery!",
+                this.bookmarkManager.deleteBookmark("name0", "userAuth"), BookmarkStatus.DELETED);
+        assertEquals("Bookmark count does not match!", this.bookmarkManager.getBookmarkCount(), 4L);
+        persistence.close();
+    }
 }
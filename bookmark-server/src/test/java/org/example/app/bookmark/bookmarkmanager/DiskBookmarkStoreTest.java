@@ -0,0 +1,186 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.config.InternalConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestName;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DiskBookmarkStoreTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private InternalConfig internalConfig;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        internalConfig = new InternalConfig();
+        internalConfig.setStorageDirectory(temporaryFolder.getRoot().getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testModifyBookmarks() throws Exception {
+        DiskBookmarkStore store = openStore();
+        assertFalse("Unknown user should not be found", store.containsUser("user"));
+        assertTrue("Bookmark should be added", store.add("user", bookmark("b", "http://b.com", false)));
+        assertTrue("Bookmark should be added", store.add("user", bookmark("a", "http://a.com", true)));
+        assertFalse("Duplicate bookmark should not be added", store.add("user", bookmark("a", "http://c.com", true)));
+        assertTrue("Bookmark should be replaced", store.replace("user", "b", bookmark("c", "http://c.com", false)));
+        assertFalse("Bookmark should not be renamed to an existing name",
+                store.replace("user", "c", bookmark("a", "http://d.com", false)));
+        assertFalse("Unknown bookmark should not be removed", store.remove("user", "b"));
+
+        assertTrue("User should be found", store.containsUser("user"));
+        assertEquals("Bookmark names do not match", names(store, "user", null), List.of("a", "c"));
+        assertEquals("Bookmark names after cursor do not match", names(store, "user", "a"), List.of("c"));
+        assertEquals("Bookmark view size does not match", store.getBookmarks("user", null).size(), 2);
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), 2L);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 1);
+
+        assertTrue("Bookmark should be removed", store.remove("user", "a"));
+        assertTrue("Bookmark should be removed", store.remove("user", "c"));
+        assertTrue("User should still be found", store.containsUser("user"));
+        assertEquals("Bookmark count does not match after removing", store.getBookmarkCount(), 0L);
+        assertEquals("Public bookmark count does not match after removing", store.getPublicBookmarkCount(), 0);
+        store.close();
+    }
+
+    @Test
+    public void testAddAll() throws Exception {
+        DiskBookmarkStore store = openStore();
+        store.add("user", bookmark("a", "http://a.com", false));
+        boolean[] added = store.addAll("user", List.of(bookmark("a", "http://a.com", false),
+                bookmark("b", "http://b.com", false), bookmark("b", "http://c.com", false),
+                bookmark("c", "http://a.com", true)));
+
+        assertTrue("Batch results do not match", !added[0] && added[1] && !added[2] && added[3]);
+        assertEquals("Bookmark names do not match", names(store, "user", null), List.of("a", "b", "c"));
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), 3L);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 2);
+        assertFalse("Batch without new bookmarks should not add any",
+                store.addAll("user", List.of(bookmark("a", "http://a.com", false)))[0]);
+        store.close();
+
+        DiskBookmarkStore reopened = openStore();
+        assertEquals("Bookmark count does not match after reopening", reopened.getBookmarkCount(), 3L);
+        reopened.close();
+    }
+
+    @Test
+    public void testPublicBookmarks() throws Exception {
+        DiskBookmarkStore store = openStore();
+        store.add("user1", bookmark("name1", "http://one.com", false));
+        store.add("user2", bookmark("name1", "http://one.com", false));
+        store.add("user2", bookmark("name2", "http://two.com", false));
+        store.add("user2", bookmark("name3", "http://three.com", true));
+
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 2);
+        assertEquals("Public bookmarks do not match", store.getPublicBookmarks().size(), 2);
+
+        BookmarkPage<org.example.app.bookmark_api.model.BookmarkLink> page = store.getPublicBookmarks(null, 1);
+        assertEquals("First page does not match", page.getItems().get(0).getName(), "name1");
+        page = store.getPublicBookmarks(page.getNextCursor(), 1);
+        assertEquals("Second page does not match", page.getItems().get(0).getName(), "name2");
+        assertNull("Last page should have no cursor", page.getNextCursor());
+        assertNull("Invalid cursor should be rejected", store.getPublicBookmarks("cursor", 1));
+
+        store.remove("user1", "name1");
+        assertEquals("Shared link should stay public", store.getPublicBookmarkCount(), 2);
+        store.remove("user2", "name1");
+        assertEquals("Removed link should not be public", store.getPublicBookmarkCount(), 1);
+        assertEquals("Public bookmarks do not match after removing", store.getPublicBookmarks().size(), 1);
+        store.close();
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        DiskBookmarkStore store = openStore();
+        store.add("user", bookmark("name", "http://name.com", false));
+        store.add("user", bookmark("name\u0000zero", "http://zero.com", true));
+        store.close();
+
+        store = openStore();
+        assertEquals("Bookmark names do not match", names(store, "user", null), List.of("name", "name\u0000zero"));
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), 2L);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 1);
+        assertEquals("Public bookmarks do not match", store.getPublicBookmarks().size(), 1);
+        store.close();
+    }
+
+    @Test
+    public void testConcurrentUsers() throws Exception {
+        int userCount = 8;
+        int linkCount = 25;
+        DiskBookmarkStore store = openStore();
+        ExecutorService executorService = Executors.newFixedThreadPool(userCount);
+        for (int u = 0; u < userCount; u++) {
+            String user = "user" + u;
+            executorService.submit(() -> {
+                for (int i = 0; i < linkCount; i++) {
+                    store.add(user, bookmark("shared" + i, "http://shared" + i + ".com", false));
+                    store.add(user, bookmark("own" + i, "http://" + user + "-" + i + ".com", false));
+                }
+                store.remove(user, "own0");
+            });
+        }
+        executorService.shutdown();
+        assertTrue("Executor should terminate!", executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+        long bookmarkCount = (long) userCount * (2 * linkCount - 1);
+        int publicLinkCount = linkCount + userCount * (linkCount - 1);
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), bookmarkCount);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), publicLinkCount);
+        assertEquals("Public bookmarks do not match", store.getPublicBookmarks().size(), publicLinkCount);
+        store.close();
+
+        DiskBookmarkStore reopened = openStore();
+        assertEquals("Bookmark count does not match", reopened.getBookmarkCount(), bookmarkCount);
+        assertEquals("Public bookmark count does not match", reopened.getPublicBookmarkCount(), publicLinkCount);
+        reopened.close();
+    }
+
+    private DiskBookmarkStore openStore() throws Exception {
+        DiskBookmarkStore store = new DiskBookmarkStore(internalConfig);
+        store.open();
+        return store;
+    }
+
+    private static Bookmark bookmark(final String name, final String uri, final boolean isPrivate) {
+        return new Bookmark(new BookmarkLink(URI.create(uri), name), isPrivate);
+    }
+
+    private static List<String> names(final DiskBookmarkStore store, final String user, final String after) {
+        List<String> names = new ArrayList<>();
+        store.getBookmarks(user, after).forEach(bookmark -> names.add(bookmark.getBookmarkLink().getUriName()));
+        return names;
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.persistence.IJournal;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.mockito.ArgumentCaptor;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class OffHeapBookmarkStoreTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private OffHeapBookmarkStore store;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        store = new OffHeapBookmarkStore(IJournal.NONE);
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testModifyBookmarks() {
+        assertTrue("Bookmark should be added", store.add("user", bookmark("b", "http://b.com", false)));
+        assertTrue("Bookmark should be added", store.add("user", bookmark("a", "http://a.com", true)));
+        assertFalse("Duplicate bookmark should not be added", store.add("user", bookmark("a", "http://c.com", true)));
+        assertTrue("Bookmark should be replaced", store.replace("user", "b", bookmark("c", "http://c.com", false)));
+        assertFalse("Bookmark should not be renamed to an existing name",
+                store.replace("user", "c", bookmark("a", "http://d.com", false)));
+        assertFalse("Unknown bookmark should not be removed", store.remove("user", "b"));
+
+        assertEquals("Bookmark names do not match", names("user", null), List.of("a", "c"));
+        assertEquals("Bookmark location does not match",
+                store.getBookmarks("user", "a").iterator().next().getBookmarkLink().getUri(),
+                URI.create("http://c.com"));
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), 2L);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 1);
+
+        assertTrue("Bookmark should be removed", store.remove("user", "c"));
+        assertEquals("Public bookmark count does not match after removing", store.getPublicBookmarkCount(), 0);
+        assertTrue("User should still be found", store.containsUser("user"));
+    }
+
+    @Test
+    public void testAddAll() {
+        store.add("user", bookmark("a", "http://a.com", false));
+        boolean[] added = store.addAll("user", List.of(bookmark("a", "http://a.com", false),
+                bookmark("b", "http://b.com", false), bookmark("b", "http://c.com", false),
+                bookmark("c", "http://a.com", true)));
+
+        assertTrue("Batch results do not match", !added[0] && added[1] && !added[2] && added[3]);
+        assertEquals("Bookmark names do not match", names("user", null), List.of("a", "b", "c"));
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), 3L);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 2);
+    }
+
+    @Test
+    public void testIterateChunks() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String name = String.format("bookmark%03d", i);
+            expected.add(name);
+            store.add("user", bookmark(name, "http://example.org/" + name, i % 2 == 0));
+        }
+
+        assertEquals("Bookmark names do not match", names("user", null), expected);
+        assertEquals("Bookmark names after cursor do not match", names("user", "bookmark099"),
+                expected.subList(100, 200));
+        assertEquals("Bookmark view size does not match", store.getBookmarks("user", "bookmark149").size(), 50);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 100);
+    }
+
+    @Test
+    public void testPublicPages() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            String name = String.format("link%04d", i);
+            expected.add(name);
+            store.add("user" + i % 3, bookmark(name, "http://example.org/" + name, false));
+            store.add("shared", bookmark(name, "http://example.org/" + name, false));
+        }
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookmarkPage<org.example.app.bookmark_api.model.BookmarkLink> page = store.getPublicBookmarks(cursor, 100);
+            page.getItems().forEach(link -> names.add(link.getName()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals("Paged public links do not match", names, expected);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 1500);
+        assertEquals("Public bookmarks do not match", store.getPublicBookmarks().size(), 1500);
+
+        for (int i = 0; i < 1500; i += 2) {
+            store.remove("shared", String.format("link%04d", i));
+            store.remove("user" + i % 3, String.format("link%04d", i));
+        }
+        assertEquals("Public bookmark count does not match after removing", store.getPublicBookmarkCount(), 750);
+        assertEquals("First public link does not match after removing",
+                store.getPublicBookmarks(null, 1).getItems().get(0).getName(), "link0001");
+    }
+
+    @Test
+    public void testReuseFreedMemory() {
+        for (int i = 0; i < 1000; i++) {
+            store.add("user", bookmark("name" + i, "http://example.org/" + i, false));
+        }
+        long allocatedBytes = store.getAllocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            store.remove("user", "name" + i);
+            store.add("user", bookmark("other" + i, "http://example.org/" + i, false));
+        }
+
+        assertEquals("Freed memory should be reused", store.getAllocatedBytes(), allocatedBytes);
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), 1000L);
+    }
+
+    @Test
+    public void testLargeBookmark() {
+        String location = "http://example.org/" + String.join("", Collections.nCopies(BookmarkArena.SLAB_SIZE, "a"));
+        store.add("user", bookmark("large", location, true));
+
+        assertEquals("Large bookmark does not match",
+                store.getBookmarks("user", null).iterator().next().getBookmarkLink().getUri().toString(), location);
+        assertTrue("Large bookmark should be removed", store.remove("user", "large"));
+        assertEquals("Large slab should be released", store.getUsedBytes(), 0L);
+    }
+
+    @Test
+    public void testExportAndApply() {
+        store.add("user", bookmark("name1", "http://one.com", false));
+        store.add("user", bookmark("name2", "http://two.com", true));
+        ISnapshotWriter snapshot = mock(ISnapshotWriter.class);
+        ArgumentCaptor<LogRecord> records = ArgumentCaptor.forClass(LogRecord.class);
+
+        store.export(snapshot);
+        verify(snapshot, atLeastOnce()).write(records.capture());
+        OffHeapBookmarkStore recovered = new OffHeapBookmarkStore(IJournal.NONE);
+        records.getAllValues().forEach(recovered::apply);
+        recovered.apply(LogRecord.bookmarkDeleted("user", "name1"));
+
+        List<String> names = new ArrayList<>();
+        recovered.getBookmarks("user", null).forEach(bookmark -> names.add(bookmark.getBookmarkLink().getUriName()));
+        assertEquals("Recovered bookmark names do not match", names, List.of("name2"));
+        assertEquals("Recovered public bookmark count does not match", recovered.getPublicBookmarkCount(), 0);
+    }
+
+    private List<String> names(final String user, final String after) {
+        List<String> names = new ArrayList<>();
+        store.getBookmarks(user, after).forEach(bookmark -> names.add(bookmark.getBookmarkLink().getUriName()));
+        return names;
+    }
+
+    private static Bookmark bookmark(final String name, final String uri, final boolean isPrivate) {
+        return new Bookmark(new BookmarkLink(URI.create(uri), name), isPrivate);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import java.net.URI;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.example.app.bookmark.testutils.TestUtils.printTestInfo;
+import static org.junit.Assert.assertEquals;
+
+public class PublicBookmarkIndexTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private PublicBookmarkIndex index;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        index = new PublicBookmarkIndex();
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        index.add(link("a", "http://a.com"));
+        index.add(link("a", "http://a.com"));
+        index.add(link("b", "http://b.com"));
+        assertEquals("Link count does not match", index.size(), 2);
+
+        index.remove(link("a", "http://a.com"));
+        assertEquals("Link bookmarked twice should stay", index.size(), 2);
+        index.remove(link("a", "http://a.com"));
+        assertEquals("Link count does not match after removing", index.size(), 1);
+        assertEquals("Remaining link does not match", index.getPublicBookmarks().iterator().next().getName(), "b");
+    }
+
+    @Test
+    public void testRemoveAbsent() {
+        index.add(link("a", "http://a.com"));
+        index.remove(link("a", "http://a.com"));
+        long version = index.getVersion();
+
+        printTestInfo("Removing links that are not in the index");
+        index.remove(link("a", "http://a.com"));
+        index.remove(link("b", "http://b.com"));
+        assertEquals("Link count should not change", index.size(), 0);
+        assertEquals("Version should not change", index.getVersion(), version);
+    }
+
+    private static BookmarkLink link(final String name, final String uri) {
+        return new BookmarkLink(URI.create(uri), name);
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.app.bookmark.bookmarkmanager;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.persistence.IJournal;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.mockito.ArgumentCaptor;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.example.app.bookmark.testutils.TestUtils.printTestInfo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ShardedBookmarkStoreTest {
+
+    private static final int SHARDS = 4;
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private ShardedBookmarkStore store;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        store = new ShardedBookmarkStore(IJournal.NONE, SHARDS);
+        store.open();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        store.close();
+        printTestFooter();
+    }
+
+    @Test
+    public void testModifyBookmarks() {
+        assertTrue("Bookmark should be added", store.add("user", bookmark("b", "http://b.com", false)));
+        assertTrue("Bookmark should be added", store.add("user", bookmark("a", "http://a.com", true)));
+        assertFalse("Duplicate bookmark should not be added", store.add("user", bookmark("a", "http://c.com", true)));
+        assertTrue("Bookmark should be replaced", store.replace("user", "b", bookmark("c", "http://c.com", false)));
+        assertFalse("Bookmark should not be renamed to an existing name",
+                store.replace("user", "c", bookmark("a", "http://d.com", false)));
+        assertFalse("Unknown bookmark should not be removed", store.remove("user", "b"));
+        assertFalse("Bookmark of unknown user should not be removed", store.remove("other", "a"));
+
+        assertEquals("Bookmark names do not match", names("user", null), List.of("a", "c"));
+        assertEquals("Bookmark names after cursor do not match", names("user", "a"), List.of("c"));
+        assertTrue("Bookmark should be found", store.contains("user", "c"));
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), 2L);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 1);
+
+        assertTrue("Bookmark should be removed", store.remove("user", "c"));
+        assertEquals("Public bookmark count does not match after removing", store.getPublicBookmarkCount(), 0);
+        assertTrue("User should still be found", store.containsUser("user"));
+        assertFalse("Unknown user should not be found", store.containsUser("other"));
+    }
+
+    @Test
+    public void testSnapshotIsolation() {
+        store.add("user", bookmark("a", "http://a.com", false));
+        Collection<Bookmark> view = store.getBookmarks("user", null);
+
+        printTestInfo("Modifying the bookmarks after reading them");
+        store.add("user", bookmark("b", "http://b.com", false));
+        store.remove("user", "a");
+        assertEquals("Read bookmarks should not change", view.size(), 1);
+        assertEquals("Current bookmark names do not match", names("user", null), List.of("b"));
+    }
+
+    @Test
+    public void testAddAll() {
+        store.add("user", bookmark("a", "http://a.com", false));
+        boolean[] added = store.addAll("user", List.of(bookmark("a", "http://a.com", false),
+                bookmark("b", "http://b.com", false), bookmark("b", "http://c.com", false),
+                bookmark("c", "http://a.com", true)));
+
+        assertTrue("Batch results do not match", !added[0] && added[1] && !added[2] && added[3]);
+        assertEquals("Bookmark names do not match", names("user", null), List.of("a", "b", "c"));
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), 3L);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 2);
+    }
+
+    @Test
+    public void testPublicPages() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            String name = String.format("link%04d", i);
+            expected.add(name);
+            store.add("user" + i % 7, bookmark(name, "http://example.org/" + name, false));
+            store.add("shared", bookmark(name, "http://example.org/" + name, false));
+        }
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookmarkPage<org.example.app.bookmark_api.model.BookmarkLink> page = store.getPublicBookmarks(cursor, 100);
+            page.getItems().forEach(link -> names.add(link.getName()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals("Paged public links do not match", names, expected);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 1500);
+        assertEquals("First public link does not match",
+                store.getPublicBookmarks().iterator().next().getName(), "link0000");
+
+        for (int i = 0; i < 1500; i += 2) {
+            store.remove("shared", String.format("link%04d", i));
+            store.remove("user" + i % 7, String.format("link%04d", i));
+        }
+        assertEquals("Public bookmark count does not match after removing", store.getPublicBookmarkCount(), 750);
+        assertEquals("First public link does not match after removing",
+                store.getPublicBookmarks(null, 1).getItems().get(0).getName(), "link0001");
+    }
+
+    @Test
+    public void testPublicLinkCount() {
+        for (int user = 0; user < SHARDS * 4; user++) {
+            store.add("user" + user, bookmark("shared", "http://shared.com", false));
+            store.add("user" + user, bookmark("own" + user, "http://own.com", user % 2 == 0));
+        }
+        assertEquals("Shared link should be counted once", store.getPublicBookmarkCount(), 1 + SHARDS * 2);
+
+        for (int user = 1; user < SHARDS * 4; user++) {
+            store.remove("user" + user, "shared");
+        }
+        assertEquals("Link public in one shard should stay counted", store.getPublicBookmarkCount(), 1 + SHARDS * 2);
+        assertTrue("Bookmark should be replaced",
+                store.replace("user0", "shared", bookmark("shared", "http://shared.com", true)));
+        assertEquals("Private link should not be counted", store.getPublicBookmarkCount(), SHARDS * 2);
+        assertEquals("Public link count should match the public links",
+                store.getPublicBookmarks().size(), store.getPublicBookmarkCount());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String user = "user" + t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    store.add(user, bookmark("name" + i, "http://example.org/" + i, i % 2 == 0));
+                }
+                for (int i = 0; i < 500; i += 5) {
+                    store.remove(user, "name" + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), 8L * 400);
+        assertEquals("Bookmark count of a user does not match", store.getBookmarks("user3", null).size(), 400);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 200);
+    }
+
+    @Test
+    public void testExportAndApply() throws InterruptedException {
+        store.add("user", bookmark("name1", "http://one.com", false));
+        store.add("user", bookmark("name2", "http://two.com", true));
+        ISnapshotWriter snapshot = mock(ISnapshotWriter.class);
+        ArgumentCaptor<LogRecord> records = ArgumentCaptor.forClass(LogRecord.class);
+
+        store.export(snapshot);
+        verify(snapshot, atLeastOnce()).write(records.capture());
+        ShardedBookmarkStore recovered = new ShardedBookmarkStore(IJournal.NONE, SHARDS);
+        recovered.open();
+        records.getAllValues().forEach(recovered::apply);
+        recovered.apply(LogRecord.bookmarkDeleted("user", "name1"));
+
+        List<String> names = new ArrayList<>();
+        recovered.getBookmarks("user", null).forEach(bookmark -> names.add(bookmark.getBookmarkLink().getUriName()));
+        assertEquals("Recovered bookmark names do not match", names, List.of("name2"));
+        assertEquals("Recovered public bookmark count does not match", recovered.getPublicBookmarkCount(), 0);
+        recovered.close();
+    }
+
+    @Test
+    public void testCloseWhileWriting() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String user = "user" + t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; ; i++) {
+                        store.add(user, bookmark("name" + i, "http://example.org/" + i, false));
+                    }
+                } catch (IllegalStateException e) {
+                    // Closed while adding
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        Thread.sleep(50);
+
+        printTestInfo("Closing the store while bookmarks are added");
+        store.close();
+        for (Thread thread : threads) {
+            thread.join(10000);
+            assertFalse("Writer should not block after the store is closed", thread.isAlive());
+        }
+    }
+
+    @Test
+    public void testRenameKeepsOrder() {
+        for (String name : List.of("b", "d", "f")) {
+            store.add("user", bookmark(name, "http://" + name + ".com", false));
+        }
+        assertTrue("Bookmark should be renamed", store.replace("user", "b", bookmark("e", "http://e.com", false)));
+        assertTrue("Bookmark should be replaced", store.replace("user", "f", bookmark("f", "http://g.com", true)));
+        store.apply(LogRecord.bookmarkUpdated("user", "d", bookmark("a", "http://a.com", false)));
+
+        assertEquals("Bookmark names do not match", names("user", null), List.of("a", "e", "f"));
+        assertEquals("Bookmark count does not match", store.getBookmarkCount(), 3L);
+        assertEquals("Public bookmark count does not match", store.getPublicBookmarkCount(), 2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosed() throws InterruptedException {
+        store.close();
+
+        store.add("user", bookmark("a", "http://a.com", false));
+    }
+
+    private List<String> names(final String user, final String after) {
+        List<String> names = new ArrayList<>();
+        store.getBookmarks(user, after).forEach(bookmark -> names.add(bookmark.getBookmarkLink().getUriName()));
+        return names;
+    }
+
+    private static Bookmark bookmark(final String name, final String uri, final boolean isPrivate) {
+        return new Bookmark(new BookmarkLink(URI.create(uri), name), isPrivate);
+    }
+}
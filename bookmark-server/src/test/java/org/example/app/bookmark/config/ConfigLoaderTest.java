@@ -0,0 +1,310 @@
+package org.example.app.bookmark.config;
+
+import org.example.app.bookmark.exceptions.BadParametersException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestName;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigLoaderTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testLoadDefaults() {
+        InternalConfig internalConfig = ConfigLoader.load(Collections.emptyMap(), new Properties());
+
+        assertEquals("Port does not match", internalConfig.getHttpPort(), 8080);
+        assertEquals("Root path does not match", internalConfig.getRootApiPath(), "/management");
+        assertEquals("Metrics path does not match", internalConfig.getMetricsPath(), "/metrics");
+        assertEquals("Storage should be disabled", internalConfig.getStorageDirectory(), "");
+        assertTrue("Thread pool should scale with processors",
+                internalConfig.getMaxThreads() >= Runtime.getRuntime().availableProcessors());
+        assertTrue("Minimum threads should not exceed maximum threads",
+                internalConfig.getMinThreads() <= internalConfig.getMaxThreads());
+        assertTrue("Thread queue should be bounded", internalConfig.getThreadQueueCapacity() > 0);
+        assertTrue("There should be a selector", internalConfig.getSelectors() > 0);
+        assertTrue("Compression should be enabled", internalConfig.isCompression());
+        assertFalse("HTTP/2 should be disabled", internalConfig.isHttp2());
+        assertTrue("Executor queue should be bounded", internalConfig.getExecutorQueueCapacity() > 0);
+    }
+
+    @Test
+    public void testLoadPrecedence() throws IOException {
+        File configFile = temporaryFolder.newFile("bookmark.properties");
+        Files.write(configFile.toPath(), ("bookmark.http.port=9000\nbookmark.http.maxThreads=64\n"
+                + "bookmark.http.minThreads=8\nbookmark.http.acceptors=2\n").getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> environment = new HashMap<>();
+        environment.put("BOOKMARK_CONFIG", configFile.getAbsolutePath());
+        environment.put("BOOKMARK_HTTP_MAXTHREADS", "128");
+        environment.put("BOOKMARK_HTTP_ACCEPTORS", "3");
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.acceptors", "4");
+
+        InternalConfig internalConfig = ConfigLoader.load(environment, systemProperties);
+        assertEquals("Port should be read from the file", internalConfig.getHttpPort(), 9000);
+        assertEquals("Minimum threads should be read from the file", internalConfig.getMinThreads(), 8);
+        assertEquals("Environment should override the file", internalConfig.getMaxThreads(), 128);
+        assertEquals("System properties should override the environment", internalConfig.getAcceptors(), 4);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidValue() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.port", "port");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test
+    public void testLoadThreadMode() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.threadMode", "virtual");
+
+        InternalConfig internalConfig = ConfigLoader.load(Collections.emptyMap(), systemProperties);
+        assertEquals("Thread mode does not match", internalConfig.getThreadMode(), ThreadMode.VIRTUAL);
+    }
+
+    @Test
+    public void testLoadStorage() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.storage.directory", "/var/lib/bookmark");
+        systemProperties.setProperty("bookmark.storage.fsync", "interval");
+        systemProperties.setProperty("bookmark.storage.fsyncInterval", "50");
+
+        InternalConfig internalConfig = ConfigLoader.load(Collections.emptyMap(), systemProperties);
+        assertEquals("Storage directory does not match", internalConfig.getStorageDirectory(), "/var/lib/bookmark");
+        assertEquals("Fsync policy does not match", internalConfig.getFsyncPolicy(), FsyncPolicy.INTERVAL);
+        assertEquals("Fsync interval does not match", internalConfig.getFsyncInterval(), 50L);
+        assertEquals("Snapshot interval does not match", internalConfig.getSnapshotInterval(), 300L);
+        assertEquals("Storage engine does not match", internalConfig.getStorageEngine(), StorageEngine.MEMORY);
+    }
+
+    @Test
+    public void testLoadDiskStorage() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.storage.directory", "/var/lib/bookmark");
+        systemProperties.setProperty("bookmark.storage.engine", "disk");
+        systemProperties.setProperty("bookmark.storage.memTableSize", "1048576");
+
+        InternalConfig internalConfig = ConfigLoader.load(Collections.emptyMap(), systemProperties);
+        assertEquals("Storage engine does not match", internalConfig.getStorageEngine(), StorageEngine.DISK);
+        assertEquals("Table size does not match", internalConfig.getMemTableSize(), 1048576L);
+    }
+
+    @Test
+    public void testLoadShardedStorage() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.storage.engine", "sharded");
+        systemProperties.setProperty("bookmark.storage.shards", "8");
+
+        InternalConfig internalConfig = ConfigLoader.load(Collections.emptyMap(), systemProperties);
+        assertEquals("Storage engine does not match", internalConfig.getStorageEngine(), StorageEngine.SHARDED);
+        assertEquals("Shard count does not match", internalConfig.getStorageShards(), 8);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidPort() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.port", "65536");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidIdleTimeout() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.idleTimeout", "0");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidSessionTimeToLive() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.session.timeToLive", "-1");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidSessionIdleTimeout() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.session.idleTimeout", "0");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidShards() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.storage.shards", "0");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test
+    public void testLoadCompression() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.compression", "FALSE");
+        systemProperties.setProperty("bookmark.http.compressionMinSize", "256");
+        systemProperties.setProperty("bookmark.http.compressionLevel", "9");
+
+        InternalConfig internalConfig = ConfigLoader.load(Collections.emptyMap(), systemProperties);
+        assertFalse("Compression should be disabled", internalConfig.isCompression());
+        assertEquals("Compression minimum size does not match", internalConfig.getCompressionMinSize(), 256);
+        assertEquals("Compression level does not match", internalConfig.getCompressionLevel(), 9);
+    }
+
+    @Test
+    public void testLoadHttp2() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.http2", "true");
+        systemProperties.setProperty("bookmark.http.http2MaxConcurrentStreams", "512");
+
+        InternalConfig internalConfig = ConfigLoader.load(Collections.emptyMap(), systemProperties);
+        assertTrue("HTTP/2 should be enabled", internalConfig.isHttp2());
+        assertEquals("Concurrent streams do not match", internalConfig.getHttp2MaxConcurrentStreams(), 512);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidHttp2Streams() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.http2MaxConcurrentStreams", "0");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test
+    public void testLoadExecutor() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.executor.threads", "32");
+        systemProperties.setProperty("bookmark.executor.queueCapacity", "256");
+        systemProperties.setProperty("bookmark.executor.requestTimeout", "2000");
+
+        InternalConfig internalConfig = ConfigLoader.load(Collections.emptyMap(), systemProperties);
+        assertEquals("Executor threads do not match", internalConfig.getExecutorThreads(), 32);
+        assertEquals("Executor queue capacity does not match", internalConfig.getExecutorQueueCapacity(), 256);
+        assertEquals("Request timeout does not match", internalConfig.getRequestTimeout(), 2000L);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidRequestTimeout() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.executor.requestTimeout", "0");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test
+    public void testLoadLimits() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.limit.maxConcurrentRequests", "500");
+        systemProperties.setProperty("bookmark.limit.userRate", "5");
+        systemProperties.setProperty("bookmark.limit.readRate", "0");
+        systemProperties.setProperty("bookmark.limit.writeRate", "20");
+
+        InternalConfig internalConfig = ConfigLoader.load(Collections.emptyMap(), systemProperties);
+        assertEquals("Maximum concurrent requests do not match", internalConfig.getMaxConcurrentRequests(), 500);
+        assertEquals("User rate limit does not match", internalConfig.getUserRateLimit(), 5);
+        assertEquals("Read rate limit does not match", internalConfig.getReadRateLimit(), 0);
+        assertEquals("Write rate limit does not match", internalConfig.getWriteRateLimit(), 20);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidRateLimit() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.limit.writeRate", "-1");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidCompression() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.compression", "yes");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidCompressionLevel() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.compressionLevel", "10");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadDiskStorageWithoutDirectory() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.storage.engine", "disk");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidThreadMode() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.threadMode", "green");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadInvalidThreads() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.maxThreads", "2");
+        systemProperties.setProperty("bookmark.http.minThreads", "4");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadMetricsPathClash() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("bookmark.http.metricsPath", "/management");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testLoadMissingFile() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty(ConfigLoader.CONFIG_FILE_PROPERTY, "/nonexistent/bookmark.properties");
+
+        ConfigLoader.load(Collections.emptyMap(), systemProperties);
+    }
+}
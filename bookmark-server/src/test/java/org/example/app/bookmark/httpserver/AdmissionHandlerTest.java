@@ -0,0 +1,173 @@
+package org.example.app.bookmark.httpserver;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.example.app.bookmark.config.InternalConfig;
+import org.example.app.bookmark.javajws.IJavaJws;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.mockito.ArgumentCaptor;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.example.app.bookmark.testutils.TestUtils.printTestInfo;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AdmissionHandlerTest {
+
+    private static final String BOOKMARK_TARGET = "/management/bookmark";
+
+    private static final String AUTH_STRING = "token";
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private InternalConfig internalConfig;
+    private IJavaJws javaJws;
+    private AtomicLong clock;
+    private Handler handler;
+    private Request baseRequest;
+    private HttpServletResponse response;
+
+    @Before
+    public void setUp() {
+        internalConfig = new InternalConfig();
+        internalConfig.setUserRateLimit(1);
+        internalConfig.setReadRateLimit(0);
+        internalConfig.setWriteRateLimit(2);
+        javaJws = mock(IJavaJws.class);
+        clock = new AtomicLong();
+        handler = mock(Handler.class);
+        baseRequest = mock(Request.class);
+        response = mock(HttpServletResponse.class);
+        when(baseRequest.getMethod()).thenReturn("POST");
+        when(baseRequest.getRemoteAddr()).thenReturn("10.0.0.1");
+
+        printTestHeader(testName.getMethodName());
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testHandle() throws IOException, ServletException {
+        AdmissionHandler admissionHandler = createAdmissionHandler();
+
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        verify(handler).handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        verify(response, never()).setStatus(anyInt());
+        assertEquals("Finished request should not be counted", admissionHandler.getConcurrentRequests(), 0L);
+    }
+
+    @Test
+    public void testHandleRateLimited() throws IOException, ServletException {
+        AdmissionHandler admissionHandler = createAdmissionHandler();
+
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        verify(handler, times(2)).handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        verify(response).setStatus(429);
+        verify(response).setHeader("Retry-After", "1");
+        verify(baseRequest).setHandled(true);
+        assertEquals("Rate limited request count does not match", admissionHandler.getRateLimitedRequests(), 1L);
+
+        printTestInfo("Retrying once a token was added");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        verify(handler, times(3)).handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+    }
+
+    @Test
+    public void testHandleRateLimitedByUser() throws IOException, ServletException {
+        AdmissionHandler admissionHandler = createAdmissionHandler();
+        when(baseRequest.getHeader("Authorization")).thenReturn(AUTH_STRING);
+        when(javaJws.peekUser(AUTH_STRING)).thenReturn("user");
+
+        printTestInfo("Sending requests of one user from different addresses");
+        when(baseRequest.getRemoteAddr()).thenReturn("10.0.0.1", "10.0.0.2", "10.0.0.3");
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        verify(handler, times(2)).handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        verify(response).setStatus(429);
+        verify(javaJws, never()).authorizeUser(AUTH_STRING);
+    }
+
+    @Test
+    public void testHandleEndpointGroups() throws IOException, ServletException {
+        AdmissionHandler admissionHandler = createAdmissionHandler();
+        String loginTarget = "/management/user/login";
+
+        admissionHandler.handle(loginTarget, baseRequest, baseRequest, response);
+        admissionHandler.handle(loginTarget, baseRequest, baseRequest, response);
+        verify(handler).handle(loginTarget, baseRequest, baseRequest, response);
+        verify(response).setStatus(429);
+
+        printTestInfo("Reading bookmarks is not limited");
+        when(baseRequest.getMethod()).thenReturn("GET");
+        for (int i = 0; i < 10; i++) {
+            admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        }
+        verify(handler, times(10)).handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+
+        printTestInfo("Requests outside the REST API are not limited");
+        when(baseRequest.getMethod()).thenReturn("POST");
+        for (int i = 0; i < 10; i++) {
+            admissionHandler.handle("/metrics", baseRequest, baseRequest, response);
+        }
+        verify(handler, times(10)).handle("/metrics", baseRequest, baseRequest, response);
+    }
+
+    @Test
+    public void testHandleConcurrencyLimit() throws IOException, ServletException {
+        internalConfig.setMaxConcurrentRequests(1);
+        internalConfig.setWriteRateLimit(0);
+        AdmissionHandler admissionHandler = createAdmissionHandler();
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        when(baseRequest.isAsyncStarted()).thenReturn(true);
+        when(baseRequest.getAsyncContext()).thenReturn(asyncContext);
+
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        assertEquals("Asynchronous request should be counted", admissionHandler.getConcurrentRequests(), 1L);
+
+        printTestInfo("Sending a request while the asynchronous request is being handled");
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        verify(handler).handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertEquals("Shed request count does not match", admissionHandler.getShedRequests(), 1L);
+
+        printTestInfo("Completing the asynchronous request");
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(listener.capture());
+        listener.getValue().onComplete(null);
+        assertEquals("Completed request should not be counted", admissionHandler.getConcurrentRequests(), 0L);
+        admissionHandler.handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+        verify(handler, times(2)).handle(BOOKMARK_TARGET, baseRequest, baseRequest, response);
+    }
+
+    private AdmissionHandler createAdmissionHandler() {
+        AdmissionHandler admissionHandler = new AdmissionHandler(internalConfig, javaJws, clock::get);
+        admissionHandler.setHandler(handler);
+        return admissionHandler;
+    }
+}
@@ -2,6 +2,8 @@ package org.example.app.bookmark.httpserver;
 
 import org.eclipse.jetty.server.Server;
 import org.example.app.bookmark.config.InternalConfig;
+import org.example.app.bookmark.config.ThreadMode;
+import org.example.app.bookmark.exceptions.BadParametersException;
 import org.example.app.bookmark.testutils.TestUtils;
 import org.example.app.bookmark.utils.IUtils;
 import org.junit.After;
@@ -16,9 +18,9 @@ import static org.example.app.bookmark.testutils.TestUtils.printTestInfo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -51,15 +53,33 @@ public class HttpServerTest {
 
   @Test
   public void testConstructor() {
-    when(utils.setupJettyServer(any(), anyInt(), anyString())).thenReturn(server);
+    when(utils.setupJettyServer(any(), any())).thenReturn(server);
     HttpServer httpServer = new HttpServer(internalConfig, utils);
 
     assertFalse("Server should not be running yet", httpServer.isServerRunning());
   }
 
+  @Test
+  public void testConstructorVirtualThreads() {
+    internalConfig.setThreadMode(ThreadMode.VIRTUAL);
+    when(utils.setupJettyServer(any(), any())).thenReturn(server);
+
+    if (VirtualThreadPool.isAvailable()) {
+      new HttpServer(internalConfig, utils);
+      verify(utils).setupJettyServer(any(VirtualThreadPool.class), eq(internalConfig));
+    } else {
+      try {
+        new HttpServer(internalConfig, utils);
+        fail("Virtual threads should not be available");
+      } catch (BadParametersException exception) {
+        assertEquals("Message does not match", exception.getMessage(), VirtualThreadPool.NOT_AVAILABLE);
+      }
+    }
+  }
+
   @Test
   public void testStart() throws Exception {
-    when(utils.setupJettyServer(any(), anyInt(), anyString())).thenReturn(server);
+    when(utils.setupJettyServer(any(), any())).thenReturn(server);
     HttpServer httpServer = new HttpServer(internalConfig, utils);
 
     doNothing().when(utils).startJettyServer(server);
@@ -69,7 +89,7 @@ public class HttpServerTest {
 
   @Test
   public void testStartInvalid() throws Exception {
-    when(utils.setupJettyServer(any(), anyInt(), anyString())).thenReturn(server);
+    when(utils.setupJettyServer(any(), any())).thenReturn(server);
     HttpServer httpServer = new HttpServer(internalConfig, utils);
 
     doThrow(new Exception()).when(utils).startJettyServer(server);
@@ -79,7 +99,7 @@ public class HttpServerTest {
 
   @Test
   public void testJoin() throws InterruptedException {
-    when(utils.setupJettyServer(any(), anyInt(), anyString())).thenReturn(server);
+    when(utils.setupJettyServer(any(), any())).thenReturn(server);
     HttpServer httpServer = new HttpServer(internalConfig, utils);
 
     doNothing().when(server).join();
@@ -89,7 +109,7 @@ public class HttpServerTest {
 
   @Test(expected = InterruptedException.class)
   public void testJoinInvalid() throws InterruptedException {
-    when(utils.setupJettyServer(any(), anyInt(), anyString())).thenReturn(server);
+    when(utils.setupJettyServer(any(), any())).thenReturn(server);
     HttpServer httpServer = new HttpServer(internalConfig, utils);
 
     doThrow(new InterruptedException()).when(server).join();
@@ -99,7 +119,7 @@ public class HttpServerTest {
 
   @Test
   public void testClose() throws Exception {
-    when(utils.setupJettyServer(any(), anyInt(), anyString())).thenReturn(server);
+    when(utils.setupJettyServer(any(), any())).thenReturn(server);
     HttpServer httpServer = new HttpServer(internalConfig, utils);
 
     doNothing().when(utils).stopJettyServer(server);
@@ -109,7 +129,7 @@ public class HttpServerTest {
 
   @Test
   public void testCloseInvalid() throws Exception {
-    when(utils.setupJettyServer(any(), anyInt(), anyString())).thenReturn(server);
+    when(utils.setupJettyServer(any(), any())).thenReturn(server);
     HttpServer httpServer = new HttpServer(internalConfig, utils);
     boolean serverRunning = httpServer.isServerRunning();
 
@@ -0,0 +1,73 @@
+package org.example.app.bookmark.httpserver;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OverloadHandlerTest {
+
+    private static final int QUEUE_CAPACITY = 10;
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private QueuedThreadPool threadPool;
+    private Handler handler;
+    private Request baseRequest;
+    private HttpServletResponse response;
+    private OverloadHandler overloadHandler;
+
+    @Before
+    public void setUp() {
+        threadPool = mock(QueuedThreadPool.class);
+        handler = mock(Handler.class);
+        baseRequest = mock(Request.class);
+        response = mock(HttpServletResponse.class);
+        overloadHandler = new OverloadHandler(threadPool, QUEUE_CAPACITY);
+        overloadHandler.setHandler(handler);
+
+        printTestHeader(testName.getMethodName());
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testHandle() throws IOException, ServletException {
+        when(threadPool.getQueueSize()).thenReturn(QUEUE_CAPACITY / 2 - 1);
+
+        overloadHandler.handle("/", baseRequest, baseRequest, response);
+        verify(handler).handle("/", baseRequest, baseRequest, response);
+        verify(response, never()).setStatus(anyInt());
+    }
+
+    @Test
+    public void testHandleSaturated() throws IOException, ServletException {
+        when(threadPool.getQueueSize()).thenReturn(QUEUE_CAPACITY / 2);
+
+        overloadHandler.handle("/", baseRequest, baseRequest, response);
+        verify(handler, never()).handle("/", baseRequest, baseRequest, response);
+        verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(baseRequest).setHandled(true);
+    }
+}
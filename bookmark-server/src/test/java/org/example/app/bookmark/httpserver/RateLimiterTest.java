@@ -0,0 +1,78 @@
+package org.example.app.bookmark.httpserver;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.example.app.bookmark.testutils.TestUtils.printTestInfo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    private static final int RATE = 4;
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private AtomicLong clock;
+    private RateLimiter rateLimiter;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+        rateLimiter = new RateLimiter(RATE, clock::get);
+
+        printTestHeader(testName.getMethodName());
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testAcquireBurst() {
+        for (int i = 0; i < RATE; i++) {
+            assertEquals("Requests within the burst should be accepted", rateLimiter.acquire("client"), 0L);
+        }
+        long wait = rateLimiter.acquire("client");
+        assertEquals("Request over the burst should wait for one token", wait, TimeUnit.MILLISECONDS.toNanos(250));
+
+        printTestInfo("Other clients have their own bucket");
+        assertEquals("Request of another client should be accepted", rateLimiter.acquire("other"), 0L);
+    }
+
+    @Test
+    public void testAcquireRefill() {
+        for (int i = 0; i < RATE; i++) {
+            rateLimiter.acquire("client");
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertEquals("Request should be accepted once a token is added", rateLimiter.acquire("client"), 0L);
+        assertTrue("Next request should wait again", rateLimiter.acquire("client") > 0);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        for (int i = 0; i < RATE; i++) {
+            assertEquals("Bucket should be full again", rateLimiter.acquire("client"), 0L);
+        }
+    }
+
+    @Test
+    public void testSweep() {
+        rateLimiter.acquire("client");
+        rateLimiter.acquire("other");
+        assertEquals("Bucket count does not match", rateLimiter.size(), 2);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        rateLimiter.acquire("third");
+        assertEquals("Full buckets should be removed", rateLimiter.size(), 1);
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.rules.TestName;
 
 import java.lang.reflect.Field;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
 import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
@@ -35,6 +36,16 @@ public class JavaJwsTest {
                 case "secretKey":
                     field.set(javaJws, null);
                     break;
+                case "sessionSweeper":
+                    ((ExecutorService) field.get(javaJws)).shutdownNow();
+                    field.set(javaJws, null);
+                    break;
+                case "jwtParser":
+                    field.set(javaJws, null);
+                    break;
+                case "verifiedTokens":
+                    field.set(javaJws, null);
+                    break;
                 case "utils":
                     field.set(javaJws, null);
                     break;
@@ -175,4 +186,54 @@ public class JavaJwsTest {
         assertEquals("User should not be authorized", "", authUser);
     }
 
+    @Test
+    public void testAuthorizeUserRepeated() {
+        String username = "user";
+
+        this.javaJws = this.getJavaJws();
+        Map.Entry<JwsStatus, String> entry = this.javaJws.createJws(username);
+        assertEquals("User should be authorized", username, this.javaJws.authorizeUser(entry.getValue()));
+        assertEquals("User should be authorized", username, this.javaJws.authorizeUser(entry.getValue()));
+    }
+
+    @Test
+    public void testPeekUser() {
+        String username = "user";
+
+        this.javaJws = this.getJavaJws();
+        Map.Entry<JwsStatus, String> entry = this.javaJws.createJws(username);
+        assertEquals("Unverified token should not be recognized", "", this.javaJws.peekUser(entry.getValue()));
+        assertEquals("User should be authorized", username, this.javaJws.authorizeUser(entry.getValue()));
+        assertEquals("Verified token should be recognized", username, this.javaJws.peekUser(entry.getValue()));
+        assertEquals("Missing token should not be recognized", "", this.javaJws.peekUser(null));
+    }
+
+    @Test
+    public void testAuthorizeUserAfterAbolishJws() {
+        String username = "user";
+
+        this.javaJws = this.getJavaJws();
+        Map.Entry<JwsStatus, String> entry = this.javaJws.createJws(username);
+        assertEquals("User should be authorized", username, this.javaJws.authorizeUser(entry.getValue()));
+        this.javaJws.abolishJws(username, entry.getValue());
+        assertEquals("User should not be authorized", "", this.javaJws.authorizeUser(entry.getValue()));
+
+        Map.Entry<JwsStatus, String> newEntry = this.javaJws.createJws(username);
+        assertEquals("Old jws should not be authorized", "", this.javaJws.authorizeUser(entry.getValue()));
+        assertEquals("User should be authorized", username, this.javaJws.authorizeUser(newEntry.getValue()));
+    }
+
+    @Test
+    public void testSessionExpired() {
+        String username = "user";
+
+        this.javaJws = JavaJws.getInstance(0, JavaJws.DEFAULT_SESSION_IDLE_TIMEOUT);
+        Map.Entry<JwsStatus, String> entry = this.javaJws.createJws(username);
+        assertEquals("Creation of jws should succeed!", entry.getKey(), JwsStatus.CREATED);
+        assertFalse("Session should have expired", this.javaJws.checkUserLoggedIn(username));
+        assertEquals("User should not be authorized", "", this.javaJws.authorizeUser(entry.getValue()));
+
+        Map.Entry<JwsStatus, String> newEntry = this.javaJws.createJws(username);
+        assertEquals("Creation of jws should succeed after expiry!", newEntry.getKey(), JwsStatus.CREATED);
+    }
 }
@@ -0,0 +1,87 @@
+package org.example.app.bookmark.javajws;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SessionTableTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testCreate() {
+        SessionTable sessionTable = new SessionTable(1, 1, TimeUnit.HOURS);
+        long now = System.currentTimeMillis();
+
+        SessionTable.Session session = sessionTable.create("user", "id", now);
+        assertNotNull("Session should be created", session);
+        assertEquals("Expiry does not match", session.getExpiresAt(), now + TimeUnit.HOURS.toMillis(1));
+        assertTrue("Session should be active", sessionTable.isActive("user"));
+        assertNull("Second session should not be created", sessionTable.create("user", "id2", now));
+    }
+
+    @Test
+    public void testTouch() {
+        SessionTable sessionTable = new SessionTable(1, 1, TimeUnit.HOURS);
+        sessionTable.create("user", "id", System.currentTimeMillis());
+
+        assertTrue("Session id should match", sessionTable.touch("user", "id"));
+        assertFalse("Session id should not match", sessionTable.touch("user", "id2"));
+        assertFalse("Session should not exist", sessionTable.touch("user2", "id"));
+    }
+
+    @Test
+    public void testIdleTimeout() {
+        SessionTable sessionTable = new SessionTable(1, 1, TimeUnit.MINUTES);
+        sessionTable.create("user", "id", System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(2));
+
+        assertFalse("Idle session should not be active", sessionTable.isActive("user"));
+        assertFalse("Idle session should not be usable", sessionTable.touch("user", "id"));
+        assertNotNull("Session should replace the idle session",
+                sessionTable.create("user", "id2", System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testRemove() {
+        SessionTable sessionTable = new SessionTable(1, 1, TimeUnit.HOURS);
+        sessionTable.create("user", "id", System.currentTimeMillis());
+        sessionTable.remove("user");
+
+        assertFalse("Session should not be active", sessionTable.isActive("user"));
+    }
+
+    @Test
+    public void testSweep() {
+        SessionTable sessionTable = new SessionTable(1, 1, TimeUnit.MINUTES);
+        long now = System.currentTimeMillis();
+        sessionTable.create("user1", "id1", now - TimeUnit.MINUTES.toMillis(2));
+        sessionTable.create("user2", "id2", now);
+
+        assertEquals("One session should be removed", sessionTable.sweep(), 1);
+        assertEquals("One session should remain", sessionTable.size(), 1);
+        assertTrue("Active session should remain", sessionTable.isActive("user2"));
+    }
+}
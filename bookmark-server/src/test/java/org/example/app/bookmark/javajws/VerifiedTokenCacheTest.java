@@ -0,0 +1,99 @@
+package org.example.app.bookmark.javajws;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class VerifiedTokenCacheTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testGet() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, 1, TimeUnit.MINUTES);
+        cache.put("token", "user", "id");
+
+        VerifiedTokenCache.VerifiedToken token = cache.get("token");
+        assertNotNull("Token should be cached", token);
+        assertEquals("Subject does not match", token.getSubject(), "user");
+        assertEquals("Id does not match", token.getId(), "id");
+    }
+
+    @Test
+    public void testGetExpired() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, 0, TimeUnit.NANOSECONDS);
+        cache.put("token", "user", "id");
+
+        assertNull("Expired token should not be returned", cache.get("token"));
+        assertEquals("Expired token should be removed", cache.size(), 0);
+    }
+
+    @Test
+    public void testRemove() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, 1, TimeUnit.MINUTES);
+        cache.put("token", "user", "id");
+        cache.remove("token");
+
+        assertNull("Removed token should not be returned", cache.get("token"));
+    }
+
+    @Test
+    public void testPutFull() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2, 1, TimeUnit.MINUTES);
+        cache.put("token1", "user1", "id1");
+        cache.put("token2", "user2", "id2");
+        VerifiedTokenCache.VerifiedToken token = cache.put("token3", "user3", "id3");
+
+        assertEquals("Returned token subject does not match", token.getSubject(), "user3");
+        assertEquals("Cache should not grow over the maximum size", cache.size(), 2);
+        assertNull("Oldest token should be evicted", cache.get("token1"));
+        assertNotNull("Newest token should be cached", cache.get("token3"));
+    }
+
+    @Test
+    public void testPutOverMaximumSize() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, 1, TimeUnit.MINUTES);
+        cache.put("token0", "user0", "id0");
+        cache.remove("token0");
+        for (int i = 1; i <= 1000; i++) {
+            cache.put("token" + i, "user" + i, "id" + i);
+        }
+
+        assertEquals("Cache should not grow over the maximum size", cache.size(), 100);
+        assertNull("Old token should be evicted", cache.get("token900"));
+        for (int i = 901; i <= 1000; i++) {
+            assertNotNull("Recent token should be cached", cache.get("token" + i));
+        }
+    }
+
+    @Test
+    public void testSweep() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, 0, TimeUnit.NANOSECONDS);
+        cache.put("token1", "user1", "id1");
+        cache.put("token2", "user2", "id2");
+
+        assertEquals("Expired tokens should be swept", cache.sweep(), 2);
+        assertEquals("Cache should be empty", cache.size(), 0);
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.app.bookmark.metrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private LatencyHistogram latencyHistogram;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        latencyHistogram = new LatencyHistogram();
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testRecord() {
+        latencyHistogram.record(TimeUnit.MICROSECONDS.toNanos(50));
+        latencyHistogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        latencyHistogram.record(TimeUnit.MICROSECONDS.toNanos(101));
+        latencyHistogram.record(TimeUnit.SECONDS.toNanos(60));
+
+        long[] buckets = latencyHistogram.getBucketCounts();
+        assertEquals("Bucket count does not match", buckets.length, LatencyHistogram.getBucketCount());
+        assertEquals("Latencies up to the bound should be in the first bucket", buckets[0], 2L);
+        assertEquals("Latency above the bound should be in the second bucket", buckets[1], 1L);
+        assertEquals("Latency above all bounds should be in the last bucket", buckets[buckets.length - 1], 1L);
+        assertEquals("Sum does not match", latencyHistogram.getSum(),
+                TimeUnit.MICROSECONDS.toNanos(251) + TimeUnit.SECONDS.toNanos(60));
+    }
+
+    @Test
+    public void testGetBucketBound() {
+        assertEquals("First bound does not match", LatencyHistogram.getBucketBound(0), "0.0001");
+        assertEquals("Last bound does not match",
+                LatencyHistogram.getBucketBound(LatencyHistogram.getBucketCount() - 1), "+Inf");
+        assertEquals("Seconds do not match", LatencyHistogram.toSeconds(TimeUnit.MILLISECONDS.toNanos(2500)), "2.5");
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.app.bookmark.metrics;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.mockito.ArgumentCaptor;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import java.io.IOException;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MetricsHandlerTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private Handler handler;
+    private Request baseRequest;
+    private HttpServletResponse response;
+    private MetricsHandler metricsHandler;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        handler = mock(Handler.class);
+        baseRequest = mock(Request.class);
+        response = mock(HttpServletResponse.class);
+        metricsHandler = new MetricsHandler();
+        metricsHandler.setHandler(handler);
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testHandle() throws IOException, ServletException {
+        RouteMetrics route = new RouteMetrics("handler", "method");
+        when(baseRequest.getAttribute(MetricsHandler.ROUTE_ATTRIBUTE)).thenReturn(route);
+        when(response.getStatus()).thenReturn(HttpServletResponse.SC_CREATED);
+
+        metricsHandler.handle("/", baseRequest, baseRequest, response);
+        verify(handler).handle("/", baseRequest, baseRequest, response);
+        assertEquals("Request should have been recorded", route.getRequestCount(HttpServletResponse.SC_CREATED), 1L);
+    }
+
+    @Test
+    public void testHandleAsync() throws IOException, ServletException {
+        RouteMetrics route = new RouteMetrics("handler", "asyncMethod");
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        when(baseRequest.isAsyncStarted()).thenReturn(true);
+        when(baseRequest.getAsyncContext()).thenReturn(asyncContext);
+        when(baseRequest.getAttribute(MetricsHandler.ROUTE_ATTRIBUTE)).thenReturn(route);
+        when(response.getStatus()).thenReturn(HttpServletResponse.SC_OK);
+
+        metricsHandler.handle("/", baseRequest, baseRequest, response);
+        assertEquals("Request should not be recorded before it completes",
+                route.getRequestCount(HttpServletResponse.SC_OK), 0L);
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(listener.capture());
+        listener.getValue().onComplete(null);
+        assertEquals("Request should have been recorded", route.getRequestCount(HttpServletResponse.SC_OK), 1L);
+    }
+
+    @Test
+    public void testHandleWithoutRoute() throws IOException, ServletException {
+        metricsHandler.handle("/", baseRequest, baseRequest, response);
+        verify(handler).handle("/", baseRequest, baseRequest, response);
+    }
+
+    @Test
+    public void testFilter() throws NoSuchMethodException {
+        MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+        ResourceInfo resourceInfo = mock(ResourceInfo.class);
+        ContainerRequestContext requestContext = mock(ContainerRequestContext.class);
+        when(resourceInfo.getResourceMethod()).thenReturn(Object.class.getMethod("toString"));
+
+        new MetricsFilter(metricsRegistry, resourceInfo).filter(requestContext, mock(ContainerResponseContext.class));
+        verify(requestContext).setProperty(MetricsHandler.ROUTE_ATTRIBUTE,
+                metricsRegistry.getRoute(Object.class.getMethod("toString")));
+    }
+}
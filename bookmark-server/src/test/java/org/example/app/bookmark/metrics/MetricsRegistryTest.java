@@ -0,0 +1,106 @@
+package org.example.app.bookmark.metrics;
+
+import org.example.app.bookmark.bookmarkmanager.BookmarkStatus;
+import org.example.app.bookmark.rest.BookmarkHandler;
+import org.example.app.bookmark.usermanager.UserStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import javax.ws.rs.container.AsyncResponse;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private MetricsRegistry metricsRegistry;
+
+    private void resetFields() throws IllegalAccessException {
+        for (Field field : MetricsRegistry.class.getDeclaredFields()) {
+            field.setAccessible(true);
+            //Required for testing singleton
+            if ("instance".equals(field.getName())) {
+                field.set(null, null);
+            }
+        }
+    }
+
+    @Before
+    public void setUp() throws IllegalAccessException {
+        printTestHeader(testName.getMethodName());
+
+        resetFields();
+        metricsRegistry = MetricsRegistry.getInstance();
+    }
+
+    @After
+    public void tearDown() throws IllegalAccessException {
+        printTestFooter();
+        resetFields();
+    }
+
+    @Test
+    public void testGetInstance() {
+        assertSame("Instance should be reused", MetricsRegistry.getInstance(), metricsRegistry);
+    }
+
+    @Test
+    public void testGetRoute() throws NoSuchMethodException {
+        Method resourceMethod = BookmarkHandler.class.getMethod("getBookmark", String.class, Integer.class,
+                String.class, String.class, AsyncResponse.class);
+
+        RouteMetrics route = metricsRegistry.getRoute(resourceMethod);
+        assertSame("Route should be reused", metricsRegistry.getRoute(resourceMethod), route);
+        assertEquals("Handler does not match", route.getHandler(), "BookmarkHandler");
+        assertEquals("Method does not match", route.getMethod(), "getBookmark");
+        assertEquals("Unmatched route does not match", metricsRegistry.getRoute(null).getHandler(),
+                MetricsRegistry.UNMATCHED);
+    }
+
+    @Test
+    public void testScrape() throws NoSuchMethodException {
+        Method resourceMethod = BookmarkHandler.class.getMethod("getBookmark", String.class, Integer.class,
+                String.class, String.class, AsyncResponse.class);
+        metricsRegistry.getRoute(resourceMethod).record(200, TimeUnit.MILLISECONDS.toNanos(3));
+        metricsRegistry.getRoute(resourceMethod).record(200, TimeUnit.MILLISECONDS.toNanos(30));
+        metricsRegistry.getRoute(resourceMethod).record(401, TimeUnit.MILLISECONDS.toNanos(1));
+        metricsRegistry.recordBookmarkStatus(BookmarkStatus.UNAUTHORIZED);
+        metricsRegistry.recordUserStatus(UserStatus.REGISTERED);
+        metricsRegistry.registerGauge("bookmark_test_gauge", "Test gauge.", () -> 42);
+
+        String metrics = metricsRegistry.scrape();
+        String labels = "handler=\"BookmarkHandler\",method=\"getBookmark\"";
+        assertTrue("Request counter is missing",
+                metrics.contains(MetricsRegistry.REQUESTS + "{" + labels + ",code=\"200\"} 2\n"));
+        assertTrue("Request counter is missing",
+                metrics.contains(MetricsRegistry.REQUESTS + "{" + labels + ",code=\"401\"} 1\n"));
+        assertTrue("Histogram bucket is missing",
+                metrics.contains(MetricsRegistry.REQUEST_DURATION + "_bucket{" + labels + ",le=\"0.005\"} 2\n"));
+        assertTrue("Histogram bucket is missing",
+                metrics.contains(MetricsRegistry.REQUEST_DURATION + "_bucket{" + labels + ",le=\"+Inf\"} 3\n"));
+        assertTrue("Histogram sum is missing",
+                metrics.contains(MetricsRegistry.REQUEST_DURATION + "_sum{" + labels + "} 0.034\n"));
+        assertTrue("Histogram count is missing",
+                metrics.contains(MetricsRegistry.REQUEST_DURATION + "_count{" + labels + "} 3\n"));
+        assertTrue("Bookmark status counter is missing",
+                metrics.contains(MetricsRegistry.BOOKMARK_OPERATIONS + "{status=\"UNAUTHORIZED\"} 1\n"));
+        assertTrue("User status counter is missing",
+                metrics.contains(MetricsRegistry.USER_OPERATIONS + "{status=\"REGISTERED\"} 1\n"));
+        assertTrue("Gauge is missing", metrics.contains("# TYPE bookmark_test_gauge gauge\nbookmark_test_gauge 42\n"));
+        assertEquals("Gauge value does not match", metricsRegistry.readGauge("bookmark_test_gauge").getAsLong(), 42L);
+        assertFalse("Unknown gauge should have no value", metricsRegistry.readGauge("bookmark_unknown").isPresent());
+    }
+}
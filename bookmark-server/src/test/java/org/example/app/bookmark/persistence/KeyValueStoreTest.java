@@ -0,0 +1,167 @@
+package org.example.app.bookmark.persistence;
+
+import org.example.app.bookmark.config.FsyncPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestName;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class KeyValueStoreTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        directory = temporaryFolder.getRoot().toPath();
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testWriteAndScan() throws Exception {
+        KeyValueStore store = openStore(1024 * 1024);
+        store.awaitDurable(store.write(new WriteBatch().put(bytes("b"), bytes("2")).put(bytes("a"), bytes("1"))
+                .put(bytes("c"), bytes("3"))));
+        store.awaitDurable(store.write(new WriteBatch().delete(bytes("b")).put(bytes("a"), bytes("4"))));
+
+        assertEquals("Value does not match", string(store.get(bytes("a"))), "4");
+        assertNull("Deleted key should not be found", store.get(bytes("b")));
+        assertEquals("Scanned keys do not match", scanKeys(store, null, null), List.of("a", "c"));
+        assertEquals("Scanned range does not match", scanKeys(store, bytes("b"), bytes("c")), List.of());
+        store.close();
+    }
+
+    @Test
+    public void testFlushAndCompact() throws Exception {
+        KeyValueStore store = openStore(1024);
+        int keys = 2000;
+        for (int i = 0; i < keys; i++) {
+            store.awaitDurable(store.write(new WriteBatch().put(key(i), bytes("value" + i))));
+        }
+        for (int i = 0; i < keys; i += 2) {
+            store.awaitDurable(store.write(new WriteBatch().delete(key(i))));
+        }
+
+        // Up to three tables of each size are left unmerged, the sizes grow fourfold with every merge
+        assertTrue("Tables should be compacted", store.getTableCount() < 16);
+        assertEquals("Value does not match", string(store.get(key(1001))), "value1001");
+        assertNull("Deleted key should not be found", store.get(key(1000)));
+        assertEquals("Scanned key count does not match", scanKeys(store, null, null).size(), keys / 2);
+        store.close();
+
+        store = openStore(1024);
+        assertEquals("Value does not match after reopening", string(store.get(key(1999))), "value1999");
+        assertNull("Deleted key should not be found after reopening", store.get(key(0)));
+        assertEquals("Scanned key count does not match after reopening", scanKeys(store, null, null).size(),
+                keys / 2);
+        store.close();
+    }
+
+    @Test
+    public void testMergeKeepsLargerTables() throws Exception {
+        KeyValueStore store = openStore(1024);
+        for (int table = 0; table < 4; table++) {
+            writeTable(store, table);
+        }
+        assertEquals("Tables of similar size should be merged", awaitTableCount(store, 1), 1);
+        Path mergedTable = store.getTableFiles().get(0);
+
+        for (int table = 4; table < 7; table++) {
+            writeTable(store, table);
+            assertEquals("Smaller table should not be merged with a larger one", awaitTableCount(store, table - 2),
+                    table - 2);
+        }
+        writeTable(store, 7);
+        assertEquals("New tables should be merged", awaitTableCount(store, 2), 2);
+        assertEquals("Larger table should not be rewritten", store.getTableFiles().get(1), mergedTable);
+        assertTrue("Larger table should not be deleted", Files.exists(mergedTable));
+        assertEquals("Value does not match", string(store.get(key(0))), "value0");
+        assertEquals("Scanned key count does not match", scanKeys(store, null, null).size(), 800);
+        store.close();
+    }
+
+    @Test
+    public void testRecoverFromLog() throws Exception {
+        KeyValueStore store = openStore(1024 * 1024);
+        store.awaitDurable(store.write(new WriteBatch().put(bytes("user"), bytes("bookmark"))));
+        store.close();
+
+        store = openStore(1024 * 1024);
+        assertEquals("Value does not match", string(store.get(bytes("user"))), "bookmark");
+        assertEquals("No table should be written", store.getTableCount(), 0);
+        store.close();
+    }
+
+    private KeyValueStore openStore(final long memTableSize) throws Exception {
+        KeyValueStore store = new KeyValueStore(directory, FsyncPolicy.NEVER, 1, TimeUnit.SECONDS, memTableSize);
+        store.open();
+        return store;
+    }
+
+    private static void writeTable(final KeyValueStore store, final int table) {
+        // A single batch larger than the in-memory table is written to exactly one table file
+        WriteBatch batch = new WriteBatch();
+        for (int i = table * 100; i < (table + 1) * 100; i++) {
+            batch.put(key(i), bytes("value" + i));
+        }
+        store.awaitDurable(store.write(batch));
+    }
+
+    private static int awaitTableCount(final KeyValueStore store, final int expected) {
+        // Tables are written and merged by the background thread
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.getTableCount() != expected && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        return store.getTableCount();
+    }
+
+    private static List<String> scanKeys(final KeyValueStore store, final byte[] from, final byte[] to) {
+        List<String> keys = new ArrayList<>();
+        Iterator<Map.Entry<byte[], byte[]>> iterator = store.scan(from, to);
+        while (iterator.hasNext()) {
+            keys.add(string(iterator.next().getKey()));
+        }
+        return keys;
+    }
+
+    private static byte[] key(final int index) {
+        return bytes(String.format("key%05d", index));
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(final byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
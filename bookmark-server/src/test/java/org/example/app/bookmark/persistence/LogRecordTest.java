@@ -0,0 +1,100 @@
+package org.example.app.bookmark.persistence;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.exceptions.BadParametersException;
+import org.example.app.bookmark.user.User;
+import org.example.app.bookmark_api.model.UserData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LogRecordTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private Bookmark bookmark;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        bookmark = new Bookmark(new BookmarkLink(URI.create("https://example.org/ä?q=1"), "example ä"), true);
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testUserRegistered() {
+        UserData userData = new UserData();
+        userData.setName("user");
+        userData.setPassword("password");
+        User user = new User(userData);
+
+        LogRecord record = LogRecord.fromBytes(LogRecord.userRegistered(user).toBytes());
+        assertEquals("Type does not match", record.getType(), LogRecord.Type.USER_REGISTERED);
+        assertEquals("Username does not match", record.getUsername(), "user");
+        assertArrayEquals("Salt does not match", record.getUser().getSalt(), user.getSalt());
+        assertArrayEquals("Password hash does not match", record.getUser().getPasswordHash(), user.getPasswordHash());
+        assertTrue("Recovered user should accept the password", record.getUser().checkPassword("password"));
+    }
+
+    @Test
+    public void testBookmarkAdded() {
+        LogRecord record = LogRecord.fromBytes(LogRecord.bookmarkAdded("user", bookmark).toBytes());
+        assertEquals("Type does not match", record.getType(), LogRecord.Type.BOOKMARK_ADDED);
+        assertEquals("Username does not match", record.getUsername(), "user");
+        assertNull("Bookmark name should not be set", record.getBookmarkName());
+        assertBookmark(record.getBookmark());
+    }
+
+    @Test
+    public void testBookmarkUpdated() {
+        LogRecord record = LogRecord.fromBytes(LogRecord.bookmarkUpdated("user", "old", bookmark).toBytes());
+        assertEquals("Type does not match", record.getType(), LogRecord.Type.BOOKMARK_UPDATED);
+        assertEquals("Bookmark name does not match", record.getBookmarkName(), "old");
+        assertBookmark(record.getBookmark());
+    }
+
+    @Test
+    public void testBookmarkDeleted() {
+        LogRecord record = LogRecord.fromBytes(LogRecord.bookmarkDeleted("user", "old").toBytes());
+        assertEquals("Type does not match", record.getType(), LogRecord.Type.BOOKMARK_DELETED);
+        assertEquals("Bookmark name does not match", record.getBookmarkName(), "old");
+        assertNull("Bookmark should not be set", record.getBookmark());
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testFromBytesTruncated() {
+        byte[] bytes = LogRecord.bookmarkAdded("user", bookmark).toBytes();
+        LogRecord.fromBytes(Arrays.copyOf(bytes, bytes.length - 2));
+    }
+
+    @Test(expected = BadParametersException.class)
+    public void testFromBytesUnknownType() {
+        LogRecord.fromBytes(new byte[]{(byte) 100, 0, 0, 0, 0});
+    }
+
+    private void assertBookmark(final Bookmark recovered) {
+        assertEquals("Name does not match", recovered.getBookmarkLink().getUriName(),
+                bookmark.getBookmarkLink().getUriName());
+        assertEquals("URI does not match", recovered.getBookmarkLink().getUri(), bookmark.getBookmarkLink().getUri());
+        assertEquals("Access does not match", recovered.isPrivate(), bookmark.isPrivate());
+    }
+}
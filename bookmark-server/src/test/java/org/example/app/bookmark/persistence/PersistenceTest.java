@@ -0,0 +1,236 @@
+package org.example.app.bookmark.persistence;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.config.FsyncPolicy;
+import org.example.app.bookmark.config.InternalConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestName;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PersistenceTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private InternalConfig internalConfig;
+
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        directory = temporaryFolder.getRoot().toPath().resolve("storage");
+        internalConfig = new InternalConfig();
+        internalConfig.setStorageDirectory(directory.toString());
+        internalConfig.setFsyncPolicy(FsyncPolicy.ALWAYS);
+        internalConfig.setSnapshotInterval(3600);
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        internalConfig.setStorageDirectory("");
+        Persistence persistence = new Persistence(internalConfig);
+        assertFalse("Persistence should be disabled", persistence.isEnabled());
+        assertSame("Journal should not record anything", persistence.getJournal(), IJournal.NONE);
+
+        persistence.start(Collections.singletonList(new BookmarkState(persistence.getJournal())));
+        persistence.close();
+        assertFalse("Storage directory should not be created", Files.exists(directory));
+    }
+
+    @Test
+    public void testRestart() throws Exception {
+        Persistence persistence = new Persistence(internalConfig);
+        BookmarkState state = start(persistence);
+        state.add("a");
+        state.add("b");
+        state.add("c");
+        state.delete("a");
+        state.rename("b", "d");
+        persistence.close();
+
+        assertEquals("Only the final snapshot should be kept",
+                LogFile.list(directory, SnapshotFile.PREFIX, SnapshotFile.SUFFIX).size(), 1);
+        assertEquals("Only the segment after the snapshot should be kept",
+                LogFile.list(directory, WriteAheadLog.SEGMENT_PREFIX, WriteAheadLog.SEGMENT_SUFFIX).size(), 1);
+
+        persistence = new Persistence(internalConfig);
+        BookmarkState recovered = start(persistence);
+        assertEquals("Recovered bookmarks do not match", recovered.names(), "[c, d]");
+        recovered.add("e");
+        persistence.close();
+
+        persistence = new Persistence(internalConfig);
+        assertEquals("Recovered bookmarks do not match", start(persistence).names(), "[c, d, e]");
+        persistence.close();
+    }
+
+    @Test
+    public void testRecoverSnapshotAndLog() throws Exception {
+        Persistence persistence = new Persistence(internalConfig);
+        BookmarkState state = start(persistence);
+        state.add("a");
+        state.add("b");
+        persistence.snapshot();
+        state.delete("a");
+        state.add("c");
+        crash(persistence);
+
+        persistence = new Persistence(internalConfig);
+        BookmarkState recovered = start(persistence);
+        assertEquals("Recovered bookmarks do not match", recovered.names(), "[b, c]");
+        recovered.add("d");
+        crash(persistence);
+
+        persistence = new Persistence(internalConfig);
+        assertEquals("Recovered bookmarks do not match", start(persistence).names(), "[b, c, d]");
+        persistence.close();
+    }
+
+    @Test
+    public void testRecoverTornLog() throws Exception {
+        Persistence persistence = new Persistence(internalConfig);
+        BookmarkState state = start(persistence);
+        state.add("a");
+        state.add("b");
+        crash(persistence);
+
+        List<Path> segments = LogFile.list(directory, WriteAheadLog.SEGMENT_PREFIX, WriteAheadLog.SEGMENT_SUFFIX);
+        Path lastSegment = segments.get(segments.size() - 1);
+        byte[] frame = Files.readAllBytes(lastSegment);
+        Files.write(lastSegment, new byte[]{frame[0], frame[1], frame[2]}, StandardOpenOption.APPEND);
+
+        persistence = new Persistence(internalConfig);
+        BookmarkState recovered = start(persistence);
+        assertEquals("Recovered bookmarks do not match", recovered.names(), "[a, b]");
+        recovered.add("c");
+        crash(persistence);
+
+        persistence = new Persistence(internalConfig);
+        assertEquals("Records after the torn record should be recovered", start(persistence).names(), "[a, b, c]");
+        persistence.close();
+    }
+
+    @Test
+    public void testRecoverDamagedSnapshot() throws Exception {
+        Persistence persistence = new Persistence(internalConfig);
+        start(persistence).add("a");
+        persistence.close();
+
+        Path snapshot = LogFile.list(directory, SnapshotFile.PREFIX, SnapshotFile.SUFFIX).get(0);
+        Files.write(snapshot, new byte[]{1}, StandardOpenOption.APPEND);
+
+        persistence = new Persistence(internalConfig);
+        try {
+            start(persistence);
+            fail("Damaged snapshot should not be loaded");
+        } catch (IOException e) {
+            assertTrue("Message does not match", e.getMessage().startsWith(SnapshotFile.DAMAGED));
+        }
+    }
+
+    private static BookmarkState start(final Persistence persistence) throws Exception {
+        BookmarkState state = new BookmarkState(persistence.getJournal());
+        persistence.start(Collections.singletonList(state));
+        return state;
+    }
+
+    private static void crash(final Persistence persistence) throws Exception {
+        ((WriteAheadLog) persistence.getJournal()).close();
+    }
+
+    private static final class BookmarkState implements IRecoverable {
+
+        private final IJournal journal;
+
+        private final Map<String, Bookmark> bookmarks = new ConcurrentSkipListMap<>();
+
+        BookmarkState(final IJournal journal) {
+            this.journal = journal;
+        }
+
+        void add(final String name) {
+            record(LogRecord.bookmarkAdded("user", bookmark(name)));
+        }
+
+        void delete(final String name) {
+            record(LogRecord.bookmarkDeleted("user", name));
+        }
+
+        void rename(final String name, final String newName) {
+            record(LogRecord.bookmarkUpdated("user", name, bookmark(newName)));
+        }
+
+        String names() {
+            return bookmarks.keySet().toString();
+        }
+
+        @Override
+        public void apply(final LogRecord record) {
+            switch (record.getType()) {
+                case BOOKMARK_ADDED:
+                    bookmarks.put(record.getBookmark().getBookmarkLink().getUriName(), record.getBookmark());
+                    break;
+                case BOOKMARK_UPDATED:
+                    bookmarks.remove(record.getBookmarkName());
+                    bookmarks.put(record.getBookmark().getBookmarkLink().getUriName(), record.getBookmark());
+                    break;
+                case BOOKMARK_DELETED:
+                    bookmarks.remove(record.getBookmarkName());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void load(final SnapshotSection section) {
+            section.forEach(this::apply);
+        }
+
+        @Override
+        public void export(final ISnapshotWriter snapshot) {
+            bookmarks.values().forEach(bookmark -> snapshot.write(LogRecord.bookmarkAdded("user", bookmark)));
+        }
+
+        private void record(final LogRecord record) {
+            apply(record);
+            journal.awaitDurable(journal.append(record));
+        }
+
+        private static Bookmark bookmark(final String name) {
+            return new Bookmark(new BookmarkLink(URI.create("https://example.org/" + name), name), false);
+        }
+    }
+}
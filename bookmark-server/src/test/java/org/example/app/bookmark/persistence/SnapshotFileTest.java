@@ -0,0 +1,166 @@
+package org.example.app.bookmark.persistence;
+
+import org.example.app.bookmark.bookmark.Bookmark;
+import org.example.app.bookmark.bookmark.BookmarkLink;
+import org.example.app.bookmark.user.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SnapshotFileTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        directory = temporaryFolder.getRoot().toPath();
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path snapshot = SnapshotFile.write(directory, 42, Collections.singletonList(new RecordState(
+                LogRecord.userRegistered(new User("alice", new byte[]{1}, new byte[]{2, 3})),
+                LogRecord.userRegistered(new User("bob", new byte[]{4}, new byte[]{5})),
+                LogRecord.bookmarkAdded("alice", bookmark("a", true)),
+                LogRecord.bookmarkAdded("alice", bookmark("b", false)),
+                LogRecord.bookmarkAdded("bob", bookmark("ä", false)))));
+        assertEquals("Snapshot name does not match", snapshot.getFileName().toString(),
+                "snapshot-00000000000000000042.dat");
+
+        List<SnapshotSection> sections = new ArrayList<>();
+        SnapshotFile.read(snapshot, sections::add);
+        assertEquals("Section count does not match", sections.size(), 3);
+        assertEquals("Users should be in one section", sections.get(0).size(), 2);
+        assertEquals("Owner does not match", sections.get(1).getOwner(), "alice");
+        assertEquals("Bookmark count does not match", sections.get(1).size(), 2);
+        assertEquals("Owner does not match", sections.get(2).getOwner(), "bob");
+
+        List<LogRecord> users = decode(sections.get(0));
+        assertEquals("Username does not match", users.get(1).getUsername(), "bob");
+        assertEquals("Password hash does not match", Arrays.toString(users.get(0).getUser().getPasswordHash()),
+                "[2, 3]");
+        List<LogRecord> bookmarks = decode(sections.get(1));
+        assertEquals("Bookmark owner does not match", bookmarks.get(0).getUsername(), "alice");
+        assertTrue("Access does not match", bookmarks.get(0).getBookmark().isPrivate());
+        assertEquals("Location does not match", bookmarks.get(1).getBookmark().getBookmarkLink().getUri(),
+                URI.create("https://example.org/b"));
+        assertEquals("Name does not match",
+                decode(sections.get(2)).get(0).getBookmark().getBookmarkLink().getUriName(), "ä");
+    }
+
+    @Test
+    public void testCopy() throws IOException {
+        Path snapshot = SnapshotFile.write(directory, 1, Collections.singletonList(new RecordState(
+                LogRecord.bookmarkAdded("alice", bookmark("a", false)),
+                LogRecord.bookmarkAdded("bob", bookmark("b", true)))));
+        List<SnapshotSection> sections = new ArrayList<>();
+        SnapshotFile.read(snapshot, sections::add);
+
+        IRecoverable copyingState = new RecordState() {
+            @Override
+            public void export(final ISnapshotWriter writer) {
+                writer.write(LogRecord.bookmarkAdded("carol", bookmark("c", false)));
+                sections.forEach(writer::copy);
+            }
+        };
+        Path copy = SnapshotFile.write(directory, 2, Collections.singletonList(copyingState));
+        List<SnapshotSection> copiedSections = new ArrayList<>();
+        SnapshotFile.read(copy, copiedSections::add);
+        assertEquals("Section count does not match", copiedSections.size(), 3);
+        assertEquals("Owner does not match", copiedSections.get(2).getOwner(), "bob");
+        assertTrue("Copied bookmark does not match",
+                decode(copiedSections.get(2)).get(0).getBookmark().isPrivate());
+    }
+
+    @Test
+    public void testDamagedSection() throws IOException {
+        Path snapshot = SnapshotFile.write(directory, 1, Collections.singletonList(new RecordState(
+                LogRecord.bookmarkAdded("alice", bookmark("a", false)))));
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 3]++;
+        Files.write(snapshot, bytes);
+
+        List<SnapshotSection> sections = new ArrayList<>();
+        SnapshotFile.read(snapshot, sections::add);
+        try {
+            decode(sections.get(0));
+            fail("Damaged section should not be decoded");
+        } catch (UncheckedIOException e) {
+            assertTrue("Message does not match", e.getCause().getMessage().startsWith(SnapshotFile.DAMAGED));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        Path snapshot = SnapshotFile.write(directory, 1, Collections.singletonList(new RecordState(
+                LogRecord.bookmarkAdded("alice", bookmark("a", false)))));
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 1));
+
+        SnapshotFile.read(snapshot, section -> { });
+    }
+
+    private static List<LogRecord> decode(final SnapshotSection section) {
+        List<LogRecord> records = new ArrayList<>();
+        section.forEach(records::add);
+        return records;
+    }
+
+    private static Bookmark bookmark(final String name, final boolean isPrivate) {
+        return new Bookmark(new BookmarkLink(URI.create("https://example.org/" + name), name), isPrivate);
+    }
+
+    private static class RecordState implements IRecoverable {
+
+        private final List<LogRecord> records;
+
+        RecordState(final LogRecord... records) {
+            this.records = Arrays.asList(records);
+        }
+
+        @Override
+        public void apply(final LogRecord record) {
+        }
+
+        @Override
+        public void load(final SnapshotSection section) {
+        }
+
+        @Override
+        public void export(final ISnapshotWriter writer) {
+            records.forEach(writer::write);
+        }
+    }
+}
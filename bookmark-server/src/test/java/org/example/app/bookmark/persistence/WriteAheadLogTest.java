@@ -0,0 +1,147 @@
+package org.example.app.bookmark.persistence;
+
+import org.example.app.bookmark.config.FsyncPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestName;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.junit.Assert.assertEquals;
+
+public class WriteAheadLogTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+
+        directory = temporaryFolder.getRoot().toPath();
+    }
+
+    @After
+    public void tearDown() {
+        printTestFooter();
+    }
+
+    @Test
+    public void testAppendAlways() throws Exception {
+        testAppend(FsyncPolicy.ALWAYS);
+    }
+
+    @Test
+    public void testAppendInterval() throws Exception {
+        testAppend(FsyncPolicy.INTERVAL);
+    }
+
+    @Test
+    public void testAppendNever() throws Exception {
+        testAppend(FsyncPolicy.NEVER);
+    }
+
+    @Test
+    public void testConcurrentAppend() throws Exception {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, FsyncPolicy.ALWAYS, 1, TimeUnit.SECONDS);
+        writeAheadLog.open(0);
+
+        int threads = 8;
+        int recordsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String username = "user" + i;
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < recordsPerThread; j++) {
+                    writeAheadLog.awaitDurable(writeAheadLog.append(LogRecord.bookmarkDeleted(username, "b" + j)));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        writeAheadLog.close();
+
+        List<Long> sequences = readSequences();
+        assertEquals("Record count does not match", sequences.size(), threads * recordsPerThread);
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals("Records should be written in sequence order", sequences.get(i), Long.valueOf(i + 1));
+        }
+    }
+
+    @Test
+    public void testRoll() throws Exception {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, FsyncPolicy.ALWAYS, 1, TimeUnit.SECONDS);
+        writeAheadLog.open(10);
+        writeAheadLog.awaitDurable(writeAheadLog.append(LogRecord.bookmarkDeleted("user", "a")));
+        assertEquals("Roll should return the last sequence", writeAheadLog.roll(), 11L);
+        writeAheadLog.awaitDurable(writeAheadLog.append(LogRecord.bookmarkDeleted("user", "b")));
+        writeAheadLog.close();
+
+        List<Path> segments = LogFile.list(directory, WriteAheadLog.SEGMENT_PREFIX, WriteAheadLog.SEGMENT_SUFFIX);
+        assertEquals("Segment count does not match", segments.size(), 2);
+        assertEquals("First segment does not match", segments.get(0).getFileName().toString(),
+                "wal-00000000000000000011.log");
+        assertEquals("Second segment does not match", segments.get(1).getFileName().toString(),
+                "wal-00000000000000000012.log");
+        assertEquals("Last sequence does not match", writeAheadLog.getLastSequence(), 12L);
+        assertEquals("Records do not match", readSequences(), Arrays.asList(11L, 12L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAppendNotOpen() {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, FsyncPolicy.ALWAYS, 1, TimeUnit.SECONDS);
+        writeAheadLog.append(LogRecord.bookmarkDeleted("user", "a"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAppendClosed() throws Exception {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, FsyncPolicy.ALWAYS, 1, TimeUnit.SECONDS);
+        writeAheadLog.open(0);
+        writeAheadLog.close();
+        writeAheadLog.append(LogRecord.bookmarkDeleted("user", "a"));
+    }
+
+    private void testAppend(final FsyncPolicy fsyncPolicy) throws Exception {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, fsyncPolicy, 10, TimeUnit.MILLISECONDS);
+        writeAheadLog.open(0);
+        for (int i = 1; i <= 3; i++) {
+            long sequence = writeAheadLog.append(LogRecord.bookmarkDeleted("user", "b" + i));
+            assertEquals("Sequence does not match", sequence, (long) i);
+            writeAheadLog.awaitDurable(sequence);
+        }
+        writeAheadLog.close();
+
+        List<Long> sequences = readSequences();
+        assertEquals("Record count does not match", sequences.size(), 3);
+        assertEquals("Last sequence does not match", sequences.get(2), Long.valueOf(3));
+    }
+
+    private List<Long> readSequences() throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        for (Path segment : LogFile.list(directory, WriteAheadLog.SEGMENT_PREFIX, WriteAheadLog.SEGMENT_SUFFIX)) {
+            LogFile.readFrames(segment, (sequence, record) -> sequences.add(sequence));
+        }
+        return sequences;
+    }
+}
@@ -1,28 +1,56 @@
 package org.example.app.bookmark.rest;
 
+import org.example.app.bookmark.bookmarkmanager.BookmarkPage;
 import org.example.app.bookmark.bookmarkmanager.BookmarkStatus;
 import org.example.app.bookmark.bookmarkmanager.IBookmarkManager;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.app.bookmark_api.model.Bookmark;
+import org.example.app.bookmark_api.model.BookmarkAccess;
+import org.example.app.bookmark_api.model.BookmarkBatchResult;
+import org.example.app.bookmark_api.model.BookmarkBatchStatus;
 import org.example.app.bookmark_api.model.BookmarkLink;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestName;
+import org.mockito.ArgumentCaptor;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
 import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
 import static org.example.app.bookmark.testutils.TestUtils.printTestInfo;
+import static org.example.app.bookmark.testutils.TestUtils.resume;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class BookmarkHandlerTest {
@@ -36,6 +64,9 @@ public class BookmarkHandlerTest {
     public void setUp() {
         printTestHeader(testName.getMethodName());
         bookmarkManager = mock(IBookmarkManager.class);
+        when(bookmarkManager.getBookmarkTag(any())).thenReturn(new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, "1"));
+        when(bookmarkManager.getPublicBookmarkTag(any()))
+                .thenReturn(new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, "2"));
     }
 
     @After
@@ -46,14 +77,16 @@ public class BookmarkHandlerTest {
     @Test
     public void testGetBookmark() {
         String authString = "authString";
-        List<Bookmark> bookmarkList = new ArrayList<>();
-        Map.Entry<BookmarkStatus, List<Bookmark>> entry = new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, bookmarkList);
+        Collection<org.example.app.bookmark.bookmark.Bookmark> bookmarkList = new ArrayList<>();
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, bookmarkList);
 
-        when(bookmarkManager.getBookmarks(authString)).thenReturn(entry);
+        when(bookmarkManager.getBookmarkView(authString)).thenReturn(entry);
 
         printTestInfo("Getting user bookmarks");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response getResponse = bookmarkHandler.getBookmark(authString);
+        Response getResponse = resume(asyncResponse ->
+                bookmarkHandler.getBookmark(authString, null, null, null, asyncResponse));
         assertEquals("Get operation should be valid",
                 getResponse.getStatus(), Response.Status.OK.getStatusCode());
     }
@@ -61,14 +94,16 @@ public class BookmarkHandlerTest {
     @Test
     public void testGetBookmarkUnauthorized() {
         String authString = "authString";
-        List<Bookmark> bookmarkList = new ArrayList<>();
-        Map.Entry<BookmarkStatus, List<Bookmark>> entry = new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, bookmarkList);
+        Collection<org.example.app.bookmark.bookmark.Bookmark> bookmarkList = new ArrayList<>();
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, bookmarkList);
 
-        when(bookmarkManager.getBookmarks(authString)).thenReturn(entry);
+        when(bookmarkManager.getBookmarkView(authString)).thenReturn(entry);
 
         printTestInfo("Getting user bookmarks");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response getResponse = bookmarkHandler.getBookmark(authString);
+        Response getResponse = resume(asyncResponse ->
+                bookmarkHandler.getBookmark(authString, null, null, null, asyncResponse));
         assertEquals("Get operation should be invalid, user not authorized",
                 getResponse.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode());
     }
@@ -76,18 +111,140 @@ public class BookmarkHandlerTest {
     @Test
     public void testGetBookmarkInternalServerError() {
         String authString = "authString";
-        List<Bookmark> bookmarkList = new ArrayList<>();
-        Map.Entry<BookmarkStatus, List<Bookmark>> entry = new AbstractMap.SimpleEntry<>(BookmarkStatus.DELETED, bookmarkList);
+        Collection<org.example.app.bookmark.bookmark.Bookmark> bookmarkList = new ArrayList<>();
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.DELETED, bookmarkList);
 
-        when(bookmarkManager.getBookmarks(authString)).thenReturn(entry);
+        when(bookmarkManager.getBookmarkView(authString)).thenReturn(entry);
 
         printTestInfo("Getting user bookmarks");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response getResponse = bookmarkHandler.getBookmark(authString);
+        Response getResponse = resume(asyncResponse ->
+                bookmarkHandler.getBookmark(authString, null, null, null, asyncResponse));
         assertEquals("Get operation should be invalid, unrecognized signal",
                 getResponse.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
     }
 
+    @Test
+    public void testGetBookmarkStreamedJson() throws IOException {
+        String authString = "authString";
+        Bookmark bookmark = new Bookmark();
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName("\"Quoted\" name");
+        bookmarkLink.setUri(URI.create("http://example.org/?q=a&b=c"));
+        bookmark.setBookmarkLink(bookmarkLink);
+        bookmark.setAccess(BookmarkAccess.PRIVATE);
+        Collection<org.example.app.bookmark.bookmark.Bookmark> bookmarkList = new ArrayList<>();
+        bookmarkList.add(new org.example.app.bookmark.bookmark.Bookmark(bookmark));
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, bookmarkList);
+
+        when(bookmarkManager.getBookmarkView(authString)).thenReturn(entry);
+
+        printTestInfo("Getting user bookmarks");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response getResponse = resume(asyncResponse ->
+                bookmarkHandler.getBookmark(authString, null, null, null, asyncResponse));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingOutput) getResponse.getEntity()).write(outputStream);
+        List<Bookmark> bookmarks = new ObjectMapper().readValue(outputStream.toByteArray(),
+                new TypeReference<List<Bookmark>>() { });
+        assertEquals("Streamed bookmarks should match the api model", bookmarks.size(), 1);
+        assertEquals("Streamed bookmarks should match the api model", bookmarks.get(0), bookmark);
+    }
+
+    @Test
+    public void testGetBookmarkTag() {
+        String authString = "authString";
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, new ArrayList<>());
+
+        when(bookmarkManager.getBookmarkView(authString)).thenReturn(entry);
+
+        printTestInfo("Getting user bookmarks with an outdated entity tag");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response getResponse = resume(asyncResponse ->
+                bookmarkHandler.getBookmark(authString, null, null, "\"0\"", asyncResponse));
+        assertEquals("Get operation should be valid",
+                getResponse.getStatus(), Response.Status.OK.getStatusCode());
+        assertEquals("Entity tag does not match", getResponse.getEntityTag(), new EntityTag("1"));
+        assertEquals("Tagged response should vary on the user",
+                getResponse.getHeaderString(HttpHeaders.VARY), HttpHeaders.AUTHORIZATION);
+    }
+
+    @Test
+    public void testGetBookmarkNotModified() {
+        String authString = "authString";
+
+        printTestInfo("Getting user bookmarks with the current entity tag");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response getResponse = resume(asyncResponse ->
+                bookmarkHandler.getBookmark(authString, 10, null, "\"0\", W/\"1\"", asyncResponse));
+        assertEquals("Get operation should not return the bookmarks",
+                getResponse.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode());
+        assertEquals("Entity tag does not match", getResponse.getEntityTag(), new EntityTag("1"));
+        assertEquals("Not modified response should vary on the user",
+                getResponse.getHeaderString(HttpHeaders.VARY), HttpHeaders.AUTHORIZATION);
+        assertNull("Not modified response should not have a body", getResponse.getEntity());
+        verify(bookmarkManager, never()).getBookmarkView(any());
+        verify(bookmarkManager, never()).getBookmarks(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testGetBookmarkTagUnauthorized() {
+        String authString = "authString";
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null);
+
+        when(bookmarkManager.getBookmarkTag(authString))
+                .thenReturn(new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null));
+        when(bookmarkManager.getBookmarkView(authString)).thenReturn(entry);
+
+        printTestInfo("Getting user bookmarks with any entity tag");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response getResponse = resume(asyncResponse ->
+                bookmarkHandler.getBookmark(authString, null, null, "*", asyncResponse));
+        assertEquals("Get operation should be invalid, user not authorized",
+                getResponse.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode());
+        assertNull("Unauthorized response should not have an entity tag", getResponse.getEntityTag());
+    }
+
+    @Test
+    public void testGetBookmarkPage() {
+        String authString = "authString";
+        String cursor = "cursor";
+        BookmarkPage<Bookmark> page = new BookmarkPage<>(new ArrayList<>(), "nextCursor");
+        Map.Entry<BookmarkStatus, BookmarkPage<Bookmark>> entry = new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, page);
+
+        when(bookmarkManager.getBookmarks(authString, cursor, 10)).thenReturn(entry);
+
+        printTestInfo("Getting user bookmark page");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response getResponse = resume(asyncResponse ->
+                bookmarkHandler.getBookmark(authString, 10, cursor, null, asyncResponse));
+        assertEquals("Get operation should be valid",
+                getResponse.getStatus(), Response.Status.OK.getStatusCode());
+        assertEquals("Next cursor should be returned",
+                getResponse.getHeaderString(BookmarkHandler.NEXT_CURSOR_HEADER), "nextCursor");
+    }
+
+    @Test
+    public void testGetBookmarkPageInvalidCursor() {
+        String authString = "authString";
+        String cursor = "cursor";
+        Map.Entry<BookmarkStatus, BookmarkPage<Bookmark>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.INVALID_DATA, null);
+
+        when(bookmarkManager.getBookmarks(authString, cursor, BookmarkPage.DEFAULT_LIMIT)).thenReturn(entry);
+
+        printTestInfo("Getting user bookmark page");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response getResponse = resume(asyncResponse ->
+                bookmarkHandler.getBookmark(authString, null, cursor, null, asyncResponse));
+        assertEquals("Get operation should be invalid, bad cursor",
+                getResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
     @Test
     public void testAddBookmark() {
         String authString = "authString";
@@ -100,7 +257,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Adding user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response addResponse = bookmarkHandler.addBookmark(bookmark, authString);
+        Response addResponse = resume(asyncResponse ->
+                bookmarkHandler.addBookmark(bookmark, authString, asyncResponse));
         assertEquals("Add operation should be valid",
                 addResponse.getStatus(), Response.Status.CREATED.getStatusCode());
     }
@@ -117,7 +275,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Adding user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response addResponse = bookmarkHandler.addBookmark(bookmark, authString);
+        Response addResponse = resume(asyncResponse ->
+                bookmarkHandler.addBookmark(bookmark, authString, asyncResponse));
         assertEquals("Add operation should be invalid",
                 addResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -134,7 +293,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Adding user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response addResponse = bookmarkHandler.addBookmark(bookmark, authString);
+        Response addResponse = resume(asyncResponse ->
+                bookmarkHandler.addBookmark(bookmark, authString, asyncResponse));
         assertEquals("Add operation should be invalid",
                 addResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -151,7 +311,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Adding user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response addResponse = bookmarkHandler.addBookmark(bookmark, authString);
+        Response addResponse = resume(asyncResponse ->
+                bookmarkHandler.addBookmark(bookmark, authString, asyncResponse));
         assertEquals("Add operation should be invalid",
                 addResponse.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode());
     }
@@ -168,7 +329,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Adding user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response addResponse = bookmarkHandler.addBookmark(bookmark, authString);
+        Response addResponse = resume(asyncResponse ->
+                bookmarkHandler.addBookmark(bookmark, authString, asyncResponse));
         assertEquals("Add operation should be invalid",
                 addResponse.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
     }
@@ -183,7 +345,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Update user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response updateResponse = bookmarkHandler.updateBookmark(bookmark, bookmarkName, authString);
+        Response updateResponse = resume(asyncResponse ->
+                bookmarkHandler.updateBookmark(bookmark, bookmarkName, authString, asyncResponse));
         assertEquals("Update operation should be valid",
                 updateResponse.getStatus(), Response.Status.OK.getStatusCode());
     }
@@ -198,7 +361,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Update user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response updateResponse = bookmarkHandler.updateBookmark(bookmark, bookmarkName, authString);
+        Response updateResponse = resume(asyncResponse ->
+                bookmarkHandler.updateBookmark(bookmark, bookmarkName, authString, asyncResponse));
         assertEquals("Update operation should be invalid",
                 updateResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -213,7 +377,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Update user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response updateResponse = bookmarkHandler.updateBookmark(bookmark, bookmarkName, authString);
+        Response updateResponse = resume(asyncResponse ->
+                bookmarkHandler.updateBookmark(bookmark, bookmarkName, authString, asyncResponse));
         assertEquals("Update operation should be invalid, user is not authorized",
                 updateResponse.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode());
     }
@@ -228,7 +393,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Update user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response updateResponse = bookmarkHandler.updateBookmark(bookmark, bookmarkName, authString);
+        Response updateResponse = resume(asyncResponse ->
+                bookmarkHandler.updateBookmark(bookmark, bookmarkName, authString, asyncResponse));
         assertEquals("Update operation should be invalid",
                 updateResponse.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
     }
@@ -242,7 +408,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Delete user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response deleteResponse = bookmarkHandler.deleteBookmark(bookmarkName, authString);
+        Response deleteResponse = resume(asyncResponse ->
+                bookmarkHandler.deleteBookmark(bookmarkName, authString, asyncResponse));
         assertEquals("Delete operation should be valid",
                 deleteResponse.getStatus(), Response.Status.OK.getStatusCode());
     }
@@ -256,7 +423,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Delete user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response deleteResponse = bookmarkHandler.deleteBookmark(bookmarkName, authString);
+        Response deleteResponse = resume(asyncResponse ->
+                bookmarkHandler.deleteBookmark(bookmarkName, authString, asyncResponse));
         assertEquals("Delete operation should be invalid",
                 deleteResponse.getStatus(), Response.Status.NOT_FOUND.getStatusCode());
     }
@@ -270,7 +438,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Delete user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response deleteResponse = bookmarkHandler.deleteBookmark(bookmarkName, authString);
+        Response deleteResponse = resume(asyncResponse ->
+                bookmarkHandler.deleteBookmark(bookmarkName, authString, asyncResponse));
         assertEquals("Delete operation should be invalid, user is not authorized",
                 deleteResponse.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode());
     }
@@ -284,7 +453,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Delete user bookmark");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response deleteResponse = bookmarkHandler.deleteBookmark(bookmarkName, authString);
+        Response deleteResponse = resume(asyncResponse ->
+                bookmarkHandler.deleteBookmark(bookmarkName, authString, asyncResponse));
         assertEquals("Delete operation should be invalid",
                 deleteResponse.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
     }
@@ -299,7 +469,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Get public bookmarks");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response getPublicResponse = bookmarkHandler.getPublicBookmarks(authString);
+        Response getPublicResponse = resume(asyncResponse ->
+                bookmarkHandler.getPublicBookmarks(authString, null, null, null, null, asyncResponse));
         assertEquals("Get public bookmarks operation should be valid",
                 getPublicResponse.getStatus(), Response.Status.OK.getStatusCode());
     }
@@ -314,7 +485,8 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Get public bookmarks");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response getPublicResponse = bookmarkHandler.getPublicBookmarks(authString);
+        Response getPublicResponse = resume(asyncResponse ->
+                bookmarkHandler.getPublicBookmarks(authString, null, null, null, null, asyncResponse));
         assertEquals("Get public bookmarks operation should be invalid, user not authorized",
                 getPublicResponse.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode());
     }
@@ -329,9 +501,218 @@ public class BookmarkHandlerTest {
 
         printTestInfo("Get public bookmarks");
         BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
-        Response getPublicResponse = bookmarkHandler.getPublicBookmarks(authString);
+        Response getPublicResponse = resume(asyncResponse ->
+                bookmarkHandler.getPublicBookmarks(authString, null, null, null, null, asyncResponse));
         assertEquals("Get public bookmarks operation should be invalid",
                 getPublicResponse.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
     }
 
+    @Test
+    public void testGetPublicBookmarksNotModified() {
+        String authString = "authString";
+
+        printTestInfo("Getting public bookmarks with the current entity tag");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response getPublicResponse = resume(asyncResponse ->
+                bookmarkHandler.getPublicBookmarks(authString, null, null, "\"2\"", null, asyncResponse));
+        assertEquals("Get operation should not return the public bookmarks",
+                getPublicResponse.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode());
+        assertEquals("Entity tag does not match", getPublicResponse.getEntityTag(), new EntityTag("2"));
+        assertEquals("Not modified response should vary on the encoding",
+                getPublicResponse.getHeaderString(HttpHeaders.VARY), HttpHeaders.ACCEPT_ENCODING);
+        verify(bookmarkManager, never()).getPublicBookmarks(any());
+    }
+
+    @Test
+    public void testGetPublicBookmarkPage() {
+        String authString = "authString";
+        BookmarkPage<BookmarkLink> page = new BookmarkPage<>(new ArrayList<>(), null);
+        Map.Entry<BookmarkStatus, BookmarkPage<BookmarkLink>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, page);
+
+        when(bookmarkManager.getPublicBookmarks(authString, null, 10)).thenReturn(entry);
+
+        printTestInfo("Getting public bookmark page");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response getPublicResponse = resume(asyncResponse ->
+                bookmarkHandler.getPublicBookmarks(authString, 10, null, null, null, asyncResponse));
+        assertEquals("Get operation should be valid",
+                getPublicResponse.getStatus(), Response.Status.OK.getStatusCode());
+        assertNull("Last page should not have a next cursor",
+                getPublicResponse.getHeaderString(BookmarkHandler.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void testGetPublicBookmarksCompressed() throws IOException {
+        String authString = "authString";
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName("example");
+        bookmarkLink.setUri(URI.create("http://example.org"));
+        Map.Entry<BookmarkStatus, Set<BookmarkLink>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, Set.of(bookmarkLink));
+
+        when(bookmarkManager.getPublicBookmarks(authString)).thenReturn(entry);
+
+        printTestInfo("Getting public bookmarks with and without compression");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response compressedResponse = resume(asyncResponse ->
+                bookmarkHandler.getPublicBookmarks(authString, null, null, null, "gzip, br", asyncResponse));
+        Response plainResponse = resume(asyncResponse ->
+                bookmarkHandler.getPublicBookmarks(authString, null, null, null, "gzip;q=0", asyncResponse));
+        assertEquals("Response should be compressed",
+                compressedResponse.getHeaderString(HttpHeaders.CONTENT_ENCODING), "gzip");
+        assertEquals("Compressed response tag does not match",
+                compressedResponse.getEntityTag(), new EntityTag("2--gzip"));
+        assertNull("Response should not be compressed", plainResponse.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Response tag does not match", plainResponse.getEntityTag(), new EntityTag("2"));
+
+        byte[] json;
+        try (GZIPInputStream input = new GZIPInputStream(
+                new ByteArrayInputStream((byte[]) compressedResponse.getEntity()))) {
+            json = input.readAllBytes();
+        }
+        assertArrayEquals("Compressed bookmarks do not match", json, (byte[]) plainResponse.getEntity());
+        List<BookmarkLink> links = new ObjectMapper().readValue(json, new TypeReference<List<BookmarkLink>>() { });
+        assertEquals("Public bookmarks do not match", links, List.of(bookmarkLink));
+        verify(bookmarkManager, times(1)).getPublicBookmarks(authString);
+    }
+
+    @Test
+    public void testAcceptsGzip() {
+        assertTrue("Gzip should be accepted", BookmarkHandler.acceptsGzip("br, GZIP;q=0.5"));
+        assertTrue("Any coding should accept gzip", BookmarkHandler.acceptsGzip("*"));
+        assertTrue("Explicit gzip should take priority", BookmarkHandler.acceptsGzip("*;q=0, gzip"));
+        assertFalse("Refused gzip should take priority", BookmarkHandler.acceptsGzip("gzip; q=0.000, *"));
+        assertFalse("Gzip should not be accepted", BookmarkHandler.acceptsGzip("br, identity"));
+        assertFalse("Invalid quality should not be accepted", BookmarkHandler.acceptsGzip("gzip;q=high"));
+        assertFalse("Missing header should not be accepted", BookmarkHandler.acceptsGzip(null));
+    }
+
+    @Test
+    public void testGetPublicBookmarksNotModifiedCompressed() {
+        String authString = "authString";
+
+        printTestInfo("Getting public bookmarks with the entity tag of the compressed bookmarks");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response getPublicResponse = resume(asyncResponse ->
+                bookmarkHandler.getPublicBookmarks(authString, null, null, "\"2--gzip\"", "gzip", asyncResponse));
+        assertEquals("Get operation should not return the public bookmarks",
+                getPublicResponse.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode());
+        assertEquals("Entity tag should be the tag of the compressed bookmarks",
+                getPublicResponse.getEntityTag(), new EntityTag("2--gzip"));
+        assertEquals("Not modified response should vary on the encoding",
+                getPublicResponse.getHeaderString(HttpHeaders.VARY), HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    public void testAddBookmarks() {
+        String authString = "authString";
+        List<Bookmark> bookmarks = List.of(createBookmark("first"), createBookmark("second"));
+        Map.Entry<BookmarkStatus, List<BookmarkStatus>> entry = new AbstractMap.SimpleEntry<>(BookmarkStatus.OK,
+                List.of(BookmarkStatus.CREATED, BookmarkStatus.BOOKMARK_EXISTS));
+
+        when(bookmarkManager.addBookmarks(bookmarks, authString)).thenReturn(entry);
+
+        printTestInfo("Adding user bookmark batch");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response addResponse = resume(asyncResponse ->
+                bookmarkHandler.addBookmarks(bookmarks, authString, asyncResponse));
+        assertEquals("Batch operation should be valid",
+                addResponse.getStatus(), Response.Status.OK.getStatusCode());
+        @SuppressWarnings("unchecked")
+        List<BookmarkBatchResult> results = (List<BookmarkBatchResult>) addResponse.getEntity();
+        assertEquals("Batch result count does not match", results.size(), 2);
+        assertEquals("Batch result name does not match", results.get(1).getName(), "second");
+        assertEquals("Batch result index does not match", results.get(1).getIndex(), Integer.valueOf(1));
+        assertEquals("Batch result status does not match",
+                results.get(1).getStatus(), BookmarkBatchStatus.BOOKMARK_EXISTS);
+    }
+
+    @Test
+    public void testAddBookmarkStream() {
+        String authString = "authString";
+        String input = "{\"bookmarkLink\":{\"uri\":\"http://one.com\",\"name\":\"first\"}}\n"
+                + "{\"bookmarkLink\":{\"uri\":\"http://two.com\",\"name\":\"second\"},\"access\":\"PRIVATE\"}\n";
+        Map.Entry<BookmarkStatus, List<BookmarkStatus>> entry = new AbstractMap.SimpleEntry<>(BookmarkStatus.OK,
+                List.of(BookmarkStatus.CREATED, BookmarkStatus.CREATED));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Bookmark>> bookmarks = ArgumentCaptor.forClass(List.class);
+
+        when(bookmarkManager.addBookmarks(bookmarks.capture(), eq(authString))).thenReturn(entry);
+
+        printTestInfo("Adding user bookmark batch as newline delimited JSON");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response addResponse = resume(asyncResponse -> bookmarkHandler.addBookmarkStream(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), authString, asyncResponse));
+        assertEquals("Batch operation should be valid",
+                addResponse.getStatus(), Response.Status.OK.getStatusCode());
+        assertEquals("Read bookmark count does not match", bookmarks.getValue().size(), 2);
+        assertEquals("Read bookmark location does not match",
+                bookmarks.getValue().get(0).getBookmarkLink().getUri(), URI.create("http://one.com"));
+        assertEquals("Read bookmark access does not match",
+                bookmarks.getValue().get(1).getAccess(), BookmarkAccess.PRIVATE);
+    }
+
+    @Test
+    public void testAddBookmarkStreamInvalidData() {
+        String authString = "authString";
+        Map.Entry<BookmarkStatus, List<BookmarkStatus>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.INVALID_DATA, null);
+
+        when(bookmarkManager.addBookmarks(null, authString)).thenReturn(entry);
+
+        printTestInfo("Adding malformed user bookmark batch");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response addResponse = resume(asyncResponse -> bookmarkHandler.addBookmarkStream(
+                new ByteArrayInputStream("{\"bookmarkLink\":".getBytes(StandardCharsets.UTF_8)), authString, asyncResponse));
+        assertEquals("Batch operation should be invalid",
+                addResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
+    @Test
+    public void testExportBookmarks() throws IOException {
+        String authString = "authString";
+        Collection<org.example.app.bookmark.bookmark.Bookmark> bookmarkList = new ArrayList<>();
+        bookmarkList.add(new org.example.app.bookmark.bookmark.Bookmark(createBookmark("first")));
+        bookmarkList.add(new org.example.app.bookmark.bookmark.Bookmark(createBookmark("second")));
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.OK, bookmarkList);
+
+        when(bookmarkManager.getBookmarkView(authString)).thenReturn(entry);
+
+        printTestInfo("Exporting user bookmarks");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response exportResponse = resume(asyncResponse -> bookmarkHandler.exportBookmarks(authString, asyncResponse));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingOutput) exportResponse.getEntity()).write(outputStream);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("Every bookmark should be on its own line", lines.length, 2);
+        assertEquals("Exported bookmark should match the api model",
+                new ObjectMapper().readValue(lines[1], Bookmark.class), createBookmark("second"));
+    }
+
+    @Test
+    public void testExportBookmarksUnauthorized() {
+        String authString = "authString";
+        Map.Entry<BookmarkStatus, Collection<org.example.app.bookmark.bookmark.Bookmark>> entry =
+                new AbstractMap.SimpleEntry<>(BookmarkStatus.UNAUTHORIZED, null);
+
+        when(bookmarkManager.getBookmarkView(authString)).thenReturn(entry);
+
+        printTestInfo("Exporting user bookmarks");
+        BookmarkHandler bookmarkHandler = new BookmarkHandler(bookmarkManager);
+        Response exportResponse = resume(asyncResponse -> bookmarkHandler.exportBookmarks(authString, asyncResponse));
+        assertEquals("Export operation should be invalid, user not authorized",
+                exportResponse.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode());
+    }
+
+    private static Bookmark createBookmark(final String name) {
+        BookmarkLink bookmarkLink = new BookmarkLink();
+        bookmarkLink.setName(name);
+        bookmarkLink.setUri(URI.create("http://example.org/" + name));
+        Bookmark bookmark = new Bookmark();
+        bookmark.setBookmarkLink(bookmarkLink);
+        bookmark.setAccess(BookmarkAccess.PUBLIC);
+        return bookmark;
+    }
 }
@@ -0,0 +1,181 @@
+package org.example.app.bookmark.rest;
+
+import org.example.app.bookmark.exceptions.BadParametersException;
+import org.example.app.bookmark.httpserver.VirtualThreadPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
+import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
+import static org.example.app.bookmark.testutils.TestUtils.printTestInfo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestExecutorTest {
+
+    @Rule
+    public TestName testName = new TestName();
+
+    private CountDownLatch release;
+
+    private RequestExecutor requestExecutor;
+
+    @Before
+    public void setUp() {
+        printTestHeader(testName.getMethodName());
+        release = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (requestExecutor != null) {
+            requestExecutor.close();
+        }
+        printTestFooter();
+    }
+
+    @Test
+    public void testSubmit() {
+        requestExecutor = new RequestExecutor(2, 4, 5000);
+
+        Response response = requestExecutor.submit(() -> Response.ok().build()).toCompletableFuture().join();
+        assertEquals("Request should be answered", response.getStatus(), Response.Status.OK.getStatusCode());
+    }
+
+    @Test
+    public void testTimeoutCancelled() {
+        requestExecutor = new RequestExecutor(2, 4, 5000);
+
+        for (int i = 0; i < 10; i++) {
+            requestExecutor.submit(() -> Response.ok().build()).toCompletableFuture().join();
+        }
+        // Timeouts are cancelled after the responses are completed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requestExecutor.getPendingTimeouts() > 0 && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertEquals("Timeouts of answered requests should be cancelled", requestExecutor.getPendingTimeouts(), 0);
+    }
+
+    @Test
+    public void testRejectWhenQueueFull() {
+        requestExecutor = new RequestExecutor(1, 1, 5000);
+        requestExecutor.submit(this::blockedResponse);
+        requestExecutor.submit(this::blockedResponse);
+
+        printTestInfo("Submitting a request while the thread and the queue are in use");
+        Response response = requestExecutor.submit(() -> Response.ok().build()).toCompletableFuture().join();
+        assertEquals("Request should be rejected", response.getStatus(),
+                Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+        assertEquals("Client should be told when to retry", response.getHeaderString(HttpHeaders.RETRY_AFTER), "1");
+        assertEquals("Rejected request count does not match", requestExecutor.getRejectedRequests(), 1L);
+    }
+
+    @Test
+    public void testTimeout() {
+        requestExecutor = new RequestExecutor(1, 1, 50);
+        CompletableFuture<Response> blocked = requestExecutor.submit(this::blockedResponse).toCompletableFuture();
+        AtomicBoolean queuedRan = new AtomicBoolean();
+        CompletableFuture<Response> queued = requestExecutor.submit(() -> {
+            queuedRan.set(true);
+            return Response.ok().build();
+        }).toCompletableFuture();
+
+        assertEquals("Running request should time out", blocked.join().getStatus(),
+                Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+        assertEquals("Queued request should time out", queued.join().getStatus(),
+                Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+        release.countDown();
+        requestExecutor.close();
+        assertFalse("Timed out request should not run", queuedRan.get());
+        assertEquals("Timed out request count does not match", awaitTimedOutRequests(2), 2L);
+    }
+
+    @Test
+    public void testModificationTimeout() {
+        requestExecutor = new RequestExecutor(1, 1, 50);
+        CompletableFuture<Response> running =
+                requestExecutor.submitModification(this::blockedResponse).toCompletableFuture();
+        AtomicBoolean queuedRan = new AtomicBoolean();
+        CompletableFuture<Response> queued = requestExecutor.submitModification(() -> {
+            queuedRan.set(true);
+            return Response.ok().build();
+        }).toCompletableFuture();
+
+        assertEquals("Queued modification should time out", queued.join().getStatus(),
+                Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+        assertFalse("Running modification should not time out", running.isDone());
+
+        printTestInfo("Finishing the running modification after its timeout");
+        release.countDown();
+        assertEquals("Running modification should be answered", running.join().getStatus(),
+                Response.Status.OK.getStatusCode());
+        requestExecutor.close();
+        assertFalse("Timed out modification should not run", queuedRan.get());
+        assertEquals("Timed out request count does not match", awaitTimedOutRequests(1), 1L);
+    }
+
+    @Test
+    public void testVirtualThreads() {
+        if (VirtualThreadPool.isAvailable()) {
+            requestExecutor = new RequestExecutor(5000);
+            Response response = requestExecutor.submit(() -> Response.ok().build()).toCompletableFuture().join();
+            assertEquals("Request should be answered", response.getStatus(), Response.Status.OK.getStatusCode());
+            assertEquals("Requests should not be queued", requestExecutor.getQueueSize(), 0L);
+        } else {
+            try {
+                requestExecutor = new RequestExecutor(5000);
+                fail("Virtual threads should not be available");
+            } catch (BadParametersException exception) {
+                assertEquals("Message does not match", exception.getMessage(), VirtualThreadPool.NOT_AVAILABLE);
+            }
+        }
+    }
+
+    @Test
+    public void testException() {
+        requestExecutor = new RequestExecutor(1, 1, 5000);
+
+        try {
+            requestExecutor.submit(() -> {
+                throw new IllegalStateException("failed");
+            }).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            assertTrue("Exception of the request should be kept", e.getCause() instanceof IllegalStateException);
+            return;
+        }
+        throw new AssertionError("Request should have failed");
+    }
+
+    private long awaitTimedOutRequests(final long expected) {
+        // Timed out requests are counted after their responses are completed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requestExecutor.getTimedOutRequests() < expected && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        return requestExecutor.getTimedOutRequests();
+    }
+
+    private Response blockedResponse() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Response.ok().build();
+    }
+}
@@ -16,6 +16,7 @@ import java.util.AbstractMap;
 import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
 import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
 import static org.example.app.bookmark.testutils.TestUtils.printTestInfo;
+import static org.example.app.bookmark.testutils.TestUtils.resume;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -46,7 +47,7 @@ public class UserHandlerTest {
 
         printTestInfo("Registering valid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response registerResponse = userHandler.registerUser(registeredUser);
+        Response registerResponse = resume(asyncResponse -> userHandler.registerUser(registeredUser, asyncResponse));
         assertEquals("User registration should be valid",
                 registerResponse.getStatus(), Response.Status.CREATED.getStatusCode());
     }
@@ -59,7 +60,7 @@ public class UserHandlerTest {
 
         printTestInfo("Registering invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response registerResponse = userHandler.registerUser(registeredUser);
+        Response registerResponse = resume(asyncResponse -> userHandler.registerUser(registeredUser, asyncResponse));
         assertEquals("User registration should fail since username is taken",
                 registerResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -72,7 +73,7 @@ public class UserHandlerTest {
 
         printTestInfo("Registering invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response registerResponse = userHandler.registerUser(registeredUser);
+        Response registerResponse = resume(asyncResponse -> userHandler.registerUser(registeredUser, asyncResponse));
         assertEquals("User registration should fail since user data is invalid",
                 registerResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -85,7 +86,7 @@ public class UserHandlerTest {
 
         printTestInfo("Registering invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response registerResponse = userHandler.registerUser(registeredUser);
+        Response registerResponse = resume(asyncResponse -> userHandler.registerUser(registeredUser, asyncResponse));
         assertEquals("User registration should fail since user password is too long",
                 registerResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -98,7 +99,7 @@ public class UserHandlerTest {
 
         printTestInfo("Registering invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response registerResponse = userHandler.registerUser(registeredUser);
+        Response registerResponse = resume(asyncResponse -> userHandler.registerUser(registeredUser, asyncResponse));
         assertEquals("User registration should fail since operation status is unknown",
                 registerResponse.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
     }
@@ -113,7 +114,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-in valid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response loginResponse = userHandler.loginUser(loginUser);
+        Response loginResponse = resume(asyncResponse -> userHandler.loginUser(loginUser, asyncResponse));
         assertEquals("User login should be valid",
                 loginResponse.getStatus(), Response.Status.OK.getStatusCode());
     }
@@ -128,7 +129,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-in invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response loginResponse = userHandler.loginUser(loginUser);
+        Response loginResponse = resume(asyncResponse -> userHandler.loginUser(loginUser, asyncResponse));
         assertEquals("User login should fail",
                 loginResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -143,7 +144,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-in invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response loginResponse = userHandler.loginUser(loginUser);
+        Response loginResponse = resume(asyncResponse -> userHandler.loginUser(loginUser, asyncResponse));
         assertEquals("User login should fail",
                 loginResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -158,7 +159,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-in invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response loginResponse = userHandler.loginUser(loginUser);
+        Response loginResponse = resume(asyncResponse -> userHandler.loginUser(loginUser, asyncResponse));
         assertEquals("User login should fail",
                 loginResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -173,7 +174,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-in invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response loginResponse = userHandler.loginUser(loginUser);
+        Response loginResponse = resume(asyncResponse -> userHandler.loginUser(loginUser, asyncResponse));
         assertEquals("User login should fail",
                 loginResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -188,7 +189,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-in invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response loginResponse = userHandler.loginUser(loginUser);
+        Response loginResponse = resume(asyncResponse -> userHandler.loginUser(loginUser, asyncResponse));
         assertEquals("User login should fail",
                 loginResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -203,7 +204,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-in invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response loginResponse = userHandler.loginUser(loginUser);
+        Response loginResponse = resume(asyncResponse -> userHandler.loginUser(loginUser, asyncResponse));
         assertEquals("User login should fail",
                 loginResponse.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
     }
@@ -217,7 +218,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-out valid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response logoutResponse = userHandler.logoutUser(userName, authToken);
+        Response logoutResponse = resume(asyncResponse -> userHandler.logoutUser(userName, authToken, asyncResponse));
         assertEquals("User logout should be valid",
                 logoutResponse.getStatus(), Response.Status.OK.getStatusCode());
     }
@@ -231,7 +232,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-out invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response logoutResponse = userHandler.logoutUser(userName, authToken);
+        Response logoutResponse = resume(asyncResponse -> userHandler.logoutUser(userName, authToken, asyncResponse));
         assertEquals("User logout should be invalid",
                 logoutResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -245,7 +246,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-out invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response logoutResponse = userHandler.logoutUser(userName, authToken);
+        Response logoutResponse = resume(asyncResponse -> userHandler.logoutUser(userName, authToken, asyncResponse));
         assertEquals("User logout should be invalid",
                 logoutResponse.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
@@ -259,7 +260,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-out invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response logoutResponse = userHandler.logoutUser(userName, authToken);
+        Response logoutResponse = resume(asyncResponse -> userHandler.logoutUser(userName, authToken, asyncResponse));
         assertEquals("User logout should be invalid",
                 logoutResponse.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode());
     }
@@ -273,7 +274,7 @@ public class UserHandlerTest {
 
         printTestInfo("Logging-out invalid user");
         UserHandler userHandler = new UserHandler(userManager);
-        Response logoutResponse = userHandler.logoutUser(userName, authToken);
+        Response logoutResponse = resume(asyncResponse -> userHandler.logoutUser(userName, authToken, asyncResponse));
         assertEquals("User logout should be invalid",
                 logoutResponse.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
     }
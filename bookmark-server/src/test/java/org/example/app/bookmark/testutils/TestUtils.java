@@ -1,7 +1,22 @@
 package org.example.app.bookmark.testutils;
 
+import org.mockito.ArgumentCaptor;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import java.util.function.Consumer;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
 public class TestUtils {
 
+    /**
+     * Time to wait for an asynchronous response (in ms).
+     */
+    private static final long RESUME_TIMEOUT = 5000;
+
     /**
      * Delimiter string.
      */
@@ -34,4 +49,18 @@ public class TestUtils {
     public static void printTestInfo(String info) {
         System.out.println("TEST INFO: " + info);
     }
+
+    /**
+     * Calls an asynchronous resource method and waits until it resumes the request.
+     *
+     * @param resourceMethod to call with the suspended response.
+     * @return response the request was resumed with.
+     */
+    public static Response resume(Consumer<AsyncResponse> resourceMethod) {
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        resourceMethod.accept(asyncResponse);
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(asyncResponse, timeout(RESUME_TIMEOUT)).resume(response.capture());
+        return response.getValue();
+    }
 }
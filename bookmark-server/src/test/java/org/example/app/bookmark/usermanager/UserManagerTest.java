@@ -2,6 +2,10 @@ package org.example.app.bookmark.usermanager;
 
 import org.example.app.bookmark.javajws.IJavaJws;
 import org.example.app.bookmark.javajws.JwsStatus;
+import org.example.app.bookmark.persistence.IJournal;
+import org.example.app.bookmark.persistence.ISnapshotWriter;
+import org.example.app.bookmark.persistence.LogRecord;
+import org.example.app.bookmark.persistence.SnapshotSection;
 import org.example.app.bookmark.user.User;
 import org.example.app.bookmark_api.model.UserData;
 import org.junit.After;
@@ -12,14 +16,25 @@ import org.junit.rules.TestName;
 
 import java.lang.reflect.Field;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.example.app.bookmark.testutils.TestUtils.printTestFooter;
 import static org.example.app.bookmark.testutils.TestUtils.printTestHeader;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class UserManagerTest {
@@ -36,12 +51,15 @@ public class UserManagerTest {
             //Required for testing singleton
             //Has to be up to date with constructor
             switch (field.getName()) {
-                case "userList":
+                case "users":
                     field.set(userManager, null);
                     break;
                 case "javaJws":
                     field.set(userManager, null);
                     break;
+                case "journal":
+                    field.set(userManager, null);
+                    break;
                 case "instance":
                     field.set(null, null);
                     break;
@@ -127,6 +145,32 @@ public class UserManagerTest {
         assertEquals("User registration should fail!", registerStatus, UserStatus.USERNAME_EXISTS);
     }
 
+    @Test
+    public void testRegisterUserConcurrent() throws InterruptedException {
+        int threadCount = 8;
+        UserData user = new UserData();
+        user.setName("name");
+        user.setPassword("password");
+
+        this.userManager = this.getUserManagerInstance();
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        List<Future<UserStatus>> results = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            results.add(executorService.submit(() -> this.userManager.registerUser(user)));
+        }
+        executorService.shutdown();
+        assertTrue("Executor should terminate!", executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+        long registered = results.stream().filter(result -> {
+            try {
+                return result.get() == UserStatus.REGISTERED;
+            } catch (InterruptedException | ExecutionException e) {
+                return false;
+            }
+        }).count();
+        assertEquals("User should be registered exactly once!", registered, 1);
+    }
+
     @Test
     public void testRegisterUserPasswordTooLong() {
         UserData user = new UserData();
@@ -333,4 +377,49 @@ public class UserManagerTest {
         assertEquals("User logout should not succeed!", logoutStatus, UserStatus.INVALID_DATA);
     }
 
+    @Test
+    public void testJournal() {
+        IJournal journal = mock(IJournal.class);
+        when(journal.append(any(LogRecord.class))).thenReturn(7L);
+
+        this.userManager = UserManager.getInstance(this.javaJws, journal);
+        UserData userData = new UserData();
+        userData.setName("user");
+        userData.setPassword("password");
+        assertEquals("User should be registered", this.userManager.registerUser(userData), UserStatus.REGISTERED);
+        assertEquals("User should exist", this.userManager.registerUser(userData), UserStatus.USERNAME_EXISTS);
+
+        verify(journal, times(1)).append(any(LogRecord.class));
+        verify(journal).awaitDurable(7L);
+    }
+
+    @Test
+    public void testApplyAndExport() {
+        UserData userData = new UserData();
+        userData.setName("user");
+        userData.setPassword("password");
+
+        this.userManager = this.getUserManagerInstance();
+        this.userManager.apply(LogRecord.userRegistered(new User(userData)));
+        this.userManager.apply(LogRecord.userRegistered(new User(userData)));
+        this.userManager.apply(LogRecord.bookmarkDeleted("other", "bookmark"));
+        assertEquals("User count does not match", this.userManager.getUserCount(), 1);
+        assertEquals("Recovered user should exist", this.userManager.registerUser(userData),
+                UserStatus.USERNAME_EXISTS);
+
+        List<LogRecord> records = new ArrayList<>();
+        this.userManager.export(new ISnapshotWriter() {
+            @Override
+            public void write(final LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void copy(final SnapshotSection section) {
+                section.forEach(records::add);
+            }
+        });
+        assertEquals("Exported record count does not match", records.size(), 1);
+        assertTrue("Exported user should accept the password", records.get(0).getUser().checkPassword("password"));
+    }
 }